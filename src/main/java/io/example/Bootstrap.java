@@ -0,0 +1,103 @@
+package io.example;
+
+import akka.javasdk.DependencyProvider;
+import akka.javasdk.ServiceSetup;
+import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
+import io.example.api.AdmissionControl;
+import io.example.api.HomeRegions;
+import io.example.application.ParticipantSlotBackfillAction;
+import io.example.application.ParticipantSlotStorage;
+import io.example.application.ProjectionMetrics;
+import io.example.application.SlotReconciliationAction;
+import io.example.application.SlotRetentionAction;
+import io.example.application.SlotWarmUpAction;
+import io.example.application.TombstoneCleanupAction;
+import io.example.domain.EventFormat;
+import java.time.Duration;
+
+// Service-wide setup: provides the shared, per-node services that components
+// get injected, and schedules the background jobs that keep themselves
+// running afterwards by rescheduling their own timers.
+@Setup
+public class Bootstrap implements ServiceSetup {
+
+  private final ComponentClient componentClient;
+  private final TimerScheduler timerScheduler;
+  private final Config config;
+
+  public Bootstrap(ComponentClient componentClient, TimerScheduler timerScheduler, Config config) {
+    this.componentClient = componentClient;
+    this.timerScheduler = timerScheduler;
+    this.config = config;
+    // before any component runs, so that every booking event of this node is
+    // written in the same format
+    EventFormat.setCompact(config.getBoolean("flight.events.compact"));
+  }
+
+  @Override
+  public DependencyProvider createDependencyProvider() {
+    AdmissionControl admissionControl = new AdmissionControl(config);
+    HomeRegions homeRegions = new HomeRegions(config);
+    ProjectionMetrics projectionMetrics = new ProjectionMetrics();
+    ParticipantSlotStorage participantSlotStorage =
+        new ParticipantSlotStorage(componentClient, config);
+    return new DependencyProvider() {
+      @Override
+      public <T> T getDependency(Class<T> clazz) {
+        if (clazz == AdmissionControl.class) {
+          return clazz.cast(admissionControl);
+        }
+        if (clazz == HomeRegions.class) {
+          return clazz.cast(homeRegions);
+        }
+        if (clazz == ProjectionMetrics.class) {
+          return clazz.cast(projectionMetrics);
+        }
+        if (clazz == ParticipantSlotStorage.class) {
+          return clazz.cast(participantSlotStorage);
+        }
+        throw new IllegalArgumentException("No dependency of type " + clazz.getName());
+      }
+    };
+  }
+
+  @Override
+  public void onStartup() {
+    if (config.getBoolean("flight.retention.enabled")) {
+      timerScheduler.createSingleTimer(
+          SlotRetentionAction.JOB_NAME,
+          Duration.ofMinutes(1),
+          componentClient.forTimedAction().method(SlotRetentionAction::runBatch).deferred());
+    }
+    if (config.getBoolean("flight.reconciliation.enabled")) {
+      timerScheduler.createSingleTimer(
+          SlotReconciliationAction.JOB_NAME,
+          Duration.ofMinutes(1),
+          componentClient.forTimedAction().method(SlotReconciliationAction::runBatch).deferred());
+    }
+    if (config.getBoolean("flight.delta-sync.tombstone-cleanup.enabled")) {
+      timerScheduler.createSingleTimer(
+          TombstoneCleanupAction.JOB_NAME,
+          Duration.ofMinutes(1),
+          componentClient.forTimedAction().method(TombstoneCleanupAction::runBatch).deferred());
+    }
+    if (config.getString("flight.participant-slots.storage").equals("key-value")) {
+      timerScheduler.createSingleTimer(
+          ParticipantSlotBackfillAction.JOB_NAME,
+          config.getDuration("flight.participant-slots.backfill.start-delay"),
+          componentClient
+              .forTimedAction()
+              .method(ParticipantSlotBackfillAction::runBatch)
+              .deferred());
+    }
+    if (config.getBoolean("flight.warm-up.enabled")) {
+      timerScheduler.createSingleTimer(
+          SlotWarmUpAction.JOB_NAME,
+          SlotWarmUpAction.untilNextRun(config),
+          componentClient.forTimedAction().method(SlotWarmUpAction::warmUp).deferred());
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package io.example.api;
+
+import akka.http.javadsl.model.StatusCodes;
+import akka.javasdk.http.HttpException;
+import com.typesafe.config.Config;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Per-node admission control for the write routes. Every request is checked
+// against a token bucket (rate limit) and an in-flight counter (concurrency
+// limit) for the slot it targets and for the participant making it. When any
+// of them is exhausted the request is rejected right away with a 429 instead
+// of being queued behind a hot BookingSlotEntity.
+//
+// Endpoints are created per request, so one instance of this class is shared
+// by all of them through the service's dependency provider.
+public class AdmissionControl {
+
+  private final boolean enabled;
+  private final Limits slotLimits;
+  private final Limits participantLimits;
+  private final long idleTimeoutNanos;
+  private final LongSupplier nanoClock;
+
+  private final Map<String, KeyState> slots = new ConcurrentHashMap<>();
+  private final Map<String, KeyState> participants = new ConcurrentHashMap<>();
+  private final AtomicLong lastSweep = new AtomicLong();
+
+  private final AtomicLong admitted = new AtomicLong();
+  private final AtomicLong shedSlotRate = new AtomicLong();
+  private final AtomicLong shedSlotConcurrency = new AtomicLong();
+  private final AtomicLong shedParticipantRate = new AtomicLong();
+  private final AtomicLong shedParticipantConcurrency = new AtomicLong();
+
+  public AdmissionControl(Config config) {
+    this(config.getConfig("flight.admission"), System::nanoTime);
+  }
+
+  AdmissionControl(Config admission, LongSupplier nanoClock) {
+    this.enabled = admission.getBoolean("enabled");
+    this.slotLimits = Limits.of(admission.getConfig("slot"));
+    this.participantLimits = Limits.of(admission.getConfig("participant"));
+    this.idleTimeoutNanos = admission.getDuration("idle-timeout").toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  // Admits a request for the given slot and participant, or throws a 429.
+  // The returned permit must be closed once the request has completed.
+  public Permit admit(String slotId, String participantId) {
+    if (!enabled) return Permit.NONE;
+
+    long now = nanoClock.getAsLong();
+    sweepIdle(now);
+
+    // concurrency is checked first so that requests shed for it don't use up
+    // rate tokens
+    KeyState slot = enter(slots, slotId, slotLimits, now);
+    if (slot == null) {
+      shedSlotConcurrency.incrementAndGet();
+      throw tooManyRequests("slot");
+    }
+    KeyState participant = enter(participants, participantId, participantLimits, now);
+    if (participant == null) {
+      slot.exit();
+      shedParticipantConcurrency.incrementAndGet();
+      throw tooManyRequests("participant");
+    }
+    if (!slot.bucket.tryTake(now)) {
+      participant.exit();
+      slot.exit();
+      shedSlotRate.incrementAndGet();
+      throw tooManyRequests("slot");
+    }
+    if (!participant.bucket.tryTake(now)) {
+      participant.exit();
+      slot.exit();
+      shedParticipantRate.incrementAndGet();
+      throw tooManyRequests("participant");
+    }
+
+    admitted.incrementAndGet();
+    return () -> {
+      participant.exit();
+      slot.exit();
+    };
+  }
+
+  public Stats stats() {
+    return new Stats(
+        admitted.get(),
+        shedSlotRate.get(),
+        shedSlotConcurrency.get(),
+        shedParticipantRate.get(),
+        shedParticipantConcurrency.get(),
+        slots.size(),
+        participants.size());
+  }
+
+  private static HttpException tooManyRequests(String limit) {
+    return HttpException.error(
+        StatusCodes.TOO_MANY_REQUESTS, "Too many requests for this " + limit);
+  }
+
+  // Enters the key's state, or returns null when the key is at its
+  // concurrency limit. A state the sweep has retired can't be entered, so a
+  // request that raced with the sweep tries again with a fresh state, and
+  // there is never more than one live state per key.
+  private static KeyState enter(Map<String, KeyState> states, String key, Limits limits, long now) {
+    while (true) {
+      KeyState state = states.computeIfAbsent(key, id -> new KeyState(limits, now));
+      switch (state.tryEnter()) {
+        case ENTERED -> {
+          return state;
+        }
+        case FULL -> {
+          return null;
+        }
+        case RETIRED -> states.remove(key, state);
+      }
+    }
+  }
+
+  // Forgets the limits of keys that have been idle for a while, at most once
+  // per idle timeout, so the maps don't grow with every slot ever touched. A
+  // state is retired before it's removed, which fails if a request has
+  // entered it in the meantime.
+  private void sweepIdle(long now) {
+    long previous = lastSweep.get();
+    if (now - previous < idleTimeoutNanos || !lastSweep.compareAndSet(previous, now)) return;
+    sweep(slots, now);
+    sweep(participants, now);
+  }
+
+  private void sweep(Map<String, KeyState> states, long now) {
+    states.forEach(
+        (key, state) -> {
+          if (state.retireIfIdle(now, idleTimeoutNanos)) states.remove(key, state);
+        });
+  }
+
+  public interface Permit extends AutoCloseable {
+    Permit NONE = () -> {};
+
+    @Override
+    void close();
+  }
+
+  public record Stats(
+      long admitted,
+      long shedSlotRate,
+      long shedSlotConcurrency,
+      long shedParticipantRate,
+      long shedParticipantConcurrency,
+      int trackedSlots,
+      int trackedParticipants) {}
+
+  record Limits(double ratePerSecond, int burst, int maxConcurrent) {
+    static Limits of(Config config) {
+      return new Limits(
+          config.getDouble("rate"), config.getInt("burst"), config.getInt("max-concurrent"));
+    }
+  }
+
+  private enum Entry {
+    ENTERED,
+    FULL,
+    RETIRED
+  }
+
+  private static final class KeyState {
+    final TokenBucket bucket;
+    // the number of requests in flight, or -1 once the state has been retired
+    final AtomicInteger inFlight = new AtomicInteger();
+    final int maxConcurrent;
+
+    KeyState(Limits limits, long now) {
+      this.bucket = new TokenBucket(limits.ratePerSecond(), limits.burst(), now);
+      this.maxConcurrent = limits.maxConcurrent();
+    }
+
+    Entry tryEnter() {
+      int current;
+      do {
+        current = inFlight.get();
+        if (current < 0) return Entry.RETIRED;
+        if (current >= maxConcurrent) return Entry.FULL;
+      } while (!inFlight.compareAndSet(current, current + 1));
+      return Entry.ENTERED;
+    }
+
+    void exit() {
+      inFlight.decrementAndGet();
+    }
+
+    boolean retireIfIdle(long now, long idleTimeoutNanos) {
+      return now - bucket.lastRefill() > idleTimeoutNanos && inFlight.compareAndSet(0, -1);
+    }
+  }
+
+  private static final class TokenBucket {
+    private final double tokensPerNano;
+    private final int capacity;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSecond, int capacity, long now) {
+      this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+      this.capacity = capacity;
+      this.tokens = capacity;
+      this.lastRefill = now;
+    }
+
+    synchronized boolean tryTake(long now) {
+      tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+      lastRefill = now;
+      if (tokens < 1) return false;
+      tokens -= 1;
+      return true;
+    }
+
+    synchronized long lastRefill() {
+      return lastRefill;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package io.example.api;
+
+import akka.Done;
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Delete;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.annotations.http.Post;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpException;
+import akka.stream.javadsl.Source;
+import com.typesafe.config.Config;
+import io.example.domain.AvailabilityTemplate;
+import io.example.domain.Participant;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Lets a participant publish (or withdraw) availability as a recurring
+// pattern instead of one request per slot. The template is expanded on the
+// server and applied to each slot with bounded concurrency. The
+// response is a stream of newline-delimited progress lines; because the
+// stream is only pulled as fast as the client reads it, a slow client
+// naturally slows down the rate at which slot commands are issued.
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
+@HttpEndpoint("/flight")
+public class AvailabilityTemplateEndpoint extends AbstractHttpEndpoint {
+  private final Logger log = LoggerFactory.getLogger(AvailabilityTemplateEndpoint.class);
+
+  private final SlotWrites slotWrites;
+  private final int maxSlots;
+  private final int parallelism;
+  private final int progressEvery;
+
+  public AvailabilityTemplateEndpoint(ComponentClient componentClient, Config config) {
+    this.slotWrites = SlotWrites.unadmitted(componentClient, config);
+    Config templates = config.getConfig("flight.availability-templates");
+    this.maxSlots = templates.getInt("max-slots");
+    this.parallelism = templates.getInt("parallelism");
+    this.progressEvery = templates.getInt("progress-every");
+  }
+
+  // Marks the participant available in every slot the template expands to
+  @Post("/availability-templates")
+  public HttpResponse markAvailable(TemplateRequest request) {
+    Participant participant = participant(request);
+    log.info("Applying availability template for {}: {}", participant, request);
+
+    return apply(template(request), slotId -> slotWrites.markAvailableAsync(slotId, participant));
+  }
+
+  // Withdraws the participant's availability from every slot the template
+  // expands to
+  @Delete("/availability-templates")
+  public HttpResponse unmarkAvailable(TemplateRequest request) {
+    Participant participant = participant(request);
+    log.info("Withdrawing availability template for {}: {}", participant, request);
+
+    return apply(template(request), slotId -> slotWrites.unmarkAvailableAsync(slotId, participant));
+  }
+
+  private HttpResponse apply(
+      AvailabilityTemplate template, Function<String, CompletionStage<Done>> command) {
+    long total = template.slotCount();
+    if (total > maxSlots) {
+      throw HttpException.badRequest(
+          "template expands to " + total + " slots, the limit is " + maxSlots);
+    }
+    if (total == 0) {
+      return NdJson.stream(Source.single(TemplateProgress.start(0)));
+    }
+
+    Source<TemplateProgress, ?> progress =
+        Source.fromJavaStream(template::slotIds)
+            .mapAsync(
+                parallelism,
+                slotId ->
+                    command
+                        .apply(slotId)
+                        .handle(
+                            (done, error) -> {
+                              if (error == null) return new SlotOutcome(slotId, true);
+                              log.warn("Template command failed for slot {}", slotId, error);
+                              return new SlotOutcome(slotId, false);
+                            }))
+            .grouped(progressEvery)
+            .scan(TemplateProgress.start(total), TemplateProgress::advance);
+
+    return NdJson.stream(progress.drop(1));
+  }
+
+  private static Participant participant(TemplateRequest request) {
+    if (request.participantId() == null || request.participantId().isBlank()) {
+      throw HttpException.badRequest("participantId is required");
+    }
+    return new Participant(
+        request.participantId(), FlightEndpoint.parseParticipantType(request.participantType()));
+  }
+
+  private static AvailabilityTemplate template(TemplateRequest request) {
+    try {
+      return new AvailabilityTemplate(
+          request.from(),
+          request.until(),
+          request.daysOfWeek(),
+          request.fromHour(),
+          request.toHour());
+    } catch (IllegalArgumentException ex) {
+      throw HttpException.badRequest(ex.getMessage());
+    }
+  }
+
+  private record SlotOutcome(String slotId, boolean applied) {}
+
+  // Public API representation of a recurring availability template. Hours are
+  // local hours of the day; `toHour` is exclusive, so 8 to 12 covers the
+  // slots starting at 08, 09, 10 and 11.
+  public record TemplateRequest(
+      String participantId,
+      String participantType,
+      LocalDate from,
+      LocalDate until,
+      Set<DayOfWeek> daysOfWeek,
+      int fromHour,
+      int toHour) {}
+
+  // One line of the progress stream. `failedSlotIds` only lists the failures
+  // of the batch reported on this line; `complete` is set on the last line.
+  public record TemplateProgress(
+      long total, long applied, long failed, List<String> failedSlotIds, boolean complete) {
+
+    static TemplateProgress start(long total) {
+      return new TemplateProgress(total, 0, 0, List.of(), total == 0);
+    }
+
+    TemplateProgress advance(List<SlotOutcome> batch) {
+      List<String> failures =
+          batch.stream().filter(outcome -> !outcome.applied()).map(SlotOutcome::slotId).toList();
+      long nowApplied = applied + batch.size() - failures.size();
+      long nowFailed = failed + failures.size();
+      return new TemplateProgress(
+          total, nowApplied, nowFailed, failures, nowApplied + nowFailed >= total);
+    }
+  }
+}
@@ -0,0 +1,259 @@
+package io.example.api;
+
+import akka.Done;
+import akka.http.javadsl.model.HttpEntity;
+import akka.http.javadsl.model.HttpResponse;
+import akka.japi.Pair;
+import akka.javasdk.JsonSupport;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.annotations.http.Post;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpException;
+import akka.stream.javadsl.Framing;
+import akka.stream.javadsl.FramingTruncation;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.typesafe.config.Config;
+import io.example.application.AvailabilityHeatmapView;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.application.DayHeatmapEntity.HourCounts;
+import io.example.application.ParticipantSlotStorage;
+import io.example.application.ParticipantSlotsView;
+import io.example.application.ParticipantSlotsView.SlotRangeInput;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.SlotIds;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Bulk routes for migrations and backups. Imports take newline-delimited
+// BulkRecord lines and apply them to the slots (see SlotWrites) with bounded
+// parallelism, streaming back one error line per rejected record followed by
+// a summary line. Exports stream the state of every slot in a slot-ID range
+// in the same format, so an export can be re-imported as is.
+//
+// Records are read, applied and reported one line at a time. Note that the
+// SDK hands the request body to the endpoint as a strict entity, so the raw
+// upload itself is bounded by the server's request size limit.
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
+@HttpEndpoint("/flight")
+public class BulkEndpoint extends AbstractHttpEndpoint {
+  private final Logger log = LoggerFactory.getLogger(BulkEndpoint.class);
+
+  private final ComponentClient componentClient;
+  private final ParticipantSlotStorage participantSlots;
+  private final SlotWrites slotWrites;
+  private final int parallelism;
+  private final int maxLineLength;
+
+  public BulkEndpoint(
+      ComponentClient componentClient, ParticipantSlotStorage participantSlots, Config config) {
+    this.componentClient = componentClient;
+    this.participantSlots = participantSlots;
+    this.slotWrites = SlotWrites.unadmitted(componentClient, config);
+    Config bulk = config.getConfig("flight.bulk");
+    this.parallelism = bulk.getInt("parallelism");
+    this.maxLineLength = bulk.getInt("max-line-length");
+  }
+
+  // Imports availability lines. Booking lines in the same upload are skipped
+  // so a full export can be posted here first and to the bookings route next.
+  @Post("/bulk/availability")
+  public HttpResponse importAvailability(HttpEntity.Strict body) {
+    log.info("Importing availability ({} bytes)", body.getContentLengthOption().orElse(-1));
+    return importLines(body, BulkRecord.Availability.class, this::importAvailability);
+  }
+
+  // Imports booking lines. A booking is recorded as it is, in a single write,
+  // without first marking its participants available, so a line that fails
+  // leaves nothing behind. A booking the slot already has is left as it is.
+  @Post("/bulk/bookings")
+  public HttpResponse importBookings(HttpEntity.Strict body) {
+    log.info("Importing bookings ({} bytes)", body.getContentLengthOption().orElse(-1));
+    return importLines(body, BulkRecord.Booking.class, this::importBooking);
+  }
+
+  // Exports the state of every slot in the inclusive slot-ID range given by the
+  // `from` and `to` query parameters
+  @Get("/bulk/slots")
+  public HttpResponse exportSlots() {
+    var params = requestContext().queryParams();
+    String from = params.getString("from").orElseThrow(() -> HttpException.badRequest("from"));
+    String to = params.getString("to").orElseThrow(() -> HttpException.badRequest("to"));
+    log.info("Exporting slots {} to {}", from, to);
+
+    // A slot is found through either of the views: the participant slots have
+    // rows for the participants of a slot, partitioned ones included, the
+    // heatmap for every dated slot with bookings or availability on its
+    // BookingSlotEntity, even while the participant projection lags behind
+    Source<String, ?> slotIds =
+        participantSlots
+            .streamSlotsInRange(new SlotRangeInput(from, to))
+            .map(ParticipantSlotsView.SlotRow::slotId)
+            .mergeSorted(heatmapSlotIds(from, to), Comparator.naturalOrder());
+
+    Source<BulkRecord, ?> records =
+        slotIds
+            // IDs arrive ordered by slot, so each slot only needs to be read
+            // when its ID differs from the previous one
+            .statefulMap(
+                () -> "",
+                (previous, slotId) -> Pair.create(slotId, previous.equals(slotId) ? "" : slotId),
+                previous -> Optional.empty())
+            .filter(slotId -> !slotId.isEmpty())
+            .mapAsync(
+                parallelism,
+                slotId ->
+                    slotWrites
+                        .readAsync(slotId)
+                        .thenApply(timeslot -> BulkRecord.fromTimeslot(slotId, timeslot)))
+            .mapConcat(list -> list);
+
+    return NdJson.stream(records);
+  }
+
+  // The heatmap is kept by day, so it can only be searched when both ends of
+  // the range are dated slot IDs
+  private Source<String, ?> heatmapSlotIds(String from, String to) {
+    Optional<LocalDateTime> fromStart = SlotIds.parse(from);
+    Optional<LocalDateTime> toStart = SlotIds.parse(to);
+    if (fromStart.isEmpty() || toStart.isEmpty()) {
+      return Source.empty();
+    }
+    return componentClient.forView().stream(AvailabilityHeatmapView::streamDays)
+        .source(
+            new AvailabilityHeatmapView.DayRangeInput(
+                fromStart.get().toLocalDate().toString(), toStart.get().toLocalDate().toString()))
+        .mapConcat(day -> day.hours().stream().map(HourCounts::slotId).toList())
+        .filter(slotId -> slotId.compareTo(from) >= 0 && slotId.compareTo(to) <= 0);
+  }
+
+  private CompletionStage<Done> importAvailability(BulkRecord.Availability record) {
+    var participant =
+        new Participant(
+            record.participantId(),
+            ParticipantType.valueOf(record.participantType().trim().toUpperCase()));
+    return slotWrites.markAvailableAsync(record.slotId(), participant);
+  }
+
+  private CompletionStage<Done> importBooking(BulkRecord.Booking record) {
+    return slotWrites.recordBookingAsync(
+        record.slotId(),
+        new BookReservation(
+            record.studentId(), record.aircraftId(), record.instructorId(), record.bookingId()));
+  }
+
+  private <T extends BulkRecord> HttpResponse importLines(
+      HttpEntity.Strict body, Class<T> accepted, Function<T, CompletionStage<Done>> apply) {
+    Source<ImportReport, ?> report =
+        Source.single(body.getData())
+            // the body is already in memory, so framing needs no bound of its own;
+            // a line that is too long is reported like any other rejected line
+            // instead of failing the whole import
+            .via(
+                Framing.delimiter(
+                    ByteString.fromString("\n"),
+                    body.getData().size() + 1,
+                    FramingTruncation.ALLOW))
+            .zipWithIndex()
+            .mapAsync(
+                parallelism,
+                numbered -> {
+                  long line = numbered.second() + 1;
+                  if (numbered.first().size() > maxLineLength) {
+                    return CompletableFuture.completedFuture(
+                        LineResult.failed(line, "line longer than " + maxLineLength + " bytes"));
+                  }
+                  return importLine(line, numbered.first().utf8String().trim(), accepted, apply);
+                })
+            .statefulMap(
+                () -> new ImportSummary(0, 0, 0, 0),
+                (summary, result) -> Pair.create(summary.add(result), result),
+                summary -> Optional.of((ImportReport) summary))
+            .filter(line -> !(line instanceof LineResult result) || result.error() != null)
+            .map(line -> line instanceof LineResult result ? result.asError() : line);
+
+    return NdJson.stream(report);
+  }
+
+  private <T extends BulkRecord> CompletionStage<ImportReport> importLine(
+      long line, String json, Class<T> accepted, Function<T, CompletionStage<Done>> apply) {
+    if (json.isEmpty()) {
+      return CompletableFuture.completedFuture(LineResult.skipped(line));
+    }
+
+    BulkRecord record;
+    try {
+      record = JsonSupport.getObjectMapper().readValue(json, BulkRecord.class);
+    } catch (IOException ex) {
+      return CompletableFuture.completedFuture(LineResult.failed(line, "malformed record"));
+    }
+    if (!accepted.isInstance(record)) {
+      return CompletableFuture.completedFuture(LineResult.skipped(line));
+    }
+
+    try {
+      return apply
+          .apply(accepted.cast(record))
+          .handle(
+              (done, error) ->
+                  error == null ? LineResult.applied(line) : LineResult.failed(line, error));
+    } catch (RuntimeException ex) {
+      return CompletableFuture.completedFuture(LineResult.failed(line, ex));
+    }
+  }
+
+  // The lines of an import report: one LineError per rejected record and a
+  // final ImportSummary.
+  public sealed interface ImportReport {}
+
+  public record LineError(long line, String error) implements ImportReport {}
+
+  public record ImportSummary(long lines, long applied, long skipped, long failed)
+      implements ImportReport {
+
+    ImportSummary add(ImportReport report) {
+      if (!(report instanceof LineResult result)) return this;
+      return new ImportSummary(
+          lines + 1,
+          applied + (result.applied() ? 1 : 0),
+          skipped + (!result.applied() && result.error() == null ? 1 : 0),
+          failed + (result.error() != null ? 1 : 0));
+    }
+  }
+
+  private record LineResult(long line, boolean applied, String error) implements ImportReport {
+
+    static LineResult applied(long line) {
+      return new LineResult(line, true, null);
+    }
+
+    static LineResult skipped(long line) {
+      return new LineResult(line, false, null);
+    }
+
+    static LineResult failed(long line, String error) {
+      return new LineResult(line, false, error);
+    }
+
+    static LineResult failed(long line, Throwable error) {
+      Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+      return failed(line, String.valueOf(cause.getMessage()));
+    }
+
+    LineError asError() {
+      return new LineError(line, error);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package io.example.api;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.List;
+
+// One line of the bulk NDJSON format, shared by import and export. Every
+// line carries a `type` of either "availability" or "booking", so an export
+// can be fed straight back into the import routes.
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+  @JsonSubTypes.Type(value = BulkRecord.Availability.class, name = "availability"),
+  @JsonSubTypes.Type(value = BulkRecord.Booking.class, name = "booking")
+})
+public sealed interface BulkRecord {
+
+  String slotId();
+
+  record Availability(String slotId, String participantId, String participantType)
+      implements BulkRecord {}
+
+  record Booking(
+      String slotId, String bookingId, String studentId, String aircraftId, String instructorId)
+      implements BulkRecord {}
+
+  // Flattens a slot's state into bulk records: one line per available
+  // participant and one line per booking (not per booked participant)
+  static List<BulkRecord> fromTimeslot(String slotId, Timeslot timeslot) {
+    List<BulkRecord> records = new ArrayList<>();
+    for (Participant participant : timeslot.available()) {
+      records.add(new Availability(slotId, participant.id(), participant.participantType().name()));
+    }
+
+    timeslot
+        .participantsByBooking()
+        .forEach(
+            (bookingId, participants) ->
+                records.add(
+                    new Booking(
+                        slotId,
+                        bookingId,
+                        participants.get(ParticipantType.STUDENT),
+                        participants.get(ParticipantType.AIRCRAFT),
+                        participants.get(ParticipantType.INSTRUCTOR))));
+    return records;
+  }
+}
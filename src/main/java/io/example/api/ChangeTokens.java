@@ -0,0 +1,51 @@
+package io.example.api;
+
+import akka.javasdk.http.HttpException;
+import java.time.Duration;
+import java.util.Optional;
+
+// Change tokens of the participant slot delta-sync (see
+// FlightEndpoint.slotChanges). A token is the endpoint's clock when a delta
+// was read, in epoch millis, and the next delta holds the rows whose change
+// time is after the token minus the overlap.
+//
+// The rows' change times come from the clocks of the nodes that applied the
+// changes, and a participant's rows come from as many entities as it has
+// slots, so there's no sequence number that orders them all; the overlap
+// covers the clock differences instead. A token is only honored if it's no
+// older than the tombstones are kept, and no further ahead of this node's
+// clock than the overlap covers: a token from the future would hide the
+// changes made until this node's clock catches up with it. Other tokens get
+// a full resync.
+final class ChangeTokens {
+
+  private final long maxAgeMillis;
+  private final long overlapMillis;
+
+  ChangeTokens(Duration maxAge, Duration overlap) {
+    this.maxAgeMillis = maxAge.toMillis();
+    this.overlapMillis = overlap.toMillis();
+  }
+
+  // The change time that the delta's rows must be after, or empty for a full
+  // resync
+  Optional<Long> changedAfter(Optional<String> token, long now) {
+    return token
+        .map(ChangeTokens::parse)
+        .filter(since -> now - since <= maxAgeMillis)
+        .filter(since -> since - now <= overlapMillis)
+        .map(since -> since - overlapMillis);
+  }
+
+  static String of(long now) {
+    return String.valueOf(now);
+  }
+
+  private static long parse(String token) {
+    try {
+      return Long.parseLong(token);
+    } catch (NumberFormatException ex) {
+      throw HttpException.badRequest("invalid change token");
+    }
+  }
+}
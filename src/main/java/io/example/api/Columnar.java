@@ -0,0 +1,84 @@
+package io.example.api;
+
+import io.example.application.ParticipantSlotsView.SlotList;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Column-oriented shapes of the larger responses, sent for the compact
+// representations. Values that are the same for every row are sent once,
+// and the remaining fields are sent as parallel arrays instead of as one
+// object per row, so field names aren't repeated.
+final class Columnar {
+
+  private Columnar() {}
+
+  // A participant's slots with one status. The participant and the status
+  // are the same for every row; `bookingIds` is left out when no row has
+  // one, i.e. for available slots.
+  public record Slots(
+      String participantId,
+      String participantType,
+      String status,
+      List<String> slotIds,
+      List<String> bookingIds) {}
+
+  // A slot's available participants by type, and its bookings as columns
+  public record Slot(Map<ParticipantType, List<String>> available, Bookings bookings) {}
+
+  public record Bookings(
+      List<String> bookingIds,
+      List<String> studentIds,
+      List<String> aircraftIds,
+      List<String> instructorIds) {}
+
+  static Slots of(SlotList list) {
+    List<SlotRow> rows = list.slots();
+    if (rows.isEmpty()) return new Slots(null, null, null, List.of(), null);
+
+    SlotRow first = rows.getFirst();
+    List<String> slotIds = new ArrayList<>(rows.size());
+    List<String> bookingIds = new ArrayList<>(rows.size());
+    boolean anyBooking = false;
+    for (SlotRow row : rows) {
+      slotIds.add(row.slotId());
+      bookingIds.add(row.bookingId());
+      anyBooking |= row.bookingId() != null && !row.bookingId().isEmpty();
+    }
+    return new Slots(
+        first.participantId(),
+        first.participantType(),
+        first.status(),
+        slotIds,
+        anyBooking ? bookingIds : null);
+  }
+
+  static Slot of(Timeslot timeslot) {
+    Map<ParticipantType, List<String>> available = new EnumMap<>(ParticipantType.class);
+    for (Participant participant : timeslot.available()) {
+      available
+          .computeIfAbsent(participant.participantType(), type -> new ArrayList<>())
+          .add(participant.id());
+    }
+    available.values().forEach(ids -> ids.sort(null));
+
+    var byBooking = timeslot.participantsByBooking();
+    List<String> bookingIds = new ArrayList<>(byBooking.size());
+    List<String> studentIds = new ArrayList<>(byBooking.size());
+    List<String> aircraftIds = new ArrayList<>(byBooking.size());
+    List<String> instructorIds = new ArrayList<>(byBooking.size());
+    byBooking.forEach(
+        (bookingId, participants) -> {
+          bookingIds.add(bookingId);
+          studentIds.add(participants.get(ParticipantType.STUDENT));
+          aircraftIds.add(participants.get(ParticipantType.AIRCRAFT));
+          instructorIds.add(participants.get(ParticipantType.INSTRUCTOR));
+        });
+    return new Slot(available, new Bookings(bookingIds, studentIds, aircraftIds, instructorIds));
+  }
+}
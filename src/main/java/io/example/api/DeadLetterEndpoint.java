@@ -0,0 +1,152 @@
+package io.example.api;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.annotations.http.Post;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpException;
+import akka.javasdk.http.HttpResponses;
+import com.typesafe.config.Config;
+import io.example.application.BookingSlotEntity;
+import io.example.application.DeadLetterEntity;
+import io.example.application.DeadLetterEntity.DeadLetter;
+import io.example.application.DeadLettersView;
+import io.example.application.DeadLettersView.DeadLetterList;
+import io.example.application.ParticipantSlotStorage;
+import io.example.application.ParticipantUpdate;
+import io.example.application.ProjectionMetrics;
+import io.example.application.ReconciliationReportEntity;
+import io.example.application.SlotPartitionEntity;
+import io.example.application.SlotPartitioning;
+import io.example.application.SlotReconciliationAction;
+import io.example.domain.Timeslot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Operator routes for the participant projection: its delivery counters, the
+// drift found by the reconciliation job, and the updates it gave up on,
+// which can be inspected and replayed one by one once whatever made them
+// fail has been fixed. Replaying writes slots, so like the gRPC endpoint
+// these routes only accept calls from other services, such as the operators'
+// tooling, and not from the internet.
+@Acl(allow = @Acl.Matcher(service = "*"))
+@HttpEndpoint("/flight")
+public class DeadLetterEndpoint extends AbstractHttpEndpoint {
+  private final Logger log = LoggerFactory.getLogger(DeadLetterEndpoint.class);
+
+  private final ComponentClient componentClient;
+  private final ParticipantSlotStorage storage;
+  private final ProjectionMetrics metrics;
+  private final SlotPartitioning partitioning;
+
+  public DeadLetterEndpoint(
+      ComponentClient componentClient,
+      ParticipantSlotStorage storage,
+      ProjectionMetrics metrics,
+      Config config) {
+    this.componentClient = componentClient;
+    this.storage = storage;
+    this.metrics = metrics;
+    this.partitioning = new SlotPartitioning(config);
+  }
+
+  @Get("/projection/stats")
+  public ProjectionMetrics.Stats stats() {
+    return metrics.stats();
+  }
+
+  @Get("/projection/reconciliation")
+  public ReconciliationReportEntity.Report reconciliation() {
+    return componentClient
+        .forKeyValueEntity(SlotReconciliationAction.JOB_NAME)
+        .method(ReconciliationReportEntity::getReport)
+        .invoke();
+  }
+
+  // Lists dead letters with the given `status` query parameter (open or
+  // replayed), open ones by default
+  @Get("/dead-letters")
+  public DeadLetterList list() {
+    DeadLetterEntity.Status status =
+        requestContext()
+            .queryParams()
+            .getString("status")
+            .map(DeadLetterEndpoint::parseStatus)
+            .orElse(DeadLetterEntity.Status.OPEN);
+    return componentClient
+        .forView()
+        .method(DeadLettersView::getDeadLetters)
+        .invoke(new DeadLettersView.StatusInput(status));
+  }
+
+  @Get("/dead-letters/{id}")
+  public DeadLetter get(String id) {
+    return componentClient.forKeyValueEntity(id).method(DeadLetterEntity::get).invoke();
+  }
+
+  // Applies the dead-lettered update again. If it fails again the error is
+  // returned and the dead letter stays open. An update whose source has had
+  // later events since is only replayed if the slot still shows its outcome,
+  // as it could otherwise undo a later change of its participant slot; the
+  // reconciliation job repairs those instead.
+  @Post("/dead-letters/{id}/replay")
+  public HttpResponse replay(String id) {
+    var entity = componentClient.forKeyValueEntity(id);
+    DeadLetter deadLetter = entity.method(DeadLetterEntity::get).invoke();
+    if (deadLetter.status() != DeadLetterEntity.Status.OPEN) {
+      throw HttpException.badRequest("dead letter has already been replayed");
+    }
+
+    if (!isReplayable(deadLetter)) {
+      throw HttpException.error(
+          StatusCodes.CONFLICT, "the slot has changed since, replaying could undo a later change");
+    }
+
+    log.info("Replaying dead letter {}: {}", id, deadLetter.update());
+    storage.apply(deadLetter.update()).toCompletableFuture().join();
+    entity.method(DeadLetterEntity::markReplayed).invoke();
+    metrics.replayed();
+    return HttpResponses.ok();
+  }
+
+  private boolean isReplayable(DeadLetter deadLetter) {
+    ParticipantUpdate update = deadLetter.update();
+    if (update.action() == ParticipantUpdate.Action.REMOVE) return true;
+
+    if (deadLetter.sourceSequence() > 0 && deadLetter.sourceId() != null) {
+      // updates come from the slot itself or from one of its partitions
+      long version =
+          deadLetter.sourceId().equals(update.slotId())
+              ? componentClient
+                  .forEventSourcedEntity(update.slotId())
+                  .method(BookingSlotEntity::getVersion)
+                  .invoke()
+              : componentClient
+                  .forEventSourcedEntity(deadLetter.sourceId())
+                  .method(SlotPartitionEntity::getVersion)
+                  .invoke();
+      if (version == deadLetter.sourceSequence()) return true;
+    }
+
+    Timeslot slot =
+        partitioning.isPartitioned(update.slotId())
+            ? partitioning.read(componentClient, update.slotId())
+            : componentClient
+                .forEventSourcedEntity(update.slotId())
+                .method(BookingSlotEntity::getSlot)
+                .invoke();
+    return update.isCurrent(slot);
+  }
+
+  private static DeadLetterEntity.Status parseStatus(String status) {
+    try {
+      return DeadLetterEntity.Status.valueOf(status.trim().toUpperCase());
+    } catch (IllegalArgumentException ex) {
+      throw HttpException.badRequest("invalid status");
+    }
+  }
+}
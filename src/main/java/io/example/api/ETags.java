@@ -0,0 +1,86 @@
+package io.example.api;
+
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
+import akka.http.javadsl.model.headers.RawHeader;
+import akka.javasdk.JsonSupport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+// Entity tags for conditional GETs. Reads of an entity are tagged with the
+// entity's event sequence number, which changes exactly when its state does;
+// reads of views are tagged with a hash of the response body instead, as a
+// weak tag, since view rows carry no version.
+final class ETags {
+
+  static final String IF_NONE_MATCH = "If-None-Match";
+
+  private ETags() {}
+
+  static String ofVersion(long version) {
+    return "\"v" + version + "\"";
+  }
+
+  static String ofContent(Object body) {
+    try {
+      byte[] json = JsonSupport.getObjectMapper().writeValueAsBytes(body);
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+      return "W/\"" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+    } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("Unable to tag response", ex);
+    }
+  }
+
+  // The version of one of our own version tags in If-None-Match, if any, so
+  // the entity can skip sending back a state the client already has. Only
+  // tags of the representation being served count: a client that has a
+  // version in another representation doesn't have it in this one.
+  static long knownVersion(Optional<HttpHeader> ifNoneMatch, Representation representation) {
+    return ifNoneMatch.stream()
+        .flatMap(header -> Arrays.stream(header.value().split(",")))
+        .map(String::trim)
+        .filter(tag -> tag.startsWith("\"v"))
+        .flatMapToLong(
+            tag -> {
+              String digits = tag.substring(2).split("[-\"]")[0];
+              if (digits.isEmpty()
+                  || digits.length() > 18
+                  || !digits.chars().allMatch(Character::isDigit)) {
+                return LongStream.empty();
+              }
+              long version = Long.parseLong(digits);
+              return representation.tag(ofVersion(version)).equals(tag)
+                  ? LongStream.of(version)
+                  : LongStream.empty();
+            })
+        .max()
+        .orElse(-1);
+  }
+
+  // If-None-Match uses weak comparison: W/ prefixes are ignored
+  static boolean matches(Optional<HttpHeader> ifNoneMatch, String etag) {
+    String opaque = stripWeak(etag);
+    return ifNoneMatch.stream()
+        .flatMap(header -> Arrays.stream(header.value().split(",")))
+        .map(String::trim)
+        .anyMatch(tag -> tag.equals("*") || stripWeak(tag).equals(opaque));
+  }
+
+  static HttpResponse notModified(String etag) {
+    return tagged(HttpResponse.create().withStatus(StatusCodes.NOT_MODIFIED), etag);
+  }
+
+  static HttpResponse tagged(HttpResponse response, String etag) {
+    return response.addHeader(RawHeader.create("ETag", etag));
+  }
+
+  private static String stripWeak(String tag) {
+    return tag.startsWith("W/") ? tag.substring(2) : tag;
+  }
+}
@@ -1,6 +1,9 @@
 package io.example.api;
 
 import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCode;
+import akka.http.javadsl.model.StatusCodes;
+import akka.http.javadsl.model.headers.RawHeader;
 import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Delete;
 import akka.javasdk.annotations.http.Get;
@@ -8,17 +11,44 @@ import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.annotations.http.Post;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpClient;
+import akka.javasdk.http.HttpClientProvider;
 import akka.javasdk.http.HttpException;
 import akka.javasdk.http.HttpResponses;
+import akka.javasdk.http.RequestBuilder;
+import akka.util.ByteString;
+import com.typesafe.config.Config;
+import io.example.application.AvailabilityHeatmapView;
+import io.example.application.BookingLotteryEntity;
 import io.example.application.BookingSlotEntity;
 import io.example.application.BookingSlotEntity.Command.BookReservation;
-import io.example.application.BookingSlotEntity.Command.MarkSlotAvailable;
-import io.example.application.BookingSlotEntity.Command.UnmarkSlotAvailable;
+import io.example.application.BookingSlotEntity.VersionedSlot;
+import io.example.application.DayHeatmapEntity.Counts;
+import io.example.application.DayManifestView;
+import io.example.application.DayManifestView.ManifestBooking;
+import io.example.application.HopTrace;
+import io.example.application.ParticipantSlotEntity.Status;
+import io.example.application.ParticipantSlotStorage;
 import io.example.application.ParticipantSlotsView;
 import io.example.application.ParticipantSlotsView.SlotList;
+import io.example.application.ProjectionMetrics;
+import io.example.application.SlotRosterView;
+import io.example.application.SlotRosterView.Roster;
 import io.example.domain.Participant;
 import io.example.domain.Participant.ParticipantType;
 import io.example.domain.Timeslot;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,115 +57,498 @@ import org.slf4j.LoggerFactory;
 public class FlightEndpoint extends AbstractHttpEndpoint {
   private final Logger log = LoggerFactory.getLogger(FlightEndpoint.class);
 
+  private static final int MAX_HEATMAP_DAYS = 62;
+
   private final ComponentClient componentClient;
+  private final ParticipantSlotStorage participantSlots;
+  private final AdmissionControl admissionControl;
+  private final Duration stalenessBound;
+  private final ProjectionMetrics projectionMetrics;
+  private final HopTrace.Tracer tracer;
+  private final ChangeTokens changeTokens;
+  private final HomeRegions homeRegions;
+  private final HttpClientProvider httpClientProvider;
+  private final Duration forwardTimeout;
+  private final SlotWrites slotWrites;
 
-  public FlightEndpoint(ComponentClient componentClient) {
+  public FlightEndpoint(
+      ComponentClient componentClient,
+      ParticipantSlotStorage participantSlots,
+      AdmissionControl admissionControl,
+      HomeRegions homeRegions,
+      HttpClientProvider httpClientProvider,
+      ProjectionMetrics projectionMetrics,
+      Config config) {
     this.componentClient = componentClient;
+    this.participantSlots = participantSlots;
+    this.admissionControl = admissionControl;
+    this.homeRegions = homeRegions;
+    this.httpClientProvider = httpClientProvider;
+    this.stalenessBound = config.getDuration("flight.reads.staleness-bound");
+    this.projectionMetrics = projectionMetrics;
+    this.forwardTimeout = config.getDuration("flight.regions.forward-timeout");
+    this.changeTokens =
+        new ChangeTokens(
+            config.getDuration("flight.delta-sync.max-token-age"),
+            config.getDuration("flight.delta-sync.overlap"));
+    this.slotWrites = new SlotWrites(componentClient, admissionControl, config);
+    this.tracer = new HopTrace.Tracer(config);
   }
 
   // Creates a new booking. All three identified participants will
   // be considered booked for the given timeslot, if they are all
-  // "available" at the time of booking.
+  // "available" at the time of booking. Slots configured for lottery
+  // booking are booked in batches instead, see enterLottery, and slots with
+  // partitioned availability through SlotPartitioning.
   @Post("/bookings/{slotId}")
   public HttpResponse createBooking(String slotId, BookingRequest request) {
-    log.info("Creating booking for slot {}: {}", slotId, request);
+    try (var hop = hop("createBooking", slotId).with("bookingId", request.bookingId)) {
+      var forwarded =
+          forwardToHome(
+              slotId, client -> client.POST("/flight/bookings/" + slotId).withRequestBody(request));
+      if (forwarded.isPresent()) return forwarded.get();
 
-    // Implementation here
-    BookReservation command =
-        new BookReservation(
-            request.studentId, request.aircraftId, request.instructorId, request.bookingId);
-    componentClient
-        .forEventSourcedEntity(slotId)
-        .method(BookingSlotEntity::bookSlot)
-        .invoke(command);
+      // Implementation here
+      BookReservation command =
+          new BookReservation(
+              request.studentId, request.aircraftId, request.instructorId, request.bookingId);
+      if (slotWrites.isLotterySlot(slotId)) {
+        return enterLottery(slotId, command);
+      }
+      if (Representation.isPreferred(requestContext())) {
+        return withSlot(StatusCodes.CREATED, slotWrites.bookAndGet(slotId, command));
+      }
+      slotWrites.book(slotId, command);
+
+      return HttpResponses.created();
+    }
+  }
 
-    return HttpResponses.created();
+  // Returns the outcome (pending, won or lost) of a booking request for a
+  // slot that is booked by lottery
+  @Get("/bookings/{slotId}/{bookingId}/outcome")
+  public BookingLotteryEntity.Outcome bookingOutcome(String slotId, String bookingId) {
+    return componentClient
+        .forKeyValueEntity(slotId)
+        .method(BookingLotteryEntity::getOutcome)
+        .invoke(bookingId);
   }
 
   // Cancels an existing booking. Note that both the slot
   // ID and the booking ID are required.
   @Delete("/bookings/{slotId}/{bookingId}")
   public HttpResponse cancelBooking(String slotId, String bookingId) {
-    log.info("Canceling booking id {}", bookingId);
+    try (var hop = hop("cancelBooking", slotId).with("bookingId", bookingId)) {
+      var forwarded =
+          forwardToHome(
+              slotId, client -> client.DELETE("/flight/bookings/" + slotId + "/" + bookingId));
+      if (forwarded.isPresent()) return forwarded.get();
 
-    // Add booking cancellation code
-    componentClient
-        .forEventSourcedEntity(slotId)
-        .method(BookingSlotEntity::cancelBooking)
-        .invoke(bookingId);
+      // Add booking cancellation code
+      if (Representation.isPreferred(requestContext())) {
+        return withSlot(StatusCodes.OK, slotWrites.cancelAndGet(slotId, bookingId));
+      }
+      slotWrites.cancel(slotId, bookingId);
 
-    return HttpResponses.ok();
+      return HttpResponses.ok();
+    }
   }
 
   // Retrieves all slots in which a given participant has the supplied status.
-  // Used to retrieve bookings and slots in which the participant is available
+  // Used to retrieve bookings and slots in which the participant is available.
+  // Always a local read.
   @Get("/slots/{participantId}/{status}")
-  public SlotList slotsByStatus(String participantId, String status) {
+  public HttpResponse slotsByStatus(String participantId, String status) {
+    ReadConsistency consistency = localOnly();
 
     // Add view query
-    return componentClient
+    SlotList slots =
+        participantSlots.getSlotsByParticipantAndStatus(
+            new ParticipantSlotsView.ParticipantStatusInput(participantId, status));
+    return label(consistency, conditional(ETags.ofContent(slots), slots, Columnar::of));
+  }
+
+  // Returns the participant's slots that were added, changed or removed since
+  // the change token given as the `since` query parameter, along with the
+  // token to pass next time. Without a token, or with one that can't be
+  // honored (too old to be sure that no removals were missed, or from the
+  // future, see ChangeTokens), all live slots are returned instead and
+  // `full` is set, telling the client to replace what it has.
+  //
+  // A delta overlaps the previous one by `flight.delta-sync.overlap` to
+  // cover clock differences between nodes; clients apply changes by slot ID,
+  // so seeing one twice is harmless. A change is missed only if the skew,
+  // plus the time the view takes to make a change visible, exceeds the
+  // overlap.
+  @Get("/slot-changes/{participantId}")
+  public SlotDelta slotChanges(String participantId) {
+    long now = Instant.now().toEpochMilli();
+    Optional<Long> changedAfter =
+        changeTokens.changedAfter(requestContext().queryParams().getString("since"), now);
+
+    if (changedAfter.isEmpty()) {
+      var all = participantSlots.getAllForResync(participantId);
+      return new SlotDelta(ChangeTokens.of(now), true, all.changes());
+    }
+    var changes =
+        participantSlots.getChangesSince(
+            new ParticipantSlotsView.ChangesInput(participantId, changedAfter.get()));
+    return new SlotDelta(ChangeTokens.of(now), false, changes.changes());
+  }
+
+  // Retrieves the participants of a slot from the roster view, optionally
+  // filtered by the `type` (student, instructor, aircraft) and `status`
+  // (available, booked) query parameters. Unlike the availability route this
+  // reads locally by default and never activates the slot's entity, unless
+  // asked for `consistency=strong`.
+  @Get("/roster/{slotId}")
+  public HttpResponse roster(String slotId) {
+    var params = requestContext().queryParams();
+    Optional<ParticipantType> type =
+        params.getString("type").map(FlightEndpoint::parseParticipantType);
+    Optional<Status> status = params.getString("status").map(FlightEndpoint::parseStatus);
+    ReadConsistency consistency =
+        withinBound(ReadConsistency.of(requestContext(), ReadConsistency.LOCAL));
+
+    Roster roster =
+        switch (consistency) {
+          case STRONG -> Roster.of(slotId, slotWrites.read(slotId)).filter(type, status);
+          case LOCAL -> localRoster(slotId, type, status);
+        };
+    return label(consistency, HttpResponses.ok(roster));
+  }
+
+  private Roster localRoster(
+      String slotId, Optional<ParticipantType> type, Optional<Status> status) {
+    if (type.isPresent() && status.isPresent()) {
+      return participantSlots.getRosterByTypeAndStatus(
+          new SlotRosterView.TypeAndStatusInput(slotId, type.get(), status.get()));
+    } else if (type.isPresent()) {
+      return participantSlots.getRosterByType(new SlotRosterView.TypeInput(slotId, type.get()));
+    } else if (status.isPresent()) {
+      return participantSlots.getRosterByStatus(
+          new SlotRosterView.StatusInput(slotId, status.get()));
+    }
+    return participantSlots.getRoster(slotId);
+  }
+
+  // Returns per-day and per-hour counts of available and booked participants
+  // by type for the days between the `from` and `to` query parameters (ISO
+  // dates, inclusive, at most two months apart). Always a local read.
+  @Get("/heatmap")
+  public HttpResponse heatmap() {
+    ReadConsistency consistency = localOnly();
+    var params = requestContext().queryParams();
+    LocalDate from = parseDay(params.getString("from"));
+    LocalDate to = parseDay(params.getString("to"));
+    if (to.isBefore(from) || from.plusDays(MAX_HEATMAP_DAYS).isBefore(to)) {
+      throw HttpException.badRequest("invalid heatmap range");
+    }
+
+    List<DayHeatmap> days =
+        componentClient
+            .forView()
+            .method(AvailabilityHeatmapView::getDays)
+            .invoke(new AvailabilityHeatmapView.DayRangeInput(from.toString(), to.toString()))
+            .days()
+            .stream()
+            .map(
+                day ->
+                    new DayHeatmap(
+                        day.day(),
+                        day.totals(),
+                        day.hours().stream()
+                            .map(hour -> new HourHeatmap(hour.hour(), hour.counts()))
+                            .toList()))
+            .toList();
+    return label(consistency, HttpResponses.ok(new Heatmap(days)));
+  }
+
+  // Returns the flight manifest of a day (an ISO date): every booking of the
+  // day's slots with its student, instructor and aircraft, by hour. Always a
+  // local read.
+  @Get("/manifest/{day}")
+  public HttpResponse manifest(String day) {
+    ReadConsistency consistency = localOnly();
+    LocalDate date = parseDay(Optional.of(day));
+
+    List<ManifestEntry> bookings = new ArrayList<>();
+    componentClient
         .forView()
-        .method(ParticipantSlotsView::getSlotsByParticipantAndStatus)
-        .invoke(new ParticipantSlotsView.ParticipantStatusInput(participantId, status));
+        .method(DayManifestView::getDay)
+        .invoke(date.toString())
+        .slots()
+        .forEach(
+            slot ->
+                slot.bookings().stream()
+                    .sorted(Comparator.comparing(ManifestBooking::bookingId))
+                    .forEach(
+                        booking ->
+                            bookings.add(
+                                new ManifestEntry(
+                                    slot.slotId(),
+                                    slot.hour(),
+                                    booking.bookingId(),
+                                    booking.studentId(),
+                                    booking.instructorId(),
+                                    booking.aircraftId()))));
+    return label(consistency, HttpResponses.ok(new Manifest(date.toString(), bookings)));
   }
 
-  // Returns the internal availability state for a given slot
+  // Returns the internal availability state for a given slot. This is the
+  // read clients use right before booking, so it is strongly consistent
+  // unless `consistency=local` is asked for, in which case it's rebuilt
+  // from this region's roster view.
+  //
+  // Strong reads are tagged with the slot's version and answered with 304
+  // when the client's If-None-Match already has it; the entity then doesn't
+  // send the state back either. The slot is sent in the representation the
+  // client's Accept header asks for (see Representation).
   @Get("/availability/{slotId}")
-  public Timeslot getSlot(String slotId) {
+  public HttpResponse getSlot(String slotId) {
+    ReadConsistency consistency =
+        withinBound(ReadConsistency.of(requestContext(), ReadConsistency.STRONG));
 
-    // Add entity state request
-    return componentClient
-        .forEventSourcedEntity(slotId)
-        .method(BookingSlotEntity::getSlot)
-        .invoke();
+    HttpResponse response =
+        switch (consistency) {
+          case STRONG -> {
+            // a partitioned slot's state is spread over several entities, so
+            // it has no single version to tag it with
+            if (slotWrites.isPartitioned(slotId)) {
+              Timeslot timeslot = slotWrites.read(slotId);
+              yield conditional(ETags.ofContent(timeslot), timeslot, Columnar::of);
+            }
+            var ifNoneMatch = requestContext().requestHeader(ETags.IF_NONE_MATCH);
+            Representation representation = Representation.of(requestContext());
+            VersionedSlot slot =
+                componentClient
+                    .forEventSourcedEntity(slotId)
+                    .method(BookingSlotEntity::getSlotIfChanged)
+                    .invoke(ETags.knownVersion(ifNoneMatch, representation));
+            String etag = representation.tag(ETags.ofVersion(slot.version()));
+            yield slot.timeslot() == null || ETags.matches(ifNoneMatch, etag)
+                ? ETags.notModified(etag)
+                : ETags.tagged(representation.ok(slot.timeslot(), Columnar::of), etag);
+          }
+          case LOCAL -> {
+            Timeslot timeslot = participantSlots.getRoster(slotId).toTimeslot();
+            yield conditional(ETags.ofContent(timeslot), timeslot, Columnar::of);
+          }
+        };
+    return label(consistency, response);
+  }
+
+  // A 304 if the client already has the tagged body, the body otherwise, in
+  // the representation the client accepts
+  private <T> HttpResponse conditional(String contentTag, T body, Function<T, ?> columnar) {
+    Representation representation = Representation.of(requestContext());
+    String etag = representation.tag(contentTag);
+    if (ETags.matches(requestContext().requestHeader(ETags.IF_NONE_MATCH), etag)) {
+      return ETags.notModified(etag);
+    }
+    return ETags.tagged(representation.ok(body, columnar), etag);
+  }
+
+  // While the projection the views are built from lags further behind the
+  // writes than the staleness bound, local reads of routes that can be read
+  // strongly are served strongly instead. The lag is the one observed by this
+  // node's consumers.
+  private ReadConsistency withinBound(ReadConsistency consistency) {
+    if (consistency == ReadConsistency.LOCAL
+        && projectionMetrics
+            .recentLag(Instant.now())
+            .filter(lag -> lag.compareTo(stalenessBound) > 0)
+            .isPresent()) {
+      return ReadConsistency.STRONG;
+    }
+    return consistency;
+  }
+
+  private HttpResponse label(ReadConsistency consistency, HttpResponse response) {
+    return consistency.label(response, stalenessBound, projectionMetrics.recentLag(Instant.now()));
+  }
+
+  // View-only routes can't offer strong reads
+  private ReadConsistency localOnly() {
+    if (ReadConsistency.of(requestContext(), ReadConsistency.LOCAL) != ReadConsistency.LOCAL) {
+      throw HttpException.badRequest("strong consistency is not available for this route");
+    }
+    return ReadConsistency.LOCAL;
   }
 
   // Indicates that the supplied participant is available for booking
   // within the indicated time slot
   @Post("/availability/{slotId}")
   public HttpResponse markAvailable(String slotId, AvailabilityRequest request) {
-    ParticipantType participantType;
-
-    try {
-      participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
-    } catch (IllegalArgumentException ex) {
-      log.warn("Bad participant type {}", request.participantType());
-      throw HttpException.badRequest("invalid participant type");
-    }
+    try (var hop = hop("markAvailable", slotId).with("participantId", request.participantId)) {
+      ParticipantType participantType = parseParticipantType(request.participantType());
 
-    log.info("Marking timeslot available for entity {}", slotId);
+      var forwarded =
+          forwardToHome(
+              slotId,
+              client -> client.POST("/flight/availability/" + slotId).withRequestBody(request));
+      if (forwarded.isPresent()) return forwarded.get();
 
-    // Add entity client to mark slot available
-    MarkSlotAvailable command =
-        new MarkSlotAvailable(new Participant(request.participantId, participantType));
-    componentClient
-        .forEventSourcedEntity(slotId)
-        .method(BookingSlotEntity::markSlotAvailable)
-        .invoke(command);
+      // Add entity client to mark slot available
+      Participant participant = new Participant(request.participantId, participantType);
+      if (Representation.isPreferred(requestContext())) {
+        return withSlot(StatusCodes.OK, slotWrites.markAvailableAndGet(slotId, participant));
+      }
+      slotWrites.markAvailable(slotId, participant);
 
-    return HttpResponses.ok();
+      return HttpResponses.ok();
+    }
   }
 
   // Unmarks a slot as available for the given participant.
   @Delete("/availability/{slotId}")
   public HttpResponse unmarkAvailable(String slotId, AvailabilityRequest request) {
-    ParticipantType participantType;
+    try (var hop = hop("unmarkAvailable", slotId).with("participantId", request.participantId)) {
+      ParticipantType participantType = parseParticipantType(request.participantType());
+      var forwarded =
+          forwardToHome(
+              slotId,
+              client -> client.DELETE("/flight/availability/" + slotId).withRequestBody(request));
+      if (forwarded.isPresent()) return forwarded.get();
+
+      // Add codce to unmark slot as available
+      Participant participant = new Participant(request.participantId, participantType);
+      if (Representation.isPreferred(requestContext())) {
+        return withSlot(StatusCodes.OK, slotWrites.unmarkAvailableAndGet(slotId, participant));
+      }
+      slotWrites.unmarkAvailable(slotId, participant);
+
+      return HttpResponses.ok();
+    }
+  }
+
+  // The answer to a write whose client asked for the resulting slot: the
+  // slot in the representation it accepts, tagged like a strong read of it
+  private HttpResponse withSlot(StatusCode status, VersionedSlot slot) {
+    Representation representation = Representation.of(requestContext());
+    String etag =
+        representation.tag(
+            slot.version() == SlotWrites.UNVERSIONED
+                ? ETags.ofContent(slot.timeslot())
+                : ETags.ofVersion(slot.version()));
+    HttpResponse response =
+        representation
+            .ok(slot.timeslot(), Columnar::of)
+            .withStatus(status)
+            .addHeader(
+                RawHeader.create("Preference-Applied", Representation.RETURN_REPRESENTATION));
+    return ETags.tagged(response, etag);
+  }
+
+  private HopTrace hop(String route, String slotId) {
+    return tracer
+        .start("flight-endpoint." + route, requestContext().tracing())
+        .with("slotId", slotId);
+  }
+
+  // Forwards a write to the slot's home region and returns its response, or
+  // returns nothing when the write should be handled in this region: the
+  // slot has no other home, the home is unavailable, or the request was
+  // itself forwarded. A home that fails is marked unavailable and the write
+  // falls back to this region. A home that times out is marked unavailable
+  // too, but as it may still apply the write, the write isn't applied here
+  // as well: the client gets a 503 and retries, which then goes to this
+  // region.
+  private Optional<HttpResponse> forwardToHome(
+      String slotId, Function<HttpClient, RequestBuilder<ByteString>> request) {
+    if (requestContext().requestHeader(HomeRegions.FORWARDED_FROM_HEADER).isPresent()) {
+      var secret =
+          requestContext().requestHeader(HomeRegions.FORWARD_SECRET_HEADER).map(h -> h.value());
+      if (!homeRegions.isFromPeer(secret)) {
+        throw HttpException.error(
+            StatusCodes.FORBIDDEN, "Only other regions may forward writes to this one");
+      }
+      return Optional.empty();
+    }
+    Optional<HomeRegions.Home> home = homeRegions.forwardTarget(slotId);
+    if (home.isEmpty()) return Optional.empty();
+
     try {
-      participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
-    } catch (IllegalArgumentException ex) {
-      log.warn("Bad participant type {}", request.participantType());
+      var forward =
+          request
+              .apply(httpClientProvider.httpClientFor(home.get().endpoint()))
+              .addHeader(HomeRegions.FORWARDED_FROM_HEADER, homeRegions.selfRegion())
+              .addHeader(HomeRegions.FORWARD_SECRET_HEADER, homeRegions.forwardSecret());
+      // the headers that shape the response travel along
+      for (String name : List.of(Representation.PREFER, "Accept")) {
+        var header = requestContext().requestHeader(name);
+        if (header.isPresent()) forward = forward.addHeader(name, header.get().value());
+      }
+      var response =
+          forward
+              .invokeAsync()
+              .toCompletableFuture()
+              .get(forwardTimeout.toMillis(), TimeUnit.MILLISECONDS);
+      if (response.status().intValue() < 500) {
+        return Optional.of(response.httpResponse());
+      }
+      // the home region may have applied the write before failing, so it
+      // isn't applied here as well
+      log.warn("Home region {} answered {}", home.get().region(), response.status());
+      homeRegions.markUnavailable(home.get().region());
+      throw HttpException.error(
+          StatusCodes.BAD_GATEWAY, "The slot's home region failed to handle the write");
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(ex);
+    } catch (TimeoutException ex) {
+      log.warn("Home region {} didn't answer in {}", home.get().region(), forwardTimeout);
+      homeRegions.markUnavailable(home.get().region());
+      throw HttpException.error(
+          StatusCodes.SERVICE_UNAVAILABLE, "The slot's home region didn't answer in time");
+    } catch (ExecutionException ex) {
+      homeRegions.markUnavailable(home.get().region());
+      if (!HomeRegions.isConnectionRefused(ex)) {
+        log.warn("Forwarding to home region {} failed", home.get().region(), ex);
+        throw HttpException.error(
+            StatusCodes.BAD_GATEWAY, "Unable to forward the write to the slot's home region");
+      }
+      // the home region never received the write
+      log.warn("Home region {} refused the connection", home.get().region());
+    }
+    log.info("Handling write for slot {} outside its home region", slotId);
+    return Optional.empty();
+  }
+
+  // Booking requests for lottery slots are entered into the slot's current
+  // round and answered with 202; the booking is made (or not) when the round
+  // is drawn. The priority, used when the lottery is configured to order by
+  // priority, is the one configured for the student: clients can't set their
+  // own on this public route.
+  private HttpResponse enterLottery(String slotId, BookReservation command) {
+    return HttpResponses.accepted(slotWrites.enterLottery(slotId, command));
+  }
+
+  // Participant types arrive as free text from clients, e.g. "student"
+  static ParticipantType parseParticipantType(String participantType) {
+    try {
+      return ParticipantType.valueOf(participantType.trim().toUpperCase());
+    } catch (IllegalArgumentException | NullPointerException ex) {
+      LoggerFactory.getLogger(FlightEndpoint.class)
+          .warn("Bad participant type {}", participantType);
       throw HttpException.badRequest("invalid participant type");
     }
+  }
 
-    // Add codce to unmark slot as available
-    UnmarkSlotAvailable command =
-        new UnmarkSlotAvailable(new Participant(request.participantId, participantType));
-    componentClient
-        .forEventSourcedEntity(slotId)
-        .method(BookingSlotEntity::unmarkSlotAvailable)
-        .invoke(command);
+  static Status parseStatus(String status) {
+    try {
+      return Status.valueOf(status.trim().toLowerCase());
+    } catch (IllegalArgumentException ex) {
+      throw HttpException.badRequest("invalid status");
+    }
+  }
 
-    return HttpResponses.ok();
+  private static LocalDate parseDay(Optional<String> day) {
+    try {
+      return LocalDate.parse(day.orElseThrow(() -> HttpException.badRequest("missing day")));
+    } catch (DateTimeParseException ex) {
+      throw HttpException.badRequest("invalid day");
+    }
   }
 
   // Public API representation of a booking request
@@ -144,4 +557,29 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
 
   // Public API representation of an availability mark/unmark request
   public record AvailabilityRequest(String participantId, String participantType) {}
+
+  // Public API representation of a delta sync. Removed slots are listed with
+  // `deleted` set.
+  public record SlotDelta(
+      String token, boolean full, List<ParticipantSlotsView.SlotRecord> changes) {}
+
+  // Public API representation of a day's flight manifest: one entry per
+  // booking, ordered by hour
+  public record Manifest(String day, List<ManifestEntry> bookings) {}
+
+  public record ManifestEntry(
+      String slotId,
+      int hour,
+      String bookingId,
+      String studentId,
+      String instructorId,
+      String aircraftId) {}
+
+  // Public API representation of the availability heatmap: one entry per day
+  // that has any slots, with the day's totals and the counts per hour
+  public record Heatmap(List<DayHeatmap> days) {}
+
+  public record DayHeatmap(String day, Counts totals, List<HourHeatmap> hours) {}
+
+  public record HourHeatmap(int hour, Counts counts) {}
 }
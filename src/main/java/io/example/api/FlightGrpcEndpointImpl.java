@@ -0,0 +1,357 @@
+package io.example.api;
+
+import akka.Done;
+import akka.NotUsed;
+import akka.grpc.GrpcServiceException;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.GrpcEndpoint;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.HttpException;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Source;
+import com.typesafe.config.Config;
+import io.example.api.grpc.Ack;
+import io.example.api.grpc.AvailabilityRequest;
+import io.example.api.grpc.AvailabilityUpdate;
+import io.example.api.grpc.Booking;
+import io.example.api.grpc.BookingReply;
+import io.example.api.grpc.BookingRequest;
+import io.example.api.grpc.CancelRequest;
+import io.example.api.grpc.FlightGrpcEndpoint;
+import io.example.api.grpc.ParticipantStatusRequest;
+import io.example.api.grpc.ParticipantType;
+import io.example.api.grpc.ScheduleEntry;
+import io.example.api.grpc.Slot;
+import io.example.api.grpc.SlotList;
+import io.example.api.grpc.SlotParticipant;
+import io.example.api.grpc.SlotRequest;
+import io.example.api.grpc.SlotStatus;
+import io.example.api.grpc.UpdateError;
+import io.example.api.grpc.UpdateSummary;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.application.ParticipantSlotStorage;
+import io.example.application.ParticipantSlotsView;
+import io.example.application.ParticipantSlotsView.ParticipantStatusInput;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import io.example.domain.Participant;
+import io.example.domain.Timeslot;
+import io.grpc.Status;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+// The flight API over gRPC (see flight_grpc_endpoint.proto), for internal
+// services that call it at high volume. Only other services may call it, it
+// isn't exposed to the internet. Writes go through the same
+// SlotWrites as FlightEndpoint, so admission control, lotteries and
+// partitioned slots behave the same. Writes aren't forwarded to a slot's
+// home region though: they're rejected with FAILED_PRECONDITION naming the
+// region, and the caller is expected to go there.
+//
+// Bulk availability changes arrive as a client stream and are applied
+// without admission control, like the bulk import routes, with bounded
+// parallelism. Changes to the same slot are applied in stream order.
+@Acl(allow = @Acl.Matcher(service = "*"))
+@GrpcEndpoint
+public class FlightGrpcEndpointImpl implements FlightGrpcEndpoint {
+
+  private static final Ack ACK = Ack.getDefaultInstance();
+
+  private final ParticipantSlotStorage participantSlots;
+  private final HomeRegions homeRegions;
+  private final Materializer materializer;
+  private final SlotWrites slotWrites;
+  private final int parallelism;
+  private final int maxReportedErrors;
+
+  public FlightGrpcEndpointImpl(
+      ComponentClient componentClient,
+      ParticipantSlotStorage participantSlots,
+      AdmissionControl admissionControl,
+      HomeRegions homeRegions,
+      Materializer materializer,
+      Config config) {
+    this.participantSlots = participantSlots;
+    this.homeRegions = homeRegions;
+    this.materializer = materializer;
+    this.slotWrites = new SlotWrites(componentClient, admissionControl, config);
+    Config grpc = config.getConfig("flight.grpc");
+    this.parallelism = grpc.getInt("parallelism");
+    this.maxReportedErrors = grpc.getInt("max-reported-errors");
+  }
+
+  @Override
+  public Ack markAvailable(AvailabilityRequest in) {
+    return grpc(
+        () -> {
+          String slotId = writableSlot(in.getSlotId());
+          slotWrites.markAvailable(
+              slotId, participant(in.getParticipantId(), in.getParticipantType()));
+          return ACK;
+        });
+  }
+
+  @Override
+  public Ack unmarkAvailable(AvailabilityRequest in) {
+    return grpc(
+        () -> {
+          String slotId = writableSlot(in.getSlotId());
+          slotWrites.unmarkAvailable(
+              slotId, participant(in.getParticipantId(), in.getParticipantType()));
+          return ACK;
+        });
+  }
+
+  @Override
+  public BookingReply createBooking(BookingRequest in) {
+    return grpc(
+        () -> {
+          String slotId = writableSlot(in.getSlotId());
+          BookReservation command =
+              new BookReservation(
+                  in.getStudentId(), in.getAircraftId(), in.getInstructorId(), in.getBookingId());
+          if (slotWrites.isLotterySlot(slotId)) {
+            var ticket = slotWrites.enterLottery(slotId, command, in.getPriority());
+            return BookingReply.newBuilder()
+                .setPending(true)
+                .setClosesAtMillis(ticket.closesAt().toEpochMilli())
+                .build();
+          }
+          slotWrites.book(slotId, command);
+          return BookingReply.getDefaultInstance();
+        });
+  }
+
+  @Override
+  public Ack cancelBooking(CancelRequest in) {
+    return grpc(
+        () -> {
+          slotWrites.cancel(writableSlot(in.getSlotId()), in.getBookingId());
+          return ACK;
+        });
+  }
+
+  @Override
+  public Slot getSlot(SlotRequest in) {
+    return grpc(
+        () -> {
+          String slotId = slotId(in.getSlotId());
+          return toSlot(slotId, slotWrites.read(slotId));
+        });
+  }
+
+  @Override
+  public SlotList getSlotsByStatus(ParticipantStatusRequest in) {
+    String participantId = participantId(in.getParticipantId());
+    ParticipantSlotsView.SlotList slots =
+        in.getStatus() == SlotStatus.SLOT_STATUS_UNSPECIFIED
+            ? participantSlots.getSlotsByParticipant(participantId)
+            : participantSlots.getSlotsByParticipantAndStatus(
+                new ParticipantStatusInput(participantId, status(in.getStatus())));
+    return SlotList.newBuilder()
+        .addAllSlots(slots.slots().stream().map(FlightGrpcEndpointImpl::toEntry).toList())
+        .build();
+  }
+
+  @Override
+  public UpdateSummary updateAvailability(Source<AvailabilityUpdate, NotUsed> in) {
+    // every slot maps to one lane, and a change is only sent once the previous
+    // change on its lane has completed, so a slot's changes can't overtake
+    // each other
+    CompletionStage<?>[] lanes = new CompletionStage<?>[parallelism];
+    Arrays.fill(lanes, CompletableFuture.completedFuture(null));
+
+    CompletionStage<UpdateSummary.Builder> summary =
+        in.zipWithIndex()
+            .map(
+                numbered -> {
+                  AvailabilityUpdate update = numbered.first();
+                  int lane = Math.floorMod(update.getSlotId().hashCode(), parallelism);
+                  CompletionStage<Optional<UpdateError>> applied =
+                      lanes[lane].thenCompose(previous -> apply(numbered.second(), update));
+                  lanes[lane] = applied;
+                  return applied;
+                })
+            .mapAsync(parallelism, applied -> applied)
+            .runFold(
+                UpdateSummary.newBuilder(),
+                (builder, error) -> {
+                  builder.setUpdates(builder.getUpdates() + 1);
+                  if (error.isEmpty()) {
+                    builder.setApplied(builder.getApplied() + 1);
+                  } else {
+                    builder.setFailed(builder.getFailed() + 1);
+                    if (builder.getErrorsCount() < maxReportedErrors)
+                      builder.addErrors(error.get());
+                  }
+                  return builder;
+                },
+                materializer);
+    return await(summary).build();
+  }
+
+  @Override
+  public Source<ScheduleEntry, NotUsed> streamSchedule(ParticipantStatusRequest in) {
+    String participantId = participantId(in.getParticipantId());
+    Optional<String> status =
+        in.getStatus() == SlotStatus.SLOT_STATUS_UNSPECIFIED
+            ? Optional.empty()
+            : Optional.of(status(in.getStatus()));
+    return participantSlots
+        .streamSlotsByParticipant(participantId)
+        .filter(row -> status.isEmpty() || status.get().equals(row.status()))
+        .map(FlightGrpcEndpointImpl::toEntry);
+  }
+
+  // Applies one change of a bulk stream, completing with its error if it
+  // failed
+  private CompletionStage<Optional<UpdateError>> apply(long index, AvailabilityUpdate update) {
+    CompletionStage<Done> applied;
+    try {
+      String slotId = writableSlot(update.getSlotId());
+      Participant participant = participant(update.getParticipantId(), update.getParticipantType());
+      applied =
+          update.getAvailable()
+              ? slotWrites.markAvailableAsync(slotId, participant)
+              : slotWrites.unmarkAvailableAsync(slotId, participant);
+    } catch (RuntimeException ex) {
+      applied = CompletableFuture.failedFuture(ex);
+    }
+    return applied
+        .thenApply(done -> Optional.<UpdateError>empty())
+        .exceptionally(
+            ex -> {
+              Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+              return Optional.of(
+                  UpdateError.newBuilder()
+                      .setIndex(index)
+                      .setError(String.valueOf(cause.getMessage()))
+                      .build());
+            });
+  }
+
+  // The SDK generates blocking gRPC interfaces, so the summary of a stream
+  // applied asynchronously is waited for here, on the call's virtual thread.
+  // A stream that fails as a whole (e.g. the client aborts it) is answered
+  // with its cause.
+  private static <T> T await(CompletionStage<T> result) {
+    try {
+      return result.toCompletableFuture().get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new GrpcServiceException(Status.CANCELLED.withDescription("interrupted"));
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof GrpcServiceException grpcFailure) throw grpcFailure;
+      throw new GrpcServiceException(
+          Status.INTERNAL.withDescription(String.valueOf(ex.getCause().getMessage())));
+    }
+  }
+
+  // The shared write path rejects requests with HttpExceptions (bad input,
+  // admission control); they're answered with the closest gRPC status
+  private static <T> T grpc(Supplier<T> call) {
+    try {
+      return call.get();
+    } catch (HttpException ex) {
+      Status status =
+          switch (ex.getStatusCode().intValue()) {
+            case 400 -> Status.INVALID_ARGUMENT;
+            case 404 -> Status.NOT_FOUND;
+            case 429 -> Status.RESOURCE_EXHAUSTED;
+            default -> Status.INTERNAL;
+          };
+      throw new GrpcServiceException(status.withDescription(ex.getMessage()));
+    }
+  }
+
+  private String writableSlot(String slotId) {
+    homeRegions
+        .forwardTarget(slotId(slotId))
+        .ifPresent(
+            home -> {
+              throw new GrpcServiceException(
+                  Status.FAILED_PRECONDITION.withDescription(
+                      "slot is homed in region " + home.region()));
+            });
+    return slotId;
+  }
+
+  private static String slotId(String slotId) {
+    if (slotId.isBlank()) throw invalid("missing slot ID");
+    return slotId;
+  }
+
+  private static String participantId(String participantId) {
+    if (participantId.isBlank()) throw invalid("missing participant ID");
+    return participantId;
+  }
+
+  private static Participant participant(String participantId, ParticipantType type) {
+    return new Participant(participantId(participantId), participantType(type));
+  }
+
+  private static Participant.ParticipantType participantType(ParticipantType type) {
+    return switch (type) {
+      case STUDENT -> Participant.ParticipantType.STUDENT;
+      case AIRCRAFT -> Participant.ParticipantType.AIRCRAFT;
+      case INSTRUCTOR -> Participant.ParticipantType.INSTRUCTOR;
+      case PARTICIPANT_TYPE_UNSPECIFIED, UNRECOGNIZED -> throw invalid("invalid participant type");
+    };
+  }
+
+  private static ParticipantType participantType(Participant.ParticipantType type) {
+    return ParticipantType.valueOf(type.name());
+  }
+
+  // The view's status names, e.g. "booked"
+  private static String status(SlotStatus status) {
+    return switch (status) {
+      case AVAILABLE -> "available";
+      case BOOKED -> "booked";
+      case SLOT_STATUS_UNSPECIFIED, UNRECOGNIZED -> throw invalid("invalid status");
+    };
+  }
+
+  private static GrpcServiceException invalid(String description) {
+    return new GrpcServiceException(Status.INVALID_ARGUMENT.withDescription(description));
+  }
+
+  private static ScheduleEntry toEntry(SlotRow row) {
+    return ScheduleEntry.newBuilder()
+        .setSlotId(row.slotId())
+        .setParticipantId(row.participantId())
+        .setParticipantType(ParticipantType.valueOf(row.participantType()))
+        .setBookingId(row.bookingId())
+        .setStatus(SlotStatus.valueOf(row.status().toUpperCase()))
+        .build();
+  }
+
+  private static Slot toSlot(String slotId, Timeslot timeslot) {
+    Slot.Builder slot = Slot.newBuilder().setSlotId(slotId);
+    for (Participant participant : timeslot.available()) {
+      slot.addAvailable(
+          SlotParticipant.newBuilder()
+              .setId(participant.id())
+              .setType(participantType(participant.participantType()))
+              .build());
+    }
+    for (Map.Entry<String, Map<Participant.ParticipantType, String>> booking :
+        timeslot.participantsByBooking().entrySet()) {
+      Map<Participant.ParticipantType, String> participants = booking.getValue();
+      slot.addBookings(
+          Booking.newBuilder()
+              .setBookingId(booking.getKey())
+              .setStudentId(participants.getOrDefault(Participant.ParticipantType.STUDENT, ""))
+              .setAircraftId(participants.getOrDefault(Participant.ParticipantType.AIRCRAFT, ""))
+              .setInstructorId(
+                  participants.getOrDefault(Participant.ParticipantType.INSTRUCTOR, ""))
+              .build());
+    }
+    return slot.build();
+  }
+}
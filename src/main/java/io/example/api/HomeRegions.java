@@ -0,0 +1,114 @@
+package io.example.api;
+
+import com.typesafe.config.Config;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Decides which region owns the writes of a slot. Each flight school flies
+// from one airport, so slots are mapped to a home region by slot-ID prefix;
+// writes that arrive elsewhere are forwarded to the home region, where the
+// slot's primary then settles, instead of pulling the primary to whichever
+// region happened to take the request.
+//
+// A home region that fails a forwarded write is considered unavailable for
+// a while, and its slots' writes are handled locally in the meantime.
+// Forwarded writes carry a secret shared by the regions, so that a client
+// can't mark its own request as already forwarded to get it applied outside
+// the slot's home.
+// Shared by all endpoints through the service's dependency provider.
+public class HomeRegions {
+
+  // Set on forwarded writes, so that they are never forwarded again
+  static final String FORWARDED_FROM_HEADER = "X-Forwarded-From-Region";
+  // Carries the shared secret with forwarded writes
+  static final String FORWARD_SECRET_HEADER = "X-Forward-Secret";
+
+  private final String selfRegion;
+  private final List<Home> homes;
+  private final byte[] forwardSecret;
+  private final long unavailableForNanos;
+  private final LongSupplier nanoClock;
+  private final Map<String, Long> unavailableUntil = new ConcurrentHashMap<>();
+
+  public HomeRegions(Config config) {
+    this(config.getConfig("flight.regions"), System::nanoTime);
+  }
+
+  HomeRegions(Config regions, LongSupplier nanoClock) {
+    this.selfRegion = regions.getString("self");
+    this.homes =
+        regions.getConfigList("homes").stream()
+            .map(
+                home ->
+                    new Home(
+                        home.getString("prefix"),
+                        home.getString("region"),
+                        home.getString("endpoint")))
+            .toList();
+    String secret = regions.getString("forward-secret");
+    if (secret.isEmpty() && !homes.isEmpty()) {
+      throw new IllegalArgumentException(
+          "flight.regions.forward-secret must be set when flight.regions.homes are");
+    }
+    this.forwardSecret = secret.getBytes(StandardCharsets.UTF_8);
+    this.unavailableForNanos = regions.getDuration("unavailable-for").toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  // The home region that the writes of the slot should be forwarded to, if
+  // the slot has a home other than this region and it's currently available.
+  // The longest matching prefix wins.
+  public Optional<Home> forwardTarget(String slotId) {
+    return homes.stream()
+        .filter(home -> slotId.startsWith(home.prefix()))
+        .max((a, b) -> Integer.compare(a.prefix().length(), b.prefix().length()))
+        .filter(home -> !home.region().equals(selfRegion))
+        .filter(home -> isAvailable(home.region()));
+  }
+
+  public String selfRegion() {
+    return selfRegion;
+  }
+
+  public String forwardSecret() {
+    return new String(forwardSecret, StandardCharsets.UTF_8);
+  }
+
+  // Whether a request claiming to be forwarded carries the shared secret.
+  // Without homes there is no secret, and nothing is trusted as forwarded.
+  public boolean isFromPeer(Optional<String> secret) {
+    return forwardSecret.length > 0
+        && secret.isPresent()
+        && MessageDigest.isEqual(forwardSecret, secret.get().getBytes(StandardCharsets.UTF_8));
+  }
+
+  public void markUnavailable(String region) {
+    unavailableUntil.put(region, nanoClock.getAsLong() + unavailableForNanos);
+  }
+
+  private boolean isAvailable(String region) {
+    Long until = unavailableUntil.get(region);
+    if (until == null) return true;
+    if (nanoClock.getAsLong() - until < 0) return false;
+    unavailableUntil.remove(region, until);
+    return true;
+  }
+
+  // Whether a forwarded write failed because the home region refused the
+  // connection, in which case it can't have been applied there
+  static boolean isConnectionRefused(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConnectException) return true;
+    }
+    return false;
+  }
+
+  // `endpoint` is the base URL of the service in the home region
+  public record Home(String prefix, String region, String endpoint) {}
+}
@@ -0,0 +1,39 @@
+package io.example.api;
+
+import akka.http.javadsl.model.ContentType;
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpCharsets;
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.http.javadsl.model.StatusCodes;
+import akka.javasdk.JsonSupport;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+// Newline-delimited JSON (one JSON document per line) is what the bulk routes
+// stream back to clients. Each element is encoded as it is emitted, so a
+// response never has to be held in memory as a whole.
+final class NdJson {
+
+  static final ContentType CONTENT_TYPE =
+      ContentTypes.create(MediaTypes.applicationWithFixedCharset("x-ndjson", HttpCharsets.UTF_8));
+
+  private NdJson() {}
+
+  static <T> HttpResponse stream(Source<T, ?> elements) {
+    return HttpResponse.create()
+        .withStatus(StatusCodes.OK)
+        .withEntity(HttpEntities.create(CONTENT_TYPE, elements.map(NdJson::encode)));
+  }
+
+  static ByteString encode(Object element) {
+    try {
+      return ByteString.fromString(
+          JsonSupport.getObjectMapper().writeValueAsString(element) + "\n");
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Unable to encode " + element.getClass().getSimpleName(), ex);
+    }
+  }
+}
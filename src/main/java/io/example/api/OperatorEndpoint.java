@@ -0,0 +1,52 @@
+package io.example.api;
+
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import io.example.application.JobCheckpointEntity;
+import io.example.application.SlotArchiveEntity;
+import io.example.application.SlotWarmUpAction;
+import io.example.domain.SlotArchive;
+
+// Operator routes for the write path and the background jobs: the admission
+// counters, the latest warm-up run and the archives the retention job left.
+// Like the dead-letter routes they only accept calls from other services,
+// such as the operators' tooling, and not from the internet.
+@Acl(allow = @Acl.Matcher(service = "*"))
+@HttpEndpoint("/flight")
+public class OperatorEndpoint extends AbstractHttpEndpoint {
+
+  private final ComponentClient componentClient;
+  private final AdmissionControl admissionControl;
+
+  public OperatorEndpoint(ComponentClient componentClient, AdmissionControl admissionControl) {
+    this.componentClient = componentClient;
+    this.admissionControl = admissionControl;
+  }
+
+  // Returns how many write requests this node admitted and how many it shed,
+  // by the limit that was exceeded
+  @Get("/admission/stats")
+  public AdmissionControl.Stats admissionStats() {
+    return admissionControl.stats();
+  }
+
+  // Returns the latest run of the slot warm-up job: how many slots it loaded,
+  // how many failed and how long it took
+  @Get("/warm-up")
+  public JobCheckpointEntity.Checkpoint warmUpReport() {
+    return componentClient
+        .forKeyValueEntity(SlotWarmUpAction.JOB_NAME)
+        .method(JobCheckpointEntity::getCheckpoint)
+        .invoke();
+  }
+
+  // Returns the archived summary of a slot that has been removed by the
+  // retention job
+  @Get("/archive/{slotId}")
+  public SlotArchive getArchive(String slotId) {
+    return componentClient.forKeyValueEntity(slotId).method(SlotArchiveEntity::getArchive).invoke();
+  }
+}
@@ -0,0 +1,53 @@
+package io.example.api;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.headers.RawHeader;
+import akka.javasdk.http.HttpException;
+import akka.javasdk.http.RequestContext;
+import java.time.Duration;
+import java.util.Optional;
+
+// The consistency a read route is asked for through its `consistency` query
+// parameter. Strong reads go to the slot's entity, which in a replicated-read
+// deployment may live in another region; local reads are answered from this
+// region's views and may lag behind the latest writes.
+enum ReadConsistency {
+  LOCAL,
+  STRONG;
+
+  static final String HEADER = "X-Read-Consistency";
+  static final String STALENESS_HEADER = "X-Staleness-Bound-Millis";
+  static final String LAG_HEADER = "X-Observed-Lag-Millis";
+
+  static ReadConsistency of(RequestContext context, ReadConsistency fallback) {
+    return context
+        .queryParams()
+        .getString("consistency")
+        .map(
+            value -> {
+              try {
+                return valueOf(value.trim().toUpperCase());
+              } catch (IllegalArgumentException ex) {
+                throw HttpException.badRequest("invalid consistency");
+              }
+            })
+        .orElse(fallback);
+  }
+
+  // Labels a response with the consistency it was served at and, for local
+  // reads, with the configured bound on how far the views may lag and the
+  // lag recently observed, if any
+  HttpResponse label(HttpResponse response, Duration stalenessBound, Optional<Duration> lag) {
+    HttpResponse labelled = response.addHeader(RawHeader.create(HEADER, name().toLowerCase()));
+    if (this == LOCAL) {
+      labelled =
+          labelled.addHeader(
+              RawHeader.create(STALENESS_HEADER, String.valueOf(stalenessBound.toMillis())));
+      if (lag.isPresent()) {
+        labelled =
+            labelled.addHeader(RawHeader.create(LAG_HEADER, String.valueOf(lag.get().toMillis())));
+      }
+    }
+    return labelled;
+  }
+}
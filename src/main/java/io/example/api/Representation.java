@@ -0,0 +1,111 @@
+package io.example.api;
+
+import akka.http.javadsl.model.ContentType;
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpCharsets;
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.http.javadsl.model.headers.RawHeader;
+import akka.javasdk.JsonSupport;
+import akka.javasdk.http.HttpResponses;
+import akka.javasdk.http.RequestContext;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.util.Arrays;
+import java.util.function.Function;
+
+// The representations the larger read routes can be served in, picked from
+// the Accept header: the regular JSON, the same data in a columnar JSON
+// shape (see Columnar), or the columnar shape encoded as CBOR. Clients that
+// don't ask for one of the compact media types get the regular JSON.
+enum Representation {
+  JSON(ContentTypes.APPLICATION_JSON, ""),
+  COLUMNAR_JSON(
+      ContentTypes.create(
+          MediaTypes.applicationWithFixedCharset("vnd.flight.columnar+json", HttpCharsets.UTF_8)),
+      "-columnar"),
+  CBOR(ContentTypes.create(MediaTypes.applicationBinary("cbor", false, "cbor")), "-cbor");
+
+  static final String PREFER = "Prefer";
+  static final String RETURN_REPRESENTATION = "return=representation";
+
+  private static final ObjectMapper columnarJson =
+      JsonSupport.getObjectMapper().copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+  private static final ObjectMapper cbor =
+      CBORMapper.builder().serializationInclusion(JsonInclude.Include.NON_NULL).build();
+
+  private final ContentType contentType;
+  private final String tagSuffix;
+
+  Representation(ContentType contentType, String tagSuffix) {
+    this.contentType = contentType;
+    this.tagSuffix = tagSuffix;
+  }
+
+  static Representation of(RequestContext context) {
+    return context.requestHeader("Accept").map(header -> forAccept(header.value())).orElse(JSON);
+  }
+
+  // The first compact media type listed wins; anything else means JSON
+  static Representation forAccept(String accept) {
+    return Arrays.stream(accept.split(","))
+        .map(range -> range.split(";")[0].trim())
+        .flatMap(
+            mediaType ->
+                Arrays.stream(values())
+                    .filter(
+                        r -> r != JSON && r.contentType.mediaType().toString().equals(mediaType)))
+        .findFirst()
+        .orElse(JSON);
+  }
+
+  // Whether the client asked a write route to answer with the resulting
+  // state, with `Prefer: return=representation` (RFC 7240)
+  static boolean isPreferred(RequestContext context) {
+    return context
+        .requestHeader(PREFER)
+        .map(
+            header ->
+                Arrays.stream(header.value().split("[,;]"))
+                    .map(String::trim)
+                    .anyMatch(preference -> preference.equalsIgnoreCase(RETURN_REPRESENTATION)))
+        .orElse(false);
+  }
+
+  // The body in this representation; the compact ones send its columnar
+  // shape instead. Responses vary by Accept whichever one is picked.
+  <T> HttpResponse ok(T body, Function<T, ?> columnar) {
+    return encode(body, columnar).addHeader(RawHeader.create("Vary", "Accept"));
+  }
+
+  private <T> HttpResponse encode(T body, Function<T, ?> columnar) {
+    if (this == JSON) return HttpResponses.ok(body);
+
+    try {
+      byte[] bytes = mapper().writeValueAsBytes(columnar.apply(body));
+      return HttpResponse.create().withEntity(HttpEntities.create(contentType, bytes));
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Unable to encode " + name(), ex);
+    }
+  }
+
+  // The mapper the body is written with; the compact representations leave
+  // out null fields
+  ObjectMapper mapper() {
+    return switch (this) {
+      case JSON -> JsonSupport.getObjectMapper();
+      case COLUMNAR_JSON -> columnarJson;
+      case CBOR -> cbor;
+    };
+  }
+
+  // Each representation gets its own entity tag, so that caches don't
+  // answer a request for one with another
+  String tag(String etag) {
+    if (tagSuffix.isEmpty()) return etag;
+    return etag.substring(0, etag.length() - 1) + tagSuffix + "\"";
+  }
+}
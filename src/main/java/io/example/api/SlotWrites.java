@@ -0,0 +1,301 @@
+package io.example.api;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import io.example.application.BookingLotteryEntity;
+import io.example.application.BookingSlotEntity;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.application.BookingSlotEntity.Command.MarkSlotAvailable;
+import io.example.application.BookingSlotEntity.Command.UnmarkSlotAvailable;
+import io.example.application.BookingSlotEntity.VersionedSlot;
+import io.example.application.SlotPartitionEntity;
+import io.example.application.SlotPartitioning;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+// The slot writes (and the slot read) shared by the endpoints: the write is
+// admitted, then routed to the lottery, the partitions or the
+// BookingSlotEntity depending on how the slot is configured. Every endpoint
+// writes slots through here, so that no write misses a slot's partitions.
+// Forwarding to a slot's home region is left to the endpoints, as it depends
+// on the protocol.
+final class SlotWrites {
+
+  static final long UNVERSIONED = -1;
+
+  private final ComponentClient componentClient;
+  private final AdmissionControl admissionControl;
+  private final List<String> lotterySlots;
+  private final Duration lotteryWindow;
+  private final Map<String, Integer> lotteryPriorities;
+  private final SlotPartitioning partitioning;
+
+  SlotWrites(ComponentClient componentClient, AdmissionControl admissionControl, Config config) {
+    this.componentClient = componentClient;
+    this.admissionControl = admissionControl;
+    Config lottery = config.getConfig("flight.lottery");
+    this.lotterySlots = lottery.getStringList("slots");
+    this.lotteryWindow = lottery.getDuration("window");
+    this.lotteryPriorities = new HashMap<>();
+    // student IDs may contain dots, so the keys aren't read as paths
+    lottery
+        .getObject("priorities")
+        .unwrapped()
+        .forEach(
+            (studentId, priority) ->
+                lotteryPriorities.put(studentId, ((Number) priority).intValue()));
+    this.partitioning = new SlotPartitioning(config);
+  }
+
+  static SlotWrites unadmitted(ComponentClient componentClient, Config config) {
+    return new SlotWrites(componentClient, null, config);
+  }
+
+  boolean isLotterySlot(String slotId) {
+    return lotterySlots.stream().anyMatch(slotId::startsWith);
+  }
+
+  boolean isPartitioned(String slotId) {
+    return partitioning.isPartitioned(slotId);
+  }
+
+  void book(String slotId, BookReservation command) {
+    try (var permit = admit(slotId, command.studentId())) {
+      if (partitioning.isPartitioned(slotId)) {
+        partitioning.book(componentClient, slotId, command);
+      } else {
+        componentClient
+            .forEventSourcedEntity(slotId)
+            .method(BookingSlotEntity::bookSlot)
+            .invoke(command);
+      }
+    }
+  }
+
+  // Enters the booking into the slot's current lottery round, with the
+  // priority configured for its student
+  BookingLotteryEntity.Ticket enterLottery(String slotId, BookReservation command) {
+    return enterLottery(slotId, command, lotteryPriorities.getOrDefault(command.studentId(), 0));
+  }
+
+  // Enters the booking into the slot's current lottery round. The round's
+  // draw is scheduled by the LotteryTimerConsumer. Only callers that aren't
+  // public give their own priority.
+  BookingLotteryEntity.Ticket enterLottery(String slotId, BookReservation command, int priority) {
+    Instant now = Instant.now();
+    var entry =
+        new BookingLotteryEntity.Entry(
+            command.bookingId(),
+            command.studentId(),
+            command.aircraftId(),
+            command.instructorId(),
+            priority,
+            now);
+    try (var permit = admit(slotId, command.studentId())) {
+      return componentClient
+          .forKeyValueEntity(slotId)
+          .method(BookingLotteryEntity::enter)
+          .invoke(new BookingLotteryEntity.Enter(entry, now.plus(lotteryWindow)));
+    }
+  }
+
+  void cancel(String slotId, String bookingId) {
+    if (partitioning.isPartitioned(slotId)) {
+      partitioning.cancel(componentClient, slotId, bookingId);
+      return;
+    }
+    componentClient
+        .forEventSourcedEntity(slotId)
+        .method(BookingSlotEntity::cancelBooking)
+        .invoke(bookingId);
+  }
+
+  void markAvailable(String slotId, Participant participant) {
+    if (partitioning.isPartitioned(slotId)) {
+      // partitions are limited separately, as that is what they're for
+      String partitionId = partitioning.partitionOf(slotId, participant);
+      try (var permit = admit(partitionId, participant.id())) {
+        componentClient
+            .forEventSourcedEntity(partitionId)
+            .method(SlotPartitionEntity::markAvailable)
+            .invoke(participant);
+      }
+      return;
+    }
+
+    try (var permit = admit(slotId, participant.id())) {
+      componentClient
+          .forEventSourcedEntity(slotId)
+          .method(BookingSlotEntity::markSlotAvailable)
+          .invoke(new MarkSlotAvailable(participant));
+    }
+  }
+
+  void unmarkAvailable(String slotId, Participant participant) {
+    if (partitioning.isPartitioned(slotId)) {
+      String partitionId = partitioning.partitionOf(slotId, participant);
+      try (var permit = admit(partitionId, participant.id())) {
+        componentClient
+            .forEventSourcedEntity(partitionId)
+            .method(SlotPartitionEntity::unmarkAvailable)
+            .invoke(participant);
+      }
+      return;
+    }
+
+    try (var permit = admit(slotId, participant.id())) {
+      componentClient
+          .forEventSourcedEntity(slotId)
+          .method(BookingSlotEntity::unmarkSlotAvailable)
+          .invoke(new UnmarkSlotAvailable(participant));
+    }
+  }
+
+  // The same writes, returning the slot as it is after the write. A
+  // partitioned slot is read back after the write, and has no version
+  // (UNVERSIONED), as its state is spread over several entities.
+  VersionedSlot bookAndGet(String slotId, BookReservation command) {
+    if (partitioning.isPartitioned(slotId)) {
+      book(slotId, command);
+      return readUnversioned(slotId);
+    }
+    try (var permit = admit(slotId, command.studentId())) {
+      return componentClient
+          .forEventSourcedEntity(slotId)
+          .method(BookingSlotEntity::bookSlotAndGet)
+          .invoke(command);
+    }
+  }
+
+  VersionedSlot cancelAndGet(String slotId, String bookingId) {
+    if (partitioning.isPartitioned(slotId)) {
+      cancel(slotId, bookingId);
+      return readUnversioned(slotId);
+    }
+    return componentClient
+        .forEventSourcedEntity(slotId)
+        .method(BookingSlotEntity::cancelBookingAndGet)
+        .invoke(bookingId);
+  }
+
+  VersionedSlot markAvailableAndGet(String slotId, Participant participant) {
+    if (partitioning.isPartitioned(slotId)) {
+      markAvailable(slotId, participant);
+      return readUnversioned(slotId);
+    }
+    try (var permit = admit(slotId, participant.id())) {
+      return componentClient
+          .forEventSourcedEntity(slotId)
+          .method(BookingSlotEntity::markSlotAvailableAndGet)
+          .invoke(new MarkSlotAvailable(participant));
+    }
+  }
+
+  VersionedSlot unmarkAvailableAndGet(String slotId, Participant participant) {
+    if (partitioning.isPartitioned(slotId)) {
+      unmarkAvailable(slotId, participant);
+      return readUnversioned(slotId);
+    }
+    try (var permit = admit(slotId, participant.id())) {
+      return componentClient
+          .forEventSourcedEntity(slotId)
+          .method(BookingSlotEntity::unmarkSlotAvailableAndGet)
+          .invoke(new UnmarkSlotAvailable(participant));
+    }
+  }
+
+  // Writes for callers that apply many of them with their own bounded
+  // parallelism (templates, imports, streamed gRPC changes), which aren't
+  // admission controlled
+
+  CompletionStage<Done> markAvailableAsync(String slotId, Participant participant) {
+    if (partitioning.isPartitioned(slotId)) {
+      return componentClient
+          .forEventSourcedEntity(partitioning.partitionOf(slotId, participant))
+          .method(SlotPartitionEntity::markAvailable)
+          .invokeAsync(participant);
+    }
+    return componentClient
+        .forEventSourcedEntity(slotId)
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invokeAsync(new MarkSlotAvailable(participant));
+  }
+
+  CompletionStage<Done> unmarkAvailableAsync(String slotId, Participant participant) {
+    if (partitioning.isPartitioned(slotId)) {
+      return componentClient
+          .forEventSourcedEntity(partitioning.partitionOf(slotId, participant))
+          .method(SlotPartitionEntity::unmarkAvailable)
+          .invokeAsync(participant);
+    }
+    return componentClient
+        .forEventSourcedEntity(slotId)
+        .method(BookingSlotEntity::unmarkSlotAvailable)
+        .invokeAsync(new UnmarkSlotAvailable(participant));
+  }
+
+  // Records a booking as it is, without claiming its participants (an
+  // imported booking). On a partitioned slot the participants are then taken
+  // out of their partitions' availability, as the slot entity would do
+  // itself for a slot that isn't partitioned.
+  CompletionStage<Done> recordBookingAsync(String slotId, BookReservation reservation) {
+    CompletionStage<Done> recorded =
+        componentClient
+            .forEventSourcedEntity(slotId)
+            .method(BookingSlotEntity::recordBooking)
+            .invokeAsync(reservation);
+    if (!partitioning.isPartitioned(slotId)) {
+      return recorded;
+    }
+    for (Participant participant : participantsOf(reservation)) {
+      recorded = recorded.thenCompose(done -> unmarkAvailableAsync(slotId, participant));
+    }
+    return recorded;
+  }
+
+  CompletionStage<Timeslot> readAsync(String slotId) {
+    if (partitioning.isPartitioned(slotId)) {
+      return partitioning.readAsync(componentClient, slotId);
+    }
+    return componentClient
+        .forEventSourcedEntity(slotId)
+        .method(BookingSlotEntity::getSlot)
+        .invokeAsync();
+  }
+
+  private static List<Participant> participantsOf(BookReservation reservation) {
+    return List.of(
+        new Participant(reservation.studentId(), ParticipantType.STUDENT),
+        new Participant(reservation.aircraftId(), ParticipantType.AIRCRAFT),
+        new Participant(reservation.instructorId(), ParticipantType.INSTRUCTOR));
+  }
+
+  private VersionedSlot readUnversioned(String slotId) {
+    return new VersionedSlot(UNVERSIONED, partitioning.read(componentClient, slotId));
+  }
+
+  private AdmissionControl.Permit admit(String key, String participantId) {
+    return admissionControl == null
+        ? AdmissionControl.Permit.NONE
+        : admissionControl.admit(key, participantId);
+  }
+
+  // A strong read of the slot's whole state
+  Timeslot read(String slotId) {
+    if (partitioning.isPartitioned(slotId)) {
+      return partitioning.read(componentClient, slotId);
+    }
+    return componentClient
+        .forEventSourcedEntity(slotId)
+        .method(BookingSlotEntity::getSlot)
+        .invoke();
+  }
+}
@@ -0,0 +1,107 @@
+package io.example.api;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Delete;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.annotations.http.Post;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpException;
+import akka.javasdk.http.HttpResponses;
+import com.typesafe.config.Config;
+import io.example.application.WaitlistEntity;
+import io.example.application.WaitlistView;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.WaitlistEntry;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Lets a student wait for a slot instead of polling it. The student is
+// marked available in the slot and put on its waitlist; the booking is made
+// by the waitlist consumers as soon as the wanted aircraft and instructor
+// (or any, if none is given) are available. The outcome can be followed as
+// a server-sent event stream.
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
+@HttpEndpoint("/flight")
+public class WaitlistEndpoint extends AbstractHttpEndpoint {
+  private final Logger log = LoggerFactory.getLogger(WaitlistEndpoint.class);
+
+  private final ComponentClient componentClient;
+  private final SlotWrites slotWrites;
+
+  public WaitlistEndpoint(
+      ComponentClient componentClient, AdmissionControl admissionControl, Config config) {
+    this.componentClient = componentClient;
+    this.slotWrites = new SlotWrites(componentClient, admissionControl, config);
+  }
+
+  @Post("/waitlist/{slotId}")
+  public HttpResponse register(String slotId, WaitlistRequest request) {
+    if (isBlank(request.waitId()) || isBlank(request.studentId())) {
+      throw HttpException.badRequest("waitId and studentId are required");
+    }
+    log.info("Registering waitlist entry for slot {}: {}", slotId, request);
+
+    slotWrites.markAvailable(slotId, new Participant(request.studentId(), ParticipantType.STUDENT));
+
+    var entry =
+        new WaitlistEntry(
+            request.waitId(),
+            slotId,
+            request.studentId(),
+            orAny(request.aircraftId()),
+            orAny(request.instructorId()),
+            Instant.now(),
+            WaitlistEntry.Status.WAITING);
+    componentClient
+        .forKeyValueEntity(request.waitId())
+        .method(WaitlistEntity::register)
+        .invoke(entry);
+    return HttpResponses.created(entry);
+  }
+
+  @Get("/waitlist/entry/{waitId}")
+  public WaitlistEntry get(String waitId) {
+    return componentClient.forKeyValueEntity(waitId).method(WaitlistEntity::get).invoke();
+  }
+
+  // Streams the entry every time it changes, so a client learns that it has
+  // been booked the moment it happens
+  @Get("/waitlist/entry/{waitId}/updates")
+  public HttpResponse updates(String waitId) {
+    return HttpResponses.serverSentEvents(
+        componentClient.forView().stream(WaitlistView::streamEntry).source(waitId));
+  }
+
+  // Withdraws a waiting entry and takes back the availability its
+  // registration marked. An entry that has been booked can't be withdrawn;
+  // the booking has to be canceled instead.
+  @Delete("/waitlist/entry/{waitId}")
+  public HttpResponse withdraw(String waitId) {
+    var entity = componentClient.forKeyValueEntity(waitId);
+    WaitlistEntry entry = entity.method(WaitlistEntity::get).invoke();
+    entity.method(WaitlistEntity::withdraw).invoke();
+
+    slotWrites.unmarkAvailable(
+        entry.slotId(), new Participant(entry.studentId(), ParticipantType.STUDENT));
+    return HttpResponses.ok();
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank();
+  }
+
+  private static String orAny(String participantId) {
+    return Optional.ofNullable(participantId).filter(id -> !id.isBlank()).orElse(WaitlistEntry.ANY);
+  }
+
+  // Public API representation of a waitlist registration. Leave out the
+  // aircraft or the instructor to accept any.
+  public record WaitlistRequest(
+      String waitId, String studentId, String aircraftId, String instructorId) {}
+}
@@ -0,0 +1,43 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.application.DayHeatmapEntity.DayCounts;
+import java.util.List;
+
+// One row per day with the counters of available and booked participants by
+// type of each of the day's slots and their totals, as kept by the
+// DayHeatmapEntity. A month of heatmap is therefore a query of about 30
+// small rows, with nothing left to add up. The participants the day keeps
+// to derive its counters are left out of the rows.
+@ComponentId("view-availability-heatmap-days")
+public class AvailabilityHeatmapView extends View {
+
+  @Consume.FromKeyValueEntity(DayHeatmapEntity.class)
+  public static class HeatmapUpdater extends TableUpdater<DayCounts> {
+
+    public Effect<DayCounts> onUpdate(DayCounts day) {
+      return effects().updateRow(day.withoutSlots());
+    }
+  }
+
+  public record HeatmapDays(List<DayCounts> days) {}
+
+  // Days are ISO dates (yyyy-MM-dd), both inclusive
+  public record DayRangeInput(String fromDay, String toDay) {}
+
+  @Query(
+      "SELECT * AS days FROM view_availability_heatmap_days WHERE day >= :fromDay AND day <= :toDay ORDER BY day")
+  public QueryEffect<HeatmapDays> getDays(DayRangeInput input) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * FROM view_availability_heatmap_days WHERE day >= :fromDay AND day <= :toDay ORDER BY day")
+  public QueryStreamEffect<DayCounts> streamDays(DayRangeInput input) {
+    return queryStreamResult();
+  }
+}
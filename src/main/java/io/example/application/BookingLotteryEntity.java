@@ -0,0 +1,126 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Collects the booking requests for a high-demand slot during a short window,
+// keyed by slot ID. The first entry opens a round; when its window has passed
+// the LotteryDrawAction closes the round and resolves all of its entries in
+// one batch against the BookingSlotEntity. Entries arriving while a round is
+// being drawn open the next round. The draws are scheduled by the
+// LotteryTimerConsumer from this entity's state, so every round that has
+// entries gets drawn.
+//
+// The entries of a closed round stay in `drawing` until their outcomes are
+// recorded, so a draw that fails halfway can simply be run again. Only the
+// latest KEPT_OUTCOMES outcomes are kept once decided.
+@ComponentId("booking-lottery")
+public class BookingLotteryEntity extends KeyValueEntity<BookingLotteryEntity.Lottery> {
+
+  static final int KEPT_OUTCOMES = 1000;
+
+  public enum Outcome {
+    PENDING,
+    WON,
+    LOST
+  }
+
+  public record Entry(
+      String bookingId,
+      String studentId,
+      String aircraftId,
+      String instructorId,
+      int priority,
+      Instant enteredAt) {}
+
+  // `decided` lists the bookings whose outcome has been decided, oldest
+  // first, so the oldest outcomes can be dropped
+  public record Lottery(
+      List<Entry> open,
+      Instant closesAt,
+      List<Entry> drawing,
+      Map<String, Outcome> outcomes,
+      List<String> decided) {}
+
+  public record Enter(Entry entry, Instant closesAt) {}
+
+  public record Ticket(String bookingId, Instant closesAt) {}
+
+  public record Outcomes(List<String> won, List<String> lost) {}
+
+  @Override
+  public Lottery emptyState() {
+    return new Lottery(List.of(), Instant.EPOCH, List.of(), Map.of(), List.of());
+  }
+
+  public Effect<Ticket> enter(Enter enter) {
+    Lottery lottery = currentState();
+    String bookingId = enter.entry().bookingId();
+    if (lottery.outcomes().containsKey(bookingId)) {
+      return effects().error("Booking has already been entered");
+    }
+
+    Instant closesAt = lottery.open().isEmpty() ? enter.closesAt() : lottery.closesAt();
+    List<Entry> open = new ArrayList<>(lottery.open());
+    open.add(enter.entry());
+    Map<String, Outcome> outcomes = new HashMap<>(lottery.outcomes());
+    outcomes.put(bookingId, Outcome.PENDING);
+
+    return effects()
+        .updateState(new Lottery(open, closesAt, lottery.drawing(), outcomes, lottery.decided()))
+        .thenReply(new Ticket(bookingId, closesAt));
+  }
+
+  // Closes the open round and returns the entries to draw. While a previous
+  // draw hasn't recorded its outcomes yet, its entries are drawn again along
+  // with those of the open round.
+  public Effect<List<Entry>> close() {
+    Lottery lottery = currentState();
+    if (lottery.open().isEmpty()) {
+      return effects().reply(lottery.drawing());
+    }
+    List<Entry> drawing = new ArrayList<>(lottery.drawing());
+    drawing.addAll(lottery.open());
+    return effects()
+        .updateState(
+            new Lottery(List.of(), Instant.EPOCH, drawing, lottery.outcomes(), lottery.decided()))
+        .thenReply(drawing);
+  }
+
+  public Effect<Done> recordOutcomes(Outcomes drawn) {
+    Lottery lottery = currentState();
+    Map<String, Outcome> outcomes = new HashMap<>(lottery.outcomes());
+    List<String> decided = new ArrayList<>(lottery.decided());
+    drawn.won().forEach(bookingId -> decide(outcomes, decided, bookingId, Outcome.WON));
+    drawn.lost().forEach(bookingId -> decide(outcomes, decided, bookingId, Outcome.LOST));
+    if (decided.size() > KEPT_OUTCOMES) {
+      List<String> dropped = decided.subList(0, decided.size() - KEPT_OUTCOMES);
+      dropped.forEach(outcomes::remove);
+      dropped.clear();
+    }
+    return effects()
+        .updateState(new Lottery(lottery.open(), lottery.closesAt(), List.of(), outcomes, decided))
+        .thenReply(Done.done());
+  }
+
+  private static void decide(
+      Map<String, Outcome> outcomes, List<String> decided, String bookingId, Outcome outcome) {
+    Outcome previous = outcomes.put(bookingId, outcome);
+    if (previous == null || previous == Outcome.PENDING) decided.add(bookingId);
+  }
+
+  public ReadOnlyEffect<Outcome> getOutcome(String bookingId) {
+    Outcome outcome = currentState().outcomes().get(bookingId);
+    if (outcome == null) {
+      // or it was decided long enough ago that its outcome has been dropped
+      return effects().error("Booking has not been entered");
+    }
+    return effects().reply(outcome);
+  }
+}
@@ -6,10 +6,12 @@ import akka.javasdk.eventsourcedentity.EventSourcedEntity;
 import akka.javasdk.eventsourcedentity.EventSourcedEntityContext;
 import io.example.domain.BookingEvent;
 import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
 import io.example.domain.Timeslot;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,54 +20,138 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
 
   private final String entityId;
   private static final Logger logger = LoggerFactory.getLogger(BookingSlotEntity.class);
+  private static final String NOT_BOOKABLE = "Timeslot is not bookable";
 
   public BookingSlotEntity(EventSourcedEntityContext context) {
     this.entityId = context.entityId();
   }
 
   public Effect<Done> markSlotAvailable(Command.MarkSlotAvailable cmd) {
-    return effects()
-        .persist(
-            new BookingEvent.ParticipantMarkedAvailable(
-                entityId, cmd.participant.id(), cmd.participant.participantType()))
-        .thenReply(timeslot -> Done.done());
+    return effects().persist(markedEvent(cmd)).thenReply(timeslot -> Done.done());
   }
 
   public Effect<Done> unmarkSlotAvailable(Command.UnmarkSlotAvailable cmd) {
-    return effects()
-        .persist(
-            new BookingEvent.ParticipantUnmarkedAvailable(
-                entityId, cmd.participant.id(), cmd.participant.participantType()))
-        .thenReply(timeslot -> Done.done());
+    return effects().persist(unmarkedEvent(cmd)).thenReply(timeslot -> Done.done());
+  }
+
+  // The "AndGet" variants of the writes reply with the slot as it is after
+  // the write and its version, for clients that would otherwise read the
+  // slot again right away
+  public Effect<VersionedSlot> markSlotAvailableAndGet(Command.MarkSlotAvailable cmd) {
+    return persistAndGet(List.of(markedEvent(cmd)));
+  }
+
+  public Effect<VersionedSlot> unmarkSlotAvailableAndGet(Command.UnmarkSlotAvailable cmd) {
+    return persistAndGet(List.of(unmarkedEvent(cmd)));
+  }
+
+  public Effect<VersionedSlot> bookSlotAndGet(Command.BookReservation cmd) {
+    if (!isBookable(cmd)) return effects().error(NOT_BOOKABLE);
+    return persistAndGet(bookingEvents(cmd));
+  }
+
+  public Effect<VersionedSlot> cancelBookingAndGet(String bookingId) {
+    return persistAndGet(cancelEvents(bookingId));
+  }
+
+  private Effect<VersionedSlot> persistAndGet(List<BookingEvent> events) {
+    long version = commandContext().sequenceNumber() + events.size();
+    if (events.isEmpty()) return effects().reply(new VersionedSlot(version, currentState()));
+    return effects().persistAll(events).thenReply(timeslot -> new VersionedSlot(version, timeslot));
+  }
+
+  private BookingEvent markedEvent(Command.MarkSlotAvailable cmd) {
+    return new BookingEvent.ParticipantMarkedAvailable(
+        entityId, cmd.participant.id(), cmd.participant.participantType());
+  }
+
+  private BookingEvent unmarkedEvent(Command.UnmarkSlotAvailable cmd) {
+    return new BookingEvent.ParticipantUnmarkedAvailable(
+        entityId, cmd.participant.id(), cmd.participant.participantType());
   }
 
   // NOTE: booking a slot should produce 3
   // `ParticipantBooked` events
   public Effect<Done> bookSlot(Command.BookReservation cmd) {
-    boolean canBook = currentState().isBookable(cmd.studentId, cmd.aircraftId, cmd.instructorId);
-    if (canBook)
-      return effects()
-          .persistAll(
-              List.of(
-                  new BookingEvent.ParticipantBooked(
-                      entityId,
-                      cmd.aircraftId,
-                      Participant.ParticipantType.AIRCRAFT,
-                      cmd.bookingId),
-                  new BookingEvent.ParticipantBooked(
-                      entityId,
-                      cmd.instructorId,
-                      Participant.ParticipantType.INSTRUCTOR,
-                      cmd.bookingId),
-                  new BookingEvent.ParticipantBooked(
-                      entityId, cmd.studentId, Participant.ParticipantType.STUDENT, cmd.bookingId)))
-          .thenReply(timeslot -> Done.done());
-    else return effects().error("Timeslot is not bookable");
+    if (!isBookable(cmd)) return effects().error(NOT_BOOKABLE);
+    return effects().persistAll(bookingEvents(cmd)).thenReply(timeslot -> Done.done());
+  }
+
+  // Whether every participant of the reservation is available
+  private boolean isBookable(Command.BookReservation cmd) {
+    return currentState().isBookable(cmd.studentId, cmd.aircraftId, cmd.instructorId);
+  }
+
+  // Records a booking whose participants' availability isn't kept on this
+  // entity: those of a partitioned slot, which have already been claimed from
+  // the slot's partitions (see SlotPartitioning), and those of an imported
+  // booking. Participants may still only be booked once. Recording the same
+  // booking again changes nothing.
+  public Effect<Done> recordBooking(Command.BookReservation cmd) {
+    if (!currentState().findBooking(cmd.bookingId).isEmpty()) {
+      return effects().reply(Done.done());
+    }
+    if (currentState().isBooked(cmd.studentId, ParticipantType.STUDENT)
+        || currentState().isBooked(cmd.aircraftId, ParticipantType.AIRCRAFT)
+        || currentState().isBooked(cmd.instructorId, ParticipantType.INSTRUCTOR)) {
+      return effects().error("Participant is already booked");
+    }
+    return effects().persistAll(bookingEvents(cmd)).thenReply(timeslot -> Done.done());
+  }
+
+  // Books as many of the given reservations as possible, in the order given.
+  // A reservation wins if its participants are available and not already
+  // taken by an earlier winner in the same batch; all winners are persisted
+  // together, so a contested slot costs one command instead of one per
+  // reservation. Reservations that are already booked count as winners, so
+  // a batch that is retried after a failure gives the same result.
+  public Effect<BatchResult> bookBatch(Command.BookBatch cmd) {
+    List<BookingEvent> events = new ArrayList<>();
+    List<String> booked = new ArrayList<>();
+    List<String> rejected = new ArrayList<>();
+    Set<String> taken = new HashSet<>();
+    Set<String> alreadyBooked = currentState().participantsByBooking().keySet();
+    for (Command.BookReservation reservation : cmd.reservations()) {
+      if (alreadyBooked.contains(reservation.bookingId)) {
+        booked.add(reservation.bookingId);
+        continue;
+      }
+      boolean free =
+          !taken.contains(reservation.studentId)
+              && !taken.contains(reservation.aircraftId)
+              && !taken.contains(reservation.instructorId);
+      if (free && isBookable(reservation)) {
+        taken.addAll(
+            List.of(reservation.studentId, reservation.aircraftId, reservation.instructorId));
+        events.addAll(bookingEvents(reservation));
+        booked.add(reservation.bookingId);
+      } else {
+        rejected.add(reservation.bookingId);
+      }
+    }
+
+    BatchResult result = new BatchResult(booked, rejected);
+    if (events.isEmpty()) return effects().reply(result);
+    return effects().persistAll(events).thenReply(timeslot -> result);
+  }
+
+  private List<BookingEvent> bookingEvents(Command.BookReservation cmd) {
+    return List.of(
+        new BookingEvent.ParticipantBooked(
+            entityId, cmd.aircraftId, Participant.ParticipantType.AIRCRAFT, cmd.bookingId),
+        new BookingEvent.ParticipantBooked(
+            entityId, cmd.instructorId, Participant.ParticipantType.INSTRUCTOR, cmd.bookingId),
+        new BookingEvent.ParticipantBooked(
+            entityId, cmd.studentId, Participant.ParticipantType.STUDENT, cmd.bookingId));
   }
 
   // NOTE: canceling a booking should produce 3
   // `ParticipantCanceled` events
   public Effect<Done> cancelBooking(String bookingId) {
+    return effects().persistAll(cancelEvents(bookingId)).thenReply(timeslot -> Done.done());
+  }
+
+  private List<BookingEvent> cancelEvents(String bookingId) {
     List<BookingEvent> events = new ArrayList<>();
     for (Timeslot.Booking booking : currentState().findBooking(bookingId)) {
       BookingEvent.ParticipantCanceled participantCanceled =
@@ -76,40 +162,52 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
               bookingId);
       events.add(participantCanceled);
     }
-    return effects().persistAll(events).thenReply(timeslot -> Done.done());
+    return events;
+  }
+
+  // Archiving deletes the slot. Every participant that was still available or
+  // booked is listed on the event so the participant projection can follow.
+  public Effect<Done> archive() {
+    List<Participant> participants = new ArrayList<>(currentState().available());
+    currentState().bookings().forEach(booking -> participants.add(booking.participant()));
+    return effects()
+        .persist(new BookingEvent.SlotArchived(entityId, participants))
+        .deleteEntity()
+        .thenReply(timeslot -> Done.done());
   }
 
   public ReadOnlyEffect<Timeslot> getSlot() {
     return effects().reply(currentState());
   }
 
+  // The sequence number of the slot's last event, 0 for a slot that has
+  // never been written. Cheap enough to call just to get the entity loaded.
+  public ReadOnlyEffect<Long> getVersion() {
+    return effects().reply(commandContext().sequenceNumber());
+  }
+
+  // The slot's state with its version, the sequence number of its last
+  // event. The state is left out if the caller already has that version.
+  public ReadOnlyEffect<VersionedSlot> getSlotIfChanged(long knownVersion) {
+    long version = commandContext().sequenceNumber();
+    Timeslot timeslot = version == knownVersion ? null : currentState();
+    return effects().reply(new VersionedSlot(version, timeslot));
+  }
+
   @Override
   public Timeslot emptyState() {
-    return new Timeslot(
-        // NOTE: these are just estimates for capacity based on it being a sample
-        HashSet.newHashSet(10), HashSet.newHashSet(10));
+    return Timeslot.empty();
   }
 
   @Override
   public Timeslot applyEvent(BookingEvent event) {
-    // Supply your own implementation to update state based
-    // on the event
-    return switch (event) {
-      case BookingEvent.ParticipantMarkedAvailable markedAvailable ->
-          currentState().reserve(markedAvailable);
-      case BookingEvent.ParticipantUnmarkedAvailable unmarkedAvailable ->
-          currentState().unreserve(unmarkedAvailable);
-      case BookingEvent.ParticipantBooked booked ->
-          currentState()
-              .book(booked)
-              .unreserve(
-                  new BookingEvent.ParticipantUnmarkedAvailable(
-                      booked.slotId(), booked.participantId(), booked.participantType()));
-      case BookingEvent.ParticipantCanceled cancelled ->
-          currentState().cancelBooking(cancelled.bookingId());
-    };
+    return currentState().apply(event);
   }
 
+  public record VersionedSlot(long version, Timeslot timeslot) {}
+
+  public record BatchResult(List<String> booked, List<String> rejected) {}
+
   public sealed interface Command {
     record MarkSlotAvailable(Participant participant) implements Command {}
 
@@ -118,5 +216,7 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
     record BookReservation(
         String studentId, String aircraftId, String instructorId, String bookingId)
         implements Command {}
+
+    record BookBatch(List<BookReservation> reservations) implements Command {}
   }
 }
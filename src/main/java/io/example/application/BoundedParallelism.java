@@ -0,0 +1,40 @@
+package io.example.application;
+
+import akka.Done;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+// Runs an asynchronous step for every item with at most `parallelism` of
+// them in flight, for the background jobs that call many entities in one
+// run. Each worker takes the next item as soon as its previous one is done.
+// The step is expected to handle its own failures.
+final class BoundedParallelism {
+
+  private BoundedParallelism() {}
+
+  static <T> CompletionStage<Done> forEach(
+      Collection<T> items, int parallelism, Function<T, CompletionStage<Done>> step) {
+    Queue<T> queue = new ConcurrentLinkedQueue<>(items);
+    List<CompletableFuture<Done>> workers = new ArrayList<>();
+    for (int i = 0; i < Math.min(parallelism, items.size()); i++) {
+      workers.add(next(queue, step).toCompletableFuture());
+    }
+    return CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new))
+        .thenApply(done -> Done.done());
+  }
+
+  private static <T> CompletionStage<Done> next(
+      Queue<T> queue, Function<T, CompletionStage<Done>> step) {
+    T item = queue.poll();
+    if (item == null) {
+      return CompletableFuture.completedFuture(Done.done());
+    }
+    return step.apply(item).thenCompose(done -> next(queue, step));
+  }
+}
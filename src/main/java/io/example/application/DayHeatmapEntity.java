@@ -0,0 +1,215 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import akka.javasdk.keyvalueentity.KeyValueEntityContext;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+// The availability heatmap of one day, keyed by the day (an ISO date): the
+// counters of available and booked participants by type of each of the
+// day's hourly slots, and their totals for the day. Slots whose counters are
+// all zero are left out.
+//
+// The counters are derived from the slots' events (see HeatmapSlotConsumer).
+// The day keeps the participants of each of its slots as well, and applies
+// an event to them the way the slot itself does (Timeslot.apply) before
+// counting them again, so an event that is delivered again, or one that
+// doesn't change the slot (marking an already available participant),
+// doesn't throw the counters off.
+@ComponentId("day-heatmap")
+public class DayHeatmapEntity extends KeyValueEntity<DayHeatmapEntity.DayCounts> {
+
+  private final String day;
+
+  public DayHeatmapEntity(KeyValueEntityContext context) {
+    this.day = context.entityId();
+  }
+
+  // `slots` is only kept for deriving the counters, and isn't part of the
+  // view's rows (see AvailabilityHeatmapView)
+  public record DayCounts(
+      String day, Counts totals, List<HourCounts> hours, List<SlotParticipants> slots) {
+
+    public DayCounts withoutSlots() {
+      return new DayCounts(day, totals, hours, List.of());
+    }
+  }
+
+  public record HourCounts(String slotId, int hour, Counts counts) {}
+
+  // The participants of one of the day's slots
+  public record SlotParticipants(
+      String slotId, List<Participant> available, List<Timeslot.Booking> bookings) {
+
+    Timeslot timeslot() {
+      return new Timeslot(new HashSet<>(bookings), new HashSet<>(available));
+    }
+  }
+
+  // An event of one of the day's slots, starting at the given hour. The
+  // event's participant and booking are carried as fields, as the events
+  // themselves are only serialized by the slot's journal.
+  public record SlotChange(
+      String slotId, int hour, Kind kind, Participant participant, String bookingId) {
+
+    public enum Kind {
+      MARKED_AVAILABLE,
+      UNMARKED_AVAILABLE,
+      BOOKED,
+      CANCELED,
+      ARCHIVED
+    }
+
+    public static SlotChange of(String slotId, int hour, BookingEvent event) {
+      return switch (event) {
+        case BookingEvent.ParticipantMarkedAvailable marked ->
+            new SlotChange(
+                slotId,
+                hour,
+                Kind.MARKED_AVAILABLE,
+                new Participant(marked.participantId(), marked.participantType()),
+                null);
+        case BookingEvent.ParticipantUnmarkedAvailable unmarked ->
+            new SlotChange(
+                slotId,
+                hour,
+                Kind.UNMARKED_AVAILABLE,
+                new Participant(unmarked.participantId(), unmarked.participantType()),
+                null);
+        case BookingEvent.ParticipantBooked booked ->
+            new SlotChange(
+                slotId,
+                hour,
+                Kind.BOOKED,
+                new Participant(booked.participantId(), booked.participantType()),
+                booked.bookingId());
+        case BookingEvent.ParticipantCanceled canceled ->
+            new SlotChange(
+                slotId,
+                hour,
+                Kind.CANCELED,
+                new Participant(canceled.participantId(), canceled.participantType()),
+                canceled.bookingId());
+        case BookingEvent.SlotArchived archived ->
+            new SlotChange(slotId, hour, Kind.ARCHIVED, null, null);
+      };
+    }
+
+    BookingEvent event() {
+      return switch (kind) {
+        case MARKED_AVAILABLE ->
+            new BookingEvent.ParticipantMarkedAvailable(
+                slotId, participant.id(), participant.participantType());
+        case UNMARKED_AVAILABLE ->
+            new BookingEvent.ParticipantUnmarkedAvailable(
+                slotId, participant.id(), participant.participantType());
+        case BOOKED ->
+            new BookingEvent.ParticipantBooked(
+                slotId, participant.id(), participant.participantType(), bookingId);
+        case CANCELED ->
+            new BookingEvent.ParticipantCanceled(
+                slotId, participant.id(), participant.participantType(), bookingId);
+        case ARCHIVED -> new BookingEvent.SlotArchived(slotId, List.of());
+      };
+    }
+  }
+
+  public record Counts(
+      int studentsAvailable,
+      int instructorsAvailable,
+      int aircraftAvailable,
+      int studentsBooked,
+      int instructorsBooked,
+      int aircraftBooked) {
+
+    public static final Counts ZERO = new Counts(0, 0, 0, 0, 0, 0);
+
+    public static Counts of(Timeslot timeslot) {
+      List<Participant> booked =
+          timeslot.bookings().stream().map(Timeslot.Booking::participant).toList();
+      return new Counts(
+          count(timeslot.available(), ParticipantType.STUDENT),
+          count(timeslot.available(), ParticipantType.INSTRUCTOR),
+          count(timeslot.available(), ParticipantType.AIRCRAFT),
+          count(booked, ParticipantType.STUDENT),
+          count(booked, ParticipantType.INSTRUCTOR),
+          count(booked, ParticipantType.AIRCRAFT));
+    }
+
+    private static int count(Collection<Participant> participants, ParticipantType type) {
+      return (int) participants.stream().filter(p -> p.participantType() == type).count();
+    }
+
+    public Counts plus(Counts other) {
+      return new Counts(
+          studentsAvailable + other.studentsAvailable,
+          instructorsAvailable + other.instructorsAvailable,
+          aircraftAvailable + other.aircraftAvailable,
+          studentsBooked + other.studentsBooked,
+          instructorsBooked + other.instructorsBooked,
+          aircraftBooked + other.aircraftBooked);
+    }
+  }
+
+  @Override
+  public DayCounts emptyState() {
+    return new DayCounts(day, Counts.ZERO, List.of(), List.of());
+  }
+
+  // Applies an event to the participants of its slot, and counts them again
+  public Effect<Done> onSlotChange(SlotChange change) {
+    // days kept before their slots' participants were have none, until the
+    // consumer has gone through the events again
+    List<SlotParticipants> slots =
+        currentState().slots() == null ? List.of() : currentState().slots();
+    Optional<SlotParticipants> current =
+        slots.stream().filter(slot -> slot.slotId().equals(change.slotId())).findFirst();
+    Timeslot before = current.map(SlotParticipants::timeslot).orElse(Timeslot.empty());
+    // Timeslot.apply updates the slot's sets in place, so it gets its own
+    Timeslot after =
+        current.map(SlotParticipants::timeslot).orElse(Timeslot.empty()).apply(change.event());
+    if (after.equals(before)) {
+      return effects().reply(Done.done());
+    }
+
+    List<SlotParticipants> updatedSlots = new ArrayList<>();
+    for (SlotParticipants slot : slots) {
+      if (!slot.slotId().equals(change.slotId())) updatedSlots.add(slot);
+    }
+    if (!after.available().isEmpty() || !after.bookings().isEmpty()) {
+      updatedSlots.add(
+          new SlotParticipants(
+              change.slotId(), List.copyOf(after.available()), List.copyOf(after.bookings())));
+    }
+    updatedSlots.sort(Comparator.comparing(SlotParticipants::slotId));
+
+    List<HourCounts> hours = new ArrayList<>();
+    for (HourCounts hour : currentState().hours()) {
+      if (hour.hour() != change.hour()) hours.add(hour);
+    }
+    Counts counts = Counts.of(after);
+    if (!counts.equals(Counts.ZERO)) {
+      hours.add(new HourCounts(change.slotId(), change.hour(), counts));
+    }
+    hours.sort(Comparator.comparingInt(HourCounts::hour));
+
+    Counts totals = hours.stream().map(HourCounts::counts).reduce(Counts.ZERO, Counts::plus);
+    return effects()
+        .updateState(new DayCounts(day, totals, hours, updatedSlots))
+        .thenReply(Done.done());
+  }
+
+  public ReadOnlyEffect<DayCounts> getDay() {
+    return effects().reply(currentState());
+  }
+}
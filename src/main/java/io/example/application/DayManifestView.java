@@ -0,0 +1,104 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.BookingEvent;
+import io.example.domain.SlotIds;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// The bookings of each slot, grouped by booking ID with the student,
+// instructor and aircraft of each, and indexed by the date in the slot ID,
+// so that a day's flight manifest is a single query instead of a read of
+// every hourly BookingSlotEntity. Rows follow the source entity, so there is
+// one row per slot holding its bookings, rather than one row per booking.
+@ComponentId("view-day-manifest")
+public class DayManifestView extends View {
+
+  @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+  public static class ManifestUpdater extends TableUpdater<ManifestRow> {
+
+    public Effect<ManifestRow> onEvent(BookingEvent event) {
+      return switch (event) {
+        case BookingEvent.ParticipantBooked booked -> {
+          ManifestRow row =
+              rowState() == null
+                  ? ManifestRow.empty(updateContext().eventSubject().orElseThrow())
+                  : rowState();
+          yield effects().updateRow(row.withBooked(booked));
+        }
+        case BookingEvent.ParticipantCanceled canceled ->
+            rowState() == null
+                ? effects().ignore()
+                : effects().updateRow(rowState().withoutBooking(canceled.bookingId()));
+        case BookingEvent.SlotArchived archived -> effects().deleteRow();
+        // availability isn't part of the manifest
+        case BookingEvent.ParticipantMarkedAvailable marked -> effects().ignore();
+        case BookingEvent.ParticipantUnmarkedAvailable unmarked -> effects().ignore();
+      };
+    }
+  }
+
+  // Slots whose IDs don't follow the date convention get an empty day and are
+  // therefore never part of a manifest.
+  public record ManifestRow(String slotId, String day, int hour, List<ManifestBooking> bookings) {
+
+    static ManifestRow empty(String slotId) {
+      Optional<LocalDateTime> start = SlotIds.parse(slotId);
+      return new ManifestRow(
+          slotId,
+          start.map(s -> s.toLocalDate().toString()).orElse(""),
+          start.map(LocalDateTime::getHour).orElse(-1),
+          List.of());
+    }
+
+    // A booking is persisted as one event per participant, so its entry is
+    // filled in over three events
+    ManifestRow withBooked(BookingEvent.ParticipantBooked booked) {
+      List<ManifestBooking> updated = new ArrayList<>();
+      ManifestBooking booking = new ManifestBooking(booked.bookingId(), null, null, null);
+      for (ManifestBooking existing : bookings) {
+        if (existing.bookingId().equals(booked.bookingId())) booking = existing;
+        else updated.add(existing);
+      }
+      updated.add(booking.with(booked));
+      return new ManifestRow(slotId, day, hour, updated);
+    }
+
+    ManifestRow withoutBooking(String bookingId) {
+      return new ManifestRow(
+          slotId,
+          day,
+          hour,
+          bookings.stream().filter(booking -> !booking.bookingId().equals(bookingId)).toList());
+    }
+  }
+
+  public record ManifestBooking(
+      String bookingId, String studentId, String instructorId, String aircraftId) {
+
+    ManifestBooking with(BookingEvent.ParticipantBooked booked) {
+      return switch (booked.participantType()) {
+        case STUDENT ->
+            new ManifestBooking(bookingId, booked.participantId(), instructorId, aircraftId);
+        case INSTRUCTOR ->
+            new ManifestBooking(bookingId, studentId, booked.participantId(), aircraftId);
+        case AIRCRAFT ->
+            new ManifestBooking(bookingId, studentId, instructorId, booked.participantId());
+      };
+    }
+  }
+
+  public record DaySlots(List<ManifestRow> slots) {}
+
+  // Days are ISO dates (yyyy-MM-dd)
+  @Query("SELECT * AS slots FROM view_day_manifest WHERE day = :day ORDER BY hour")
+  public QueryEffect<DaySlots> getDay(String day) {
+    return queryResult();
+  }
+}
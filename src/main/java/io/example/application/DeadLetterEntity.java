@@ -0,0 +1,67 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import java.time.Instant;
+
+// A participant update the projection gave up on after its retries, keyed
+// by an ID derived from the event it came from (see
+// ParticipantUpdateDelivery). Parking it here lets the projection move on to
+// the events behind it; the update can be inspected and replayed later.
+//
+// `sourceId` and `sourceSequence` identify that event: the entity that
+// emitted it and its sequence number there (0 if unknown).
+@ComponentId("dead-letter")
+public class DeadLetterEntity extends KeyValueEntity<DeadLetterEntity.DeadLetter> {
+
+  public enum Status {
+    OPEN,
+    REPLAYED
+  }
+
+  public record DeadLetter(
+      String id,
+      ParticipantUpdate update,
+      String sourceId,
+      long sourceSequence,
+      String error,
+      int attempts,
+      Instant failedAt,
+      Status status) {}
+
+  // Storing the same dead letter again, for an event that was delivered
+  // again, keeps the one already stored, which may have been replayed
+  public Effect<Done> store(DeadLetter deadLetter) {
+    if (currentState() != null) {
+      return effects().reply(Done.done());
+    }
+    return effects().updateState(deadLetter).thenReply(Done.done());
+  }
+
+  public Effect<Done> markReplayed() {
+    if (currentState() == null) {
+      return effects().error("Dead letter not found");
+    }
+    DeadLetter deadLetter = currentState();
+    return effects()
+        .updateState(
+            new DeadLetter(
+                deadLetter.id(),
+                deadLetter.update(),
+                deadLetter.sourceId(),
+                deadLetter.sourceSequence(),
+                deadLetter.error(),
+                deadLetter.attempts(),
+                deadLetter.failedAt(),
+                Status.REPLAYED))
+        .thenReply(Done.done());
+  }
+
+  public ReadOnlyEffect<DeadLetter> get() {
+    if (currentState() == null) {
+      return effects().error("Dead letter not found");
+    }
+    return effects().reply(currentState());
+  }
+}
@@ -0,0 +1,28 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.application.DeadLetterEntity.DeadLetter;
+import io.example.application.DeadLetterEntity.Status;
+import java.util.List;
+
+// Lists the participant projection's dead letters by status, newest first
+@ComponentId("view-dead-letters")
+public class DeadLettersView extends View {
+
+  @Consume.FromKeyValueEntity(DeadLetterEntity.class)
+  public static class DeadLettersUpdater extends TableUpdater<DeadLetter> {}
+
+  public record DeadLetterList(List<DeadLetter> deadLetters) {}
+
+  public record StatusInput(Status status) {}
+
+  @Query(
+      "SELECT * AS deadLetters FROM view_dead_letters WHERE status = :status ORDER BY failedAt DESC")
+  public QueryEffect<DeadLetterList> getDeadLetters(StatusInput input) {
+    return queryResult();
+  }
+}
@@ -0,0 +1,50 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.application.DayHeatmapEntity.SlotChange;
+import io.example.domain.BookingEvent;
+import io.example.domain.SlotIds;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Keeps the day heatmaps up to date from the BookingSlotEntity events. Each
+// event is handed to the day of its slot, which applies it to the slot's
+// participants it keeps and counts them again (see DayHeatmapEntity), so the
+// slot itself isn't read for every event.
+//
+// The available participants of a partitioned slot are kept by its
+// partitions (see SlotPartitioning), not by the slot, so only the bookings
+// of such slots are counted.
+//
+// The component was renamed when the days started keeping their slots'
+// participants, so that it went through the slots' events from the start
+// again and rebuilt the days that were kept before.
+@ComponentId("heatmap-slot-event-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class HeatmapSlotConsumer extends Consumer {
+
+  private final ComponentClient client;
+
+  public HeatmapSlotConsumer(ComponentClient client) {
+    this.client = client;
+  }
+
+  public Effect onEvent(BookingEvent event) {
+    String slotId = messageContext().eventSubject().orElseThrow();
+    Optional<LocalDateTime> start = SlotIds.parse(slotId);
+    // slots whose IDs don't follow the date convention are never part of a
+    // heatmap
+    if (start.isEmpty()) {
+      return effects().ignore();
+    }
+
+    client
+        .forKeyValueEntity(start.get().toLocalDate().toString())
+        .method(DayHeatmapEntity::onSlotChange)
+        .invoke(SlotChange.of(slotId, start.get().getHour(), event));
+    return effects().done();
+  }
+}
@@ -0,0 +1,118 @@
+package io.example.application;
+
+import akka.javasdk.Tracing;
+import com.typesafe.config.Config;
+import io.opentelemetry.api.trace.Span;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+
+// Times one hop of a request as a span of the request's trace, and writes a
+// structured log line for it on the `io.example.trace` logger. Hops are
+// measured where the work is awaited, around the component calls of an
+// endpoint and around the delivery of a consumer: an entity or view handler
+// only builds its effect, the work itself is done after it returns.
+//
+// Hops are head sampled: the decision is made from the trace ID of the
+// parent span, before the hop's own span is created, so either every hop of
+// a request is traced or none is, at the rate set by
+// `flight.tracing.sample-rate`. Hops without a trace (tracing switched off)
+// are sampled independently at the same rate.
+//
+// Usage: try (var hop = tracer.start("name", tracing)) { ... }
+public final class HopTrace implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger("io.example.trace");
+
+  private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+
+  private final String hop;
+  private final Optional<Span> span;
+  private final String traceId;
+  private final boolean sampled;
+  private final long startNanos = System.nanoTime();
+  private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+  private HopTrace(String hop, Optional<Span> span, String traceId, boolean sampled) {
+    this.hop = hop;
+    this.span = span;
+    this.traceId = traceId;
+    this.sampled = sampled;
+  }
+
+  // Starts hops at the configured sample rate, one per component
+  public static final class Tracer {
+
+    private final double sampleRate;
+
+    public Tracer(Config config) {
+      this(config.getDouble("flight.tracing.sample-rate"));
+    }
+
+    Tracer(double sampleRate) {
+      this.sampleRate = sampleRate;
+    }
+
+    public HopTrace start(String hop, Tracing tracing) {
+      String parentTraceId = tracing.parentSpan().map(HopTrace::traceId).orElse("");
+      boolean sampled =
+          parentTraceId.isEmpty()
+              ? ThreadLocalRandom.current().nextDouble() < sampleRate
+              : isSampled(parentTraceId, sampleRate);
+      if (!sampled) {
+        return new HopTrace(hop, Optional.empty(), parentTraceId, false);
+      }
+      Optional<Span> span = tracing.startSpan(hop);
+      return new HopTrace(hop, span, span.map(HopTrace::traceId).orElse(parentTraceId), true);
+    }
+  }
+
+  public HopTrace with(String key, Object value) {
+    if (!sampled) return this;
+    attributes.put(key, value);
+    span.ifPresent(s -> s.setAttribute(key, String.valueOf(value)));
+    return this;
+  }
+
+  boolean sampled() {
+    return sampled;
+  }
+
+  @Override
+  public void close() {
+    span.ifPresent(Span::end);
+    if (!sampled || !logger.isInfoEnabled()) return;
+
+    LoggingEventBuilder event =
+        logger
+            .atInfo()
+            .setMessage(hop)
+            .addKeyValue("hop", hop)
+            .addKeyValue("traceId", traceId)
+            .addKeyValue("durationMicros", (System.nanoTime() - startNanos) / 1000);
+    attributes.forEach(event::addKeyValue);
+    event.log();
+  }
+
+  private static String traceId(Span span) {
+    String traceId = span.getSpanContext().getTraceId();
+    return traceId.equals(INVALID_TRACE_ID) ? "" : traceId;
+  }
+
+  // Compares the low 8 bytes of the trace ID, which are random for W3C trace
+  // IDs, against the rate, like OpenTelemetry's trace ID ratio sampler
+  static boolean isSampled(String traceId, double rate) {
+    if (rate >= 1) return true;
+    if (rate <= 0) return false;
+    try {
+      long low = Long.parseUnsignedLong(traceId.substring(16), 16) >>> 1;
+      return low < (long) (rate * Long.MAX_VALUE);
+    } catch (NumberFormatException ex) {
+      return false;
+    }
+  }
+}
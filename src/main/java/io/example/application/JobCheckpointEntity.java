@@ -0,0 +1,50 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import java.time.Instant;
+
+// Remembers how far a background job has worked through its backlog, keyed
+// by job name. Jobs process their input in slot-ID order and store the last
+// slot ID they handled, so a restarted job picks up where it left off. Jobs
+// that handle all of their input in one run record the outcome of their
+// latest run instead.
+@ComponentId("job-checkpoint")
+public class JobCheckpointEntity extends KeyValueEntity<JobCheckpointEntity.Checkpoint> {
+
+  public record Checkpoint(String cursor, long processed, Instant updatedAt, Run lastRun) {}
+
+  public record Advance(String cursor, long processed) {}
+
+  public record Run(long processed, long failed, long durationMillis, Instant finishedAt) {}
+
+  @Override
+  public Checkpoint emptyState() {
+    return new Checkpoint("", 0, Instant.EPOCH, null);
+  }
+
+  public Effect<Done> advance(Advance advance) {
+    Checkpoint checkpoint =
+        new Checkpoint(
+            advance.cursor(),
+            currentState().processed() + advance.processed(),
+            Instant.now(),
+            currentState().lastRun());
+    return effects().updateState(checkpoint).thenReply(Done.done());
+  }
+
+  public Effect<Done> recordRun(Run run) {
+    Checkpoint checkpoint =
+        new Checkpoint(
+            currentState().cursor(),
+            currentState().processed() + run.processed(),
+            run.finishedAt(),
+            run);
+    return effects().updateState(checkpoint).thenReply(Done.done());
+  }
+
+  public ReadOnlyEffect<Checkpoint> getCheckpoint() {
+    return effects().reply(currentState());
+  }
+}
@@ -0,0 +1,90 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import com.typesafe.config.Config;
+import io.example.application.BookingLotteryEntity.Entry;
+import io.example.application.BookingLotteryEntity.Outcomes;
+import io.example.application.BookingSlotEntity.BatchResult;
+import io.example.application.BookingSlotEntity.Command.BookBatch;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Draws a round of a slot's booking lottery once its window has passed. The
+// round's entries are ordered (shuffled, or by priority and then arrival,
+// depending on `flight.lottery.ordering`) and handed to the BookingSlotEntity
+// as a single batch; the winners and losers are then recorded so clients can
+// look up a definitive outcome instead of retrying. Draws are scheduled by
+// the LotteryTimerConsumer; a draw that fails is retried by its timer.
+@ComponentId("lottery-draw")
+public class LotteryDrawAction extends TimedAction {
+
+  private static final Logger logger = LoggerFactory.getLogger(LotteryDrawAction.class);
+
+  private final ComponentClient componentClient;
+  private final boolean byPriority;
+
+  public LotteryDrawAction(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.byPriority = config.getString("flight.lottery.ordering").equals("priority");
+  }
+
+  // The timer name of the round of a slot that closes at the given instant
+  public static String timerName(String slotId, Instant closesAt) {
+    return "lottery-" + slotId + "-" + closesAt.toEpochMilli();
+  }
+
+  public Effect draw(String slotId) {
+    List<Entry> entries =
+        componentClient.forKeyValueEntity(slotId).method(BookingLotteryEntity::close).invoke();
+    if (entries.isEmpty()) {
+      return effects().done();
+    }
+
+    List<BookReservation> reservations =
+        order(entries).stream()
+            .map(
+                entry ->
+                    new BookReservation(
+                        entry.studentId(),
+                        entry.aircraftId(),
+                        entry.instructorId(),
+                        entry.bookingId()))
+            .toList();
+    BatchResult result =
+        componentClient
+            .forEventSourcedEntity(slotId)
+            .method(BookingSlotEntity::bookBatch)
+            .invoke(new BookBatch(reservations));
+
+    componentClient
+        .forKeyValueEntity(slotId)
+        .method(BookingLotteryEntity::recordOutcomes)
+        .invoke(new Outcomes(result.booked(), result.rejected()));
+    logger.info(
+        "Drew lottery for slot {}: {} booked, {} rejected",
+        slotId,
+        result.booked().size(),
+        result.rejected().size());
+    return effects().done();
+  }
+
+  private List<Entry> order(List<Entry> entries) {
+    List<Entry> ordered = new ArrayList<>(entries);
+    if (byPriority) {
+      ordered.sort(
+          Comparator.comparingInt(Entry::priority).reversed().thenComparing(Entry::enteredAt));
+    } else {
+      Collections.shuffle(ordered, ThreadLocalRandom.current());
+    }
+    return ordered;
+  }
+}
@@ -0,0 +1,39 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.application.BookingLotteryEntity.Lottery;
+import java.time.Duration;
+import java.time.Instant;
+
+// Schedules the draw of a slot's open lottery round whenever the lottery
+// changes. Every state with open entries schedules the draw of its round, so
+// a round that has entries is always drawn, whichever write opened it and
+// whether or not the draw before it succeeded. Scheduling the same round
+// again replaces its timer with an identical one.
+@ComponentId("lottery-timer-consumer")
+@Consume.FromKeyValueEntity(BookingLotteryEntity.class)
+public class LotteryTimerConsumer extends Consumer {
+
+  private final ComponentClient componentClient;
+
+  public LotteryTimerConsumer(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  public Effect onChange(Lottery lottery) {
+    if (lottery.open().isEmpty()) {
+      return effects().ignore();
+    }
+    String slotId = messageContext().eventSubject().orElseThrow();
+    Duration delay = Duration.between(Instant.now(), lottery.closesAt());
+    timers()
+        .createSingleTimer(
+            LotteryDrawAction.timerName(slotId, lottery.closesAt()),
+            delay.isNegative() ? Duration.ZERO : delay,
+            componentClient.forTimedAction().method(LotteryDrawAction::draw).deferred(slotId));
+    return effects().done();
+  }
+}
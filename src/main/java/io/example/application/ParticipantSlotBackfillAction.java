@@ -0,0 +1,157 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import com.typesafe.config.Config;
+import io.example.application.JobCheckpointEntity.Advance;
+import io.example.application.JobCheckpointEntity.Checkpoint;
+import io.example.application.JobCheckpointEntity.Run;
+import io.example.application.ParticipantSlotEntity.Commands.Remove;
+import io.example.application.ParticipantSlotsView.RowPageInput;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Copies the participant-slots of ParticipantSlotEntity into
+// ParticipantSlotStateEntity when the key-value storage is switched on (see
+// ParticipantSlotStorage). Each run copies one page of ParticipantSlotsView's
+// rows, tombstones included, in slot and participant order after the
+// checkpoint. Every row is copied from the entity rather than from the view,
+// and only to a key-value entity that hasn't been written yet: one that has
+// is newer, as updates have gone to both entities since the switch. Once the
+// view has no more rows the run is recorded, which moves reads to the
+// key-value views.
+//
+// A participant-slot removed while it's being copied could be copied after
+// its key-value entity was deleted, so the event-sourced one is read again
+// afterwards, and the copy is removed too if that is gone by then.
+@ComponentId("participant-slot-backfill")
+public class ParticipantSlotBackfillAction extends TimedAction {
+
+  public static final String JOB_NAME = "participant-slot-backfill";
+
+  private static final Logger logger = LoggerFactory.getLogger(ParticipantSlotBackfillAction.class);
+
+  // the checkpoint's cursor is the last row copied; slot IDs have no spaces
+  private static final String SEPARATOR = " ";
+
+  private final ComponentClient componentClient;
+  private final boolean enabled;
+  private final int pageSize;
+  private final Duration batchInterval;
+
+  public ParticipantSlotBackfillAction(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.enabled = config.getString("flight.participant-slots.storage").equals("key-value");
+    Config backfill = config.getConfig("flight.participant-slots.backfill");
+    this.pageSize = backfill.getInt("page-size");
+    this.batchInterval = backfill.getDuration("batch-interval");
+  }
+
+  public Effect runBatch() {
+    if (!enabled) {
+      return effects().done();
+    }
+
+    Checkpoint checkpoint =
+        componentClient
+            .forKeyValueEntity(JOB_NAME)
+            .method(JobCheckpointEntity::getCheckpoint)
+            .invoke();
+    if (checkpoint.lastRun() != null) {
+      return effects().done();
+    }
+
+    String[] cursor = checkpoint.cursor().split(SEPARATOR, 2);
+    String afterParticipantId = cursor.length == 2 ? cursor[1] : "";
+    List<SlotRow> rows =
+        componentClient
+            .forView()
+            .method(ParticipantSlotsView::getRowsAfter)
+            .invoke(new RowPageInput(cursor[0], afterParticipantId, pageSize))
+            .slots();
+
+    // the cursor only moves past rows that have been copied, so a row that
+    // fails is tried again by the next run
+    String copied = checkpoint.cursor();
+    int count = 0;
+    boolean failed = false;
+    for (SlotRow row : rows) {
+      try {
+        copy(row.slotId() + "-" + row.participantId());
+      } catch (RuntimeException ex) {
+        logger.warn(
+            "Unable to copy participant {} of slot {}, retrying it next run",
+            row.participantId(),
+            row.slotId(),
+            ex);
+        failed = true;
+        break;
+      }
+      copied = row.slotId() + SEPARATOR + row.participantId();
+      count++;
+    }
+    if (count > 0) {
+      componentClient
+          .forKeyValueEntity(JOB_NAME)
+          .method(JobCheckpointEntity::advance)
+          .invoke(new Advance(copied, count));
+    }
+
+    if (rows.size() < pageSize && !failed) {
+      componentClient
+          .forKeyValueEntity(JOB_NAME)
+          .method(JobCheckpointEntity::recordRun)
+          .invoke(new Run(0, 0, 0, Instant.now()));
+      logger.info(
+          "Copied {} participant-slots to the key-value storage", checkpoint.processed() + count);
+      return effects().done();
+    }
+
+    timers()
+        .createSingleTimer(
+            JOB_NAME,
+            batchInterval,
+            componentClient
+                .forTimedAction()
+                .method(ParticipantSlotBackfillAction::runBatch)
+                .deferred());
+    return effects().done();
+  }
+
+  private void copy(String participantSlotId) {
+    Optional<ParticipantSlotEntity.State> state = eventSourced(participantSlotId);
+    if (state.isEmpty()) {
+      return;
+    }
+    ParticipantSlotEntity.State slot = state.get();
+    componentClient
+        .forKeyValueEntity(participantSlotId)
+        .method(ParticipantSlotStateEntity::backfill)
+        .invoke(
+            new ParticipantSlotStateEntity.State(
+                slot.slotId(),
+                slot.participantId(),
+                slot.participantType(),
+                slot.bookingId() == null ? "" : slot.bookingId(),
+                slot.status()));
+    if (eventSourced(participantSlotId).isEmpty()) {
+      componentClient
+          .forKeyValueEntity(participantSlotId)
+          .method(ParticipantSlotStateEntity::remove)
+          .invoke(new Remove(slot.slotId(), slot.participantId(), slot.participantType()));
+    }
+  }
+
+  private Optional<ParticipantSlotEntity.State> eventSourced(String participantSlotId) {
+    return componentClient
+        .forEventSourcedEntity(participantSlotId)
+        .method(ParticipantSlotEntity::getState)
+        .invoke();
+  }
+}
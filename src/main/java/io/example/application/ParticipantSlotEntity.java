@@ -2,10 +2,22 @@ package io.example.application;
 
 import akka.Done;
 import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Migration;
 import akka.javasdk.annotations.TypeName;
 import akka.javasdk.eventsourcedentity.EventSourcedEntity;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.example.domain.EventFormat;
 import io.example.domain.Participant.ParticipantType;
+import io.example.domain.ParticipantTypeCode;
+import java.util.Optional;
 
+// The event-sourced participant-slot projection, which ParticipantSlotsView
+// and SlotRosterView follow. It's the default storage; with the key-value
+// storage switched on (see ParticipantSlotStorage) it is written alongside
+// ParticipantSlotStateEntity until that has been backfilled from it.
 @ComponentId("participant-slot")
 public class ParticipantSlotEntity
     extends EventSourcedEntity<ParticipantSlotEntity.State, ParticipantSlotEntity.Event> {
@@ -13,34 +25,89 @@ public class ParticipantSlotEntity
   public Effect<Done> unmarkAvailable(ParticipantSlotEntity.Commands.UnmarkAvailable unmark) {
     // Supply your own implementation
     Event.UnmarkedAvailable event =
-        new Event.UnmarkedAvailable(unmark.slotId, unmark.participantId, unmark.participantType);
+        new Event.UnmarkedAvailable(
+            journaled(unmark.slotId), unmark.participantId, unmark.participantType);
     return effects().persist(event).thenReply(state -> Done.done());
   }
 
   public Effect<Done> markAvailable(ParticipantSlotEntity.Commands.MarkAvailable mark) {
     // Supply your own implementation
     Event.MarkedAvailable event =
-        new Event.MarkedAvailable(mark.slotId, mark.participantId, mark.participantType);
+        new Event.MarkedAvailable(journaled(mark.slotId), mark.participantId, mark.participantType);
     return effects().persist(event).thenReply(state -> Done.done());
   }
 
   public Effect<Done> book(ParticipantSlotEntity.Commands.Book book) {
     // Supply your own implementation
     Event.Booked event =
-        new Event.Booked(book.slotId, book.participantId, book.participantType, book.bookingId);
+        new Event.Booked(
+            journaled(book.slotId), book.participantId, book.participantType, book.bookingId);
     return effects().persist(event).thenReply(state -> Done.done());
   }
 
+  // Only takes back the booking it names: on a partitioned slot, a canceled
+  // booking's participants are made available again by their partitions,
+  // and that update may arrive before the cancellation
   public Effect<Done> cancel(ParticipantSlotEntity.Commands.Cancel cancel) {
     // Supply your own implementation
+    if (currentState() != null
+        && currentState().bookingId() != null
+        && !cancel.bookingId.equals(currentState().bookingId())) {
+      return effects().reply(Done.done());
+    }
     Event.Canceled event =
         new Event.Canceled(
-            cancel.slotId, cancel.participantId, cancel.participantType, cancel.bookingId);
+            journaled(cancel.slotId),
+            cancel.participantId,
+            cancel.participantType,
+            cancel.bookingId);
     return effects().persist(event).thenReply(state -> Done.done());
   }
 
-  record State(
-      String slotId, String participantId, ParticipantType participantType, String status) {}
+  // Removes the participant-slot altogether, used when its slot is archived
+  public Effect<Done> remove(ParticipantSlotEntity.Commands.Remove remove) {
+    Event.Removed event =
+        new Event.Removed(journaled(remove.slotId), remove.participantId, remove.participantType);
+    return effects().persist(event).deleteEntity().thenReply(state -> Done.done());
+  }
+
+  // Removes the participant-slot only if it's still a tombstone, so that one
+  // the participant has been marked available or booked for again since the
+  // cleanup job found it is left alone
+  public Effect<Done> removeTombstone() {
+    if (currentState() == null || currentState().status() != null) {
+      return effects().reply(Done.done());
+    }
+    Event.Removed event =
+        new Event.Removed(
+            journaled(currentState().slotId()),
+            currentState().participantId(),
+            currentState().participantType());
+    return effects().persist(event).deleteEntity().thenReply(state -> Done.done());
+  }
+
+  // The slot ID to journal on an event: left out in the compact format once
+  // the state has it
+  private String journaled(String slotId) {
+    return EventFormat.isCompact() && currentState() != null ? null : slotId;
+  }
+
+  // The participant-slot, or nothing once it has been removed, for the
+  // backfill of the key-value storage
+  public ReadOnlyEffect<Optional<State>> getState() {
+    return effects().reply(Optional.ofNullable(currentState()));
+  }
+
+  // `status` is a Status name, or null once the participant is no longer
+  // available or booked. `bookingId` is the booking the participant was last
+  // booked or canceled for, empty if marked available since, and null in
+  // states recovered from snapshots taken before it was kept.
+  public record State(
+      String slotId,
+      String participantId,
+      ParticipantType participantType,
+      String bookingId,
+      String status) {}
 
   public enum Status {
     booked,
@@ -61,56 +128,150 @@ public class ParticipantSlotEntity
     record Cancel(
         String slotId, String participantId, ParticipantType participantType, String bookingId)
         implements Commands {}
+
+    record Remove(String slotId, String participantId, ParticipantType participantType)
+        implements Commands {}
   }
 
+  // In the compact format (see EventFormat) only the first event of a
+  // participant-slot carries the slot ID: the entity has it in its state
+  // from then on, and views restore it from the event subject with
+  // `withSlotIdFrom`. The participant ID is kept, as it's what tells the slot
+  // ID apart in the participant-slot ID.
   public sealed interface Event {
+    String slotId();
+
+    String participantId();
+
+    // The same event, for the given slot
+    Event withSlotId(String slotId);
+
+    // The same event, with its slot ID restored from the participant-slot ID
+    // (the slot ID and the participant ID) if the journal left it out
+    default Event withSlotIdFrom(String participantSlotId) {
+      if (slotId() != null) return this;
+      return withSlotId(
+          participantSlotId.substring(
+              0, participantSlotId.length() - participantId().length() - 1));
+    }
+
     @TypeName("marked-available")
-    record MarkedAvailable(String slotId, String participantId, ParticipantType participantType)
-        implements Event {}
+    @Migration(ParticipantSlotEventMigration.class)
+    record MarkedAvailable(
+        @JsonInclude(Include.NON_NULL) String slotId,
+        String participantId,
+        @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+            @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+            ParticipantType participantType)
+        implements Event {
+
+      @Override
+      public MarkedAvailable withSlotId(String slotId) {
+        return new MarkedAvailable(slotId, participantId, participantType);
+      }
+    }
 
     @TypeName("unmarked-available")
-    record UnmarkedAvailable(String slotId, String participantId, ParticipantType participantType)
-        implements Event {}
+    @Migration(ParticipantSlotEventMigration.class)
+    record UnmarkedAvailable(
+        @JsonInclude(Include.NON_NULL) String slotId,
+        String participantId,
+        @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+            @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+            ParticipantType participantType)
+        implements Event {
+
+      @Override
+      public UnmarkedAvailable withSlotId(String slotId) {
+        return new UnmarkedAvailable(slotId, participantId, participantType);
+      }
+    }
 
     @TypeName("participant-booked")
+    @Migration(ParticipantSlotEventMigration.class)
     record Booked(
-        String slotId, String participantId, ParticipantType participantType, String bookingId)
-        implements Event {}
+        @JsonInclude(Include.NON_NULL) String slotId,
+        String participantId,
+        @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+            @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+            ParticipantType participantType,
+        String bookingId)
+        implements Event {
+
+      @Override
+      public Booked withSlotId(String slotId) {
+        return new Booked(slotId, participantId, participantType, bookingId);
+      }
+    }
 
     @TypeName("participant-canceled")
+    @Migration(ParticipantSlotEventMigration.class)
     record Canceled(
-        String slotId, String participantId, ParticipantType participantType, String bookingId)
-        implements Event {}
+        @JsonInclude(Include.NON_NULL) String slotId,
+        String participantId,
+        @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+            @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+            ParticipantType participantType,
+        String bookingId)
+        implements Event {
+
+      @Override
+      public Canceled withSlotId(String slotId) {
+        return new Canceled(slotId, participantId, participantType, bookingId);
+      }
+    }
+
+    @TypeName("participant-slot-removed")
+    @Migration(ParticipantSlotEventMigration.class)
+    record Removed(
+        @JsonInclude(Include.NON_NULL) String slotId,
+        String participantId,
+        @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+            @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+            ParticipantType participantType)
+        implements Event {
+
+      @Override
+      public Removed withSlotId(String slotId) {
+        return new Removed(slotId, participantId, participantType);
+      }
+    }
   }
 
   @Override
   public ParticipantSlotEntity.State applyEvent(ParticipantSlotEntity.Event event) {
     // Supply your own implementation
+    if (event.slotId() == null) event = event.withSlotId(currentState().slotId());
     return switch (event) {
       case Event.MarkedAvailable markedAvailableEvent ->
           new ParticipantSlotEntity.State(
               markedAvailableEvent.slotId,
               markedAvailableEvent.participantId,
               markedAvailableEvent.participantType,
+              "",
               Status.available.name());
       case Event.UnmarkedAvailable unmarkedAvailableEvent ->
           new ParticipantSlotEntity.State(
               unmarkedAvailableEvent.slotId,
               unmarkedAvailableEvent.participantId,
               unmarkedAvailableEvent.participantType,
+              "",
               null);
       case Event.Booked bookedEvet ->
           new ParticipantSlotEntity.State(
               bookedEvet.slotId,
               bookedEvet.participantId,
               bookedEvet.participantType,
+              bookedEvet.bookingId,
               Status.booked.name());
       case Event.Canceled canceledEvent ->
           new ParticipantSlotEntity.State(
               canceledEvent.slotId,
               canceledEvent.participantId,
               canceledEvent.participantType,
+              canceledEvent.bookingId,
               null);
+      case Event.Removed removedEvent -> null;
     };
   }
 }
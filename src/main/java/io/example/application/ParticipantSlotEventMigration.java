@@ -0,0 +1,24 @@
+package io.example.application;
+
+import akka.javasdk.JsonMigration;
+import io.example.domain.EventFormat;
+
+// Versions the participant-slot event formats (see EventFormat): version 0
+// is the full format and version 1 the compact one. As with booking events,
+// version 0 is written until the compact format is turned on, so nodes
+// running code from before it can still read the events, while every node
+// running this code already reads version 1 (`supportedForwardVersion`).
+// Both formats are read as they are: a slot ID that is there is kept, and
+// participant types are read in either spelling.
+public class ParticipantSlotEventMigration extends JsonMigration {
+
+  @Override
+  public int currentVersion() {
+    return EventFormat.isCompact() ? 1 : 0;
+  }
+
+  @Override
+  public int supportedForwardVersion() {
+    return 1;
+  }
+}
@@ -0,0 +1,107 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.application.ParticipantSlotEntity.Commands;
+import io.example.application.ParticipantSlotEntity.Status;
+import io.example.domain.Participant.ParticipantType;
+
+// The participant-slot projection as key-value entities: each command
+// overwrites the latest state instead of appending an event, so a
+// participant-slot takes the same storage however often it changes. Takes
+// the same commands as ParticipantSlotEntity, and is written instead of it
+// when the key-value storage is switched on (see ParticipantSlotStorage);
+// ParticipantSlotStatesView and SlotRosterStatesView follow its state
+// changes.
+//
+// An unmarked or canceled participant-slot is kept with no status, so the
+// views can tell it was removed; `remove` deletes it, and so does
+// `removeTombstone` once the tombstone is no longer needed.
+@ComponentId("participant-slot-state")
+public class ParticipantSlotStateEntity extends KeyValueEntity<ParticipantSlotStateEntity.State> {
+
+  // `status` is a Status name, or null once the participant is no longer
+  // available or booked
+  public record State(
+      String slotId,
+      String participantId,
+      ParticipantType participantType,
+      String bookingId,
+      String status) {}
+
+  public Effect<Done> markAvailable(Commands.MarkAvailable mark) {
+    return update(
+        new State(
+            mark.slotId(),
+            mark.participantId(),
+            mark.participantType(),
+            "",
+            Status.available.name()));
+  }
+
+  public Effect<Done> unmarkAvailable(Commands.UnmarkAvailable unmark) {
+    return update(
+        new State(unmark.slotId(), unmark.participantId(), unmark.participantType(), "", null));
+  }
+
+  public Effect<Done> book(Commands.Book book) {
+    return update(
+        new State(
+            book.slotId(),
+            book.participantId(),
+            book.participantType(),
+            book.bookingId(),
+            Status.booked.name()));
+  }
+
+  // Only takes back the booking it names: on a partitioned slot, a canceled
+  // booking's participants are made available again by their partitions,
+  // and that update may arrive before the cancellation
+  public Effect<Done> cancel(Commands.Cancel cancel) {
+    if (currentState() != null && !cancel.bookingId().equals(currentState().bookingId())) {
+      return effects().reply(Done.done());
+    }
+    return update(
+        new State(
+            cancel.slotId(),
+            cancel.participantId(),
+            cancel.participantType(),
+            cancel.bookingId(),
+            null));
+  }
+
+  // Copies a participant-slot over from ParticipantSlotEntity, unless it has
+  // been written since the key-value storage was switched on, in which case
+  // it's newer than the copy
+  public Effect<Done> backfill(State state) {
+    if (currentState() != null) {
+      return effects().reply(Done.done());
+    }
+    return effects().updateState(state).thenReply(Done.done());
+  }
+
+  // Removes the participant-slot altogether, used when its slot is archived
+  public Effect<Done> remove(Commands.Remove remove) {
+    return effects().deleteEntity().thenReply(Done.done());
+  }
+
+  // Deletes the participant-slot only if it's still a tombstone, so that one
+  // the participant has been marked available or booked for again since the
+  // cleanup job found it is left alone
+  public Effect<Done> removeTombstone() {
+    if (currentState() == null || currentState().status() != null) {
+      return effects().reply(Done.done());
+    }
+    return effects().deleteEntity().thenReply(Done.done());
+  }
+
+  // Writes that wouldn't change anything aren't stored, so redelivered
+  // updates don't produce view updates either
+  private Effect<Done> update(State state) {
+    if (state.equals(currentState())) {
+      return effects().reply(Done.done());
+    }
+    return effects().updateState(state).thenReply(Done.done());
+  }
+}
@@ -0,0 +1,115 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.DeleteHandler;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.application.ParticipantSlotsView.ChangesInput;
+import io.example.application.ParticipantSlotsView.ParticipantStatusInput;
+import io.example.application.ParticipantSlotsView.SlotChanges;
+import io.example.application.ParticipantSlotsView.SlotList;
+import io.example.application.ParticipantSlotsView.SlotPageInput;
+import io.example.application.ParticipantSlotsView.SlotRangeInput;
+import io.example.application.ParticipantSlotsView.SlotRecord;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import io.example.application.ParticipantSlotsView.TombstoneInput;
+import java.time.Instant;
+
+// ParticipantSlotsView as fed by the key-value storage: the same rows and
+// queries, built from ParticipantSlotStateEntity's state changes. It has its
+// own ID, so that it's built alongside ParticipantSlotsView while the
+// key-value storage is backfilled, and reads only move to it afterwards (see
+// ParticipantSlotStorage).
+@ComponentId("view-participant-slot-states")
+public class ParticipantSlotStatesView extends View {
+
+  @Consume.FromKeyValueEntity(ParticipantSlotStateEntity.class)
+  public static class ParticipantSlotStatesUpdater extends TableUpdater<SlotRecord> {
+
+    // A state without a status is kept as a tombstone, like an unmarked or
+    // canceled participant slot in ParticipantSlotsView. A tombstone is also
+    // written when there's no row yet, as a participant-slot copied over as a
+    // tombstone by the backfill still has to reach delta-sync clients.
+    public Effect<SlotRecord> onChange(ParticipantSlotStateEntity.State state) {
+      long changedAt = Instant.now().toEpochMilli();
+      SlotRecord row = rowState();
+      if (state.status() == null) {
+        return effects()
+            .updateRow(
+                new SlotRecord(
+                    state.slotId(),
+                    state.participantId(),
+                    state.participantType().name(),
+                    state.bookingId(),
+                    row == null ? "" : row.status(),
+                    changedAt,
+                    true));
+      }
+      return effects()
+          .updateRow(
+              new SlotRecord(
+                  state.slotId(),
+                  state.participantId(),
+                  state.participantType().name(),
+                  state.bookingId(),
+                  state.status(),
+                  changedAt,
+                  false));
+    }
+
+    @DeleteHandler
+    public Effect<SlotRecord> onDelete() {
+      return effects().deleteRow();
+    }
+  }
+
+  @Query(
+      "SELECT * AS slots FROM view_participant_slot_states WHERE participantId = :participantId AND deleted = false")
+  public QueryEffect<SlotList> getSlotsByParticipant(String participantId) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS slots FROM view_participant_slot_states WHERE participantId = :participantId AND status = :status AND deleted = false")
+  public QueryEffect<SlotList> getSlotsByParticipantAndStatus(ParticipantStatusInput input) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS changes FROM view_participant_slot_states WHERE participantId = :participantId AND changedAt > :since ORDER BY changedAt")
+  public QueryEffect<SlotChanges> getChangesSince(ChangesInput input) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS changes FROM view_participant_slot_states WHERE participantId = :participantId AND deleted = false ORDER BY changedAt")
+  public QueryEffect<SlotChanges> getAllForResync(String participantId) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS changes FROM view_participant_slot_states WHERE deleted = true AND changedAt < :before ORDER BY changedAt LIMIT :limit")
+  public QueryEffect<SlotChanges> getTombstonesBefore(TombstoneInput input) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * FROM view_participant_slot_states WHERE participantId = :participantId AND deleted = false ORDER BY slotId")
+  public QueryStreamEffect<SlotRow> streamSlotsByParticipant(String participantId) {
+    return queryStreamResult();
+  }
+
+  @Query(
+      "SELECT * FROM view_participant_slot_states WHERE slotId >= :fromSlotId AND slotId <= :toSlotId ORDER BY slotId")
+  public QueryStreamEffect<SlotRow> streamSlotsInRange(SlotRangeInput input) {
+    return queryStreamResult();
+  }
+
+  @Query(
+      "SELECT * AS slots FROM view_participant_slot_states WHERE slotId > :afterSlotId AND slotId < :beforeSlotId ORDER BY slotId LIMIT :limit")
+  public QueryEffect<SlotList> getSlotsBetween(SlotPageInput input) {
+    return queryResult();
+  }
+}
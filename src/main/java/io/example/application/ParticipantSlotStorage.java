@@ -0,0 +1,227 @@
+package io.example.application;
+
+import akka.Done;
+import akka.NotUsed;
+import akka.javasdk.client.ComponentClient;
+import akka.stream.javadsl.Source;
+import com.typesafe.config.Config;
+import io.example.application.ParticipantSlotsView.ChangesInput;
+import io.example.application.ParticipantSlotsView.ParticipantStatusInput;
+import io.example.application.ParticipantSlotsView.SlotChanges;
+import io.example.application.ParticipantSlotsView.SlotList;
+import io.example.application.ParticipantSlotsView.SlotPageInput;
+import io.example.application.ParticipantSlotsView.SlotRangeInput;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import io.example.application.ParticipantSlotsView.TombstoneInput;
+import io.example.application.SlotRosterView.Roster;
+import io.example.application.SlotRosterView.StatusInput;
+import io.example.application.SlotRosterView.TypeAndStatusInput;
+import io.example.application.SlotRosterView.TypeInput;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Where participant-slots are kept: which entity participant updates go to,
+// and which views participant and roster reads come from. Everything that
+// writes or reads participant-slots goes through here.
+//
+// The event-sourced storage is ParticipantSlotEntity, followed by
+// ParticipantSlotsView and SlotRosterView. The key-value storage is
+// ParticipantSlotStateEntity, followed by ParticipantSlotStatesView and
+// SlotRosterStatesView. Switching to the key-value storage doesn't lose the
+// participant-slots written before: updates go to both entities, and reads
+// stay on the event-sourced views, until ParticipantSlotBackfillAction has
+// copied every participant-slot over. Nodes learn that the backfill has
+// finished from its checkpoint, which they check at most every
+// `check-interval`. Reads move to the key-value views as soon as a node has
+// seen it; updates keep going to both entities for two more check intervals,
+// so that nodes that haven't seen it yet still read what the others write.
+public final class ParticipantSlotStorage {
+
+  private static final Logger logger = LoggerFactory.getLogger(ParticipantSlotStorage.class);
+
+  private final ComponentClient componentClient;
+  private final boolean keyValue;
+  private final Duration checkInterval;
+  private final AtomicLong nextCheck = new AtomicLong(System.nanoTime());
+  private volatile Instant backfilledAt;
+
+  public ParticipantSlotStorage(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    Config participantSlots = config.getConfig("flight.participant-slots");
+    this.keyValue =
+        switch (participantSlots.getString("storage")) {
+          case "event-sourced" -> false;
+          case "key-value" -> true;
+          default ->
+              throw new IllegalArgumentException(
+                  "flight.participant-slots.storage must be event-sourced or key-value");
+        };
+    this.checkInterval = participantSlots.getDuration("backfill.check-interval");
+  }
+
+  public boolean isKeyValue() {
+    return keyValue;
+  }
+
+  // Applies a participant update to the entities currently written. The
+  // key-value entity is written after the event-sourced one, as the backfill
+  // relies on a removal having reached the latter first.
+  public CompletionStage<Done> apply(ParticipantUpdate update) {
+    if (!keyValue) {
+      return update.applyToEventSourced(componentClient);
+    }
+    if (!writesEventSourced()) {
+      return update.applyToKeyValue(componentClient);
+    }
+    return update
+        .applyToEventSourced(componentClient)
+        .thenCompose(done -> update.applyToKeyValue(componentClient));
+  }
+
+  // Deletes a participant-slot that is still a tombstone, wherever it's kept
+  public void removeTombstone(String participantSlotId) {
+    if (!keyValue || writesEventSourced()) {
+      componentClient
+          .forEventSourcedEntity(participantSlotId)
+          .method(ParticipantSlotEntity::removeTombstone)
+          .invoke();
+    }
+    if (keyValue) {
+      componentClient
+          .forKeyValueEntity(participantSlotId)
+          .method(ParticipantSlotStateEntity::removeTombstone)
+          .invoke();
+    }
+  }
+
+  public SlotList getSlotsByParticipant(String participantId) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(ParticipantSlotStatesView::getSlotsByParticipant).invoke(participantId)
+        : view.method(ParticipantSlotsView::getSlotsByParticipant).invoke(participantId);
+  }
+
+  public SlotList getSlotsByParticipantAndStatus(ParticipantStatusInput input) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(ParticipantSlotStatesView::getSlotsByParticipantAndStatus).invoke(input)
+        : view.method(ParticipantSlotsView::getSlotsByParticipantAndStatus).invoke(input);
+  }
+
+  public SlotChanges getChangesSince(ChangesInput input) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(ParticipantSlotStatesView::getChangesSince).invoke(input)
+        : view.method(ParticipantSlotsView::getChangesSince).invoke(input);
+  }
+
+  public SlotChanges getAllForResync(String participantId) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(ParticipantSlotStatesView::getAllForResync).invoke(participantId)
+        : view.method(ParticipantSlotsView::getAllForResync).invoke(participantId);
+  }
+
+  public SlotChanges getTombstonesBefore(TombstoneInput input) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(ParticipantSlotStatesView::getTombstonesBefore).invoke(input)
+        : view.method(ParticipantSlotsView::getTombstonesBefore).invoke(input);
+  }
+
+  public SlotList getSlotsBetween(SlotPageInput input) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(ParticipantSlotStatesView::getSlotsBetween).invoke(input)
+        : view.method(ParticipantSlotsView::getSlotsBetween).invoke(input);
+  }
+
+  public Source<SlotRow, NotUsed> streamSlotsByParticipant(String participantId) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.stream(ParticipantSlotStatesView::streamSlotsByParticipant).source(participantId)
+        : view.stream(ParticipantSlotsView::streamSlotsByParticipant).source(participantId);
+  }
+
+  public Source<SlotRow, NotUsed> streamSlotsInRange(SlotRangeInput input) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.stream(ParticipantSlotStatesView::streamSlotsInRange).source(input)
+        : view.stream(ParticipantSlotsView::streamSlotsInRange).source(input);
+  }
+
+  public Roster getRoster(String slotId) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(SlotRosterStatesView::getRoster).invoke(slotId)
+        : view.method(SlotRosterView::getRoster).invoke(slotId);
+  }
+
+  public CompletionStage<Roster> getRosterAsync(String slotId) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(SlotRosterStatesView::getRoster).invokeAsync(slotId)
+        : view.method(SlotRosterView::getRoster).invokeAsync(slotId);
+  }
+
+  public Roster getRosterByType(TypeInput input) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(SlotRosterStatesView::getRosterByType).invoke(input)
+        : view.method(SlotRosterView::getRosterByType).invoke(input);
+  }
+
+  public Roster getRosterByStatus(StatusInput input) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(SlotRosterStatesView::getRosterByStatus).invoke(input)
+        : view.method(SlotRosterView::getRosterByStatus).invoke(input);
+  }
+
+  public Roster getRosterByTypeAndStatus(TypeAndStatusInput input) {
+    var view = componentClient.forView();
+    return readsKeyValue()
+        ? view.method(SlotRosterStatesView::getRosterByTypeAndStatus).invoke(input)
+        : view.method(SlotRosterView::getRosterByTypeAndStatus).invoke(input);
+  }
+
+  private boolean readsKeyValue() {
+    return keyValue && backfilledAt() != null;
+  }
+
+  private boolean writesEventSourced() {
+    Instant backfilled = backfilledAt();
+    return backfilled == null
+        || Instant.now().isBefore(backfilled.plus(checkInterval.multipliedBy(2)));
+  }
+
+  // When the backfill finished, or null if this node hasn't seen it finish.
+  // Once seen, it's no longer checked.
+  private Instant backfilledAt() {
+    Instant backfilled = backfilledAt;
+    if (backfilled != null || !keyValue) return backfilled;
+    long now = System.nanoTime();
+    long due = nextCheck.get();
+    if (now - due >= 0 && nextCheck.compareAndSet(due, now + checkInterval.toNanos())) {
+      try {
+        var checkpoint =
+            componentClient
+                .forKeyValueEntity(ParticipantSlotBackfillAction.JOB_NAME)
+                .method(JobCheckpointEntity::getCheckpoint)
+                .invoke();
+        if (checkpoint.lastRun() != null) {
+          backfilled = checkpoint.lastRun().finishedAt();
+          backfilledAt = backfilled;
+          logger.info("Participant-slots are read from the key-value storage");
+        }
+      } catch (RuntimeException ex) {
+        logger.warn("Unable to check whether the participant-slot backfill has finished", ex);
+      }
+    }
+    return backfilled;
+  }
+}
@@ -8,7 +8,9 @@ import akka.javasdk.view.View;
 import io.example.application.ParticipantSlotEntity.Event.Booked;
 import io.example.application.ParticipantSlotEntity.Event.Canceled;
 import io.example.application.ParticipantSlotEntity.Event.MarkedAvailable;
+import io.example.application.ParticipantSlotEntity.Event.Removed;
 import io.example.application.ParticipantSlotEntity.Event.UnmarkedAvailable;
+import java.time.Instant;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,35 +21,76 @@ public class ParticipantSlotsView extends View {
   private static Logger logger = LoggerFactory.getLogger(ParticipantSlotsView.class);
 
   @Consume.FromEventSourcedEntity(ParticipantSlotEntity.class)
-  public static class ParticipantSlotsViewUpdater extends TableUpdater<SlotRow> {
+  public static class ParticipantSlotsViewUpdater extends TableUpdater<SlotRecord> {
 
-    public Effect<SlotRow> onEvent(ParticipantSlotEntity.Event event) {
+    // Unmarked and canceled participant slots are kept as tombstones, so that
+    // delta-sync clients learn about the removal. Rows are only deleted with
+    // their participant slot: by archiving, or by the tombstone cleanup once
+    // a tombstone is older than any change token that is still honored.
+    //
+    // The change time is this node's clock when the update is applied, not
+    // when the slot changed, so that a change reaching the view late still
+    // sorts after the tokens handed out before it was visible.
+    public Effect<SlotRecord> onEvent(ParticipantSlotEntity.Event event) {
+      long changedAt = Instant.now().toEpochMilli();
+      event = event.withSlotIdFrom(updateContext().eventSubject().orElseThrow());
       // Supply your own implementation
       return switch (event) {
         case MarkedAvailable markedAvailable ->
             effects()
                 .updateRow(
-                    new SlotRow(
+                    new SlotRecord(
                         markedAvailable.slotId(),
                         markedAvailable.participantId(),
                         markedAvailable.participantType().name(),
                         "",
-                        ParticipantSlotEntity.Status.available.name()));
-        case UnmarkedAvailable unmarkedAvailable -> effects().deleteRow();
+                        ParticipantSlotEntity.Status.available.name(),
+                        changedAt,
+                        false));
+        case UnmarkedAvailable unmarkedAvailable -> tombstone(changedAt);
         case Booked booked ->
             effects()
                 .updateRow(
-                    new SlotRow(
+                    new SlotRecord(
                         booked.slotId(),
                         booked.participantId(),
                         booked.participantType().name(),
                         booked.bookingId(),
-                        ParticipantSlotEntity.Status.booked.name()));
-        case Canceled canceled -> effects().deleteRow();
+                        ParticipantSlotEntity.Status.booked.name(),
+                        changedAt,
+                        false));
+        case Canceled canceled -> tombstone(changedAt);
+        case Removed removed -> effects().deleteRow();
       };
     }
+
+    private Effect<SlotRecord> tombstone(long changedAt) {
+      SlotRecord row = rowState();
+      if (row == null) return effects().ignore();
+      return effects()
+          .updateRow(
+              new SlotRecord(
+                  row.slotId(),
+                  row.participantId(),
+                  row.participantType(),
+                  row.bookingId(),
+                  row.status(),
+                  changedAt,
+                  true));
+    }
   }
 
+  // The row as stored: a participant slot, when it last changed (epoch
+  // millis, the delta-sync change token) and whether it has been removed
+  public record SlotRecord(
+      String slotId,
+      String participantId,
+      String participantType,
+      String bookingId,
+      String status,
+      long changedAt,
+      boolean deleted) {}
+
   public record SlotRow(
       String slotId,
       String participantId,
@@ -59,14 +102,87 @@ public class ParticipantSlotsView extends View {
 
   public record SlotList(List<SlotRow> slots) {}
 
-  @Query("SELECT * AS slots FROM view_participant_slots WHERE participantId = :participantId")
+  public record ChangesInput(String participantId, long since) {}
+
+  public record SlotChanges(List<SlotRecord> changes) {}
+
+  // Tombstones that changed before `before` (epoch millis)
+  public record TombstoneInput(long before, int limit) {}
+
+  // Both bounds are inclusive slot IDs
+  public record SlotRangeInput(String fromSlotId, String toSlotId) {}
+
+  // Both bounds are exclusive slot IDs
+  public record SlotPageInput(String afterSlotId, String beforeSlotId, int limit) {}
+
+  // Rows after the given participant of the given slot
+  public record RowPageInput(String afterSlotId, String afterParticipantId, int limit) {}
+
+  @Query(
+      "SELECT * AS slots FROM view_participant_slots WHERE participantId = :participantId AND deleted = false")
   public QueryEffect<SlotList> getSlotsByParticipant(String participantId) {
     return queryResult();
   }
 
   @Query(
-      "SELECT * AS slots FROM view_participant_slots WHERE participantId = :participantId AND status = :status")
+      "SELECT * AS slots FROM view_participant_slots WHERE participantId = :participantId AND status = :status AND deleted = false")
   public QueryEffect<SlotList> getSlotsByParticipantAndStatus(ParticipantStatusInput input) {
     return queryResult();
   }
+
+  // Every row of the participant, removed ones included, that changed after
+  // the given change token, oldest change first
+  @Query(
+      "SELECT * AS changes FROM view_participant_slots WHERE participantId = :participantId AND changedAt > :since ORDER BY changedAt")
+  public QueryEffect<SlotChanges> getChangesSince(ChangesInput input) {
+    return queryResult();
+  }
+
+  // Every live row of the participant, for a full resync
+  @Query(
+      "SELECT * AS changes FROM view_participant_slots WHERE participantId = :participantId AND deleted = false ORDER BY changedAt")
+  public QueryEffect<SlotChanges> getAllForResync(String participantId) {
+    return queryResult();
+  }
+
+  // The oldest tombstones that changed before the given time, for the
+  // tombstone cleanup
+  @Query(
+      "SELECT * AS changes FROM view_participant_slots WHERE deleted = true AND changedAt < :before ORDER BY changedAt LIMIT :limit")
+  public QueryEffect<SlotChanges> getTombstonesBefore(TombstoneInput input) {
+    return queryResult();
+  }
+
+  // Streams the participant's live rows, ordered by slot
+  @Query(
+      "SELECT * FROM view_participant_slots WHERE participantId = :participantId AND deleted = false ORDER BY slotId")
+  public QueryStreamEffect<SlotRow> streamSlotsByParticipant(String participantId) {
+    return queryStreamResult();
+  }
+
+  // Streams every participant row for the slots in the given range, ordered by
+  // slot so that all rows of one slot arrive together
+  @Query(
+      "SELECT * FROM view_participant_slots WHERE slotId >= :fromSlotId AND slotId <= :toSlotId ORDER BY slotId")
+  public QueryStreamEffect<SlotRow> streamSlotsInRange(SlotRangeInput input) {
+    return queryStreamResult();
+  }
+
+  // A page of participant rows for the slots strictly between two slot IDs,
+  // ordered by slot. Used by background jobs that walk slots incrementally, so
+  // removed rows are included: a slot whose participants have all been
+  // removed still needs archiving.
+  @Query(
+      "SELECT * AS slots FROM view_participant_slots WHERE slotId > :afterSlotId AND slotId < :beforeSlotId ORDER BY slotId LIMIT :limit")
+  public QueryEffect<SlotList> getSlotsBetween(SlotPageInput input) {
+    return queryResult();
+  }
+
+  // A page of every row, removed ones included, in slot and participant order
+  // after the given row, for the backfill of the key-value storage
+  @Query(
+      "SELECT * AS slots FROM view_participant_slots WHERE slotId > :afterSlotId OR (slotId = :afterSlotId AND participantId > :afterParticipantId) ORDER BY slotId, participantId LIMIT :limit")
+  public QueryEffect<SlotList> getRowsAfter(RowPageInput input) {
+    return queryResult();
+  }
 }
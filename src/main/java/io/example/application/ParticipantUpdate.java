@@ -0,0 +1,158 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import io.example.application.ParticipantSlotEntity.Commands.*;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+// One command to a participant-slot, derived from a booking slot event, and
+// applied to the entities that keep participant-slots (see
+// ParticipantSlotStorage). It's kept flat (no polymorphism) so that an update that can't be
+// delivered can be stored as a dead letter as is, and replayed later.
+public record ParticipantUpdate(
+    Action action,
+    String slotId,
+    String participantId,
+    ParticipantType participantType,
+    String bookingId) {
+
+  public enum Action {
+    MARK_AVAILABLE,
+    UNMARK_AVAILABLE,
+    BOOK,
+    CANCEL,
+    REMOVE
+  }
+
+  public static List<ParticipantUpdate> of(BookingEvent event) {
+    return switch (event) {
+      case BookingEvent.ParticipantMarkedAvailable marked ->
+          List.of(
+              new ParticipantUpdate(
+                  Action.MARK_AVAILABLE,
+                  marked.slotId(),
+                  marked.participantId(),
+                  marked.participantType(),
+                  ""));
+      case BookingEvent.ParticipantUnmarkedAvailable unmarked ->
+          List.of(
+              new ParticipantUpdate(
+                  Action.UNMARK_AVAILABLE,
+                  unmarked.slotId(),
+                  unmarked.participantId(),
+                  unmarked.participantType(),
+                  ""));
+      case BookingEvent.ParticipantBooked booked ->
+          List.of(
+              new ParticipantUpdate(
+                  Action.BOOK,
+                  booked.slotId(),
+                  booked.participantId(),
+                  booked.participantType(),
+                  booked.bookingId()));
+      case BookingEvent.ParticipantCanceled canceled ->
+          List.of(
+              new ParticipantUpdate(
+                  Action.CANCEL,
+                  canceled.slotId(),
+                  canceled.participantId(),
+                  canceled.participantType(),
+                  canceled.bookingId()));
+      case BookingEvent.SlotArchived archived ->
+          archived.participants().stream()
+              .map(
+                  (Participant participant) ->
+                      new ParticipantUpdate(
+                          Action.REMOVE,
+                          archived.slotId(),
+                          participant.id(),
+                          participant.participantType(),
+                          ""))
+              .toList();
+    };
+  }
+
+  // Participant slots are keyed by a derived key made up of
+  // {slotId}-{participantId}
+  // We don't need the participant type here because the participant IDs
+  // should always be unique/UUIDs
+  public String participantSlotId() {
+    return slotId + "-" + participantId;
+  }
+
+  // Whether the slot still shows the outcome of this update, i.e. applying
+  // it to the participant slot now wouldn't undo a later change. An update
+  // that takes the participant out of the slot must not wipe a later
+  // availability or booking. Removals are always current, as they're only
+  // made for archived slots.
+  public boolean isCurrent(Timeslot slot) {
+    boolean available = slot.isWaiting(participantId, participantType);
+    boolean booked = slot.isBooked(participantId, participantType);
+    return switch (action) {
+      case MARK_AVAILABLE -> available;
+      case BOOK ->
+          slot.bookings()
+              .contains(
+                  new Timeslot.Booking(new Participant(participantId, participantType), bookingId));
+      case UNMARK_AVAILABLE, CANCEL -> !available && !booked;
+      case REMOVE -> true;
+    };
+  }
+
+  public CompletionStage<Done> applyToEventSourced(ComponentClient client) {
+    var entity = client.forEventSourcedEntity(participantSlotId());
+    return switch (action) {
+      case MARK_AVAILABLE ->
+          entity
+              .method(ParticipantSlotEntity::markAvailable)
+              .invokeAsync(new MarkAvailable(slotId, participantId, participantType));
+      case UNMARK_AVAILABLE ->
+          entity
+              .method(ParticipantSlotEntity::unmarkAvailable)
+              .invokeAsync(new UnmarkAvailable(slotId, participantId, participantType));
+      case BOOK ->
+          entity
+              .method(ParticipantSlotEntity::book)
+              .invokeAsync(new Book(slotId, participantId, participantType, bookingId));
+      case CANCEL ->
+          entity
+              .method(ParticipantSlotEntity::cancel)
+              .invokeAsync(new Cancel(slotId, participantId, participantType, bookingId));
+      case REMOVE ->
+          entity
+              .method(ParticipantSlotEntity::remove)
+              .invokeAsync(new Remove(slotId, participantId, participantType));
+    };
+  }
+
+  public CompletionStage<Done> applyToKeyValue(ComponentClient client) {
+    var entity = client.forKeyValueEntity(participantSlotId());
+    return switch (action) {
+      case MARK_AVAILABLE ->
+          entity
+              .method(ParticipantSlotStateEntity::markAvailable)
+              .invokeAsync(new MarkAvailable(slotId, participantId, participantType));
+      case UNMARK_AVAILABLE ->
+          entity
+              .method(ParticipantSlotStateEntity::unmarkAvailable)
+              .invokeAsync(new UnmarkAvailable(slotId, participantId, participantType));
+      case BOOK ->
+          entity
+              .method(ParticipantSlotStateEntity::book)
+              .invokeAsync(new Book(slotId, participantId, participantType, bookingId));
+      case CANCEL ->
+          entity
+              .method(ParticipantSlotStateEntity::cancel)
+              .invokeAsync(new Cancel(slotId, participantId, participantType, bookingId));
+      case REMOVE ->
+          entity
+              .method(ParticipantSlotStateEntity::remove)
+              .invokeAsync(new Remove(slotId, participantId, participantType));
+    };
+  }
+}
@@ -0,0 +1,182 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.Metadata;
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import io.example.application.DeadLetterEntity.DeadLetter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Delivers participant updates for the consumers that derive participant
+// slots. A participant update that fails is retried with exponential
+// backoff, a bounded number of times. After that it's stored as a dead
+// letter and counts as delivered, so that one bad update can't hold up the
+// events of every other slot and participant behind it.
+//
+// A dead letter's ID is derived from the event the update came from, so an
+// event that is delivered again after its update was dead-lettered doesn't
+// leave a second dead letter behind.
+final class ParticipantUpdateDelivery {
+
+  private static final Logger logger = LoggerFactory.getLogger(ParticipantUpdateDelivery.class);
+
+  private final Function<ParticipantUpdate, CompletionStage<Done>> apply;
+  private final Function<DeadLetter, CompletionStage<Done>> store;
+  private final ProjectionMetrics metrics;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  ParticipantUpdateDelivery(
+      ComponentClient client,
+      ParticipantSlotStorage storage,
+      ProjectionMetrics metrics,
+      Config config) {
+    this(
+        storage::apply,
+        deadLetter ->
+            client
+                .forKeyValueEntity(deadLetter.id())
+                .method(DeadLetterEntity::store)
+                .invokeAsync(deadLetter),
+        metrics,
+        config);
+  }
+
+  ParticipantUpdateDelivery(
+      Function<ParticipantUpdate, CompletionStage<Done>> apply,
+      Function<DeadLetter, CompletionStage<Done>> store,
+      ProjectionMetrics metrics,
+      Config config) {
+    this.apply = apply;
+    this.store = store;
+    this.metrics = metrics;
+    Config retry = config.getConfig("flight.projection.retry");
+    this.maxAttempts = retry.getInt("max-attempts");
+    this.initialBackoff = retry.getDuration("initial-backoff");
+    this.maxBackoff = retry.getDuration("max-backoff");
+  }
+
+  // The event updates are derived from: the entity that emitted it, its
+  // sequence number in that entity's journal (0 if unknown), and when it was
+  // journaled
+  record Source(String entityId, long sequence, Optional<Instant> journaledAt) {
+
+    static Source of(String entityId, Metadata metadata) {
+      return new Source(
+          entityId,
+          metadata.get("ce-sequence").map(Long::parseLong).orElse(0L),
+          metadata.asCloudEvent().time().map(ZonedDateTime::toInstant));
+    }
+
+    // The same ID for the same update of the same event, however often it's
+    // delivered
+    String deadLetterId(ParticipantUpdate update) {
+      String key =
+          sequence > 0
+              ? entityId + "/" + sequence + "/" + update.participantId()
+              : entityId + "/" + journaledAt.map(Instant::toEpochMilli).orElse(0L) + "/" + update;
+      return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+  }
+
+  // Delivers the updates of an event one after the other, and records how
+  // long after the event was journaled they were all delivered
+  CompletionStage<Done> deliver(List<ParticipantUpdate> updates, Source source) {
+    CompletionStage<Done> delivered = CompletableFuture.completedFuture(Done.done());
+    for (ParticipantUpdate update : updates) {
+      delivered = delivered.thenCompose(done -> deliver(update, source, 1));
+    }
+    return delivered.thenApply(
+        done -> {
+          source.journaledAt().ifPresent(at -> metrics.lagged(at, Instant.now()));
+          return done;
+        });
+  }
+
+  private CompletionStage<Done> deliver(ParticipantUpdate update, Source source, int attempt) {
+    CompletionStage<Done> applied;
+    try {
+      applied = apply.apply(update);
+    } catch (RuntimeException ex) {
+      applied = CompletableFuture.failedFuture(ex);
+    }
+
+    return applied
+        .thenApply(
+            done -> {
+              metrics.delivered(attempt);
+              return done;
+            })
+        .exceptionallyCompose(
+            error -> {
+              if (attempt >= maxAttempts) {
+                return deadLetter(update, source, error, attempt);
+              }
+              metrics.retried();
+              Duration backoff = backoff(attempt);
+              logger.debug(
+                  "Retrying {} for {} in {} (attempt {})",
+                  update.action(),
+                  update.participantSlotId(),
+                  backoff,
+                  attempt);
+              var delayed =
+                  CompletableFuture.delayedExecutor(backoff.toMillis(), TimeUnit.MILLISECONDS);
+              return CompletableFuture.supplyAsync(() -> attempt + 1, delayed)
+                  .thenCompose(next -> deliver(update, source, next));
+            });
+  }
+
+  // initial-backoff doubled for every attempt already made, up to max-backoff
+  Duration backoff(int attempt) {
+    long millis = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+    return Duration.ofMillis(Math.min(millis, maxBackoff.toMillis()));
+  }
+
+  // If the dead letter can't be stored either, the stage fails and the event
+  // is redelivered as usual
+  private CompletionStage<Done> deadLetter(
+      ParticipantUpdate update, Source source, Throwable error, int attempts) {
+    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+    String id = source.deadLetterId(update);
+    logger.warn(
+        "Giving up on {} for {} after {} attempts, stored as dead letter {}",
+        update.action(),
+        update.participantSlotId(),
+        attempts,
+        id,
+        cause);
+
+    var deadLetter =
+        new DeadLetter(
+            id,
+            update,
+            source.entityId(),
+            source.sequence(),
+            String.valueOf(cause.getMessage()),
+            attempts,
+            Instant.now(),
+            DeadLetterEntity.Status.OPEN);
+    return store
+        .apply(deadLetter)
+        .thenApply(
+            done -> {
+              metrics.deadLettered();
+              return done;
+            });
+  }
+}
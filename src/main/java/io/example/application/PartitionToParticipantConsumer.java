@@ -0,0 +1,79 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.typesafe.config.Config;
+import io.example.application.ParticipantUpdate.Action;
+import io.example.application.SlotPartitionEntity.Event;
+import java.util.List;
+
+// The counterpart of SlotToParticipantConsumer for partitioned slots: the
+// availability recorded in their partitions is passed on to the participant
+// slots the same way. Claims aren't, as the bookings they lead to come from
+// the BookingSlotEntity; a released claim makes its participant available
+// again.
+@ComponentId("slot-partition-consumer")
+@Consume.FromEventSourcedEntity(SlotPartitionEntity.class)
+public class PartitionToParticipantConsumer extends Consumer {
+
+  private final ParticipantUpdateDelivery delivery;
+  private final HopTrace.Tracer tracer;
+
+  public PartitionToParticipantConsumer(
+      ComponentClient client,
+      ParticipantSlotStorage storage,
+      ProjectionMetrics metrics,
+      Config config) {
+    this.delivery = new ParticipantUpdateDelivery(client, storage, metrics, config);
+    this.tracer = new HopTrace.Tracer(config);
+  }
+
+  public Effect onEvent(Event event) {
+    var hop =
+        tracer
+            .start("slot-partition-consumer", messageContext().tracing())
+            .with("event", event.getClass().getSimpleName());
+
+    List<ParticipantUpdate> updates =
+        switch (event) {
+          case Event.MarkedAvailable marked ->
+              List.of(
+                  new ParticipantUpdate(
+                      Action.MARK_AVAILABLE,
+                      marked.slotId(),
+                      marked.participantId(),
+                      marked.participantType(),
+                      ""));
+          case Event.UnmarkedAvailable unmarked ->
+              List.of(
+                  new ParticipantUpdate(
+                      Action.UNMARK_AVAILABLE,
+                      unmarked.slotId(),
+                      unmarked.participantId(),
+                      unmarked.participantType(),
+                      ""));
+          case Event.Released released ->
+              List.of(
+                  new ParticipantUpdate(
+                      Action.MARK_AVAILABLE,
+                      released.slotId(),
+                      released.participantId(),
+                      released.participantType(),
+                      ""));
+          case Event.Claimed claimed -> List.of();
+        };
+    if (updates.isEmpty()) {
+      hop.close();
+      return effects().ignore();
+    }
+    return effects()
+        .asyncDone(delivery.deliver(updates, source()).whenComplete((done, error) -> hop.close()));
+  }
+
+  private ParticipantUpdateDelivery.Source source() {
+    return ParticipantUpdateDelivery.Source.of(
+        messageContext().eventSubject().orElseThrow(), messageContext().metadata());
+  }
+}
@@ -0,0 +1,91 @@
+package io.example.application;
+
+import io.example.application.ParticipantSlotEntity.Status;
+import io.example.application.ParticipantUpdate.Action;
+import io.example.application.SlotRosterView.Roster;
+import io.example.application.SlotRosterView.RosterEntry;
+import io.example.domain.Participant;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// How a slot's participant slots, as seen through the roster view, differ
+// from the slot itself, and the participant updates that bring them back in
+// line. A participant slot is `missing` when the slot has the participant
+// but there's no row for it, `stale` when the row has the wrong status or
+// booking, and `extra` when the slot no longer has the participant at all.
+public record ProjectionDrift(
+    int pairs, int missing, int stale, int extra, List<ParticipantUpdate> corrections) {
+
+  public boolean isEmpty() {
+    return corrections.isEmpty();
+  }
+
+  public static ProjectionDrift of(String slotId, Timeslot timeslot, Roster roster) {
+    Map<Participant, RosterEntry> rows = new HashMap<>();
+    for (RosterEntry entry : roster.participants()) {
+      rows.put(new Participant(entry.participantId(), entry.participantType()), entry);
+    }
+
+    // a participant can be in more than one booking of a slot, while its
+    // participant slot only remembers one of them
+    Map<Participant, Set<String>> bookings = new HashMap<>();
+    for (Timeslot.Booking booking : timeslot.bookings()) {
+      bookings
+          .computeIfAbsent(booking.participant(), participant -> new HashSet<>())
+          .add(booking.bookingId());
+    }
+
+    int missing = 0;
+    int stale = 0;
+    List<ParticipantUpdate> corrections = new ArrayList<>();
+    for (var booked : bookings.entrySet()) {
+      RosterEntry row = rows.remove(booked.getKey());
+      if (row != null
+          && row.status() == Status.booked
+          && booked.getValue().contains(row.bookingId())) continue;
+      // a participant marked available again after being booked is in both
+      // sets, and its participant slot may have either status
+      if (row != null
+          && row.status() == Status.available
+          && timeslot.available().contains(booked.getKey())) continue;
+
+      if (row == null) missing++;
+      else stale++;
+      corrections.add(
+          update(Action.BOOK, slotId, booked.getKey(), booked.getValue().iterator().next()));
+    }
+    for (Participant available : timeslot.available()) {
+      if (bookings.containsKey(available)) continue;
+      RosterEntry row = rows.remove(available);
+      if (row != null && row.status() == Status.available) continue;
+
+      if (row == null) missing++;
+      else stale++;
+      corrections.add(update(Action.MARK_AVAILABLE, slotId, available, ""));
+    }
+
+    // whatever is left has no counterpart in the slot
+    for (var row : rows.entrySet()) {
+      corrections.add(
+          row.getValue().status() == Status.booked
+              ? update(Action.CANCEL, slotId, row.getKey(), row.getValue().bookingId())
+              : update(Action.UNMARK_AVAILABLE, slotId, row.getKey(), ""));
+    }
+
+    Set<Participant> participants = new HashSet<>(timeslot.available());
+    participants.addAll(bookings.keySet());
+    int pairs = participants.size() + rows.size();
+    return new ProjectionDrift(pairs, missing, stale, rows.size(), corrections);
+  }
+
+  private static ParticipantUpdate update(
+      Action action, String slotId, Participant participant, String bookingId) {
+    return new ParticipantUpdate(
+        action, slotId, participant.id(), participant.participantType(), bookingId);
+  }
+}
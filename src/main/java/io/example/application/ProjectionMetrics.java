@@ -0,0 +1,88 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-node counters of the participant projection's delivery: how often a
+// participant update had to be retried, how many retried updates went
+// through in the end, and how many were given up on and dead-lettered or
+// replayed later. Shared through the service's dependency provider.
+//
+// Also tracks how far the projection lags behind the slot writes, as the
+// time from an event being journaled to its participant updates being
+// delivered: the largest lag of the current and the previous minute is the
+// recent lag reported with local reads.
+public class ProjectionMetrics {
+
+  private static final long LAG_WINDOW_MILLIS = Duration.ofMinutes(1).toMillis();
+
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong recovered = new AtomicLong();
+  private final AtomicLong deadLettered = new AtomicLong();
+  private final AtomicLong replayed = new AtomicLong();
+
+  private long lagWindow;
+  private long windowLagMillis = -1;
+  private long previousWindowLagMillis = -1;
+
+  void delivered(int attempts) {
+    delivered.incrementAndGet();
+    if (attempts > 1) recovered.incrementAndGet();
+  }
+
+  void retried() {
+    retries.incrementAndGet();
+  }
+
+  void deadLettered() {
+    deadLettered.incrementAndGet();
+  }
+
+  public void replayed() {
+    replayed.incrementAndGet();
+  }
+
+  synchronized void lagged(Instant journaledAt, Instant deliveredAt) {
+    advanceLagWindow(deliveredAt);
+    long lagMillis = Math.max(0, Duration.between(journaledAt, deliveredAt).toMillis());
+    windowLagMillis = Math.max(windowLagMillis, lagMillis);
+  }
+
+  // The largest lag seen in the current and the previous minute, if any
+  // update was delivered in that time
+  public synchronized Optional<Duration> recentLag(Instant now) {
+    advanceLagWindow(now);
+    long lagMillis = Math.max(windowLagMillis, previousWindowLagMillis);
+    return lagMillis < 0 ? Optional.empty() : Optional.of(Duration.ofMillis(lagMillis));
+  }
+
+  private void advanceLagWindow(Instant now) {
+    long window = now.toEpochMilli() / LAG_WINDOW_MILLIS;
+    if (window == lagWindow) return;
+    previousWindowLagMillis = window == lagWindow + 1 ? windowLagMillis : -1;
+    windowLagMillis = -1;
+    lagWindow = window;
+  }
+
+  public Stats stats() {
+    return new Stats(
+        delivered.get(),
+        retries.get(),
+        recovered.get(),
+        deadLettered.get(),
+        replayed.get(),
+        recentLag(Instant.now()).map(Duration::toMillis).orElse(-1L));
+  }
+
+  // `recentLagMillis` is -1 when nothing was delivered recently
+  public record Stats(
+      long delivered,
+      long retries,
+      long recovered,
+      long deadLettered,
+      long replayed,
+      long recentLagMillis) {}
+}
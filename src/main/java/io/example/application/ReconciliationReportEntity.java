@@ -0,0 +1,72 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import java.time.Instant;
+
+// The drift found by the reconciliation job, keyed by job name: counts for
+// the pass over the slot window in progress, for the last completed pass,
+// and since the job first ran.
+@ComponentId("reconciliation-report")
+public class ReconciliationReportEntity extends KeyValueEntity<ReconciliationReportEntity.Report> {
+
+  // `skipped` counts slots that changed while their drift was being
+  // confirmed; they are checked again on the next pass
+  public record Counts(
+      long slots,
+      long pairs,
+      long missing,
+      long stale,
+      long extra,
+      long corrected,
+      long failed,
+      long skipped) {
+
+    public static final Counts ZERO = new Counts(0, 0, 0, 0, 0, 0, 0, 0);
+
+    public Counts plus(Counts other) {
+      return new Counts(
+          slots + other.slots,
+          pairs + other.pairs,
+          missing + other.missing,
+          stale + other.stale,
+          extra + other.extra,
+          corrected + other.corrected,
+          failed + other.failed,
+          skipped + other.skipped);
+    }
+  }
+
+  public record Report(
+      Counts currentPass,
+      Counts lastPass,
+      Counts total,
+      long passes,
+      Instant lastPassCompletedAt,
+      Instant updatedAt) {}
+
+  public record Batch(Counts counts, boolean passCompleted) {}
+
+  @Override
+  public Report emptyState() {
+    return new Report(Counts.ZERO, Counts.ZERO, Counts.ZERO, 0, Instant.EPOCH, Instant.EPOCH);
+  }
+
+  public Effect<Done> add(Batch batch) {
+    Report report = currentState();
+    Counts pass = report.currentPass().plus(batch.counts());
+    Counts total = report.total().plus(batch.counts());
+    Instant now = Instant.now();
+    Report updated =
+        batch.passCompleted()
+            ? new Report(Counts.ZERO, pass, total, report.passes() + 1, now, now)
+            : new Report(
+                pass, report.lastPass(), total, report.passes(), report.lastPassCompletedAt(), now);
+    return effects().updateState(updated).thenReply(Done.done());
+  }
+
+  public ReadOnlyEffect<Report> getReport() {
+    return effects().reply(currentState());
+  }
+}
@@ -0,0 +1,23 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.domain.SlotArchive;
+
+// Holds the compact summary of an archived slot, keyed by slot ID. Written
+// once by the retention job before the slot's own entities are deleted.
+@ComponentId("slot-archive")
+public class SlotArchiveEntity extends KeyValueEntity<SlotArchive> {
+
+  public Effect<Done> archive(SlotArchive archive) {
+    return effects().updateState(archive).thenReply(Done.done());
+  }
+
+  public ReadOnlyEffect<SlotArchive> getArchive() {
+    if (currentState() == null) {
+      return effects().error("Slot has not been archived");
+    }
+    return effects().reply(currentState());
+  }
+}
@@ -0,0 +1,162 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.TypeName;
+import akka.javasdk.eventsourcedentity.EventSourcedEntity;
+import akka.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// One share of the availability of a partitioned slot (see SlotPartitioning),
+// keyed by {slotId}#{partition}. Participants mark themselves available here
+// instead of on the BookingSlotEntity, which for a partitioned slot only
+// holds the bookings. A booking first claims each of its participants from
+// their partition, which takes them out of the available set; claims of a
+// booking that couldn't be completed are released again.
+//
+// Claims are remembered per participant, with the booking that made them, so
+// that claiming or releasing again for the same booking (a retried booking)
+// changes nothing, and so that all claims of a booking can be released by
+// its ID alone, e.g. when it is canceled.
+@ComponentId("slot-partition")
+public class SlotPartitionEntity
+    extends EventSourcedEntity<SlotPartitionEntity.State, SlotPartitionEntity.Event> {
+
+  private final String entityId;
+  private final String slotId;
+
+  public SlotPartitionEntity(EventSourcedEntityContext context) {
+    this.entityId = context.entityId();
+    this.slotId = SlotPartitioning.slotIdOf(entityId);
+  }
+
+  public record State(Set<Participant> available, Map<String, Claim> claims) {}
+
+  public record Claim(Participant participant, String bookingId) {}
+
+  public record Availability(List<Participant> available) {}
+
+  public Effect<Done> markAvailable(Participant participant) {
+    return effects()
+        .persist(new Event.MarkedAvailable(slotId, participant.id(), participant.participantType()))
+        .thenReply(state -> Done.done());
+  }
+
+  public Effect<Done> unmarkAvailable(Participant participant) {
+    return effects()
+        .persist(
+            new Event.UnmarkedAvailable(slotId, participant.id(), participant.participantType()))
+        .thenReply(state -> Done.done());
+  }
+
+  public Effect<Done> claim(Claim claim) {
+    Participant participant = claim.participant();
+    if (claim.equals(currentState().claims().get(participant.id()))) {
+      return effects().reply(Done.done());
+    }
+    if (!currentState().available().contains(participant)) {
+      return effects().error("Participant is not available");
+    }
+    return effects()
+        .persist(
+            new Event.Claimed(
+                slotId, participant.id(), participant.participantType(), claim.bookingId()))
+        .thenReply(state -> Done.done());
+  }
+
+  public Effect<Done> release(Claim claim) {
+    if (!claim.equals(currentState().claims().get(claim.participant().id()))) {
+      return effects().reply(Done.done());
+    }
+    return effects().persist(released(claim)).thenReply(state -> Done.done());
+  }
+
+  // Releases every claim the booking holds in this partition
+  public Effect<Done> releaseBooking(String bookingId) {
+    List<Event> events =
+        currentState().claims().values().stream()
+            .filter(claim -> claim.bookingId().equals(bookingId))
+            .map(this::released)
+            .toList();
+    if (events.isEmpty()) {
+      return effects().reply(Done.done());
+    }
+    return effects().persistAll(events).thenReply(state -> Done.done());
+  }
+
+  private Event released(Claim claim) {
+    Participant participant = claim.participant();
+    return new Event.Released(
+        slotId, participant.id(), participant.participantType(), claim.bookingId());
+  }
+
+  // The sequence number of the partition's latest event
+  public ReadOnlyEffect<Long> getVersion() {
+    return effects().reply(commandContext().sequenceNumber());
+  }
+
+  public ReadOnlyEffect<Availability> getAvailable() {
+    return effects().reply(new Availability(List.copyOf(currentState().available())));
+  }
+
+  @Override
+  public State emptyState() {
+    return new State(new HashSet<>(), new HashMap<>());
+  }
+
+  // The state is updated in place, like Timeslot's, so that a partition of
+  // thousands of participants doesn't get copied for every event
+  @Override
+  public State applyEvent(Event event) {
+    State state = currentState();
+    switch (event) {
+      case Event.MarkedAvailable marked -> {
+        state.available().add(new Participant(marked.participantId(), marked.participantType()));
+        state.claims().remove(marked.participantId());
+      }
+      case Event.UnmarkedAvailable unmarked ->
+          state
+              .available()
+              .remove(new Participant(unmarked.participantId(), unmarked.participantType()));
+      case Event.Claimed claimed -> {
+        Participant participant =
+            new Participant(claimed.participantId(), claimed.participantType());
+        state.available().remove(participant);
+        state.claims().put(claimed.participantId(), new Claim(participant, claimed.bookingId()));
+      }
+      case Event.Released released -> {
+        state
+            .available()
+            .add(new Participant(released.participantId(), released.participantType()));
+        state.claims().remove(released.participantId());
+      }
+    }
+    return state;
+  }
+
+  public sealed interface Event {
+    @TypeName("partition-marked-available")
+    record MarkedAvailable(String slotId, String participantId, ParticipantType participantType)
+        implements Event {}
+
+    @TypeName("partition-unmarked-available")
+    record UnmarkedAvailable(String slotId, String participantId, ParticipantType participantType)
+        implements Event {}
+
+    @TypeName("partition-participant-claimed")
+    record Claimed(
+        String slotId, String participantId, ParticipantType participantType, String bookingId)
+        implements Event {}
+
+    @TypeName("partition-claim-released")
+    record Released(
+        String slotId, String participantId, ParticipantType participantType, String bookingId)
+        implements Event {}
+  }
+}
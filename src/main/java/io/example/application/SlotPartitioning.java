@@ -0,0 +1,250 @@
+package io.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.application.SlotPartitionEntity.Claim;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Decides which slots have their availability partitioned, and routes the
+// availability and booking of those slots. A partitioned slot's available
+// participants live in SlotPartitionEntity instances, one per participant
+// type or per participant-ID hash, so that thousands of participants
+// marking themselves available don't all go through one entity and the
+// slot's state isn't one huge value; its BookingSlotEntity only keeps the
+// bookings. All other slots keep using the BookingSlotEntity alone.
+//
+// Whether a slot is partitioned must not change once it has availability,
+// or the availability recorded the other way is no longer seen.
+public class SlotPartitioning {
+
+  private static final Logger logger = LoggerFactory.getLogger(SlotPartitioning.class);
+
+  private final List<String> slots;
+  private final boolean byHash;
+  private final int partitions;
+
+  public SlotPartitioning(Config config) {
+    Config partitioning = config.getConfig("flight.partitioning");
+    this.slots = partitioning.getStringList("slots");
+    this.byHash = partitioning.getString("by").equals("hash");
+    this.partitions = partitioning.getInt("partitions");
+  }
+
+  // Slots are listed by ID or by ID prefix, e.g. a whole exam day
+  public boolean isPartitioned(String slotId) {
+    return slots.stream().anyMatch(slotId::startsWith);
+  }
+
+  public String partitionOf(String slotId, Participant participant) {
+    String partition =
+        byHash
+            ? "h" + Math.floorMod(participant.id().hashCode(), partitions)
+            : participant.participantType().name();
+    return slotId + "#" + partition;
+  }
+
+  public List<String> partitionsOf(String slotId) {
+    List<String> ids = new ArrayList<>();
+    if (byHash) {
+      for (int i = 0; i < partitions; i++) ids.add(slotId + "#h" + i);
+    } else {
+      for (ParticipantType type : ParticipantType.values()) ids.add(slotId + "#" + type.name());
+    }
+    return ids;
+  }
+
+  static String slotIdOf(String partitionId) {
+    int separator = partitionId.lastIndexOf('#');
+    return separator < 0 ? partitionId : partitionId.substring(0, separator);
+  }
+
+  // The component calls that booking, canceling and reading a partitioned
+  // slot make
+  interface Calls {
+    void claim(String partitionId, Claim claim);
+
+    void release(String partitionId, Claim claim);
+
+    void releaseBooking(String partitionId, String bookingId);
+
+    void recordBooking(String slotId, BookReservation reservation);
+
+    void cancelBooking(String slotId, String bookingId);
+
+    CompletionStage<Timeslot> slot(String slotId);
+
+    CompletionStage<List<Participant>> available(String partitionId);
+  }
+
+  static Calls calls(ComponentClient client) {
+    return new Calls() {
+      @Override
+      public void claim(String partitionId, Claim claim) {
+        client.forEventSourcedEntity(partitionId).method(SlotPartitionEntity::claim).invoke(claim);
+      }
+
+      @Override
+      public void release(String partitionId, Claim claim) {
+        client
+            .forEventSourcedEntity(partitionId)
+            .method(SlotPartitionEntity::release)
+            .invoke(claim);
+      }
+
+      @Override
+      public void releaseBooking(String partitionId, String bookingId) {
+        client
+            .forEventSourcedEntity(partitionId)
+            .method(SlotPartitionEntity::releaseBooking)
+            .invoke(bookingId);
+      }
+
+      @Override
+      public void recordBooking(String slotId, BookReservation reservation) {
+        client
+            .forEventSourcedEntity(slotId)
+            .method(BookingSlotEntity::recordBooking)
+            .invoke(reservation);
+      }
+
+      @Override
+      public void cancelBooking(String slotId, String bookingId) {
+        client
+            .forEventSourcedEntity(slotId)
+            .method(BookingSlotEntity::cancelBooking)
+            .invoke(bookingId);
+      }
+
+      @Override
+      public CompletionStage<Timeslot> slot(String slotId) {
+        return client
+            .forEventSourcedEntity(slotId)
+            .method(BookingSlotEntity::getSlot)
+            .invokeAsync();
+      }
+
+      @Override
+      public CompletionStage<List<Participant>> available(String partitionId) {
+        return client
+            .forEventSourcedEntity(partitionId)
+            .method(SlotPartitionEntity::getAvailable)
+            .invokeAsync()
+            .thenApply(SlotPartitionEntity.Availability::available);
+      }
+    };
+  }
+
+  public void book(ComponentClient client, String slotId, BookReservation reservation) {
+    book(calls(client), slotId, reservation);
+  }
+
+  // Books a partitioned slot: the three participants are claimed from their
+  // partitions one at a time, then the booking is recorded on the slot. Both
+  // steps are keyed by the booking ID, so a booking that failed half-way can
+  // simply be tried again, or canceled to give its claims back.
+  //
+  // If a step fails and the booking hasn't been recorded after all (a
+  // recording that timed out may still have been persisted), the claims are
+  // released again, each on its own, and the failure is passed on. If the
+  // slot can't be read to tell, the claims are kept, so that a booking that
+  // stands is never left without them.
+  void book(Calls calls, String slotId, BookReservation reservation) {
+    List<Claim> claims =
+        List.of(
+            claim(reservation.studentId(), ParticipantType.STUDENT, reservation),
+            claim(reservation.aircraftId(), ParticipantType.AIRCRAFT, reservation),
+            claim(reservation.instructorId(), ParticipantType.INSTRUCTOR, reservation));
+    try {
+      for (Claim claim : claims) {
+        calls.claim(partitionOf(slotId, claim.participant()), claim);
+      }
+      calls.recordBooking(slotId, reservation);
+    } catch (RuntimeException ex) {
+      Timeslot slot;
+      try {
+        slot = calls.slot(slotId).toCompletableFuture().join();
+      } catch (RuntimeException readFailure) {
+        ex.addSuppressed(readFailure);
+        throw ex;
+      }
+      if (!slot.findBooking(reservation.bookingId()).isEmpty()) {
+        return;
+      }
+      // releasing a claim the booking doesn't hold changes nothing, so all of
+      // them are released, including one whose claim call failed after all
+      for (Claim claim : claims) {
+        try {
+          calls.release(partitionOf(slotId, claim.participant()), claim);
+        } catch (RuntimeException releaseFailure) {
+          logger.warn("Unable to release {} in slot {}", claim, slotId, releaseFailure);
+          ex.addSuppressed(releaseFailure);
+        }
+      }
+      throw ex;
+    }
+  }
+
+  public void cancel(ComponentClient client, String slotId, String bookingId) {
+    cancel(calls(client), slotId, bookingId);
+  }
+
+  // Cancels a booking of a partitioned slot and gives its participants back
+  // to their partitions. Every partition is asked, so that claims left by a
+  // booking that never got recorded are released too. A failed release
+  // doesn't stop the others; the first failure is passed on once all have
+  // been tried, and canceling again is harmless.
+  void cancel(Calls calls, String slotId, String bookingId) {
+    calls.cancelBooking(slotId, bookingId);
+    RuntimeException failure = null;
+    for (String partitionId : partitionsOf(slotId)) {
+      try {
+        calls.releaseBooking(partitionId, bookingId);
+      } catch (RuntimeException ex) {
+        if (failure == null) failure = ex;
+        else failure.addSuppressed(ex);
+      }
+    }
+    if (failure != null) throw failure;
+  }
+
+  public Timeslot read(ComponentClient client, String slotId) {
+    return readAsync(calls(client), slotId).toCompletableFuture().join();
+  }
+
+  public CompletionStage<Timeslot> readAsync(ComponentClient client, String slotId) {
+    return readAsync(calls(client), slotId);
+  }
+
+  // The whole state of a partitioned slot: its bookings, and the available
+  // participants of all of its partitions, read in parallel
+  CompletionStage<Timeslot> readAsync(Calls calls, String slotId) {
+    List<CompletableFuture<List<Participant>>> partitionReads =
+        partitionsOf(slotId).stream()
+            .map(partitionId -> calls.available(partitionId).toCompletableFuture())
+            .toList();
+    return calls
+        .slot(slotId)
+        .thenCombine(
+            CompletableFuture.allOf(partitionReads.toArray(CompletableFuture[]::new)),
+            (timeslot, done) -> {
+              Set<Participant> available = new HashSet<>(timeslot.available());
+              partitionReads.forEach(read -> available.addAll(read.join()));
+              return new Timeslot(timeslot.bookings(), available);
+            });
+  }
+
+  private static Claim claim(String participantId, ParticipantType type, BookReservation booking) {
+    return new Claim(new Participant(participantId, type), booking.bookingId());
+  }
+}
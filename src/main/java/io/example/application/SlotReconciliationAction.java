@@ -0,0 +1,235 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import com.typesafe.config.Config;
+import io.example.application.BookingSlotEntity.VersionedSlot;
+import io.example.application.JobCheckpointEntity.Advance;
+import io.example.application.JobCheckpointEntity.Checkpoint;
+import io.example.application.ReconciliationReportEntity.Batch;
+import io.example.application.ReconciliationReportEntity.Counts;
+import io.example.application.SlotRosterView.Roster;
+import io.example.domain.SlotIds;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Finds and repairs drift between slots and their participant projection,
+// for when SlotToParticipantConsumer has skipped or misapplied an event.
+// Each run checks a page of the hourly slots in a window around now, after
+// the checkpoint left by the previous run: the slot's state is compared with
+// its rows in the roster view (see ProjectionDrift). Drift that is still
+// there `settle` later, with the slot unchanged in between, is repaired with
+// just the participant updates needed; anything else was projection lag.
+// Once the whole window has been checked the job pauses before the next
+// pass. Only slots with date-based IDs are covered, and slots with
+// partitioned availability are left out.
+@ComponentId("slot-reconciliation")
+public class SlotReconciliationAction extends TimedAction {
+
+  public static final String JOB_NAME = "slot-reconciliation";
+
+  private static final Logger logger = LoggerFactory.getLogger(SlotReconciliationAction.class);
+
+  private final ComponentClient componentClient;
+  private final ParticipantSlotStorage storage;
+  private final boolean enabled;
+  private final Duration lookback;
+  private final Duration horizon;
+  private final int slotsPerRun;
+  private final int parallelism;
+  private final Duration runInterval;
+  private final Duration idleInterval;
+  private final Duration settle;
+  private final SlotPartitioning partitioning;
+
+  public SlotReconciliationAction(
+      ComponentClient componentClient, ParticipantSlotStorage storage, Config config) {
+    this.componentClient = componentClient;
+    this.storage = storage;
+    Config reconciliation = config.getConfig("flight.reconciliation");
+    this.enabled = reconciliation.getBoolean("enabled");
+    this.lookback = reconciliation.getDuration("lookback");
+    this.horizon = reconciliation.getDuration("horizon");
+    this.slotsPerRun = reconciliation.getInt("slots-per-run");
+    this.parallelism = reconciliation.getInt("parallelism");
+    this.runInterval = reconciliation.getDuration("run-interval");
+    this.idleInterval = reconciliation.getDuration("idle-interval");
+    this.settle = reconciliation.getDuration("settle");
+    this.partitioning = new SlotPartitioning(config);
+  }
+
+  public Effect runBatch() {
+    if (!enabled) {
+      return effects().done();
+    }
+
+    Checkpoint checkpoint =
+        componentClient
+            .forKeyValueEntity(JOB_NAME)
+            .method(JobCheckpointEntity::getCheckpoint)
+            .invoke();
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+    List<String> slotIds =
+        page(checkpoint.cursor(), now.minus(lookback), now.plus(horizon), slotsPerRun);
+    boolean passCompleted = slotIds.size() < slotsPerRun;
+
+    Queue<Counts> results = new ConcurrentLinkedQueue<>();
+    return effects()
+        .asyncDone(
+            BoundedParallelism.forEach(
+                    slotIds.stream().filter(slotId -> !partitioning.isPartitioned(slotId)).toList(),
+                    parallelism,
+                    slotId ->
+                        check(slotId)
+                            .thenApply(
+                                counts -> {
+                                  results.add(counts);
+                                  return Done.done();
+                                }))
+                .thenApply(
+                    done -> {
+                      Counts counts = results.stream().reduce(Counts.ZERO, Counts::plus);
+                      if (counts.missing() + counts.stale() + counts.extra() > 0) {
+                        logger.warn(
+                            "Projection drift in slots up to {}: {}", lastOf(slotIds), counts);
+                      }
+                      return counts;
+                    })
+                .thenCompose(
+                    counts ->
+                        componentClient
+                            .forKeyValueEntity(JOB_NAME)
+                            .method(JobCheckpointEntity::advance)
+                            .invokeAsync(
+                                new Advance(passCompleted ? "" : lastOf(slotIds), counts.slots()))
+                            .thenCompose(
+                                done ->
+                                    componentClient
+                                        .forKeyValueEntity(JOB_NAME)
+                                        .method(ReconciliationReportEntity::add)
+                                        .invokeAsync(new Batch(counts, passCompleted))))
+                .thenApply(
+                    done -> {
+                      scheduleNextRun(passCompleted);
+                      return done;
+                    }));
+  }
+
+  // The next run is only scheduled once this one has moved the checkpoint,
+  // so runs never overlap and check the same page twice. A run that fails
+  // before that is retried by its timer instead.
+  private void scheduleNextRun(boolean passCompleted) {
+    timers()
+        .createSingleTimer(
+            JOB_NAME,
+            passCompleted ? idleInterval : runInterval,
+            componentClient.forTimedAction().method(SlotReconciliationAction::runBatch).deferred());
+  }
+
+  // Checks one slot, never failing: errors are counted instead
+  private CompletionStage<Counts> check(String slotId) {
+    return readSlot(slotId, -1)
+        .thenCompose(
+            slot ->
+                readRoster(slotId)
+                    .thenCompose(
+                        roster -> {
+                          ProjectionDrift drift =
+                              ProjectionDrift.of(slotId, slot.timeslot(), roster);
+                          if (drift.isEmpty()) {
+                            return CompletableFuture.completedFuture(
+                                new Counts(1, drift.pairs(), 0, 0, 0, 0, 0, 0));
+                          }
+                          var delayed =
+                              CompletableFuture.delayedExecutor(
+                                  settle.toMillis(), TimeUnit.MILLISECONDS);
+                          return CompletableFuture.supplyAsync(() -> slot, delayed)
+                              .thenCompose(settled -> confirmAndRepair(slotId, settled));
+                        }))
+        .exceptionally(
+            error -> {
+              logger.warn("Unable to reconcile slot {}", slotId, error);
+              return new Counts(1, 0, 0, 0, 0, 0, 1, 0);
+            });
+  }
+
+  private CompletionStage<Counts> confirmAndRepair(String slotId, VersionedSlot slot) {
+    return readSlot(slotId, slot.version())
+        .thenCompose(
+            current -> {
+              if (current.timeslot() != null) {
+                return CompletableFuture.completedFuture(new Counts(1, 0, 0, 0, 0, 0, 0, 1));
+              }
+              return readRoster(slotId).thenCompose(roster -> repair(slotId, slot, roster));
+            });
+  }
+
+  private CompletionStage<Counts> repair(String slotId, VersionedSlot slot, Roster roster) {
+    ProjectionDrift drift = ProjectionDrift.of(slotId, slot.timeslot(), roster);
+    CompletionStage<Long> corrected = CompletableFuture.completedFuture(0L);
+    for (ParticipantUpdate update : drift.corrections()) {
+      corrected =
+          corrected.thenCompose(
+              count ->
+                  storage
+                      .apply(update)
+                      .handle(
+                          (done, error) -> {
+                            if (error == null) return count + 1;
+                            logger.warn("Unable to apply correction {}", update, error);
+                            return count;
+                          }));
+    }
+    return corrected.thenApply(
+        count ->
+            new Counts(
+                1,
+                drift.pairs(),
+                drift.missing(),
+                drift.stale(),
+                drift.extra(),
+                count,
+                drift.corrections().size() - count,
+                0));
+  }
+
+  // The slot's state, or just its version if that is still `knownVersion`
+  private CompletionStage<VersionedSlot> readSlot(String slotId, long knownVersion) {
+    return componentClient
+        .forEventSourcedEntity(slotId)
+        .method(BookingSlotEntity::getSlotIfChanged)
+        .invokeAsync(knownVersion);
+  }
+
+  private CompletionStage<Roster> readRoster(String slotId) {
+    return storage.getRosterAsync(slotId);
+  }
+
+  // The next `size` hourly slots of the window [from, until) after the
+  // cursor, starting over at the beginning of the window when the cursor is
+  // empty or has fallen out of it
+  static List<String> page(String cursor, LocalDateTime from, LocalDateTime until, int size) {
+    LocalDateTime start =
+        SlotIds.parse(cursor)
+            .map(slot -> slot.plusHours(1))
+            .filter(next -> next.isAfter(from))
+            .orElse(from);
+    LocalDateTime end = start.plusHours(size);
+    return SlotIds.hourly(start, end.isBefore(until) ? end : until);
+  }
+
+  private static String lastOf(List<String> slotIds) {
+    return slotIds.isEmpty() ? "" : slotIds.getLast();
+  }
+}
@@ -0,0 +1,126 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import com.typesafe.config.Config;
+import io.example.application.JobCheckpointEntity.Advance;
+import io.example.application.JobCheckpointEntity.Checkpoint;
+import io.example.application.ParticipantSlotsView.SlotPageInput;
+import io.example.domain.SlotArchive;
+import io.example.domain.SlotIds;
+import io.example.domain.Timeslot;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Archives slots that lie further in the past than the configured horizon.
+// Each run handles one small page of slots, in slot-ID order, starting after
+// the checkpoint left by the previous run: the slot is summarized into a
+// SlotArchiveEntity, then the BookingSlotEntity is archived, which deletes
+// it and (through the consumer) its participant slots and view rows. The
+// next run is scheduled right away while there is a backlog and after a long
+// pause once it's cleared, so the job never competes heavily with live
+// traffic.
+@ComponentId("slot-retention")
+public class SlotRetentionAction extends TimedAction {
+
+  public static final String JOB_NAME = "slot-retention";
+
+  private static final Logger logger = LoggerFactory.getLogger(SlotRetentionAction.class);
+
+  private final ComponentClient componentClient;
+  private final ParticipantSlotStorage storage;
+  private final boolean enabled;
+  private final Duration horizon;
+  private final int pageSize;
+  private final Duration batchInterval;
+  private final Duration idleInterval;
+
+  public SlotRetentionAction(
+      ComponentClient componentClient, ParticipantSlotStorage storage, Config config) {
+    this.componentClient = componentClient;
+    this.storage = storage;
+    Config retention = config.getConfig("flight.retention");
+    this.enabled = retention.getBoolean("enabled");
+    this.horizon = retention.getDuration("horizon");
+    this.pageSize = retention.getInt("page-size");
+    this.batchInterval = retention.getDuration("batch-interval");
+    this.idleInterval = retention.getDuration("idle-interval");
+  }
+
+  public Effect runBatch() {
+    if (!enabled) {
+      return effects().done();
+    }
+
+    String cutoff = SlotIds.of(LocalDateTime.now().minus(horizon).truncatedTo(ChronoUnit.HOURS));
+    Checkpoint checkpoint =
+        componentClient
+            .forKeyValueEntity(JOB_NAME)
+            .method(JobCheckpointEntity::getCheckpoint)
+            .invoke();
+
+    List<ParticipantSlotsView.SlotRow> rows =
+        storage.getSlotsBetween(new SlotPageInput(checkpoint.cursor(), cutoff, pageSize)).slots();
+    List<String> slotIds =
+        rows.stream().map(ParticipantSlotsView.SlotRow::slotId).distinct().toList();
+
+    Progress progress = archiveInOrder(checkpoint.cursor(), slotIds, this::archive);
+    if (!progress.cursor().equals(checkpoint.cursor())) {
+      componentClient
+          .forKeyValueEntity(JOB_NAME)
+          .method(JobCheckpointEntity::advance)
+          .invoke(new Advance(progress.cursor(), progress.archived()));
+      logger.info("Archived {} slots up to {}", progress.archived(), progress.cursor());
+    }
+
+    // a failed slot is tried again after the batch interval, like a backlog
+    boolean backlog = rows.size() == pageSize || progress.failed();
+    timers()
+        .createSingleTimer(
+            JOB_NAME,
+            backlog ? batchInterval : idleInterval,
+            componentClient.forTimedAction().method(SlotRetentionAction::runBatch).deferred());
+    return effects().done();
+  }
+
+  record Progress(String cursor, int archived, boolean failed) {}
+
+  // Archives the slots of a page in order, and stops at the first one that
+  // fails: the cursor only moves past slots that are done, so the failed slot
+  // is tried again by the next run rather than skipped for good. Opaque slot
+  // IDs that don't encode a date are never archived, they are passed over.
+  static Progress archiveInOrder(String cursor, List<String> slotIds, Consumer<String> archive) {
+    String done = cursor;
+    int archived = 0;
+    for (String slotId : slotIds) {
+      if (SlotIds.parse(slotId).isPresent()) {
+        try {
+          archive.accept(slotId);
+          archived++;
+        } catch (RuntimeException ex) {
+          logger.warn("Unable to archive slot {}, retrying it next run", slotId, ex);
+          return new Progress(done, archived, true);
+        }
+      }
+      done = slotId;
+    }
+    return new Progress(done, archived, false);
+  }
+
+  private void archive(String slotId) {
+    Timeslot timeslot =
+        componentClient.forEventSourcedEntity(slotId).method(BookingSlotEntity::getSlot).invoke();
+    componentClient
+        .forKeyValueEntity(slotId)
+        .method(SlotArchiveEntity::archive)
+        .invoke(SlotArchive.of(slotId, timeslot, Instant.now()));
+    componentClient.forEventSourcedEntity(slotId).method(BookingSlotEntity::archive).invoke();
+  }
+}
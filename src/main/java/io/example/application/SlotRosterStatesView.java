@@ -0,0 +1,64 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.DeleteHandler;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.application.ParticipantSlotEntity.Status;
+import io.example.application.SlotRosterView.Roster;
+import io.example.application.SlotRosterView.RosterEntry;
+import io.example.application.SlotRosterView.StatusInput;
+import io.example.application.SlotRosterView.TypeAndStatusInput;
+import io.example.application.SlotRosterView.TypeInput;
+
+// SlotRosterView as fed by the key-value storage, under its own ID for the
+// same reason as ParticipantSlotStatesView
+@ComponentId("view-slot-roster-states")
+public class SlotRosterStatesView extends View {
+
+  @Consume.FromKeyValueEntity(ParticipantSlotStateEntity.class)
+  public static class SlotRosterStatesUpdater extends TableUpdater<RosterEntry> {
+
+    public Effect<RosterEntry> onChange(ParticipantSlotStateEntity.State state) {
+      if (state.status() == null) return effects().deleteRow();
+      return effects()
+          .updateRow(
+              new RosterEntry(
+                  state.slotId(),
+                  state.participantId(),
+                  state.participantType(),
+                  Status.valueOf(state.status()),
+                  state.bookingId()));
+    }
+
+    @DeleteHandler
+    public Effect<RosterEntry> onDelete() {
+      return effects().deleteRow();
+    }
+  }
+
+  @Query("SELECT * AS participants FROM view_slot_roster_states WHERE slotId = :slotId")
+  public QueryEffect<Roster> getRoster(String slotId) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS participants FROM view_slot_roster_states WHERE slotId = :slotId AND participantType = :participantType")
+  public QueryEffect<Roster> getRosterByType(TypeInput input) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS participants FROM view_slot_roster_states WHERE slotId = :slotId AND status = :status")
+  public QueryEffect<Roster> getRosterByStatus(StatusInput input) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS participants FROM view_slot_roster_states WHERE slotId = :slotId AND participantType = :participantType AND status = :status")
+  public QueryEffect<Roster> getRosterByTypeAndStatus(TypeAndStatusInput input) {
+    return queryResult();
+  }
+}
@@ -0,0 +1,148 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.application.ParticipantSlotEntity.Event.Booked;
+import io.example.application.ParticipantSlotEntity.Event.Canceled;
+import io.example.application.ParticipantSlotEntity.Event.MarkedAvailable;
+import io.example.application.ParticipantSlotEntity.Event.Removed;
+import io.example.application.ParticipantSlotEntity.Event.UnmarkedAvailable;
+import io.example.application.ParticipantSlotEntity.Status;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// The slot-centric counterpart of ParticipantSlotsView: answers "who is
+// available or booked in this slot" without activating the BookingSlotEntity.
+// Unlike the participant view, the participant type and status columns are
+// typed so that roster filters can't drift from the domain values.
+@ComponentId("view-slot-roster")
+public class SlotRosterView extends View {
+
+  @Consume.FromEventSourcedEntity(ParticipantSlotEntity.class)
+  public static class SlotRosterUpdater extends TableUpdater<RosterEntry> {
+
+    public Effect<RosterEntry> onEvent(ParticipantSlotEntity.Event event) {
+      event = event.withSlotIdFrom(updateContext().eventSubject().orElseThrow());
+      return switch (event) {
+        case MarkedAvailable markedAvailable ->
+            effects()
+                .updateRow(
+                    new RosterEntry(
+                        markedAvailable.slotId(),
+                        markedAvailable.participantId(),
+                        markedAvailable.participantType(),
+                        Status.available,
+                        ""));
+        case Booked booked ->
+            effects()
+                .updateRow(
+                    new RosterEntry(
+                        booked.slotId(),
+                        booked.participantId(),
+                        booked.participantType(),
+                        Status.booked,
+                        booked.bookingId()));
+        case UnmarkedAvailable unmarkedAvailable -> effects().deleteRow();
+        case Canceled canceled -> effects().deleteRow();
+        case Removed removed -> effects().deleteRow();
+      };
+    }
+  }
+
+  public record RosterEntry(
+      String slotId,
+      String participantId,
+      ParticipantType participantType,
+      Status status,
+      String bookingId) {}
+
+  public record Roster(List<RosterEntry> participants) {
+
+    // The roster of a slot as read from the slot's own state, for reads that
+    // can't accept the lag of the view
+    public static Roster of(String slotId, Timeslot timeslot) {
+      List<RosterEntry> participants = new ArrayList<>();
+      timeslot
+          .available()
+          .forEach(
+              participant ->
+                  participants.add(
+                      new RosterEntry(
+                          slotId,
+                          participant.id(),
+                          participant.participantType(),
+                          Status.available,
+                          "")));
+      timeslot
+          .bookings()
+          .forEach(
+              booking ->
+                  participants.add(
+                      new RosterEntry(
+                          slotId,
+                          booking.participant().id(),
+                          booking.participant().participantType(),
+                          Status.booked,
+                          booking.bookingId())));
+      return new Roster(participants);
+    }
+
+    public Roster filter(Optional<ParticipantType> type, Optional<Status> status) {
+      return new Roster(
+          participants.stream()
+              .filter(entry -> type.isEmpty() || entry.participantType() == type.get())
+              .filter(entry -> status.isEmpty() || entry.status() == status.get())
+              .toList());
+    }
+
+    // The slot's state as far as this region's view knows it
+    public Timeslot toTimeslot() {
+      Timeslot timeslot = Timeslot.empty();
+      for (RosterEntry entry : participants) {
+        Participant participant = new Participant(entry.participantId(), entry.participantType());
+        if (entry.status() == Status.booked) {
+          timeslot.bookings().add(new Timeslot.Booking(participant, entry.bookingId()));
+        } else {
+          timeslot.available().add(participant);
+        }
+      }
+      return timeslot;
+    }
+  }
+
+  public record TypeInput(String slotId, ParticipantType participantType) {}
+
+  public record StatusInput(String slotId, Status status) {}
+
+  public record TypeAndStatusInput(String slotId, ParticipantType participantType, Status status) {}
+
+  @Query("SELECT * AS participants FROM view_slot_roster WHERE slotId = :slotId")
+  public QueryEffect<Roster> getRoster(String slotId) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS participants FROM view_slot_roster WHERE slotId = :slotId AND participantType = :participantType")
+  public QueryEffect<Roster> getRosterByType(TypeInput input) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS participants FROM view_slot_roster WHERE slotId = :slotId AND status = :status")
+  public QueryEffect<Roster> getRosterByStatus(StatusInput input) {
+    return queryResult();
+  }
+
+  @Query(
+      "SELECT * AS participants FROM view_slot_roster WHERE slotId = :slotId AND participantType = :participantType AND status = :status")
+  public QueryEffect<Roster> getRosterByTypeAndStatus(TypeAndStatusInput input) {
+    return queryResult();
+  }
+}
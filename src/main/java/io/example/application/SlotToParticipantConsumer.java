@@ -4,87 +4,49 @@ import akka.javasdk.annotations.ComponentId;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
-import io.example.application.ParticipantSlotEntity.Commands.*;
+import com.typesafe.config.Config;
 import io.example.domain.BookingEvent;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 // This class is responsible for consuming events from the booking
 // slot entity and turning those into command calls on the
 // participant slot entity
+//
+// Failing participant updates are retried and eventually dead-lettered (see
+// ParticipantUpdateDelivery), after which the event is acknowledged.
 @ComponentId("booking-slot-consumer")
 @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
 public class SlotToParticipantConsumer extends Consumer {
 
-  private final ComponentClient client;
-  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final ParticipantUpdateDelivery delivery;
+  private final HopTrace.Tracer tracer;
 
-  public SlotToParticipantConsumer(ComponentClient client) {
-    this.client = client;
+  public SlotToParticipantConsumer(
+      ComponentClient client,
+      ParticipantSlotStorage storage,
+      ProjectionMetrics metrics,
+      Config config) {
+    this.delivery = new ParticipantUpdateDelivery(client, storage, metrics, config);
+    this.tracer = new HopTrace.Tracer(config);
   }
 
   public Effect onEvent(BookingEvent event) {
-    // Supply your own implementation
-    String entityId = participantSlotId(event);
-    switch (event) {
-      case BookingEvent.ParticipantMarkedAvailable markedAvailableEvent -> {
-        MarkAvailable command =
-            new MarkAvailable(
-                markedAvailableEvent.slotId(),
-                markedAvailableEvent.participantId(),
-                markedAvailableEvent.participantType());
-        client
-            .forEventSourcedEntity(entityId)
-            .method(ParticipantSlotEntity::markAvailable)
-            .invoke(command);
-      }
-      case BookingEvent.ParticipantUnmarkedAvailable unmarkedAvailableEvent -> {
-        UnmarkAvailable command =
-            new UnmarkAvailable(
-                unmarkedAvailableEvent.slotId(),
-                unmarkedAvailableEvent.participantId(),
-                unmarkedAvailableEvent.participantType());
-        client
-            .forEventSourcedEntity(entityId)
-            .method(ParticipantSlotEntity::unmarkAvailable)
-            .invoke(command);
-      }
-      case BookingEvent.ParticipantBooked bookedEvent -> {
-        Book command =
-            new Book(
-                bookedEvent.slotId(),
-                bookedEvent.participantId(),
-                bookedEvent.participantType(),
-                bookedEvent.bookingId());
-        client.forEventSourcedEntity(entityId).method(ParticipantSlotEntity::book).invoke(command);
-      }
-      case BookingEvent.ParticipantCanceled canceledEvent -> {
-        Cancel command =
-            new Cancel(
-                canceledEvent.slotId(),
-                canceledEvent.participantId(),
-                canceledEvent.participantType(),
-                canceledEvent.bookingId());
-        client
-            .forEventSourcedEntity(entityId)
-            .method(ParticipantSlotEntity::cancel)
-            .invoke(command);
-      }
-    }
-    return effects().done();
+    // the slot ID isn't journaled, it's the ID of the entity
+    event = event.withSlotId(messageContext().eventSubject().orElseThrow());
+    var hop =
+        tracer
+            .start("booking-slot-consumer", messageContext().tracing())
+            .with("event", event.getClass().getSimpleName());
+
+    // an archived slot updates several participants, one after the other
+    return effects()
+        .asyncDone(
+            delivery
+                .deliver(ParticipantUpdate.of(event), source())
+                .whenComplete((done, error) -> hop.close()));
   }
 
-  // Participant slots are keyed by a derived key made up of
-  // {slotId}-{participantId}
-  // We don't need the participant type here because the participant IDs
-  // should always be unique/UUIDs
-  private String participantSlotId(BookingEvent event) {
-    return switch (event) {
-      case BookingEvent.ParticipantBooked evt -> evt.slotId() + "-" + evt.participantId();
-      case BookingEvent.ParticipantUnmarkedAvailable evt ->
-          evt.slotId() + "-" + evt.participantId();
-      case BookingEvent.ParticipantMarkedAvailable evt -> evt.slotId() + "-" + evt.participantId();
-      case BookingEvent.ParticipantCanceled evt -> evt.slotId() + "-" + evt.participantId();
-    };
+  private ParticipantUpdateDelivery.Source source() {
+    return ParticipantUpdateDelivery.Source.of(
+        messageContext().eventSubject().orElseThrow(), messageContext().metadata());
   }
 }
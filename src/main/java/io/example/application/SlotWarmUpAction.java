@@ -0,0 +1,164 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import com.typesafe.config.Config;
+import io.example.application.JobCheckpointEntity.Run;
+import io.example.domain.SlotIds;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Loads the BookingSlotEntity instances of the upcoming slots shortly before
+// each daily peak, so the requests arriving when the booking window opens
+// don't all wait for their slot to be recovered. The slots are named after
+// the hour they start at, so the slot IDs to load follow from the peak time
+// alone. Each run schedules the next one and records how many slots it
+// loaded and how long that took.
+@ComponentId("slot-warm-up")
+public class SlotWarmUpAction extends TimedAction {
+
+  public static final String JOB_NAME = "slot-warm-up";
+
+  private static final Logger logger = LoggerFactory.getLogger(SlotWarmUpAction.class);
+
+  private final ComponentClient componentClient;
+  private final boolean enabled;
+  private final ZoneId zone;
+  private final List<LocalTime> peakTimes;
+  private final Duration lead;
+  private final Duration horizon;
+  private final int parallelism;
+
+  public SlotWarmUpAction(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    Config warmUp = config.getConfig("flight.warm-up");
+    this.enabled = warmUp.getBoolean("enabled");
+    this.zone = ZoneId.of(warmUp.getString("zone"));
+    this.peakTimes = peakTimes(warmUp);
+    this.lead = warmUp.getDuration("lead");
+    this.horizon = warmUp.getDuration("horizon");
+    this.parallelism = warmUp.getInt("parallelism");
+  }
+
+  // The delay until the next run, as configured
+  public static Duration untilNextRun(Config config) {
+    Config warmUp = config.getConfig("flight.warm-up");
+    ZonedDateTime now = ZonedDateTime.now(ZoneId.of(warmUp.getString("zone")));
+    return Duration.between(now, nextRun(now, peakTimes(warmUp), warmUp.getDuration("lead")));
+  }
+
+  public Effect warmUp() {
+    if (!enabled) {
+      return effects().done();
+    }
+
+    ZonedDateTime now = ZonedDateTime.now(zone);
+    ZonedDateTime peak = peakFor(now, peakTimes, lead);
+    // the next run is the one after this run's, even if this timer fired early
+    ZonedDateTime thisRun = peak.minus(lead);
+    timers()
+        .createSingleTimer(
+            JOB_NAME,
+            Duration.between(now, nextRun(thisRun.isAfter(now) ? thisRun : now, peakTimes, lead)),
+            componentClient.forTimedAction().method(SlotWarmUpAction::warmUp).deferred());
+
+    LocalDateTime peakHour = peak.toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+    List<String> slotIds = SlotIds.hourly(peakHour, peakHour.plus(horizon));
+    long start = System.nanoTime();
+    return effects()
+        .asyncDone(
+            load(slotIds)
+                .thenCompose(
+                    counts -> {
+                      long millis = (System.nanoTime() - start) / 1_000_000;
+                      logger.info(
+                          "Warmed up {} slots from {} in {} ms ({} with history, {} failed)",
+                          counts.loaded(),
+                          slotIds.getFirst(),
+                          millis,
+                          counts.written(),
+                          counts.failed());
+                      return componentClient
+                          .forKeyValueEntity(JOB_NAME)
+                          .method(JobCheckpointEntity::recordRun)
+                          .invokeAsync(
+                              new Run(counts.loaded(), counts.failed(), millis, Instant.now()));
+                    }));
+  }
+
+  private CompletionStage<Counts> load(List<String> slotIds) {
+    AtomicLong loaded = new AtomicLong();
+    AtomicLong written = new AtomicLong();
+    AtomicLong failed = new AtomicLong();
+    return BoundedParallelism.forEach(
+            slotIds,
+            parallelism,
+            slotId ->
+                componentClient
+                    .forEventSourcedEntity(slotId)
+                    .method(BookingSlotEntity::getVersion)
+                    .invokeAsync()
+                    .handle(
+                        (version, error) -> {
+                          if (error != null) {
+                            logger.warn("Unable to warm up slot {}", slotId, error);
+                            failed.incrementAndGet();
+                          } else {
+                            loaded.incrementAndGet();
+                            if (version > 0) written.incrementAndGet();
+                          }
+                          return Done.done();
+                        }))
+        .thenApply(done -> new Counts(loaded.get(), written.get(), failed.get()));
+  }
+
+  // The first run after `now`: `lead` before the earliest upcoming peak
+  static ZonedDateTime nextRun(ZonedDateTime now, List<LocalTime> peakTimes, Duration lead) {
+    ZonedDateTime next = null;
+    for (LocalTime peakTime : peakTimes) {
+      ZonedDateTime run = now.with(peakTime).truncatedTo(ChronoUnit.MINUTES).minus(lead);
+      while (!run.isAfter(now)) run = run.plusDays(1);
+      if (next == null || run.isBefore(next)) next = run;
+    }
+    return next;
+  }
+
+  // The peak a run at `now` is for: the one nearest to `lead` after it, so
+  // that a timer firing a little early or late still loads from the peak's
+  // hour rather than from the hour before or after
+  static ZonedDateTime peakFor(ZonedDateTime now, List<LocalTime> peakTimes, Duration lead) {
+    ZonedDateTime target = now.plus(lead);
+    ZonedDateTime nearest = null;
+    for (LocalTime peakTime : peakTimes) {
+      for (int days = -1; days <= 1; days++) {
+        ZonedDateTime peak = target.plusDays(days).with(peakTime).truncatedTo(ChronoUnit.MINUTES);
+        if (nearest == null
+            || Duration.between(peak, target)
+                    .abs()
+                    .compareTo(Duration.between(nearest, target).abs())
+                < 0) {
+          nearest = peak;
+        }
+      }
+    }
+    return nearest;
+  }
+
+  private static List<LocalTime> peakTimes(Config warmUp) {
+    return warmUp.getStringList("peak-times").stream().map(LocalTime::parse).toList();
+  }
+
+  private record Counts(long loaded, long written, long failed) {}
+}
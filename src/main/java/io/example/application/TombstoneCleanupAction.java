@@ -0,0 +1,84 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import com.typesafe.config.Config;
+import io.example.application.ParticipantSlotsView.SlotRecord;
+import io.example.application.ParticipantSlotsView.TombstoneInput;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Deletes the participant slots that have been tombstones for longer than
+// the delta-sync's maximum token age. Any token that could still ask for
+// such a removal is answered with a full resync, which doesn't list removed
+// slots, so the tombstone no longer tells anyone anything. Each run deletes
+// one page of the oldest tombstones; the next run is scheduled right away
+// while there is a backlog and after a long pause once it's cleared.
+@ComponentId("tombstone-cleanup")
+public class TombstoneCleanupAction extends TimedAction {
+
+  public static final String JOB_NAME = "tombstone-cleanup";
+
+  private static final Logger logger = LoggerFactory.getLogger(TombstoneCleanupAction.class);
+
+  private final ComponentClient componentClient;
+  private final ParticipantSlotStorage storage;
+  private final boolean enabled;
+  private final Duration maxTokenAge;
+  private final int pageSize;
+  private final Duration batchInterval;
+  private final Duration idleInterval;
+
+  public TombstoneCleanupAction(
+      ComponentClient componentClient, ParticipantSlotStorage storage, Config config) {
+    this.componentClient = componentClient;
+    this.storage = storage;
+    Config deltaSync = config.getConfig("flight.delta-sync");
+    this.maxTokenAge = deltaSync.getDuration("max-token-age");
+    Config cleanup = deltaSync.getConfig("tombstone-cleanup");
+    this.enabled = cleanup.getBoolean("enabled");
+    this.pageSize = cleanup.getInt("page-size");
+    this.batchInterval = cleanup.getDuration("batch-interval");
+    this.idleInterval = cleanup.getDuration("idle-interval");
+  }
+
+  public Effect runBatch() {
+    if (!enabled) {
+      return effects().done();
+    }
+
+    long before = Instant.now().minus(maxTokenAge).toEpochMilli();
+    List<SlotRecord> tombstones =
+        storage.getTombstonesBefore(new TombstoneInput(before, pageSize)).changes();
+
+    int removed = 0;
+    for (SlotRecord tombstone : tombstones) {
+      // a tombstone that can't be removed now is found again by a later run
+      try {
+        storage.removeTombstone(tombstone.slotId() + "-" + tombstone.participantId());
+        removed++;
+      } catch (RuntimeException ex) {
+        logger.warn(
+            "Unable to remove the tombstone of {} in slot {}",
+            tombstone.participantId(),
+            tombstone.slotId(),
+            ex);
+      }
+    }
+    if (removed > 0) {
+      logger.info("Removed {} tombstones", removed);
+    }
+
+    boolean backlog = tombstones.size() == pageSize;
+    timers()
+        .createSingleTimer(
+            JOB_NAME,
+            backlog ? batchInterval : idleInterval,
+            componentClient.forTimedAction().method(TombstoneCleanupAction::runBatch).deferred());
+    return effects().done();
+  }
+}
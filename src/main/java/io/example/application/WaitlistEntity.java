@@ -0,0 +1,87 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.domain.WaitlistEntry;
+import io.example.domain.WaitlistEntry.Status;
+
+// One student's place on a slot's waitlist, keyed by wait ID. The entry is
+// matched against the slot by the WaitlistMatcher whenever it's registered
+// and whenever the slot changes, until it's booked or withdrawn.
+//
+// The matcher claims the entry (MATCHING) before booking it, as it finds
+// entries through WaitlistView, which may still show an entry as waiting
+// after it has been withdrawn. An entry can still be withdrawn while it's
+// being matched; the matcher then learns it when marking the entry booked,
+// and cancels the booking it made.
+@ComponentId("waitlist")
+public class WaitlistEntity extends KeyValueEntity<WaitlistEntry> {
+
+  public Effect<Done> register(WaitlistEntry entry) {
+    if (currentState() != null) {
+      return effects().error("Wait ID is already in use");
+    }
+    return effects().updateState(entry.withStatus(Status.WAITING)).thenReply(Done.done());
+  }
+
+  // Claims a waiting entry for booking. Replies with the entry's status
+  // afterwards: MATCHING if it may be booked, claimed again by a retry or
+  // by another matcher included.
+  public Effect<Status> claim() {
+    if (currentState() == null) {
+      return effects().error("Waitlist entry not found");
+    }
+    if (currentState().status() != Status.WAITING) {
+      return effects().reply(currentState().status());
+    }
+    return effects()
+        .updateState(currentState().withStatus(Status.MATCHING))
+        .thenReply(Status.MATCHING);
+  }
+
+  // Gives a claimed entry back, when the booking lost its participants to
+  // another one
+  public Effect<Done> release() {
+    if (currentState() == null || currentState().status() != Status.MATCHING) {
+      return effects().reply(Done.done());
+    }
+    return effects().updateState(currentState().withStatus(Status.WAITING)).thenReply(Done.done());
+  }
+
+  // Replies with the entry's status afterwards: BOOKED, or WITHDRAWN if it
+  // was withdrawn while the booking was being made
+  public Effect<Status> markBooked() {
+    if (currentState() == null) {
+      return effects().error("Waitlist entry not found");
+    }
+    if (currentState().status() == Status.BOOKED || currentState().status() == Status.WITHDRAWN) {
+      return effects().reply(currentState().status());
+    }
+    return effects().updateState(currentState().withStatus(Status.BOOKED)).thenReply(Status.BOOKED);
+  }
+
+  // Only a waiting or claimed entry can be withdrawn; withdrawing it again is
+  // fine
+  public Effect<Done> withdraw() {
+    if (currentState() == null) {
+      return effects().error("Waitlist entry not found");
+    }
+    if (currentState().status() == Status.WITHDRAWN) {
+      return effects().reply(Done.done());
+    }
+    if (currentState().status() == Status.BOOKED) {
+      return effects().error("Waitlist entry is already " + currentState().status());
+    }
+    return effects()
+        .updateState(currentState().withStatus(Status.WITHDRAWN))
+        .thenReply(Done.done());
+  }
+
+  public ReadOnlyEffect<WaitlistEntry> get() {
+    if (currentState() == null) {
+      return effects().error("Waitlist entry not found");
+    }
+    return effects().reply(currentState());
+  }
+}
@@ -0,0 +1,34 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.typesafe.config.Config;
+import io.example.domain.WaitlistEntry;
+
+// Tries to book a waitlist entry as soon as it's registered, in case the
+// slot is already bookable for it, and makes sure a withdrawn entry keeps no
+// booking
+@ComponentId("waitlist-entry-consumer")
+@Consume.FromKeyValueEntity(WaitlistEntity.class)
+public class WaitlistEntryConsumer extends Consumer {
+
+  private final WaitlistMatcher matcher;
+
+  public WaitlistEntryConsumer(ComponentClient client, Config config) {
+    this.matcher = new WaitlistMatcher(client, new SlotPartitioning(config));
+  }
+
+  public Effect onChange(WaitlistEntry entry) {
+    if (entry.status() == WaitlistEntry.Status.WITHDRAWN) {
+      matcher.cancelIfBooked(entry);
+      return effects().done();
+    }
+    if (entry.status() != WaitlistEntry.Status.WAITING) {
+      return effects().ignore();
+    }
+    matcher.tryBook(entry, matcher.slot(entry.slotId()));
+    return effects().done();
+  }
+}
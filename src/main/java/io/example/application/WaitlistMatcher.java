@@ -0,0 +1,190 @@
+package io.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.application.BookingSlotEntity.Command.MarkSlotAvailable;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import io.example.domain.WaitlistEntry;
+import io.example.domain.WaitlistEntry.Match;
+import io.example.domain.WaitlistEntry.Status;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Tries to turn waitlist entries into bookings. Shared by the two consumers
+// that drive it: one reacting to slot changes, one to newly registered
+// entries.
+class WaitlistMatcher {
+  private static final Logger logger = LoggerFactory.getLogger(WaitlistMatcher.class);
+
+  // The component calls the matcher makes
+  interface Calls {
+    Timeslot slot(String slotId);
+
+    void book(String slotId, BookReservation reservation);
+
+    // Cancels a booking made for an entry that was withdrawn meanwhile,
+    // leaving the slot as the withdrawal alone would have: the aircraft and
+    // the instructor available again, the student not
+    void cancel(String slotId, BookReservation reservation);
+
+    Status claim(String waitId);
+
+    void release(String waitId);
+
+    Status markBooked(String waitId);
+  }
+
+  private final Calls calls;
+
+  // Slots with partitioned availability are read and booked through their
+  // partitions
+  WaitlistMatcher(ComponentClient client, SlotPartitioning partitioning) {
+    this(
+        new Calls() {
+          @Override
+          public Timeslot slot(String slotId) {
+            if (partitioning.isPartitioned(slotId)) return partitioning.read(client, slotId);
+            return client.forEventSourcedEntity(slotId).method(BookingSlotEntity::getSlot).invoke();
+          }
+
+          @Override
+          public void book(String slotId, BookReservation reservation) {
+            if (partitioning.isPartitioned(slotId)) {
+              partitioning.book(client, slotId, reservation);
+              return;
+            }
+            client
+                .forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::bookSlot)
+                .invoke(reservation);
+          }
+
+          @Override
+          public void cancel(String slotId, BookReservation reservation) {
+            var student = new Participant(reservation.studentId(), ParticipantType.STUDENT);
+            if (partitioning.isPartitioned(slotId)) {
+              // canceling gives all three back to their partitions
+              partitioning.cancel(client, slotId, reservation.bookingId());
+              client
+                  .forEventSourcedEntity(partitioning.partitionOf(slotId, student))
+                  .method(SlotPartitionEntity::unmarkAvailable)
+                  .invoke(student);
+              return;
+            }
+            var slot = client.forEventSourcedEntity(slotId);
+            slot.method(BookingSlotEntity::cancelBooking).invoke(reservation.bookingId());
+            for (Participant participant :
+                List.of(
+                    new Participant(reservation.aircraftId(), ParticipantType.AIRCRAFT),
+                    new Participant(reservation.instructorId(), ParticipantType.INSTRUCTOR))) {
+              slot.method(BookingSlotEntity::markSlotAvailable)
+                  .invoke(new MarkSlotAvailable(participant));
+            }
+          }
+
+          @Override
+          public Status claim(String waitId) {
+            return client.forKeyValueEntity(waitId).method(WaitlistEntity::claim).invoke();
+          }
+
+          @Override
+          public void release(String waitId) {
+            client.forKeyValueEntity(waitId).method(WaitlistEntity::release).invoke();
+          }
+
+          @Override
+          public Status markBooked(String waitId) {
+            return client.forKeyValueEntity(waitId).method(WaitlistEntity::markBooked).invoke();
+          }
+        });
+  }
+
+  WaitlistMatcher(Calls calls) {
+    this.calls = calls;
+  }
+
+  // Books the entry if the slot allows it and marks it booked. Returns
+  // whether it was booked. The entry is claimed first, so one that has been
+  // withdrawn (or booked) since the caller found it is left alone. Losing a
+  // race for the participants to another booking just leaves the entry
+  // waiting: that is the case when the booking fails and the entry no longer
+  // matches the slot as it is now. Any other failure is passed on, so the
+  // consumer tries again.
+  boolean tryBook(WaitlistEntry entry, Timeslot timeslot) {
+    // booked earlier, but the entry wasn't marked before a failure
+    if (timeslot.participantsByBooking().containsKey(entry.waitId())) {
+      return markBooked(entry, reservationOf(entry, timeslot));
+    }
+
+    Optional<Match> match = entry.match(timeslot);
+    if (match.isEmpty()) return false;
+
+    Status claimed = calls.claim(entry.waitId());
+    if (claimed != Status.MATCHING) {
+      logger.debug("Waitlist entry {} is already {}", entry.waitId(), claimed);
+      return claimed == Status.BOOKED;
+    }
+
+    var reservation =
+        new BookReservation(
+            entry.studentId(),
+            match.get().aircraftId(),
+            match.get().instructorId(),
+            entry.waitId());
+    try {
+      calls.book(entry.slotId(), reservation);
+    } catch (RuntimeException ex) {
+      Timeslot now = calls.slot(entry.slotId());
+      if (now.participantsByBooking().containsKey(entry.waitId())) {
+        return markBooked(entry, reservationOf(entry, now));
+      }
+      if (entry.match(now).isPresent()) throw ex;
+      logger.debug("Waitlist entry {} lost the slot to another booking", entry.waitId());
+      calls.release(entry.waitId());
+      return false;
+    }
+    return markBooked(entry, reservation);
+  }
+
+  Timeslot slot(String slotId) {
+    return calls.slot(slotId);
+  }
+
+  // Cancels the booking of a withdrawn entry, if one was made for it; for
+  // when the canceling by tryBook didn't get through
+  void cancelIfBooked(WaitlistEntry withdrawn) {
+    Timeslot timeslot = calls.slot(withdrawn.slotId());
+    if (timeslot.participantsByBooking().containsKey(withdrawn.waitId())) {
+      calls.cancel(withdrawn.slotId(), reservationOf(withdrawn, timeslot));
+      logger.info(
+          "Canceled the booking of waitlist entry {}, which was withdrawn", withdrawn.waitId());
+    }
+  }
+
+  // Marks the entry booked, or cancels its booking if the entry has been
+  // withdrawn in the meantime
+  private boolean markBooked(WaitlistEntry entry, BookReservation reservation) {
+    if (calls.markBooked(entry.waitId()) == Status.WITHDRAWN) {
+      calls.cancel(entry.slotId(), reservation);
+      logger.info("Canceled the booking of waitlist entry {}, which was withdrawn", entry.waitId());
+      return false;
+    }
+    logger.info("Booked waitlist entry {} in slot {}", entry.waitId(), entry.slotId());
+    return true;
+  }
+
+  // The reservation the entry was booked with, from the slot's booking
+  private static BookReservation reservationOf(WaitlistEntry entry, Timeslot timeslot) {
+    Map<ParticipantType, String> booking = timeslot.participantsByBooking().get(entry.waitId());
+    return new BookReservation(
+        booking.get(ParticipantType.STUDENT),
+        booking.get(ParticipantType.AIRCRAFT),
+        booking.get(ParticipantType.INSTRUCTOR),
+        entry.waitId());
+  }
+}
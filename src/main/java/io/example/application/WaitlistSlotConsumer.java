@@ -0,0 +1,52 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.typesafe.config.Config;
+import io.example.domain.BookingEvent;
+import io.example.domain.Timeslot;
+import io.example.domain.WaitlistEntry;
+import java.util.List;
+
+// Matches a slot's waitlist whenever participants may have freed up in it:
+// when someone is marked available or a booking is canceled. Entries are
+// tried in registration order against the current state of the slot.
+@ComponentId("waitlist-slot-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class WaitlistSlotConsumer extends Consumer {
+
+  private final ComponentClient client;
+  private final WaitlistMatcher matcher;
+
+  public WaitlistSlotConsumer(ComponentClient client, Config config) {
+    this.client = client;
+    this.matcher = new WaitlistMatcher(client, new SlotPartitioning(config));
+  }
+
+  public Effect onEvent(BookingEvent event) {
+    boolean mayHaveFreedUp =
+        event instanceof BookingEvent.ParticipantMarkedAvailable
+            || event instanceof BookingEvent.ParticipantCanceled;
+    if (!mayHaveFreedUp) {
+      return effects().ignore();
+    }
+    String slotId = messageContext().eventSubject().orElseThrow();
+
+    List<WaitlistEntry> waiting =
+        client.forView().method(WaitlistView::getWaiting).invoke(slotId).entries();
+    if (waiting.isEmpty()) {
+      return effects().done();
+    }
+
+    Timeslot timeslot = matcher.slot(slotId);
+    for (WaitlistEntry entry : waiting) {
+      if (matcher.tryBook(entry, timeslot)) {
+        // the booking took participants, so later entries need fresh state
+        timeslot = matcher.slot(slotId);
+      }
+    }
+    return effects().done();
+  }
+}
@@ -0,0 +1,32 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.WaitlistEntry;
+import java.util.List;
+
+// Waitlist entries by slot, in registration order, for the matcher (those it
+// claimed but didn't finish booking included); and a live feed of a single
+// entry so that students are told when it's booked instead of polling.
+@ComponentId("view-waitlist")
+public class WaitlistView extends View {
+
+  @Consume.FromKeyValueEntity(WaitlistEntity.class)
+  public static class WaitlistUpdater extends TableUpdater<WaitlistEntry> {}
+
+  public record Entries(List<WaitlistEntry> entries) {}
+
+  @Query(
+      "SELECT * AS entries FROM view_waitlist WHERE slotId = :slotId AND (status = 'WAITING' OR status = 'MATCHING') ORDER BY registeredAt")
+  public QueryEffect<Entries> getWaiting(String slotId) {
+    return queryResult();
+  }
+
+  @Query(value = "SELECT * FROM view_waitlist WHERE waitId = :waitId", streamUpdates = true)
+  public QueryStreamEffect<WaitlistEntry> streamEntry(String waitId) {
+    return queryStreamResult();
+  }
+}
@@ -0,0 +1,47 @@
+package io.example.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// A recurring availability pattern such as "weekdays 08-12 for the next three
+// months". The template covers every day between `from` and `until` (both
+// inclusive) that falls on one of `daysOfWeek`, and on each of those days the
+// hours from `fromHour` up to, but not including, `toHour`. Expanding the
+// template yields slot IDs in the `yyyy-MM-dd-HH` convention (see SlotIds).
+public record AvailabilityTemplate(
+    LocalDate from, LocalDate until, Set<DayOfWeek> daysOfWeek, int fromHour, int toHour) {
+
+  public AvailabilityTemplate {
+    if (from == null || until == null || until.isBefore(from)) {
+      throw new IllegalArgumentException("template date range is empty");
+    }
+    if (daysOfWeek == null || daysOfWeek.isEmpty()) {
+      throw new IllegalArgumentException("template must name at least one day of the week");
+    }
+    if (fromHour < 0 || toHour > 24 || fromHour >= toHour) {
+      throw new IllegalArgumentException("template hour range must be within 0-24 and not empty");
+    }
+    daysOfWeek = Set.copyOf(daysOfWeek);
+  }
+
+  // Lazily expands the template in chronological order, so even a large
+  // template never has to hold all of its slot IDs in memory at once.
+  public Stream<String> slotIds() {
+    return from.datesUntil(until.plusDays(1))
+        .filter(date -> daysOfWeek.contains(date.getDayOfWeek()))
+        .flatMap(
+            date -> IntStream.range(fromHour, toHour).mapToObj(hour -> SlotIds.of(date, hour)));
+  }
+
+  // The number of slots the template expands to, computed without expanding it
+  public long slotCount() {
+    long days =
+        from.datesUntil(until.plusDays(1))
+            .filter(date -> daysOfWeek.contains(date.getDayOfWeek()))
+            .count();
+    return days * (toHour - fromHour);
+  }
+}
@@ -1,28 +1,110 @@
 package io.example.domain;
 
+import akka.javasdk.annotations.Migration;
 import akka.javasdk.annotations.TypeName;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.example.domain.Participant.ParticipantType;
+import java.util.List;
 
 // The list of all events emitted by the BookingSlotEntity
+//
+// The slot ID always equals the ID of the entity that emitted the event, so
+// the compact format (see EventFormat) doesn't write it to the
+// journal: events read back from the journal (or received by a consumer or
+// view) may have no slot ID until it is restored from the event subject with
+// `withSlotId`. The formats are versioned by BookingEventMigration.
 public sealed interface BookingEvent {
 
+  // The same event, for the given slot
+  BookingEvent withSlotId(String slotId);
+
   @TypeName("slot-reserved")
+  @Migration(BookingEventMigration.class)
   record ParticipantMarkedAvailable(
-      String slotId, String participantId, ParticipantType participantType)
-      implements BookingEvent {}
+      @JsonInclude(value = Include.CUSTOM, valueFilter = EventFormat.SlotIdFilter.class)
+          String slotId,
+      String participantId,
+      @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+          @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+          ParticipantType participantType)
+      implements BookingEvent {
+
+    @Override
+    public ParticipantMarkedAvailable withSlotId(String slotId) {
+      return new ParticipantMarkedAvailable(slotId, participantId, participantType);
+    }
+  }
 
   @TypeName("slot-unreserved")
+  @Migration(BookingEventMigration.class)
   record ParticipantUnmarkedAvailable(
-      String slotId, String participantId, ParticipantType participantType)
-      implements BookingEvent {}
+      @JsonInclude(value = Include.CUSTOM, valueFilter = EventFormat.SlotIdFilter.class)
+          String slotId,
+      String participantId,
+      @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+          @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+          ParticipantType participantType)
+      implements BookingEvent {
+
+    @Override
+    public ParticipantUnmarkedAvailable withSlotId(String slotId) {
+      return new ParticipantUnmarkedAvailable(slotId, participantId, participantType);
+    }
+  }
 
   @TypeName("reservation-booked")
+  @Migration(BookingEventMigration.class)
   record ParticipantBooked(
-      String slotId, String participantId, ParticipantType participantType, String bookingId)
-      implements BookingEvent {}
+      @JsonInclude(value = Include.CUSTOM, valueFilter = EventFormat.SlotIdFilter.class)
+          String slotId,
+      String participantId,
+      @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+          @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+          ParticipantType participantType,
+      String bookingId)
+      implements BookingEvent {
+
+    @Override
+    public ParticipantBooked withSlotId(String slotId) {
+      return new ParticipantBooked(slotId, participantId, participantType, bookingId);
+    }
+  }
 
   @TypeName("booking-participant-canceled")
+  @Migration(BookingEventMigration.class)
   record ParticipantCanceled(
-      String slotId, String participantId, ParticipantType participantType, String bookingId)
-      implements BookingEvent {}
+      @JsonInclude(value = Include.CUSTOM, valueFilter = EventFormat.SlotIdFilter.class)
+          String slotId,
+      String participantId,
+      @JsonSerialize(using = ParticipantTypeCode.Serializer.class)
+          @JsonDeserialize(using = ParticipantTypeCode.Deserializer.class)
+          ParticipantType participantType,
+      String bookingId)
+      implements BookingEvent {
+
+    @Override
+    public ParticipantCanceled withSlotId(String slotId) {
+      return new ParticipantCanceled(slotId, participantId, participantType, bookingId);
+    }
+  }
+
+  // The slot has been archived by the retention job and its entity deleted.
+  // Carries every participant the slot still referenced so their derived
+  // participant-slot state can be removed as well.
+  @TypeName("slot-archived")
+  @Migration(BookingEventMigration.class)
+  record SlotArchived(
+      @JsonInclude(value = Include.CUSTOM, valueFilter = EventFormat.SlotIdFilter.class)
+          String slotId,
+      List<Participant> participants)
+      implements BookingEvent {
+
+    @Override
+    public SlotArchived withSlotId(String slotId) {
+      return new SlotArchived(slotId, participants);
+    }
+  }
 }
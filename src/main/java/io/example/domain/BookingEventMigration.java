@@ -0,0 +1,35 @@
+package io.example.domain;
+
+import akka.javasdk.JsonMigration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+// Versions the booking event formats (see EventFormat): version 0 is
+// the full format, which repeats the slot ID on every event and spells
+// participant types out, and version 1 the compact one. Events are written as
+// version 0 until the compact format is turned on, so nodes running code
+// from before it can still read them, while every node running this code
+// already reads version 1 (`supportedForwardVersion`). The slot ID of a
+// version 0 event is simply dropped, as it is restored from the event
+// subject like that of any other event; participant types are read in
+// either spelling.
+public class BookingEventMigration extends JsonMigration {
+
+  @Override
+  public int currentVersion() {
+    return EventFormat.isCompact() ? 1 : 0;
+  }
+
+  @Override
+  public int supportedForwardVersion() {
+    return 1;
+  }
+
+  @Override
+  public JsonNode transform(int fromVersion, JsonNode json) {
+    if (fromVersion < 1 && json instanceof ObjectNode event) {
+      event.remove("slotId");
+    }
+    return json;
+  }
+}
@@ -0,0 +1,45 @@
+package io.example.domain;
+
+// Which format booking events (BookingEvent) and participant-slot events
+// (ParticipantSlotEntity.Event) are journaled in. Nodes running code from
+// before the compact format can't read it, so it's rolled out in two phases:
+// first every node is upgraded to code that reads both formats but still
+// writes the full one, then `flight.events.compact` is turned on and the
+// nodes start writing the compact one. The full format repeats the slot ID
+// on every event and spells participant types out; the compact one leaves
+// the slot ID out, as it can be told from the entity ID (participant-slots
+// keep it on their first event), and writes participant types as
+// single-letter codes (see ParticipantTypeCode).
+//
+// The flag is process-wide, as Jackson reads it while serializing: it's set
+// once at startup, from Bootstrap, and a test that changes it has to set it
+// back, as it's shared with every other test run in the same JVM.
+public final class EventFormat {
+
+  private static volatile boolean compact;
+
+  private EventFormat() {}
+
+  public static boolean isCompact() {
+    return compact;
+  }
+
+  public static void setCompact(boolean compact) {
+    EventFormat.compact = compact;
+  }
+
+  // Leaves the slot ID out of the compact format. Jackson leaves a property
+  // out when its value equals the filter.
+  public static final class SlotIdFilter {
+
+    @Override
+    public boolean equals(Object slotId) {
+      return compact;
+    }
+
+    @Override
+    public int hashCode() {
+      return SlotIdFilter.class.hashCode();
+    }
+  }
+}
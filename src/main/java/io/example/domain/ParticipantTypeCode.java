@@ -0,0 +1,65 @@
+package io.example.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.example.domain.Participant.ParticipantType;
+import java.io.IOException;
+
+// The single-letter codes participant types are journaled as in booking
+// events of the compact format (see EventFormat). Only the events use
+// them: everywhere else (the API, views, other entities) participant types
+// keep their full names. Both are read, whichever format is written.
+public final class ParticipantTypeCode {
+
+  private ParticipantTypeCode() {}
+
+  public static String of(ParticipantType participantType) {
+    return switch (participantType) {
+      case STUDENT -> "S";
+      case INSTRUCTOR -> "I";
+      case AIRCRAFT -> "A";
+    };
+  }
+
+  public static ParticipantType parse(String code) {
+    return switch (code) {
+      case "S" -> ParticipantType.STUDENT;
+      case "I" -> ParticipantType.INSTRUCTOR;
+      case "A" -> ParticipantType.AIRCRAFT;
+      default -> throw new IllegalArgumentException("Unknown participant type code: " + code);
+    };
+  }
+
+  public static class Serializer extends StdSerializer<ParticipantType> {
+
+    public Serializer() {
+      super(ParticipantType.class);
+    }
+
+    @Override
+    public void serialize(
+        ParticipantType participantType, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      generator.writeString(
+          EventFormat.isCompact() ? of(participantType) : participantType.name());
+    }
+  }
+
+  public static class Deserializer extends StdDeserializer<ParticipantType> {
+
+    public Deserializer() {
+      super(ParticipantType.class);
+    }
+
+    @Override
+    public ParticipantType deserialize(JsonParser parser, DeserializationContext context)
+        throws IOException {
+      String value = parser.getValueAsString();
+      return value.length() == 1 ? parse(value) : ParticipantType.valueOf(value);
+    }
+  }
+}
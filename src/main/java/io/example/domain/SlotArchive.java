@@ -0,0 +1,29 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import java.time.Instant;
+import java.util.List;
+
+// The compact record kept for a slot once it has been archived and its
+// entities have been deleted. It keeps who was booked together and how many
+// participants were still only marked available when the slot was archived.
+public record SlotArchive(
+    String slotId, List<ArchivedBooking> bookings, int unbookedAvailability, Instant archivedAt) {
+
+  public static SlotArchive of(String slotId, Timeslot timeslot, Instant archivedAt) {
+    List<ArchivedBooking> bookings =
+        timeslot.participantsByBooking().entrySet().stream()
+            .map(
+                booking ->
+                    new ArchivedBooking(
+                        booking.getKey(),
+                        booking.getValue().get(ParticipantType.STUDENT),
+                        booking.getValue().get(ParticipantType.AIRCRAFT),
+                        booking.getValue().get(ParticipantType.INSTRUCTOR)))
+            .toList();
+    return new SlotArchive(slotId, bookings, timeslot.available().size(), archivedAt);
+  }
+
+  public record ArchivedBooking(
+      String bookingId, String studentId, String aircraftId, String instructorId) {}
+}
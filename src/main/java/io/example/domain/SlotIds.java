@@ -0,0 +1,45 @@
+package io.example.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Slot IDs are opaque to the booking logic, but the UI names slots after the
+// local date and hour they start at, e.g. `2025-08-08-09`. These helpers
+// convert between that convention and java.time values. Slot IDs that don't
+// follow the convention simply don't parse.
+public final class SlotIds {
+
+  private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+
+  private SlotIds() {}
+
+  public static String of(LocalDateTime start) {
+    return FORMAT.format(start);
+  }
+
+  public static String of(LocalDate date, int hour) {
+    return of(date.atTime(hour, 0));
+  }
+
+  // The IDs of the hourly slots starting in [from, until), in order
+  public static List<String> hourly(LocalDateTime from, LocalDateTime until) {
+    List<String> slotIds = new ArrayList<>();
+    for (LocalDateTime hour = from; hour.isBefore(until); hour = hour.plusHours(1)) {
+      slotIds.add(of(hour));
+    }
+    return slotIds;
+  }
+
+  public static Optional<LocalDateTime> parse(String slotId) {
+    try {
+      return Optional.of(LocalDateTime.parse(slotId, FORMAT));
+    } catch (DateTimeParseException ex) {
+      return Optional.empty();
+    }
+  }
+}
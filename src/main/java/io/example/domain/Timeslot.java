@@ -1,7 +1,11 @@
 package io.example.domain;
 
 import io.example.domain.Participant.ParticipantType;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -11,6 +15,31 @@ import java.util.stream.Collectors;
 // sets are shifted from one to the other.
 public record Timeslot(Set<Booking> bookings, Set<Participant> available) {
 
+  public static Timeslot empty() {
+    return new Timeslot(
+        // NOTE: these are just estimates for capacity based on it being a sample
+        HashSet.newHashSet(10), HashSet.newHashSet(10));
+  }
+
+  // Applies a single event to the slot. This is the whole of the booking
+  // slot entity's event handling, kept here so that anything that needs to
+  // follow a slot's state from its events (views, replays) does so with the
+  // exact same semantics.
+  public Timeslot apply(BookingEvent event) {
+    return switch (event) {
+      case BookingEvent.ParticipantMarkedAvailable markedAvailable -> reserve(markedAvailable);
+      case BookingEvent.ParticipantUnmarkedAvailable unmarkedAvailable ->
+          unreserve(unmarkedAvailable);
+      case BookingEvent.ParticipantBooked booked ->
+          book(booked)
+              .unreserve(
+                  new BookingEvent.ParticipantUnmarkedAvailable(
+                      booked.slotId(), booked.participantId(), booked.participantType()));
+      case BookingEvent.ParticipantCanceled cancelled -> cancelBooking(cancelled.bookingId());
+      case BookingEvent.SlotArchived archived -> empty();
+    };
+  }
+
   public Timeslot reserve(BookingEvent.ParticipantMarkedAvailable reserved) {
     available.add(new Participant(reserved.participantId(), reserved.participantType()));
 
@@ -36,6 +65,12 @@ public record Timeslot(Set<Booking> bookings, Set<Participant> available) {
     return available.contains(new Participant(participantId, participantType));
   }
 
+  // Checks to see if the given participant is already part of a booking
+  public boolean isBooked(String participantId, ParticipantType participantType) {
+    Participant participant = new Participant(participantId, participantType);
+    return bookings.stream().anyMatch(b -> b.participant().equals(participant));
+  }
+
   public boolean isBookable(String studentId, String aircraftId, String instructorId) {
     return isWaiting(studentId, ParticipantType.STUDENT)
         && isWaiting(aircraftId, ParticipantType.AIRCRAFT)
@@ -49,6 +84,18 @@ public record Timeslot(Set<Booking> bookings, Set<Participant> available) {
     return bookings.stream().filter(b -> b.bookingId().equals(bookingId)).toList();
   }
 
+  // Groups the booked participants by booking ID, keyed by participant type
+  // within each booking.
+  public Map<String, Map<ParticipantType, String>> participantsByBooking() {
+    Map<String, Map<ParticipantType, String>> byBooking = new LinkedHashMap<>();
+    for (Booking booking : bookings) {
+      byBooking
+          .computeIfAbsent(booking.bookingId(), id -> new EnumMap<>(ParticipantType.class))
+          .put(booking.participant().participantType(), booking.participant().id());
+    }
+    return byBooking;
+  }
+
   // Removes all three participants of a booking from the booking list. It does
   // not automatically mark them as available for that slot.
   public Timeslot cancelBooking(String bookingId) {
@@ -0,0 +1,58 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import java.time.Instant;
+import java.util.Optional;
+
+// A student waiting for a slot to become bookable. The aircraft and the
+// instructor may each be a specific one or ANY, in which case whichever is
+// available is taken. The wait ID doubles as the booking ID of the booking
+// made for it.
+public record WaitlistEntry(
+    String waitId,
+    String slotId,
+    String studentId,
+    String aircraftId,
+    String instructorId,
+    Instant registeredAt,
+    Status status) {
+
+  public static final String ANY = "";
+
+  public enum Status {
+    WAITING,
+    // claimed by a matcher that is booking it
+    MATCHING,
+    BOOKED,
+    WITHDRAWN
+  }
+
+  // The booking that would satisfy this entry in the given slot state, if
+  // all of its participants are available
+  public Optional<Match> match(Timeslot timeslot) {
+    if (!timeslot.isWaiting(studentId, ParticipantType.STUDENT)) return Optional.empty();
+    Optional<String> aircraft = pick(timeslot, aircraftId, ParticipantType.AIRCRAFT);
+    Optional<String> instructor = pick(timeslot, instructorId, ParticipantType.INSTRUCTOR);
+    if (aircraft.isEmpty() || instructor.isEmpty()) return Optional.empty();
+    return Optional.of(new Match(aircraft.get(), instructor.get()));
+  }
+
+  public WaitlistEntry withStatus(Status status) {
+    return new WaitlistEntry(
+        waitId, slotId, studentId, aircraftId, instructorId, registeredAt, status);
+  }
+
+  private static Optional<String> pick(Timeslot timeslot, String wanted, ParticipantType type) {
+    if (!wanted.equals(ANY)) {
+      return timeslot.isWaiting(wanted, type) ? Optional.of(wanted) : Optional.empty();
+    }
+    // smallest ID first, so that concurrent matchers tend to agree
+    return timeslot.available().stream()
+        .filter(participant -> participant.participantType() == type)
+        .map(Participant::id)
+        .sorted()
+        .findFirst();
+  }
+
+  public record Match(String aircraftId, String instructorId) {}
+}
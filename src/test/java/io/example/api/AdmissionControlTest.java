@@ -0,0 +1,100 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.javasdk.http.HttpException;
+import com.typesafe.config.ConfigFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class AdmissionControlTest {
+
+  long now = 0;
+
+  AdmissionControl admissionControl =
+      new AdmissionControl(
+          ConfigFactory.parseString(
+              """
+              enabled = true
+              slot { rate = 2, burst = 3, max-concurrent = 2 }
+              participant { rate = 1, burst = 2, max-concurrent = 1 }
+              idle-timeout = 1 minute
+              """),
+          () -> now);
+
+  @Test
+  void testShedsWhenSlotRateIsExceeded() {
+    admissionControl.admit("slot", "a").close();
+    admissionControl.admit("slot", "b").close();
+    admissionControl.admit("slot", "c").close();
+
+    assertThrows(HttpException.class, () -> admissionControl.admit("slot", "d"));
+    assertEquals(1, admissionControl.stats().shedSlotRate());
+
+    // half a second refills one token at two per second
+    now += TimeUnit.MILLISECONDS.toNanos(500);
+    admissionControl.admit("slot", "d").close();
+    assertEquals(4, admissionControl.stats().admitted());
+  }
+
+  @Test
+  void testShedsWhenParticipantIsAlreadyInFlight() {
+    var permit = admissionControl.admit("slot-1", "a");
+
+    assertThrows(HttpException.class, () -> admissionControl.admit("slot-2", "a"));
+    assertEquals(1, admissionControl.stats().shedParticipantConcurrency());
+
+    permit.close();
+    admissionControl.admit("slot-2", "a").close();
+  }
+
+  @Test
+  void testShedsWhenSlotConcurrencyIsExceeded() {
+    var first = admissionControl.admit("slot", "a");
+    var second = admissionControl.admit("slot", "b");
+
+    assertThrows(HttpException.class, () -> admissionControl.admit("slot", "c"));
+    assertEquals(1, admissionControl.stats().shedSlotConcurrency());
+
+    first.close();
+    second.close();
+    now += TimeUnit.SECONDS.toNanos(1);
+    admissionControl.admit("slot", "c").close();
+  }
+
+  @Test
+  void testForgetsIdleKeys() {
+    admissionControl.admit("slot", "a").close();
+    assertEquals(1, admissionControl.stats().trackedSlots());
+
+    now += TimeUnit.MINUTES.toNanos(2);
+    admissionControl.admit("other-slot", "b").close();
+    assertEquals(1, admissionControl.stats().trackedSlots());
+    assertEquals(1, admissionControl.stats().trackedParticipants());
+  }
+
+  @Test
+  void testIdleKeysAreRetiredWithoutLosingRequestsInFlight() {
+    admissionControl.admit("slot", "a").close();
+    now += TimeUnit.MINUTES.toNanos(2);
+
+    // the sweep runs while these permits are held, and must keep their states
+    // so that the concurrency limit still holds for the requests after them
+    List<AdmissionControl.Permit> permits = new ArrayList<>();
+    int shed = 0;
+    for (int i = 0; i < 10; i++) {
+      try {
+        permits.add(admissionControl.admit("slot", "p" + i));
+      } catch (HttpException ex) {
+        shed++;
+      }
+      now += TimeUnit.MINUTES.toNanos(2);
+    }
+    assertEquals(2, permits.size());
+    assertEquals(8, shed);
+    assertEquals(1, admissionControl.stats().trackedSlots());
+    permits.forEach(AdmissionControl.Permit::close);
+  }
+}
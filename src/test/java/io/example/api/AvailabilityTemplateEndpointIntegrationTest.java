@@ -0,0 +1,129 @@
+package io.example.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.http.javadsl.model.StatusCodes;
+import akka.javasdk.JsonSupport;
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.api.AvailabilityTemplateEndpoint.TemplateProgress;
+import io.example.api.AvailabilityTemplateEndpoint.TemplateRequest;
+import io.example.domain.Participant;
+import io.example.domain.Timeslot;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+// Templates may expand to at most 20 slots here, with a progress line every
+// three slots.
+public class AvailabilityTemplateEndpointIntegrationTest extends TestKitSupport {
+
+  @Override
+  protected TestKit.Settings testKitSettings() {
+    return TestKit.Settings.DEFAULT.withAdditionalConfig(
+        """
+        flight.availability-templates {
+          max-slots = 20
+          progress-every = 3
+        }
+        """);
+  }
+
+  // Mondays and Wednesdays of one week, 08 to 12: eight slots
+  TemplateRequest template(String participantId, String participantType) {
+    return new TemplateRequest(
+        participantId,
+        participantType,
+        LocalDate.of(2025, 11, 3),
+        LocalDate.of(2025, 11, 9),
+        Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY),
+        8,
+        12);
+  }
+
+  @Test
+  void templateStreamsProgressAndMarksEverySlot() throws Exception {
+    var response =
+        httpClient
+            .POST("/flight/availability-templates")
+            .withRequestBody(template("template-instructor", "instructor"))
+            .invoke();
+
+    assertThat(response.status()).isEqualTo(StatusCodes.OK);
+    List<TemplateProgress> progress = lines(response.body().utf8String());
+    assertThat(progress).extracting(TemplateProgress::total).containsOnly(8L);
+    assertThat(progress).extracting(TemplateProgress::applied).containsExactly(3L, 6L, 8L);
+    assertThat(progress).extracting(TemplateProgress::complete).containsExactly(false, false, true);
+    assertThat(progress).allSatisfy(line -> assertThat(line.failedSlotIds()).isEmpty());
+
+    var instructor = new Participant("template-instructor", Participant.ParticipantType.INSTRUCTOR);
+    assertThat(getSlot("2025-11-03-08").available()).containsExactly(instructor);
+    assertThat(getSlot("2025-11-05-11").available()).containsExactly(instructor);
+    // outside the template's days and hours
+    assertThat(getSlot("2025-11-04-08").available()).isEmpty();
+    assertThat(getSlot("2025-11-03-12").available()).isEmpty();
+
+    var withdrawn =
+        httpClient
+            .DELETE("/flight/availability-templates")
+            .withRequestBody(template("template-instructor", "instructor"))
+            .invoke();
+    assertThat(lines(withdrawn.body().utf8String()).getLast().applied()).isEqualTo(8);
+    assertThat(getSlot("2025-11-03-08").available()).isEmpty();
+  }
+
+  @Test
+  void templateExpandingToTooManySlotsIsRejected() {
+    var request =
+        new TemplateRequest(
+            "template-student",
+            "student",
+            LocalDate.of(2025, 11, 10),
+            LocalDate.of(2025, 11, 16),
+            Set.of(DayOfWeek.values()),
+            0,
+            24);
+
+    var response =
+        httpClient.POST("/flight/availability-templates").withRequestBody(request).invoke();
+
+    assertThat(response.status()).isEqualTo(StatusCodes.BAD_REQUEST);
+    assertThat(response.body().utf8String()).contains("168 slots", "the limit is 20");
+    // nothing was applied
+    assertThat(getSlot("2025-11-10-09").available()).isEmpty();
+  }
+
+  @Test
+  void templateWithAnUnknownParticipantTypeIsRejected() {
+    var response =
+        httpClient
+            .POST("/flight/availability-templates")
+            .withRequestBody(template("template-pilot", "pilot"))
+            .invoke();
+
+    assertThat(response.status()).isEqualTo(StatusCodes.BAD_REQUEST);
+    assertThat(getSlot("2025-11-03-08").available())
+        .noneMatch(participant -> participant.id().equals("template-pilot"));
+  }
+
+  private Timeslot getSlot(String slotId) {
+    return httpClient
+        .GET("/flight/availability/" + slotId)
+        .responseBodyAs(Timeslot.class)
+        .invoke()
+        .body();
+  }
+
+  private static List<TemplateProgress> lines(String ndjson) throws Exception {
+    List<TemplateProgress> lines = new ArrayList<>();
+    for (String line : ndjson.split("\n")) {
+      if (!line.isBlank()) {
+        lines.add(JsonSupport.getObjectMapper().readValue(line, TemplateProgress.class));
+      }
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,120 @@
+package io.example.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.StatusCodes;
+import akka.javasdk.JsonSupport;
+import akka.javasdk.testkit.TestKitSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.example.domain.Timeslot;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+public class BulkEndpointIntegrationTest extends TestKitSupport {
+
+  @Test
+  void importReportsEachRejectedLineAndAppliesTheOthers() throws Exception {
+    var slotId = "2025-09-01-09";
+    String body =
+        String.join(
+            "\n",
+            booking(slotId, "b1", "s1", "a1", "i1"),
+            "not json",
+            booking(slotId, "b2", "s".repeat(5000), "a2", "i2"),
+            booking(slotId, "b3", "s3", "a3", "i3"),
+            // s1 is already booked by b1
+            booking(slotId, "b4", "s1", "a4", "i4"));
+
+    List<JsonNode> report = post("/flight/bulk/bookings", body);
+
+    assertThat(report).hasSize(4);
+    assertThat(report.subList(0, 3))
+        .extracting(line -> line.get("line").asLong())
+        .containsExactly(2L, 3L, 5L);
+    JsonNode summary = report.get(3);
+    assertThat(summary.get("lines").asLong()).isEqualTo(5);
+    assertThat(summary.get("applied").asLong()).isEqualTo(2);
+    assertThat(summary.get("failed").asLong()).isEqualTo(3);
+
+    Timeslot slot = getSlot(slotId);
+    assertThat(slot.participantsByBooking().keySet()).containsExactlyInAnyOrder("b1", "b3");
+    // bookings are recorded as they are, a rejected one leaves no availability
+    assertThat(slot.available()).isEmpty();
+  }
+
+  @Test
+  void importingABookingAgainChangesNothing() throws Exception {
+    var slotId = "2025-09-02-09";
+    String line = booking(slotId, "b1", "s1", "a1", "i1");
+
+    post("/flight/bulk/bookings", line);
+    List<JsonNode> again = post("/flight/bulk/bookings", line);
+
+    assertThat(again).hasSize(1);
+    assertThat(again.getFirst().get("applied").asLong()).isEqualTo(1);
+    assertThat(getSlot(slotId).bookings()).hasSize(3);
+  }
+
+  @Test
+  void exportListsAvailabilityAndBookings() throws Exception {
+    var slotId = "2025-09-03-09";
+    post(
+        "/flight/bulk/availability",
+        "{\"type\":\"availability\",\"slotId\":\""
+            + slotId
+            + "\",\"participantId\":\"s9\",\"participantType\":\"student\"}");
+    post("/flight/bulk/bookings", booking(slotId, "b1", "s1", "a1", "i1"));
+
+    Awaitility.await()
+        .ignoreExceptions()
+        .atMost(20, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              var response =
+                  httpClient.GET("/flight/bulk/slots?from=" + slotId + "&to=" + slotId).invoke();
+              List<JsonNode> records = lines(response.body().utf8String());
+              assertThat(records)
+                  .extracting(record -> record.get("type").asText())
+                  .containsExactlyInAnyOrder("availability", "booking");
+            });
+  }
+
+  private static String booking(
+      String slotId, String bookingId, String studentId, String aircraftId, String instructorId) {
+    return String.format(
+        "{\"type\":\"booking\",\"slotId\":\"%s\",\"bookingId\":\"%s\",\"studentId\":\"%s\","
+            + "\"aircraftId\":\"%s\",\"instructorId\":\"%s\"}",
+        slotId, bookingId, studentId, aircraftId, instructorId);
+  }
+
+  private List<JsonNode> post(String path, String body) throws Exception {
+    var response =
+        httpClient
+            .POST(path)
+            .withRequestBody(ContentTypes.APPLICATION_JSON, body.getBytes(StandardCharsets.UTF_8))
+            .invoke();
+    assertThat(response.status()).isEqualTo(StatusCodes.OK);
+    return lines(response.body().utf8String());
+  }
+
+  private Timeslot getSlot(String slotId) {
+    return httpClient
+        .GET("/flight/availability/" + slotId)
+        .responseBodyAs(Timeslot.class)
+        .invoke()
+        .body();
+  }
+
+  private static List<JsonNode> lines(String ndjson) throws Exception {
+    List<JsonNode> lines = new ArrayList<>();
+    for (String line : ndjson.split("\n")) {
+      if (!line.isBlank()) lines.add(JsonSupport.getObjectMapper().readTree(line));
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,50 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.javasdk.http.HttpException;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class ChangeTokensTest {
+
+  long now = 1_000_000_000L;
+
+  ChangeTokens tokens = new ChangeTokens(Duration.ofDays(7), Duration.ofSeconds(5));
+
+  Optional<Long> changedAfter(long token) {
+    return tokens.changedAfter(Optional.of(ChangeTokens.of(token)), now);
+  }
+
+  @Test
+  void testDeltasReachBackTheOverlapBeforeTheToken() {
+    long token = now - 60_000;
+    assertEquals(Optional.of(token - 5_000), changedAfter(token));
+  }
+
+  @Test
+  void testFullResyncWithoutAToken() {
+    assertTrue(tokens.changedAfter(Optional.empty(), now).isEmpty());
+  }
+
+  @Test
+  void testFullResyncForTokensOlderThanTheTombstones() {
+    long maxAge = Duration.ofDays(7).toMillis();
+    assertTrue(changedAfter(now - maxAge).isPresent());
+    assertTrue(changedAfter(now - maxAge - 1).isEmpty());
+  }
+
+  @Test
+  void testFullResyncForTokensFromTheFuture() {
+    // another node's clock may be ahead by as much as the overlap covers
+    assertEquals(Optional.of(now), changedAfter(now + 5_000));
+    assertTrue(changedAfter(now + 5_001).isEmpty());
+    assertTrue(changedAfter(Long.MAX_VALUE).isEmpty());
+  }
+
+  @Test
+  void testRejectsInvalidTokens() {
+    assertThrows(HttpException.class, () -> tokens.changedAfter(Optional.of("yesterday"), now));
+  }
+}
@@ -0,0 +1,128 @@
+package io.example.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.javasdk.JsonSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.application.ParticipantSlotsView.SlotList;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Compares the payload size and serialization time of the compact
+// representations with the regular JSON, for a participant's year of slots
+// and for a busy slot. Times are only logged, the sizes are asserted.
+public class CompactEncodingBenchmarkTest {
+
+  private static final Logger log = LoggerFactory.getLogger(CompactEncodingBenchmarkTest.class);
+
+  private static final int ROUNDS = 200;
+
+  private final ObjectMapper json = JsonSupport.getObjectMapper();
+
+  @Test
+  void testCompactSlotListsAreSmaller() throws Exception {
+    List<SlotRow> rows = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      String slotId = String.format("2025-%02d-%02d-%02d", 1 + i % 12, 1 + i % 28, i % 24);
+      rows.add(new SlotRow(slotId, "alice", "STUDENT", "booking-" + i, "booked"));
+    }
+    SlotList slots = new SlotList(rows);
+
+    Sizes sizes = measure("slot list", slots, Columnar::of);
+    assertThat(sizes.columnar()).isLessThan(sizes.json() * 6 / 10);
+    assertThat(sizes.cbor()).isLessThan(sizes.columnar());
+  }
+
+  @Test
+  void testCompactTimeslotsAreSmaller() throws Exception {
+    Set<Timeslot.Booking> bookings = new HashSet<>();
+    Set<Participant> available = new HashSet<>();
+    for (int i = 0; i < 300; i++) {
+      String bookingId = "booking-" + i;
+      bookings.add(booking("student-" + i, ParticipantType.STUDENT, bookingId));
+      bookings.add(booking("aircraft-" + i, ParticipantType.AIRCRAFT, bookingId));
+      bookings.add(booking("instructor-" + i, ParticipantType.INSTRUCTOR, bookingId));
+      available.add(new Participant("spare-student-" + i, ParticipantType.STUDENT));
+    }
+    Timeslot timeslot = new Timeslot(bookings, available);
+
+    Sizes sizes = measure("timeslot", timeslot, Columnar::of);
+    assertThat(sizes.columnar()).isLessThan(sizes.json() / 2);
+    assertThat(sizes.cbor()).isLessThan(sizes.columnar());
+  }
+
+  @Test
+  void testColumnarSlotListRoundTrips() throws Exception {
+    SlotList slots =
+        new SlotList(
+            List.of(
+                new SlotRow("2025-01-01-10", "alice", "STUDENT", "", "available"),
+                new SlotRow("2025-01-01-11", "alice", "STUDENT", "", "available")));
+
+    // written as the route writes it, so unset columns are left out
+    byte[] cbor = Representation.CBOR.mapper().writeValueAsBytes(Columnar.of(slots));
+    JsonNode decoded = Representation.CBOR.mapper().readTree(cbor);
+
+    assertThat(decoded.get("participantId").asText()).isEqualTo("alice");
+    assertThat(decoded.get("slotIds")).hasSize(2);
+    assertThat(decoded.has("bookingIds")).isFalse();
+  }
+
+  private static Timeslot.Booking booking(String id, ParticipantType type, String bookingId) {
+    return new Timeslot.Booking(new Participant(id, type), bookingId);
+  }
+
+  private <T> Sizes measure(String name, T body, Function<T, ?> columnar) throws Exception {
+    ObjectMapper columnarJson = Representation.COLUMNAR_JSON.mapper();
+    ObjectMapper cbor = Representation.CBOR.mapper();
+
+    int jsonBytes = json.writeValueAsBytes(body).length;
+    int columnarBytes = columnarJson.writeValueAsBytes(columnar.apply(body)).length;
+    int cborBytes = cbor.writeValueAsBytes(columnar.apply(body)).length;
+
+    long jsonNanos = time(() -> json.writeValueAsBytes(body));
+    long columnarNanos = time(() -> columnarJson.writeValueAsBytes(columnar.apply(body)));
+    long cborNanos = time(() -> cbor.writeValueAsBytes(columnar.apply(body)));
+
+    log.info(
+        "{}: json {} bytes in {} us, columnar json {} bytes in {} us, cbor {} bytes in {} us",
+        name,
+        jsonBytes,
+        jsonNanos / 1000,
+        columnarBytes,
+        columnarNanos / 1000,
+        cborBytes,
+        cborNanos / 1000);
+    return new Sizes(jsonBytes, columnarBytes, cborBytes);
+  }
+
+  // Median time of a serialization, after as many warm-up rounds
+  private static long time(Encoding encoding) throws Exception {
+    long[] nanos = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS * 2; i++) {
+      long start = System.nanoTime();
+      encoding.run();
+      if (i >= ROUNDS) nanos[i - ROUNDS] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return nanos[ROUNDS / 2];
+  }
+
+  private interface Encoding {
+    void run() throws Exception;
+  }
+
+  private record Sizes(int json, int columnar, int cbor) {}
+}
@@ -0,0 +1,40 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.http.javadsl.model.HttpHeader;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class ETagsTest {
+
+  Optional<HttpHeader> ifNoneMatch(String value) {
+    return Optional.of(HttpHeader.parse(ETags.IF_NONE_MATCH, value));
+  }
+
+  @Test
+  void testMatchesAnyListedTagIgnoringWeakness() {
+    assertTrue(ETags.matches(ifNoneMatch("\"v3\", W/\"abc\""), "W/\"abc\""));
+    assertTrue(ETags.matches(ifNoneMatch("W/\"v3\""), ETags.ofVersion(3)));
+    assertTrue(ETags.matches(ifNoneMatch("*"), ETags.ofVersion(7)));
+    assertFalse(ETags.matches(ifNoneMatch("\"v3\""), ETags.ofVersion(4)));
+    assertFalse(ETags.matches(Optional.empty(), ETags.ofVersion(4)));
+  }
+
+  @Test
+  void testReadsKnownVersionFromOwnTagsOnly() {
+    assertEquals(12, ETags.knownVersion(ifNoneMatch("W/\"abc\", \"v12\""), Representation.JSON));
+    assertEquals(12, ETags.knownVersion(ifNoneMatch("\"v12-cbor\""), Representation.CBOR));
+    assertEquals(-1, ETags.knownVersion(ifNoneMatch("\"vx\""), Representation.JSON));
+    assertEquals(-1, ETags.knownVersion(Optional.empty(), Representation.JSON));
+  }
+
+  @Test
+  void testKnownVersionOnlyCountsTagsOfTheServedRepresentation() {
+    var ifNoneMatch = ifNoneMatch("\"v12-cbor\", \"v9\"");
+
+    assertEquals(9, ETags.knownVersion(ifNoneMatch, Representation.JSON));
+    assertEquals(12, ETags.knownVersion(ifNoneMatch, Representation.CBOR));
+    assertEquals(-1, ETags.knownVersion(ifNoneMatch, Representation.COLUMNAR_JSON));
+  }
+}
@@ -4,7 +4,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import akka.http.javadsl.model.StatusCodes;
 import akka.javasdk.testkit.TestKitSupport;
+import io.example.application.ParticipantSlotEntity;
 import io.example.application.ParticipantSlotsView;
+import io.example.application.SlotRosterView;
 import io.example.domain.Participant;
 import io.example.domain.Timeslot;
 import java.util.List;
@@ -142,6 +144,68 @@ public class FlightEndpointIntegrationTest extends TestKitSupport {
     assertThat(getResponse.body().bookings()).containsExactlyInAnyOrderElementsOf(expectedBookings);
   }
 
+  @Test
+  void writesReturnTheSlotWhenPreferredViaHttp() {
+    var slotId = "2025-08-10-09";
+    var availabilityRequest =
+        new FlightEndpoint.AvailabilityRequest(
+            studentParticipant.id(), studentParticipant.participantType().name());
+
+    var marked =
+        httpClient
+            .POST("/flight/availability/" + slotId)
+            .withRequestBody(availabilityRequest)
+            .addHeader("Prefer", "return=representation")
+            .responseBodyAs(Timeslot.class)
+            .invoke();
+
+    Assertions.assertEquals(StatusCodes.OK, marked.status());
+    Assertions.assertEquals(Set.of(studentParticipant), marked.body().available());
+    var etag = marked.httpResponse().getHeader("ETag").orElseThrow().value();
+
+    // the tag is the one a read would give, so the read can be skipped
+    var read =
+        httpClient.GET("/flight/availability/" + slotId).addHeader("If-None-Match", etag).invoke();
+    Assertions.assertEquals(StatusCodes.NOT_MODIFIED, read.status());
+  }
+
+  @Test
+  void cancelReturnsTheSlotWhenPreferredViaHttp() {
+    var slotId = "2025-08-11-09";
+    for (Participant participant :
+        List.of(studentParticipant, aircraftParticipant, instructorParticipant)) {
+      httpClient
+          .POST("/flight/availability/" + slotId)
+          .withRequestBody(
+              new FlightEndpoint.AvailabilityRequest(
+                  participant.id(), participant.participantType().name()))
+          .invoke();
+    }
+    httpClient
+        .POST("/flight/bookings/" + slotId)
+        .withRequestBody(
+            new FlightEndpoint.BookingRequest(
+                studentParticipant.id(),
+                aircraftParticipant.id(),
+                instructorParticipant.id(),
+                "preferredCancel"))
+        .invoke();
+
+    var canceled =
+        httpClient
+            .DELETE("/flight/bookings/" + slotId + "/preferredCancel")
+            .addHeader("Prefer", "return=representation")
+            .responseBodyAs(Timeslot.class)
+            .invoke();
+
+    Assertions.assertEquals(StatusCodes.OK, canceled.status());
+    Assertions.assertTrue(canceled.body().bookings().isEmpty());
+    var etag = canceled.httpResponse().getHeader("ETag").orElseThrow().value();
+    var read =
+        httpClient.GET("/flight/availability/" + slotId).addHeader("If-None-Match", etag).invoke();
+    Assertions.assertEquals(StatusCodes.NOT_MODIFIED, read.status());
+  }
+
   @Test
   void cancelBookingViaHttp() {
     var slotId = "2025-08-08-09";
@@ -291,4 +355,227 @@ public class FlightEndpointIntegrationTest extends TestKitSupport {
                               "available")));
             });
   }
+
+  @Test
+  void getRosterByTypeViaHttp() {
+    var slotId = "2025-05-08-09";
+
+    httpClient
+        .POST("/flight/availability/" + slotId)
+        .withRequestBody(
+            new FlightEndpoint.AvailabilityRequest(
+                studentParticipant.id(), studentParticipant.participantType().name()))
+        .invoke();
+    httpClient
+        .POST("/flight/availability/" + slotId)
+        .withRequestBody(
+            new FlightEndpoint.AvailabilityRequest(
+                instructorParticipant.id(), instructorParticipant.participantType().name()))
+        .invoke();
+
+    Awaitility.await()
+        .ignoreExceptions()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              var getResponse =
+                  httpClient
+                      .GET("/flight/roster/" + slotId + "?type=instructor&status=available")
+                      .responseBodyAs(SlotRosterView.Roster.class)
+                      .invoke();
+
+              Assertions.assertEquals(StatusCodes.OK, getResponse.status());
+              assertThat(getResponse.body().participants())
+                  .containsExactly(
+                      new SlotRosterView.RosterEntry(
+                          slotId,
+                          instructorParticipant.id(),
+                          Participant.ParticipantType.INSTRUCTOR,
+                          ParticipantSlotEntity.Status.available,
+                          ""));
+            });
+  }
+
+  @Test
+  void dayManifestListsBookingsViaHttp() {
+    var slotId = "2025-09-01-07";
+
+    for (Participant participant :
+        List.of(studentParticipant, instructorParticipant, aircraftParticipant)) {
+      httpClient
+          .POST("/flight/availability/" + slotId)
+          .withRequestBody(
+              new FlightEndpoint.AvailabilityRequest(
+                  participant.id(), participant.participantType().name()))
+          .invoke();
+    }
+    httpClient
+        .POST("/flight/bookings/" + slotId)
+        .withRequestBody(
+            new FlightEndpoint.BookingRequest(
+                studentParticipant.id(),
+                aircraftParticipant.id(),
+                instructorParticipant.id(),
+                booking_1))
+        .invoke();
+
+    Awaitility.await()
+        .ignoreExceptions()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              var getResponse =
+                  httpClient
+                      .GET("/flight/manifest/2025-09-01")
+                      .responseBodyAs(FlightEndpoint.Manifest.class)
+                      .invoke();
+
+              Assertions.assertEquals(StatusCodes.OK, getResponse.status());
+              assertThat(getResponse.body().bookings())
+                  .containsExactly(
+                      new FlightEndpoint.ManifestEntry(
+                          slotId,
+                          7,
+                          booking_1,
+                          studentParticipant.id(),
+                          instructorParticipant.id(),
+                          aircraftParticipant.id()));
+            });
+  }
+
+  @Test
+  void slotChangesReportRemovalsViaHttp() {
+    var slotId = "2025-07-08-09";
+    var participant = new Participant("Delta", Participant.ParticipantType.STUDENT);
+    var availabilityRequest =
+        new FlightEndpoint.AvailabilityRequest(
+            participant.id(), participant.participantType().name());
+
+    httpClient.POST("/flight/availability/" + slotId).withRequestBody(availabilityRequest).invoke();
+
+    var full =
+        Awaitility.await()
+            .ignoreExceptions()
+            .atMost(10, TimeUnit.SECONDS)
+            .until(
+                () ->
+                    httpClient
+                        .GET("/flight/slot-changes/" + participant.id())
+                        .responseBodyAs(FlightEndpoint.SlotDelta.class)
+                        .invoke()
+                        .body(),
+                delta -> delta.changes().size() == 1);
+    Assertions.assertTrue(full.full());
+
+    httpClient
+        .DELETE("/flight/availability/" + slotId)
+        .withRequestBody(availabilityRequest)
+        .invoke();
+
+    Awaitility.await()
+        .ignoreExceptions()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              var delta =
+                  httpClient
+                      .GET("/flight/slot-changes/" + participant.id() + "?since=" + full.token())
+                      .responseBodyAs(FlightEndpoint.SlotDelta.class)
+                      .invoke()
+                      .body();
+              Assertions.assertFalse(delta.full());
+              assertThat(delta.changes())
+                  .singleElement()
+                  .satisfies(
+                      change -> {
+                        Assertions.assertEquals(slotId, change.slotId());
+                        Assertions.assertTrue(change.deleted());
+                      });
+            });
+  }
+
+  @Test
+  void slotChangesOverlapTheTokenAndResyncFutureTokensViaHttp() {
+    var slotId = "2025-07-09-09";
+    var participant = new Participant("Overlap", Participant.ParticipantType.STUDENT);
+
+    httpClient
+        .POST("/flight/availability/" + slotId)
+        .withRequestBody(
+            new FlightEndpoint.AvailabilityRequest(
+                participant.id(), participant.participantType().name()))
+        .invoke();
+
+    var full =
+        Awaitility.await()
+            .ignoreExceptions()
+            .atMost(10, TimeUnit.SECONDS)
+            .until(
+                () ->
+                    httpClient
+                        .GET("/flight/slot-changes/" + participant.id())
+                        .responseBodyAs(FlightEndpoint.SlotDelta.class)
+                        .invoke()
+                        .body(),
+                delta -> delta.changes().size() == 1);
+
+    // the change was made before the token was handed out, but within the
+    // overlap, so the next delta reports it again
+    var delta =
+        httpClient
+            .GET("/flight/slot-changes/" + participant.id() + "?since=" + full.token())
+            .responseBodyAs(FlightEndpoint.SlotDelta.class)
+            .invoke()
+            .body();
+    Assertions.assertFalse(delta.full());
+    assertThat(delta.changes()).extracting(change -> change.slotId()).containsExactly(slotId);
+
+    // a token from the future would hide changes until the clock catches up
+    long future = Long.parseLong(full.token()) + TimeUnit.HOURS.toMillis(1);
+    var resync =
+        httpClient
+            .GET("/flight/slot-changes/" + participant.id() + "?since=" + future)
+            .responseBodyAs(FlightEndpoint.SlotDelta.class)
+            .invoke()
+            .body();
+    Assertions.assertTrue(resync.full());
+    assertThat(resync.changes()).extracting(change -> change.slotId()).containsExactly(slotId);
+  }
+
+  // The testkit runs a single replica, so the difference measured here is
+  // only the cost of the entity versus the view; across regions the strong
+  // read also pays for the round trip to the slot's primary region.
+  @Test
+  void localAndStrongSlotReadsViaHttp() {
+    var slotId = "2025-06-08-09";
+
+    httpClient
+        .POST("/flight/availability/" + slotId)
+        .withRequestBody(
+            new FlightEndpoint.AvailabilityRequest(
+                studentParticipant.id(), studentParticipant.participantType().name()))
+        .invoke();
+
+    var strong =
+        httpClient.GET("/flight/availability/" + slotId).responseBodyAs(Timeslot.class).invoke();
+    Assertions.assertEquals(Set.of(studentParticipant), strong.body().available());
+    assertThat(strong.httpResponse().getHeader(ReadConsistency.HEADER))
+        .hasValueSatisfying(header -> assertThat(header.value()).isEqualTo("strong"));
+
+    Awaitility.await()
+        .ignoreExceptions()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              var local =
+                  httpClient
+                      .GET("/flight/availability/" + slotId + "?consistency=local")
+                      .responseBodyAs(Timeslot.class)
+                      .invoke();
+              Assertions.assertEquals(StatusCodes.OK, local.status());
+              Assertions.assertEquals(strong.body(), local.body());
+              assertThat(local.httpResponse().getHeader(ReadConsistency.STALENESS_HEADER))
+                  .isPresent();
+            });
+  }
 }
@@ -0,0 +1,173 @@
+package io.example.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import akka.javasdk.Principal;
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import io.example.api.grpc.AvailabilityRequest;
+import io.example.api.grpc.AvailabilityUpdate;
+import io.example.api.grpc.BookingRequest;
+import io.example.api.grpc.FlightGrpcEndpointClient;
+import io.example.api.grpc.ParticipantStatusRequest;
+import io.example.api.grpc.ParticipantType;
+import io.example.api.grpc.ScheduleEntry;
+import io.example.api.grpc.SlotStatus;
+import io.example.api.grpc.UpdateError;
+import io.grpc.Status;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+// The gRPC endpoint through the runtime, called by another service as it
+// only accepts those. Slots prefixed "KBOS-" are homed in another region, and
+// a bulk update reports at most two of its errors.
+public class FlightGrpcEndpointIntegrationTest extends TestKitSupport {
+
+  @Override
+  protected TestKit.Settings testKitSettings() {
+    return TestKit.Settings.DEFAULT.withAdditionalConfig(
+        """
+        flight.grpc.max-reported-errors = 2
+        flight.regions {
+          self = "eu-west"
+          homes = [{ prefix = "KBOS-", region = "us-east", endpoint = "http://localhost:9001" }]
+          forward-secret = "integration-test"
+        }
+        """);
+  }
+
+  @Test
+  void testWritesToSlotsHomedElsewhereFailWithFailedPrecondition() {
+    var grpcClient = grpcClient();
+
+    Throwable marked =
+        catchThrowable(
+            () ->
+                await(
+                    grpcClient.markAvailable(
+                        AvailabilityRequest.newBuilder()
+                            .setSlotId("KBOS-2026-05-01-09")
+                            .setParticipantId("homed-student")
+                            .setParticipantType(ParticipantType.STUDENT)
+                            .build())));
+    assertThat(Status.fromThrowable(marked).getCode()).isEqualTo(Status.Code.FAILED_PRECONDITION);
+    assertThat(Status.fromThrowable(marked).getDescription()).contains("us-east");
+
+    Throwable booked =
+        catchThrowable(
+            () ->
+                await(
+                    grpcClient.createBooking(
+                        BookingRequest.newBuilder()
+                            .setSlotId("KBOS-2026-05-01-09")
+                            .setBookingId("homed-booking")
+                            .setStudentId("homed-student")
+                            .setAircraftId("homed-aircraft")
+                            .setInstructorId("homed-instructor")
+                            .build())));
+    assertThat(Status.fromThrowable(booked).getCode()).isEqualTo(Status.Code.FAILED_PRECONDITION);
+  }
+
+  @Test
+  void testUpdateAvailabilityReportsFailedChangesUpToTheLimit() throws Exception {
+    var grpcClient = grpcClient();
+    List<AvailabilityUpdate> changes =
+        List.of(
+            change("2026-05-02-09", "bulk-student", ParticipantType.STUDENT),
+            // no slot
+            change("", "bulk-student", ParticipantType.STUDENT),
+            // no participant type
+            change("2026-05-02-10", "bulk-student", ParticipantType.PARTICIPANT_TYPE_UNSPECIFIED),
+            // homed in another region
+            change("KBOS-2026-05-02-09", "bulk-student", ParticipantType.STUDENT),
+            change("2026-05-02-11", "bulk-student", ParticipantType.STUDENT));
+
+    var summary = await(grpcClient.updateAvailability(Source.from(changes)));
+
+    assertThat(summary.getUpdates()).isEqualTo(5);
+    assertThat(summary.getApplied()).isEqualTo(2);
+    assertThat(summary.getFailed()).isEqualTo(3);
+    // only the first errors are reported
+    assertThat(summary.getErrorsList()).extracting(UpdateError::getIndex).containsExactly(1L, 2L);
+    assertThat(summary.getErrors(0).getError()).contains("missing slot ID");
+    assertThat(summary.getErrors(1).getError()).contains("invalid participant type");
+  }
+
+  @Test
+  void testScheduleStreamsTheParticipantsSlotsInOrder() {
+    var grpcClient = grpcClient();
+    for (String slotId : List.of("2026-05-03-14", "2026-05-03-09", "2026-05-03-11")) {
+      await(
+          grpcClient.markAvailable(
+              AvailabilityRequest.newBuilder()
+                  .setSlotId(slotId)
+                  .setParticipantId("scheduled-aircraft")
+                  .setParticipantType(ParticipantType.AIRCRAFT)
+                  .build()));
+    }
+
+    Awaitility.await()
+        .ignoreExceptions()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              List<ScheduleEntry> schedule =
+                  grpcClient
+                      .streamSchedule(
+                          ParticipantStatusRequest.newBuilder()
+                              .setParticipantId("scheduled-aircraft")
+                              .setStatus(SlotStatus.AVAILABLE)
+                              .build())
+                      .runWith(Sink.seq(), testKit.getMaterializer())
+                      .toCompletableFuture()
+                      .get(5, TimeUnit.SECONDS);
+              assertThat(schedule)
+                  .extracting(ScheduleEntry::getSlotId)
+                  .containsExactly("2026-05-03-09", "2026-05-03-11", "2026-05-03-14");
+              assertThat(schedule)
+                  .allSatisfy(
+                      entry -> {
+                        assertThat(entry.getParticipantType()).isEqualTo(ParticipantType.AIRCRAFT);
+                        assertThat(entry.getStatus()).isEqualTo(SlotStatus.AVAILABLE);
+                      });
+            });
+
+    // nothing is booked yet
+    List<ScheduleEntry> booked =
+        grpcClient
+            .streamSchedule(
+                ParticipantStatusRequest.newBuilder()
+                    .setParticipantId("scheduled-aircraft")
+                    .setStatus(SlotStatus.BOOKED)
+                    .build())
+            .runWith(Sink.seq(), testKit.getMaterializer())
+            .toCompletableFuture()
+            .join();
+    assertThat(booked).isEmpty();
+  }
+
+  private FlightGrpcEndpointClient grpcClient() {
+    return getGrpcEndpointClient(
+        FlightGrpcEndpointClient.class, Principal.localService("scheduling-service"));
+  }
+
+  private static <T> T await(CompletionStage<T> reply) {
+    return reply.toCompletableFuture().orTimeout(5, TimeUnit.SECONDS).join();
+  }
+
+  private static AvailabilityUpdate change(
+      String slotId, String participantId, ParticipantType participantType) {
+    return AvailabilityUpdate.newBuilder()
+        .setSlotId(slotId)
+        .setParticipantId(participantId)
+        .setParticipantType(participantType)
+        .setAvailable(true)
+        .build();
+  }
+}
@@ -0,0 +1,183 @@
+package io.example.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.javasdk.Principal;
+import akka.javasdk.testkit.TestKitSupport;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import io.example.api.grpc.AvailabilityRequest;
+import io.example.api.grpc.AvailabilityUpdate;
+import io.example.api.grpc.FlightGrpcEndpointClient;
+import io.example.api.grpc.ParticipantStatusRequest;
+import io.example.api.grpc.ParticipantType;
+import io.example.api.grpc.ScheduleEntry;
+import io.example.api.grpc.SlotRequest;
+import io.example.api.grpc.SlotStatus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Compares the throughput of marking availability over the HTTP route, the
+// unary gRPC call and the client-streaming gRPC call, with the same number
+// of calls in flight, and checks that the client stream, which spares a
+// request per change, is faster than the HTTP route. Timings depend on the
+// machine, so the comparison only runs in the benchmark profile. The gRPC
+// endpoint only serves other services, so the calls come from one.
+public class GrpcThroughputBenchmarkTest extends TestKitSupport {
+
+  static final String BENCHMARK = "benchmark";
+
+  private static final Logger log = LoggerFactory.getLogger(GrpcThroughputBenchmarkTest.class);
+
+  // one change per participant, spread over a day's slots, so that they stay
+  // within the admission limits
+  private static final int HOURS = 24;
+  private static final int CHANGES = HOURS * 20;
+  private static final int PARALLELISM = 8;
+
+  @Test
+  @Tag(BENCHMARK)
+  void testClientStreamIsFasterThanHttp() throws Exception {
+    var grpcClient = grpcClient();
+
+    double http =
+        measure(
+            "HTTP",
+            () ->
+                Source.from(changes("2026-01-01"))
+                    .mapAsync(
+                        PARALLELISM,
+                        change ->
+                            httpClient
+                                .POST("/flight/availability/" + change.getSlotId())
+                                .withRequestBody(
+                                    new FlightEndpoint.AvailabilityRequest(
+                                        change.getParticipantId(), "student"))
+                                .invokeAsync())
+                    .runWith(Sink.ignore(), testKit.getMaterializer()));
+    double unary =
+        measure(
+            "gRPC unary",
+            () ->
+                Source.from(changes("2026-01-02"))
+                    .mapAsync(
+                        PARALLELISM,
+                        change ->
+                            grpcClient.markAvailable(
+                                AvailabilityRequest.newBuilder()
+                                    .setSlotId(change.getSlotId())
+                                    .setParticipantId(change.getParticipantId())
+                                    .setParticipantType(change.getParticipantType())
+                                    .build()))
+                    .runWith(Sink.ignore(), testKit.getMaterializer()));
+    double streamed =
+        measure(
+            "gRPC client stream",
+            () ->
+                grpcClient
+                    .updateAvailability(Source.from(changes("2026-01-03")))
+                    .thenAccept(summary -> assertThat(summary.getApplied()).isEqualTo(CHANGES)));
+    log.info(
+        "Availability changes per second: HTTP {}, gRPC unary {}, gRPC client stream {}",
+        Math.round(http),
+        Math.round(unary),
+        Math.round(streamed));
+    assertThat(streamed).isGreaterThan(http);
+
+    for (String day : List.of("2026-01-01", "2026-01-02", "2026-01-03")) {
+      for (int hour = 0; hour < HOURS; hour++) {
+        var slot =
+            grpcClient
+                .getSlot(SlotRequest.newBuilder().setSlotId(slotId(day, hour)).build())
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+        assertThat(slot.getAvailableCount()).isEqualTo(CHANGES / HOURS);
+      }
+    }
+  }
+
+  @Test
+  void testStreamedChangesApplyInOrderAndScheduleStreams() {
+    var grpcClient = grpcClient();
+    String participantId = "streamed-student";
+    List<AvailabilityUpdate> changes = new ArrayList<>();
+    for (int hour = 0; hour < 6; hour++) {
+      changes.add(change(slotId("2026-02-01", hour), participantId, true));
+    }
+    // marked and unmarked again in the same stream
+    changes.add(change(slotId("2026-02-01", 0), participantId, false));
+    changes.add(change("", participantId, true));
+
+    var summary = grpcClient.updateAvailability(Source.from(changes)).toCompletableFuture().join();
+    assertThat(summary.getApplied()).isEqualTo(7);
+    assertThat(summary.getFailed()).isEqualTo(1);
+    assertThat(summary.getErrors(0).getIndex()).isEqualTo(7);
+
+    Awaitility.await()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              List<ScheduleEntry> schedule =
+                  grpcClient
+                      .streamSchedule(
+                          ParticipantStatusRequest.newBuilder()
+                              .setParticipantId(participantId)
+                              .setStatus(SlotStatus.AVAILABLE)
+                              .build())
+                      .runWith(Sink.seq(), testKit.getMaterializer())
+                      .toCompletableFuture()
+                      .get(5, TimeUnit.SECONDS);
+              assertThat(schedule)
+                  .extracting(ScheduleEntry::getSlotId)
+                  .containsExactly(
+                      slotId("2026-02-01", 1),
+                      slotId("2026-02-01", 2),
+                      slotId("2026-02-01", 3),
+                      slotId("2026-02-01", 4),
+                      slotId("2026-02-01", 5));
+            });
+  }
+
+  private FlightGrpcEndpointClient grpcClient() {
+    return getGrpcEndpointClient(
+        FlightGrpcEndpointClient.class, Principal.localService("scheduling-service"));
+  }
+
+  private static List<AvailabilityUpdate> changes(String day) {
+    List<AvailabilityUpdate> changes = new ArrayList<>();
+    for (int i = 0; i < CHANGES; i++) {
+      changes.add(change(slotId(day, i % HOURS), "student-" + day + "-" + i, true));
+    }
+    return changes;
+  }
+
+  private static AvailabilityUpdate change(String slotId, String participantId, boolean available) {
+    return AvailabilityUpdate.newBuilder()
+        .setSlotId(slotId)
+        .setParticipantId(participantId)
+        .setParticipantType(ParticipantType.STUDENT)
+        .setAvailable(available)
+        .build();
+  }
+
+  private static String slotId(String day, int hour) {
+    return String.format("%s-%02d", day, hour);
+  }
+
+  // Changes per second of the given run
+  private static double measure(String name, Supplier<CompletionStage<?>> run) throws Exception {
+    long start = System.nanoTime();
+    run.get().toCompletableFuture().get(60, TimeUnit.SECONDS);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    log.info("{}: {} changes in {} ms", name, CHANGES, Math.round(seconds * 1000));
+    return CHANGES / seconds;
+  }
+}
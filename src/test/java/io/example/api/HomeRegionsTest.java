@@ -0,0 +1,84 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.typesafe.config.ConfigFactory;
+import java.net.ConnectException;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class HomeRegionsTest {
+
+  long now = 0;
+
+  HomeRegions homeRegions =
+      new HomeRegions(
+          ConfigFactory.parseString(
+              """
+              self = "eu-west"
+              homes = [
+                { prefix = "KBOS-", region = "us-east", endpoint = "http://localhost:9001" }
+                { prefix = "KBOS-2025-", region = "us-central", endpoint = "http://localhost:9002" }
+                { prefix = "EGLL-", region = "eu-west", endpoint = "http://localhost:9000" }
+              ]
+              forward-secret = "s3cret"
+              unavailable-for = 30 seconds
+              """),
+          () -> now);
+
+  @Test
+  void testForwardsToTheLongestMatchingHome() {
+    assertEquals("us-east", homeRegions.forwardTarget("KBOS-2024-12-01-09").get().region());
+    assertEquals("us-central", homeRegions.forwardTarget("KBOS-2025-01-01-09").get().region());
+  }
+
+  @Test
+  void testDoesNotForwardSlotsHomedHereOrWithoutHome() {
+    assertTrue(homeRegions.forwardTarget("EGLL-2025-01-01-09").isEmpty());
+    assertTrue(homeRegions.forwardTarget("2025-01-01-09").isEmpty());
+  }
+
+  @Test
+  void testFallsBackWhileHomeIsUnavailable() {
+    homeRegions.markUnavailable("us-east");
+    assertTrue(homeRegions.forwardTarget("KBOS-2024-12-01-09").isEmpty());
+    // other homes are unaffected
+    assertTrue(homeRegions.forwardTarget("KBOS-2025-01-01-09").isPresent());
+
+    now += TimeUnit.SECONDS.toNanos(31);
+    assertEquals("us-east", homeRegions.forwardTarget("KBOS-2024-12-01-09").get().region());
+  }
+
+  @Test
+  void testTrustsForwardedWritesOnlyWithTheSharedSecret() {
+    assertTrue(homeRegions.isFromPeer(Optional.of("s3cret")));
+    assertFalse(homeRegions.isFromPeer(Optional.of("guess")));
+    assertFalse(homeRegions.isFromPeer(Optional.empty()));
+  }
+
+  @Test
+  void testRequiresTheSecretWithHomes() {
+    var config =
+        ConfigFactory.parseString(
+            """
+            self = "eu-west"
+            homes = [{ prefix = "KBOS-", region = "us-east", endpoint = "http://localhost:9001" }]
+            forward-secret = ""
+            unavailable-for = 30 seconds
+            """);
+    assertThrows(IllegalArgumentException.class, () -> new HomeRegions(config, () -> now));
+  }
+
+  @Test
+  void testTellsRefusedConnectionsFromOtherFailures() {
+    assertTrue(
+        HomeRegions.isConnectionRefused(
+            new ExecutionException(
+                new RuntimeException("connect failed", new ConnectException("refused")))));
+    assertFalse(
+        HomeRegions.isConnectionRefused(
+            new ExecutionException(new RuntimeException("connection reset"))));
+  }
+}
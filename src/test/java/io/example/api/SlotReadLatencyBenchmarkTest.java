@@ -0,0 +1,69 @@
+package io.example.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.domain.Timeslot;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Compares how long a strong slot read and a local one take over the HTTP
+// route, and checks that the local read doesn't do more work than the strong
+// one, such as reading the entity as well as the view. With a single replica
+// the strong read doesn't leave the region either, so the two are close.
+// Timings depend on the machine, so the comparison only runs in the benchmark
+// profile.
+public class SlotReadLatencyBenchmarkTest extends TestKitSupport {
+
+  static final String BENCHMARK = "benchmark";
+
+  private static final Logger log = LoggerFactory.getLogger(SlotReadLatencyBenchmarkTest.class);
+
+  private static final int READS = 50;
+
+  @Test
+  @Tag(BENCHMARK)
+  void testLocalReadsAreNotSlowerThanStrongOnes() {
+    var slotId = "2026-04-01-09";
+    httpClient
+        .POST("/flight/availability/" + slotId)
+        .withRequestBody(new FlightEndpoint.AvailabilityRequest("latency-student", "STUDENT"))
+        .invoke();
+
+    // the local read is served by the view once it has caught up
+    Awaitility.await()
+        .ignoreExceptions()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () ->
+                assertThat(
+                        httpClient
+                            .GET("/flight/availability/" + slotId + "?consistency=local")
+                            .responseBodyAs(Timeslot.class)
+                            .invoke()
+                            .body()
+                            .available())
+                    .isNotEmpty());
+
+    long strongNanos = timeReads("/flight/availability/" + slotId + "?consistency=strong");
+    long localNanos = timeReads("/flight/availability/" + slotId + "?consistency=local");
+    log.info(
+        "Mean slot read latency over {} reads: strong {} µs, local {} µs",
+        READS,
+        strongNanos / 1_000,
+        localNanos / 1_000);
+    assertThat(localNanos).isLessThan(strongNanos * 2);
+  }
+
+  private long timeReads(String path) {
+    long start = System.nanoTime();
+    for (int i = 0; i < READS; i++) {
+      httpClient.GET(path).responseBodyAs(Timeslot.class).invoke();
+    }
+    return (System.nanoTime() - start) / READS;
+  }
+}
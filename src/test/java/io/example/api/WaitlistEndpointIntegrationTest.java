@@ -0,0 +1,49 @@
+package io.example.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.http.javadsl.model.StatusCodes;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import io.example.domain.WaitlistEntry;
+import org.junit.jupiter.api.Test;
+
+public class WaitlistEndpointIntegrationTest extends TestKitSupport {
+
+  @Test
+  void withdrawingAnEntryTakesBackItsAvailability() {
+    var slotId = "2025-09-10-09";
+    var student = new Participant("waiting-student", ParticipantType.STUDENT);
+
+    var registered =
+        httpClient
+            .POST("/flight/waitlist/" + slotId)
+            .withRequestBody(
+                new WaitlistEndpoint.WaitlistRequest("wait-withdrawn", student.id(), "", ""))
+            .invoke();
+    assertThat(registered.status()).isEqualTo(StatusCodes.CREATED);
+    assertThat(getSlot(slotId).available()).contains(student);
+
+    var withdrawn = httpClient.DELETE("/flight/waitlist/entry/wait-withdrawn").invoke();
+    assertThat(withdrawn.status()).isEqualTo(StatusCodes.OK);
+
+    assertThat(getSlot(slotId).available()).doesNotContain(student);
+    var entry =
+        httpClient
+            .GET("/flight/waitlist/entry/wait-withdrawn")
+            .responseBodyAs(WaitlistEntry.class)
+            .invoke()
+            .body();
+    assertThat(entry.status()).isEqualTo(WaitlistEntry.Status.WITHDRAWN);
+  }
+
+  private Timeslot getSlot(String slotId) {
+    return httpClient
+        .GET("/flight/availability/" + slotId)
+        .responseBodyAs(Timeslot.class)
+        .invoke()
+        .body();
+  }
+}
@@ -0,0 +1,111 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.application.AvailabilityHeatmapView.DayRangeInput;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.application.BookingSlotEntity.Command.MarkSlotAvailable;
+import io.example.application.DayHeatmapEntity.Counts;
+import io.example.application.DayHeatmapEntity.DayCounts;
+import io.example.application.DayHeatmapEntity.HourCounts;
+import io.example.application.DayHeatmapEntity.SlotChange;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+public class AvailabilityHeatmapViewIntegrationTest extends TestKitSupport {
+
+  @Test
+  void testDaysCountEachSlotOnceAndAddUpTheirHours() {
+    mark("2025-10-01-09", new Participant("s1", ParticipantType.STUDENT));
+    // marking a participant again doesn't count twice
+    mark("2025-10-01-09", new Participant("s1", ParticipantType.STUDENT));
+    mark("2025-10-01-09", new Participant("a1", ParticipantType.AIRCRAFT));
+    mark("2025-10-01-09", new Participant("i1", ParticipantType.INSTRUCTOR));
+    componentClient
+        .forEventSourcedEntity("2025-10-01-09")
+        .method(BookingSlotEntity::bookSlot)
+        .invoke(new BookReservation("s1", "a1", "i1", "b1"));
+    mark("2025-10-01-14", new Participant("s2", ParticipantType.STUDENT));
+
+    Awaitility.await()
+        .ignoreExceptions()
+        .atMost(20, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              var days =
+                  componentClient
+                      .forView()
+                      .method(AvailabilityHeatmapView::getDays)
+                      .invoke(new DayRangeInput("2025-10-01", "2025-10-01"))
+                      .days();
+              assertThat(days).hasSize(1);
+              DayCounts day = days.getFirst();
+              assertThat(day.hours())
+                  .containsExactly(
+                      new HourCounts("2025-10-01-09", 9, new Counts(0, 0, 0, 1, 1, 1)),
+                      new HourCounts("2025-10-01-14", 14, new Counts(1, 0, 0, 0, 0, 0)));
+              assertThat(day.totals()).isEqualTo(new Counts(1, 0, 0, 1, 1, 1));
+            });
+  }
+
+  @Test
+  void testApplyingTheSameEventAgainChangesNothing() {
+    var testKit = KeyValueEntityTestKit.of("2025-10-02", DayHeatmapEntity::new);
+    var student = new Participant("s1", ParticipantType.STUDENT);
+    var marked =
+        new SlotChange("2025-10-02-09", 9, SlotChange.Kind.MARKED_AVAILABLE, student, null);
+
+    assertThat(testKit.method(DayHeatmapEntity::onSlotChange).invoke(marked).stateWasUpdated())
+        .isTrue();
+    assertThat(testKit.method(DayHeatmapEntity::onSlotChange).invoke(marked).stateWasUpdated())
+        .isFalse();
+    assertThat(testKit.getState().hours())
+        .containsExactly(new HourCounts("2025-10-02-09", 9, new Counts(1, 0, 0, 0, 0, 0)));
+
+    // a booking delivered again still counts its participant once
+    var booked = new SlotChange("2025-10-02-09", 9, SlotChange.Kind.BOOKED, student, "b1");
+    testKit.method(DayHeatmapEntity::onSlotChange).invoke(booked);
+    testKit.method(DayHeatmapEntity::onSlotChange).invoke(booked);
+    assertThat(testKit.getState().totals()).isEqualTo(new Counts(0, 0, 0, 1, 0, 0));
+
+    // a slot that is empty again is left out of its day
+    testKit
+        .method(DayHeatmapEntity::onSlotChange)
+        .invoke(new SlotChange("2025-10-02-09", 9, SlotChange.Kind.CANCELED, student, "b1"));
+    assertThat(testKit.getState().hours()).isEmpty();
+    assertThat(testKit.getState().slots()).isEmpty();
+    assertThat(testKit.getState().totals()).isEqualTo(Counts.ZERO);
+  }
+
+  @Test
+  void testArchivedSlotsAreLeftOutOfTheirDay() {
+    var testKit = KeyValueEntityTestKit.of("2025-10-03", DayHeatmapEntity::new);
+    testKit
+        .method(DayHeatmapEntity::onSlotChange)
+        .invoke(
+            new SlotChange(
+                "2025-10-03-09",
+                9,
+                SlotChange.Kind.MARKED_AVAILABLE,
+                new Participant("a1", ParticipantType.AIRCRAFT),
+                null));
+    testKit
+        .method(DayHeatmapEntity::onSlotChange)
+        .invoke(new SlotChange("2025-10-03-09", 9, SlotChange.Kind.ARCHIVED, null, null));
+
+    assertThat(testKit.getState().hours()).isEmpty();
+    assertThat(testKit.getState().slots()).isEmpty();
+  }
+
+  private void mark(String slotId, Participant participant) {
+    componentClient
+        .forEventSourcedEntity(slotId)
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new MarkSlotAvailable(participant));
+  }
+}
@@ -0,0 +1,66 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import io.example.application.BookingLotteryEntity.Enter;
+import io.example.application.BookingLotteryEntity.Entry;
+import io.example.application.BookingLotteryEntity.Outcome;
+import io.example.application.BookingLotteryEntity.Outcomes;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class BookingLotteryEntityTest {
+
+  Instant now = Instant.parse("2025-06-14T09:00:00Z");
+
+  @Test
+  void testCloseDrawsEntriesThatArrivedDuringAFailedDraw() {
+    var testKit = KeyValueEntityTestKit.of(BookingLotteryEntity::new);
+    testKit.method(BookingLotteryEntity::enter).invoke(enter("b1"));
+    testKit.method(BookingLotteryEntity::close).invoke();
+
+    // b2 opens the next round while b1's draw hasn't recorded its outcome
+    testKit.method(BookingLotteryEntity::enter).invoke(enter("b2"));
+    var closed = testKit.method(BookingLotteryEntity::close).invoke();
+
+    assertThat(closed.getReply()).extracting(Entry::bookingId).containsExactly("b1", "b2");
+    assertTrue(testKit.getState().open().isEmpty());
+
+    testKit
+        .method(BookingLotteryEntity::recordOutcomes)
+        .invoke(new Outcomes(List.of("b2"), List.of("b1")));
+    assertEquals(
+        Outcome.LOST, testKit.method(BookingLotteryEntity::getOutcome).invoke("b1").getReply());
+    assertEquals(
+        Outcome.WON, testKit.method(BookingLotteryEntity::getOutcome).invoke("b2").getReply());
+    assertTrue(testKit.getState().drawing().isEmpty());
+  }
+
+  @Test
+  void testOnlyTheLatestOutcomesAreKept() {
+    var testKit = KeyValueEntityTestKit.of(BookingLotteryEntity::new);
+    int bookings = BookingLotteryEntity.KEPT_OUTCOMES + 10;
+    for (int i = 0; i < bookings; i++) {
+      testKit.method(BookingLotteryEntity::enter).invoke(enter("b" + i));
+      testKit.method(BookingLotteryEntity::close).invoke();
+      testKit
+          .method(BookingLotteryEntity::recordOutcomes)
+          .invoke(new Outcomes(List.of(), List.of("b" + i)));
+    }
+
+    assertEquals(BookingLotteryEntity.KEPT_OUTCOMES, testKit.getState().outcomes().size());
+    assertTrue(testKit.method(BookingLotteryEntity::getOutcome).invoke("b0").isError());
+    assertEquals(
+        Outcome.LOST,
+        testKit.method(BookingLotteryEntity::getOutcome).invoke("b" + (bookings - 1)).getReply());
+  }
+
+  private Enter enter(String bookingId) {
+    return new Enter(
+        new Entry(bookingId, "s-" + bookingId, "a-" + bookingId, "i-" + bookingId, 0, now),
+        now.plusSeconds(2));
+  }
+}
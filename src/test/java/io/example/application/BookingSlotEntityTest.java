@@ -300,4 +300,133 @@ public class BookingSlotEntityTest {
     assertTrue(testKit.getState().available().isEmpty());
     assertTrue(testKit.getState().bookings().isEmpty());
   }
+
+  @Test
+  void testArchiveListsAllReferencedParticipants() {
+    var testKit = EventSourcedTestKit.of(BookingSlotEntity::new);
+
+    testKit
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(studentParticipant));
+    testKit
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(aircraftParticipant));
+    testKit
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(instructorParticipant));
+    testKit
+        .method(BookingSlotEntity::bookSlot)
+        .invoke(
+            new BookingSlotEntity.Command.BookReservation(
+                studentParticipant.id(),
+                aircraftParticipant.id(),
+                instructorParticipant.id(),
+                booking_1));
+    var otherStudent = new Participant("Bob", Participant.ParticipantType.STUDENT);
+    testKit
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(otherStudent));
+
+    var result = testKit.method(BookingSlotEntity::archive).invoke();
+    assertEquals(Done.getInstance(), result.getReply());
+
+    var event = result.getNextEventOfType(BookingEvent.SlotArchived.class);
+    assertEquals("testkit-entity-id", event.slotId());
+    assertThat(event.participants())
+        .containsExactlyInAnyOrder(
+            studentParticipant, aircraftParticipant, instructorParticipant, otherStudent);
+    assertTrue(testKit.getState().available().isEmpty());
+    assertTrue(testKit.getState().bookings().isEmpty());
+  }
+
+  @Test
+  void testBookBatchBooksFirstWinnerAndRejectsTheRest() {
+    var testKit = EventSourcedTestKit.of(BookingSlotEntity::new);
+
+    testKit
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(studentParticipant));
+    testKit
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(aircraftParticipant));
+    testKit
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(instructorParticipant));
+
+    var first =
+        new BookingSlotEntity.Command.BookReservation(
+            studentParticipant.id(),
+            aircraftParticipant.id(),
+            instructorParticipant.id(),
+            booking_1);
+    var second =
+        new BookingSlotEntity.Command.BookReservation(
+            studentParticipant.id(),
+            aircraftParticipant.id(),
+            instructorParticipant.id(),
+            booking_2);
+    var batch = new BookingSlotEntity.Command.BookBatch(List.of(first, second));
+
+    var result = testKit.method(BookingSlotEntity::bookBatch).invoke(batch);
+    assertEquals(List.of(booking_1), result.getReply().booked());
+    assertEquals(List.of(booking_2), result.getReply().rejected());
+    assertEquals(3, result.getAllEvents().size());
+    assertEquals(3, testKit.getState().bookings().size());
+
+    // drawing the same batch again gives the same answer without new events
+    var retried = testKit.method(BookingSlotEntity::bookBatch).invoke(batch);
+    assertEquals(List.of(booking_1), retried.getReply().booked());
+    assertEquals(List.of(booking_2), retried.getReply().rejected());
+    assertTrue(retried.getAllEvents().isEmpty());
+  }
+
+  @Test
+  void testGetSlotIfChangedLeavesOutKnownVersion() {
+    var testKit = EventSourcedTestKit.of(BookingSlotEntity::new);
+    testKit
+        .method(BookingSlotEntity::markSlotAvailable)
+        .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(studentParticipant));
+
+    var changed = testKit.method(BookingSlotEntity::getSlotIfChanged).invoke(-1L).getReply();
+    assertEquals(Set.of(studentParticipant), changed.timeslot().available());
+
+    var unchanged =
+        testKit.method(BookingSlotEntity::getSlotIfChanged).invoke(changed.version()).getReply();
+    assertEquals(changed.version(), unchanged.version());
+    assertNull(unchanged.timeslot());
+  }
+
+  @Test
+  void testWritesAndGetReplyWithResultingSlotAndVersion() {
+    var testKit = EventSourcedTestKit.of(BookingSlotEntity::new);
+    for (Participant participant :
+        List.of(studentParticipant, instructorParticipant, aircraftParticipant)) {
+      testKit
+          .method(BookingSlotEntity::markSlotAvailableAndGet)
+          .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(participant));
+    }
+
+    var booked =
+        testKit
+            .method(BookingSlotEntity::bookSlotAndGet)
+            .invoke(
+                new BookingSlotEntity.Command.BookReservation(
+                    studentParticipant.id(),
+                    aircraftParticipant.id(),
+                    instructorParticipant.id(),
+                    booking_1))
+            .getReply();
+    assertEquals(6, booked.version());
+    assertTrue(booked.timeslot().available().isEmpty());
+    assertEquals(3, booked.timeslot().bookings().size());
+
+    // the version matches what a read would tag the slot with
+    var read = testKit.method(BookingSlotEntity::getSlotIfChanged).invoke(-1L).getReply();
+    assertEquals(booked.version(), read.version());
+
+    var canceled =
+        testKit.method(BookingSlotEntity::cancelBookingAndGet).invoke(booking_1).getReply();
+    assertEquals(9, canceled.version());
+    assertTrue(canceled.timeslot().bookings().isEmpty());
+  }
 }
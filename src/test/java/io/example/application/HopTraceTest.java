@@ -0,0 +1,64 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.javasdk.Tracing;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class HopTraceTest {
+
+  String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+  @Test
+  void testSamplingDecisionDependsOnlyOnTraceId() {
+    // the low half a3ce929d0e0e4736 is about 0.64 of the range
+    assertTrue(HopTrace.isSampled(traceId, 0.7));
+    assertFalse(HopTrace.isSampled(traceId, 0.6));
+    assertEquals(HopTrace.isSampled(traceId, 0.65), HopTrace.isSampled(traceId, 0.65));
+
+    assertTrue(HopTrace.isSampled(traceId, 1));
+    assertFalse(HopTrace.isSampled(traceId, 0));
+  }
+
+  @Test
+  void testSpansAreOnlyStartedForSampledTraces() {
+    var tracing = new RecordingTracing();
+
+    try (var hop = new HopTrace.Tracer(0.6).start("hop", tracing)) {
+      assertFalse(hop.sampled());
+    }
+    assertTrue(tracing.started.isEmpty());
+
+    try (var hop = new HopTrace.Tracer(0.7).start("hop", tracing)) {
+      assertTrue(hop.sampled());
+    }
+    assertEquals(List.of("hop"), tracing.started);
+  }
+
+  // A request whose parent span belongs to the trace above
+  private class RecordingTracing implements Tracing {
+
+    final List<String> started = new ArrayList<>();
+
+    @Override
+    public Optional<Span> startSpan(String name) {
+      started.add(name);
+      return Optional.empty();
+    }
+
+    @Override
+    public Optional<Span> parentSpan() {
+      return Optional.of(
+          Span.wrap(
+              SpanContext.create(
+                  traceId, "00f067aa0ba902b7", TraceFlags.getSampled(), TraceState.getDefault())));
+    }
+  }
+}
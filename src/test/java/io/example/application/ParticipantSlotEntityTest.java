@@ -0,0 +1,89 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.javasdk.testkit.EventSourcedTestKit;
+import io.example.application.ParticipantSlotEntity.Commands;
+import io.example.application.ParticipantSlotEntity.Event;
+import io.example.domain.EventFormat;
+import io.example.domain.Participant.ParticipantType;
+import org.junit.jupiter.api.Test;
+
+public class ParticipantSlotEntityTest {
+
+  String slotId = "2025-06-14-09";
+
+  @Test
+  void testCancelOnlyTakesBackTheBookingItNames() {
+    var testKit = EventSourcedTestKit.of(ParticipantSlotEntity::new);
+    testKit
+        .method(ParticipantSlotEntity::book)
+        .invoke(new Commands.Book(slotId, "alice", ParticipantType.STUDENT, "b1"));
+    // a partition released the participant before the cancellation arrived
+    testKit.method(ParticipantSlotEntity::markAvailable).invoke(mark());
+
+    var result =
+        testKit
+            .method(ParticipantSlotEntity::cancel)
+            .invoke(new Commands.Cancel(slotId, "alice", ParticipantType.STUDENT, "b1"));
+
+    assertFalse(result.didPersistEvents());
+    assertEquals(ParticipantSlotEntity.Status.available.name(), testKit.getState().status());
+  }
+
+  @Test
+  void testTombstonesAreRemoved() {
+    var testKit = EventSourcedTestKit.of(ParticipantSlotEntity::new);
+    testKit.method(ParticipantSlotEntity::markAvailable).invoke(mark());
+    testKit
+        .method(ParticipantSlotEntity::unmarkAvailable)
+        .invoke(new Commands.UnmarkAvailable(slotId, "alice", ParticipantType.STUDENT));
+
+    var result = testKit.method(ParticipantSlotEntity::removeTombstone).invoke();
+
+    assertEquals(
+        new Event.Removed(slotId, "alice", ParticipantType.STUDENT),
+        result.getNextEventOfType(Event.Removed.class));
+    assertTrue(testKit.method(ParticipantSlotEntity::getState).invoke().getReply().isEmpty());
+  }
+
+  @Test
+  void testParticipantSlotsInUseAgainAreNotRemovedAsTombstones() {
+    var testKit = EventSourcedTestKit.of(ParticipantSlotEntity::new);
+    testKit
+        .method(ParticipantSlotEntity::unmarkAvailable)
+        .invoke(new Commands.UnmarkAvailable(slotId, "alice", ParticipantType.STUDENT));
+    // marked available again after the cleanup found the tombstone
+    testKit.method(ParticipantSlotEntity::markAvailable).invoke(mark());
+
+    var result = testKit.method(ParticipantSlotEntity::removeTombstone).invoke();
+
+    assertFalse(result.didPersistEvents());
+    assertEquals(
+        ParticipantSlotEntity.Status.available.name(),
+        testKit.method(ParticipantSlotEntity::getState).invoke().getReply().orElseThrow().status());
+  }
+
+  @Test
+  void testCompactEventsKeepTheSlotIdOnlyOnTheFirstEvent() {
+    EventFormat.setCompact(true);
+    try {
+      var testKit = EventSourcedTestKit.of(ParticipantSlotEntity::new);
+      var first = testKit.method(ParticipantSlotEntity::markAvailable).invoke(mark());
+      var second =
+          testKit
+              .method(ParticipantSlotEntity::book)
+              .invoke(new Commands.Book(slotId, "alice", ParticipantType.STUDENT, "b1"));
+
+      assertEquals(slotId, first.getNextEventOfType(Event.MarkedAvailable.class).slotId());
+      assertNull(second.getNextEventOfType(Event.Booked.class).slotId());
+      assertEquals(slotId, testKit.getState().slotId());
+    } finally {
+      EventFormat.setCompact(false);
+    }
+  }
+
+  private Commands.MarkAvailable mark() {
+    return new Commands.MarkAvailable(slotId, "alice", ParticipantType.STUDENT);
+  }
+}
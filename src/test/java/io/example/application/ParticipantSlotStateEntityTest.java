@@ -0,0 +1,82 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import io.example.application.ParticipantSlotEntity.Commands;
+import io.example.domain.Participant.ParticipantType;
+import org.junit.jupiter.api.Test;
+
+public class ParticipantSlotStateEntityTest {
+
+  String slotId = "2025-06-14-09";
+
+  @Test
+  void testTombstonesAreRemoved() {
+    var testKit = KeyValueEntityTestKit.of(ParticipantSlotStateEntity::new);
+    testKit.method(ParticipantSlotStateEntity::markAvailable).invoke(mark());
+    testKit
+        .method(ParticipantSlotStateEntity::unmarkAvailable)
+        .invoke(new Commands.UnmarkAvailable(slotId, "alice", ParticipantType.STUDENT));
+
+    var result = testKit.method(ParticipantSlotStateEntity::removeTombstone).invoke();
+
+    assertTrue(result.stateWasDeleted());
+  }
+
+  @Test
+  void testParticipantSlotsInUseAgainAreNotRemovedAsTombstones() {
+    var testKit = KeyValueEntityTestKit.of(ParticipantSlotStateEntity::new);
+    testKit
+        .method(ParticipantSlotStateEntity::unmarkAvailable)
+        .invoke(new Commands.UnmarkAvailable(slotId, "alice", ParticipantType.STUDENT));
+    // marked available again after the cleanup found the tombstone
+    testKit.method(ParticipantSlotStateEntity::markAvailable).invoke(mark());
+
+    var result = testKit.method(ParticipantSlotStateEntity::removeTombstone).invoke();
+
+    assertFalse(result.stateWasDeleted());
+    assertEquals(ParticipantSlotEntity.Status.available.name(), testKit.getState().status());
+  }
+
+  @Test
+  void testCancelOnlyTakesBackTheBookingItNames() {
+    var testKit = KeyValueEntityTestKit.of(ParticipantSlotStateEntity::new);
+    testKit
+        .method(ParticipantSlotStateEntity::book)
+        .invoke(new Commands.Book(slotId, "alice", ParticipantType.STUDENT, "b1"));
+    // a partition released the participant before the cancellation arrived
+    testKit.method(ParticipantSlotStateEntity::markAvailable).invoke(mark());
+
+    testKit
+        .method(ParticipantSlotStateEntity::cancel)
+        .invoke(new Commands.Cancel(slotId, "alice", ParticipantType.STUDENT, "b1"));
+
+    assertEquals(ParticipantSlotEntity.Status.available.name(), testKit.getState().status());
+  }
+
+  @Test
+  void testBackfillOnlyFillsParticipantSlotsNotWrittenSince() {
+    var copied =
+        new ParticipantSlotStateEntity.State(
+            slotId,
+            "alice",
+            ParticipantType.STUDENT,
+            "b1",
+            ParticipantSlotEntity.Status.booked.name());
+
+    var fresh = KeyValueEntityTestKit.of(ParticipantSlotStateEntity::new);
+    fresh.method(ParticipantSlotStateEntity::backfill).invoke(copied);
+    assertEquals(copied, fresh.getState());
+
+    // written by an update since the switch, which is newer than the copy
+    var written = KeyValueEntityTestKit.of(ParticipantSlotStateEntity::new);
+    written.method(ParticipantSlotStateEntity::markAvailable).invoke(mark());
+    written.method(ParticipantSlotStateEntity::backfill).invoke(copied);
+    assertEquals(ParticipantSlotEntity.Status.available.name(), written.getState().status());
+  }
+
+  private Commands.MarkAvailable mark() {
+    return new Commands.MarkAvailable(slotId, "alice", ParticipantType.STUDENT);
+  }
+}
@@ -0,0 +1,159 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.javasdk.JsonSupport;
+import akka.javasdk.testkit.EventSourcedTestKit;
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.application.ParticipantSlotEntity.Commands;
+import io.example.application.ParticipantSlotEntity.Event;
+import io.example.application.ParticipantSlotEntity.Status;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Compares how much the key-value participant-slot (ParticipantSlotStateEntity)
+// and the event-sourced one (ParticipantSlotEntity) store over the same
+// histories of changes, as the serialized events of the journal against the
+// one serialized state, and checks that both end up in the same state. Write
+// latency is compared through the runtime in
+// ParticipantSlotWriteLatencyBenchmarkTest.
+public class ParticipantSlotStorageBenchmarkTest {
+
+  private static final Logger log =
+      LoggerFactory.getLogger(ParticipantSlotStorageBenchmarkTest.class);
+
+  private static final List<Integer> LENGTHS = List.of(100, 1000, 10000);
+
+  private final ObjectMapper json = JsonSupport.getObjectMapper();
+
+  @Test
+  void testKeyValueStorageDoesNotGrowWithChanges() throws Exception {
+    List<Long> journalBytes = new ArrayList<>();
+    for (int length : LENGTHS) {
+      List<Event> events =
+          RecoveryBenchmarkTest.generateParticipantJournal(length, 0.5, new Random(length));
+      long journal = 0;
+      for (Event event : events) {
+        journal += json.writeValueAsBytes(event).length;
+      }
+      long state = json.writeValueAsBytes(stateAfter(events)).length;
+      log.info("{} changes: event-sourced {} bytes, key-value {} bytes", length, journal, state);
+
+      journalBytes.add(journal);
+      assertThat(state).isLessThan(200);
+    }
+    // the journal grows with every change
+    assertThat(journalBytes.get(2)).isGreaterThan(journalBytes.get(0) * 50);
+  }
+
+  @Test
+  void testBothEntitiesEndUpInTheSameState() {
+    for (int length : LENGTHS) {
+      List<Event> events =
+          RecoveryBenchmarkTest.generateParticipantJournal(length, 0.5, new Random(length));
+
+      var eventSourced = EventSourcedTestKit.of(ParticipantSlotEntity::new);
+      for (Event event : events) {
+        switch (event) {
+          case Event.MarkedAvailable e ->
+              eventSourced
+                  .method(ParticipantSlotEntity::markAvailable)
+                  .invoke(
+                      new Commands.MarkAvailable(
+                          e.slotId(), e.participantId(), e.participantType()));
+          case Event.UnmarkedAvailable e ->
+              eventSourced
+                  .method(ParticipantSlotEntity::unmarkAvailable)
+                  .invoke(
+                      new Commands.UnmarkAvailable(
+                          e.slotId(), e.participantId(), e.participantType()));
+          case Event.Booked e ->
+              eventSourced
+                  .method(ParticipantSlotEntity::book)
+                  .invoke(
+                      new Commands.Book(
+                          e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+          case Event.Canceled e ->
+              eventSourced
+                  .method(ParticipantSlotEntity::cancel)
+                  .invoke(
+                      new Commands.Cancel(
+                          e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+          case Event.Removed e -> {}
+        }
+      }
+
+      var keyValue = KeyValueEntityTestKit.of(ParticipantSlotStateEntity::new);
+      for (Event event : events) {
+        switch (event) {
+          case Event.MarkedAvailable e ->
+              keyValue
+                  .method(ParticipantSlotStateEntity::markAvailable)
+                  .invoke(
+                      new Commands.MarkAvailable(
+                          e.slotId(), e.participantId(), e.participantType()));
+          case Event.UnmarkedAvailable e ->
+              keyValue
+                  .method(ParticipantSlotStateEntity::unmarkAvailable)
+                  .invoke(
+                      new Commands.UnmarkAvailable(
+                          e.slotId(), e.participantId(), e.participantType()));
+          case Event.Booked e ->
+              keyValue
+                  .method(ParticipantSlotStateEntity::book)
+                  .invoke(
+                      new Commands.Book(
+                          e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+          case Event.Canceled e ->
+              keyValue
+                  .method(ParticipantSlotStateEntity::cancel)
+                  .invoke(
+                      new Commands.Cancel(
+                          e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+          case Event.Removed e -> {}
+        }
+      }
+
+      assertThat(keyValue.getState()).isEqualTo(stateAfter(events));
+      assertThat(keyValue.getState().status()).isEqualTo(eventSourced.getState().status());
+      assertThat(keyValue.getState().bookingId()).isEqualTo(eventSourced.getState().bookingId());
+    }
+  }
+
+  // The state the key-value entity ends up with after the same changes
+  private static ParticipantSlotStateEntity.State stateAfter(List<Event> events) {
+    ParticipantSlotStateEntity.State state = null;
+    for (Event event : events) {
+      state =
+          switch (event) {
+            case Event.MarkedAvailable e ->
+                new ParticipantSlotStateEntity.State(
+                    e.slotId(),
+                    e.participantId(),
+                    e.participantType(),
+                    "",
+                    Status.available.name());
+            case Event.UnmarkedAvailable e ->
+                new ParticipantSlotStateEntity.State(
+                    e.slotId(), e.participantId(), e.participantType(), "", null);
+            case Event.Booked e ->
+                new ParticipantSlotStateEntity.State(
+                    e.slotId(),
+                    e.participantId(),
+                    e.participantType(),
+                    e.bookingId(),
+                    Status.booked.name());
+            case Event.Canceled e ->
+                new ParticipantSlotStateEntity.State(
+                    e.slotId(), e.participantId(), e.participantType(), e.bookingId(), null);
+            case Event.Removed e -> null;
+          };
+    }
+    return state;
+  }
+}
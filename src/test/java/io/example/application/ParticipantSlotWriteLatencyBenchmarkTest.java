@@ -0,0 +1,97 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.application.ParticipantSlotEntity.Commands.MarkAvailable;
+import io.example.application.ParticipantSlotEntity.Commands.UnmarkAvailable;
+import io.example.domain.Participant.ParticipantType;
+import java.util.Arrays;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Compares how long a participant update takes to be written by the
+// event-sourced participant-slot (ParticipantSlotEntity) and by the
+// key-value one (ParticipantSlotStateEntity), through the runtime and its
+// store, and checks that the key-value one isn't slower: it writes the whole
+// state each time where the other appends an event. The two are written in
+// turns over the same changes, so that both see the same load. Timings
+// depend on the machine, so the comparison only runs in the benchmark
+// profile.
+public class ParticipantSlotWriteLatencyBenchmarkTest extends TestKitSupport {
+
+  static final String BENCHMARK = "benchmark";
+
+  private static final Logger log =
+      LoggerFactory.getLogger(ParticipantSlotWriteLatencyBenchmarkTest.class);
+
+  private static final int PARTICIPANTS = 50;
+  private static final int CHANGES_PER_PARTICIPANT = 20;
+  // writes before these aren't measured, as they warm the runtime up
+  private static final int WARM_UP = 100;
+  // the key-value median may be this much above the event-sourced one, as
+  // both are in the noise of a local run
+  private static final double TOLERANCE = 1.2;
+
+  @Test
+  @Tag(BENCHMARK)
+  void testKeyValueWritesAreNotSlowerThanEventSourcedOnes() {
+    String slotId = "2026-03-01-09";
+    int writes = PARTICIPANTS * CHANGES_PER_PARTICIPANT;
+    long[] eventSourced = new long[writes];
+    long[] keyValue = new long[writes];
+
+    int write = 0;
+    for (int change = 0; change < CHANGES_PER_PARTICIPANT; change++) {
+      for (int participant = 0; participant < PARTICIPANTS; participant++) {
+        String participantId = "latency-" + participant;
+        String participantSlotId = slotId + "-" + participantId;
+        boolean mark = change % 2 == 0;
+
+        long start = System.nanoTime();
+        var eventSourcedEntity = componentClient.forEventSourcedEntity(participantSlotId);
+        if (mark) {
+          eventSourcedEntity
+              .method(ParticipantSlotEntity::markAvailable)
+              .invoke(new MarkAvailable(slotId, participantId, ParticipantType.STUDENT));
+        } else {
+          eventSourcedEntity
+              .method(ParticipantSlotEntity::unmarkAvailable)
+              .invoke(new UnmarkAvailable(slotId, participantId, ParticipantType.STUDENT));
+        }
+        eventSourced[write] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        var keyValueEntity = componentClient.forKeyValueEntity(participantSlotId);
+        if (mark) {
+          keyValueEntity
+              .method(ParticipantSlotStateEntity::markAvailable)
+              .invoke(new MarkAvailable(slotId, participantId, ParticipantType.STUDENT));
+        } else {
+          keyValueEntity
+              .method(ParticipantSlotStateEntity::unmarkAvailable)
+              .invoke(new UnmarkAvailable(slotId, participantId, ParticipantType.STUDENT));
+        }
+        keyValue[write] = System.nanoTime() - start;
+        write++;
+      }
+    }
+
+    long eventSourcedMedian = median(eventSourced);
+    long keyValueMedian = median(keyValue);
+    log.info(
+        "Median write latency over {} writes: event-sourced {} µs, key-value {} µs",
+        writes - WARM_UP,
+        eventSourcedMedian / 1_000,
+        keyValueMedian / 1_000);
+    assertThat((double) keyValueMedian).isLessThanOrEqualTo(eventSourcedMedian * TOLERANCE);
+  }
+
+  private static long median(long[] nanos) {
+    long[] measured = Arrays.copyOfRange(nanos, WARM_UP, nanos.length);
+    Arrays.sort(measured);
+    return measured[measured.length / 2];
+  }
+}
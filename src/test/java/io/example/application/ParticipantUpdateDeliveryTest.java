@@ -0,0 +1,104 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.Done;
+import com.typesafe.config.ConfigFactory;
+import io.example.application.DeadLetterEntity.DeadLetter;
+import io.example.application.ParticipantUpdate.Action;
+import io.example.application.ParticipantUpdateDelivery.Source;
+import io.example.domain.Participant.ParticipantType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class ParticipantUpdateDeliveryTest {
+
+  ParticipantUpdate update =
+      new ParticipantUpdate(Action.BOOK, "2025-08-08-09", "Anna", ParticipantType.STUDENT, "b1");
+  Source source = new Source("2025-08-08-09", 7, Optional.of(Instant.now()));
+
+  ProjectionMetrics metrics = new ProjectionMetrics();
+  List<DeadLetter> deadLetters = new ArrayList<>();
+  AtomicInteger attempts = new AtomicInteger();
+
+  @Test
+  void testFailedUpdateIsRetriedUntilItGoesThrough() {
+    var delivery = delivery(2);
+
+    delivery.deliver(List.of(update), source).toCompletableFuture().join();
+
+    assertEquals(3, attempts.get());
+    assertTrue(deadLetters.isEmpty());
+    assertEquals(2, metrics.stats().retries());
+    assertEquals(1, metrics.stats().recovered());
+  }
+
+  @Test
+  void testUpdateIsDeadLetteredOnceUnderTheSameIdAfterItsLastAttempt() {
+    var delivery = delivery(Integer.MAX_VALUE);
+
+    delivery.deliver(List.of(update), source).toCompletableFuture().join();
+    // the event is delivered again
+    delivery.deliver(List.of(update), source).toCompletableFuture().join();
+
+    assertEquals(6, attempts.get());
+    assertEquals(2, deadLetters.size());
+    assertEquals(deadLetters.get(0).id(), deadLetters.get(1).id());
+    DeadLetter deadLetter = deadLetters.getFirst();
+    assertEquals(update, deadLetter.update());
+    assertEquals("2025-08-08-09", deadLetter.sourceId());
+    assertEquals(7, deadLetter.sourceSequence());
+    assertEquals(3, deadLetter.attempts());
+    assertEquals("failed", deadLetter.error());
+
+    // another event, or another participant of the same event, gets its own
+    var later = new Source("2025-08-08-09", 8, Optional.empty());
+    assertNotEquals(deadLetter.id(), later.deadLetterId(update));
+    var other =
+        new ParticipantUpdate(
+            Action.BOOK, "2025-08-08-09", "Bert", ParticipantType.INSTRUCTOR, "b1");
+    assertNotEquals(deadLetter.id(), source.deadLetterId(other));
+  }
+
+  @Test
+  void testBackoffDoublesUpToTheMaximum() {
+    var delivery = delivery(0);
+
+    assertEquals(Duration.ofMillis(1), delivery.backoff(1));
+    assertEquals(Duration.ofMillis(2), delivery.backoff(2));
+    assertEquals(Duration.ofMillis(4), delivery.backoff(3));
+    assertEquals(Duration.ofMillis(4), delivery.backoff(30));
+  }
+
+  // Delivery whose updates fail the given number of times before they go
+  // through, with 3 attempts in all
+  private ParticipantUpdateDelivery delivery(int failures) {
+    return new ParticipantUpdateDelivery(
+        update ->
+            attempts.incrementAndGet() <= failures
+                ? CompletableFuture.failedFuture(new RuntimeException("failed"))
+                : CompletableFuture.completedFuture(Done.done()),
+        this::store,
+        metrics,
+        ConfigFactory.parseString(
+            """
+            flight.projection.retry {
+              max-attempts = 3
+              initial-backoff = 1 millis
+              max-backoff = 4 millis
+            }
+            """));
+  }
+
+  private CompletionStage<Done> store(DeadLetter deadLetter) {
+    deadLetters.add(deadLetter);
+    return CompletableFuture.completedFuture(Done.done());
+  }
+}
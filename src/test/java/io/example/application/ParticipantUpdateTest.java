@@ -0,0 +1,68 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.example.application.ParticipantUpdate.Action;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class ParticipantUpdateTest {
+
+  @Test
+  void testBookedEventBecomesBookUpdate() {
+    var updates =
+        ParticipantUpdate.of(
+            new BookingEvent.ParticipantBooked(
+                "2025-08-08-09", "Anna", ParticipantType.STUDENT, "bookingA"));
+
+    assertEquals(
+        List.of(
+            new ParticipantUpdate(
+                Action.BOOK, "2025-08-08-09", "Anna", ParticipantType.STUDENT, "bookingA")),
+        updates);
+    assertEquals("2025-08-08-09-Anna", updates.getFirst().participantSlotId());
+  }
+
+  @Test
+  void testArchivedSlotRemovesEveryParticipant() {
+    var updates =
+        ParticipantUpdate.of(
+            new BookingEvent.SlotArchived(
+                "2025-08-08-09",
+                List.of(
+                    new Participant("Anna", ParticipantType.STUDENT),
+                    new Participant("GB", ParticipantType.AIRCRAFT))));
+
+    assertEquals(2, updates.size());
+    assertTrue(updates.stream().allMatch(update -> update.action() == Action.REMOVE));
+    assertEquals(
+        List.of("2025-08-08-09-Anna", "2025-08-08-09-GB"),
+        updates.stream().map(ParticipantUpdate::participantSlotId).toList());
+  }
+
+  @Test
+  void testUpdateIsCurrentWhileTheSlotShowsItsOutcome() {
+    var anna = new Participant("Anna", ParticipantType.STUDENT);
+    var mark =
+        new ParticipantUpdate(Action.MARK_AVAILABLE, "s", "Anna", anna.participantType(), "");
+    var unmark =
+        new ParticipantUpdate(Action.UNMARK_AVAILABLE, "s", "Anna", anna.participantType(), "");
+    var book = new ParticipantUpdate(Action.BOOK, "s", "Anna", anna.participantType(), "b1");
+
+    var available = new Timeslot(Set.of(), Set.of(anna));
+    assertTrue(mark.isCurrent(available));
+    assertFalse(unmark.isCurrent(available));
+    assertFalse(book.isCurrent(available));
+
+    // an unmark replayed after the participant was booked would wipe the booking
+    var booked = new Timeslot(Set.of(new Timeslot.Booking(anna, "b1")), Set.of());
+    assertTrue(book.isCurrent(booked));
+    assertFalse(unmark.isCurrent(booked));
+    assertTrue(unmark.isCurrent(Timeslot.empty()));
+  }
+}
@@ -0,0 +1,100 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.example.application.ParticipantSlotEntity.Status;
+import io.example.application.ParticipantUpdate.Action;
+import io.example.application.SlotRosterView.Roster;
+import io.example.application.SlotRosterView.RosterEntry;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ProjectionDriftTest {
+
+  String slotId = "2025-06-01-10";
+  Participant anna = new Participant("anna", ParticipantType.STUDENT);
+  Participant fiona = new Participant("fiona", ParticipantType.INSTRUCTOR);
+  Participant gb = new Participant("gb", ParticipantType.AIRCRAFT);
+  Participant bob = new Participant("bob", ParticipantType.STUDENT);
+
+  RosterEntry row(Participant participant, Status status, String bookingId) {
+    return new RosterEntry(
+        slotId, participant.id(), participant.participantType(), status, bookingId);
+  }
+
+  Timeslot slot(List<Participant> available, String bookingId, List<Participant> booked) {
+    Timeslot timeslot = Timeslot.empty();
+    timeslot.available().addAll(available);
+    booked.forEach(
+        participant -> timeslot.bookings().add(new Timeslot.Booking(participant, bookingId)));
+    return timeslot;
+  }
+
+  @Test
+  void testNoDriftWhenRosterMatchesSlot() {
+    Timeslot timeslot = slot(List.of(bob), "b1", List.of(anna, fiona, gb));
+    Roster roster = Roster.of(slotId, timeslot);
+
+    ProjectionDrift drift = ProjectionDrift.of(slotId, timeslot, roster);
+
+    assertThat(drift.isEmpty()).isTrue();
+    assertThat(drift.pairs()).isEqualTo(4);
+  }
+
+  @Test
+  void testCorrectsOnlyTheParticipantSlotsThatDrifted() {
+    Timeslot timeslot = slot(List.of(bob), "b1", List.of(anna, fiona, gb));
+    Participant gone = new Participant("gone", ParticipantType.AIRCRAFT);
+    Roster roster =
+        new Roster(
+            List.of(
+                // anna's booking never arrived
+                row(anna, Status.available, ""),
+                row(fiona, Status.booked, "b1"),
+                row(gb, Status.booked, "b1"),
+                // bob's row is missing; gone was unmarked but its row stayed
+                row(gone, Status.available, "")));
+
+    ProjectionDrift drift = ProjectionDrift.of(slotId, timeslot, roster);
+
+    assertThat(drift.missing()).isEqualTo(1);
+    assertThat(drift.stale()).isEqualTo(1);
+    assertThat(drift.extra()).isEqualTo(1);
+    assertThat(drift.corrections())
+        .containsExactlyInAnyOrder(
+            new ParticipantUpdate(Action.BOOK, slotId, "anna", ParticipantType.STUDENT, "b1"),
+            new ParticipantUpdate(
+                Action.MARK_AVAILABLE, slotId, "bob", ParticipantType.STUDENT, ""),
+            new ParticipantUpdate(
+                Action.UNMARK_AVAILABLE, slotId, "gone", ParticipantType.AIRCRAFT, ""));
+  }
+
+  @Test
+  void testCancelsBookingsTheSlotNoLongerHas() {
+    Roster roster = new Roster(List.of(row(anna, Status.booked, "b1")));
+
+    ProjectionDrift drift = ProjectionDrift.of(slotId, Timeslot.empty(), roster);
+
+    assertThat(drift.corrections())
+        .containsExactly(
+            new ParticipantUpdate(Action.CANCEL, slotId, "anna", ParticipantType.STUDENT, "b1"));
+  }
+
+  @Test
+  void testPagesThroughTheWindowAfterTheCursor() {
+    LocalDateTime from = LocalDateTime.of(2025, 6, 1, 0, 0);
+    LocalDateTime until = from.plusHours(5);
+
+    assertThat(SlotReconciliationAction.page("", from, until, 3))
+        .containsExactly("2025-06-01-00", "2025-06-01-01", "2025-06-01-02");
+    assertThat(SlotReconciliationAction.page("2025-06-01-02", from, until, 3))
+        .containsExactly("2025-06-01-03", "2025-06-01-04");
+    // a cursor from before the window starts over at its beginning
+    assertThat(SlotReconciliationAction.page("2025-05-01-02", from, until, 1))
+        .containsExactly("2025-06-01-00");
+  }
+}
@@ -0,0 +1,29 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class ProjectionMetricsTest {
+
+  Instant now = Instant.parse("2025-06-14T09:00:00Z");
+  ProjectionMetrics metrics = new ProjectionMetrics();
+
+  @Test
+  void testRecentLagIsTheLargestOfTheLastTwoMinutes() {
+    assertEquals(Optional.empty(), metrics.recentLag(now));
+
+    metrics.lagged(now.minusMillis(800), now);
+    metrics.lagged(now.plusSeconds(10).minusMillis(200), now.plusSeconds(10));
+    assertEquals(Optional.of(Duration.ofMillis(800)), metrics.recentLag(now.plusSeconds(10)));
+
+    // the previous minute still counts, the one before it no longer does
+    metrics.lagged(now.plusSeconds(70).minusMillis(300), now.plusSeconds(70));
+    assertEquals(Optional.of(Duration.ofMillis(800)), metrics.recentLag(now.plusSeconds(70)));
+    assertEquals(Optional.of(Duration.ofMillis(300)), metrics.recentLag(now.plusSeconds(130)));
+    assertEquals(Optional.empty(), metrics.recentLag(now.plusSeconds(190)));
+  }
+}
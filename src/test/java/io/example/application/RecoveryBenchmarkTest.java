@@ -0,0 +1,414 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.javasdk.JsonSupport;
+import akka.javasdk.annotations.TypeName;
+import akka.javasdk.testkit.EventSourcedTestKit;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.application.BookingSlotEntity.Command.MarkSlotAvailable;
+import io.example.application.BookingSlotEntity.Command.UnmarkSlotAvailable;
+import io.example.application.ParticipantSlotEntity.Commands;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Measures how long BookingSlotEntity and ParticipantSlotEntity take to
+// recover from journals of varying length and availability churn, and how
+// much memory that takes, and fails when a replay exceeds the budget in
+// recovery-benchmark.conf. Timings depend on the machine, so the budget
+// tests are tagged `benchmark` and only run with `mvn test -Pbenchmark`.
+//
+// Journals are replayed the way recovery does it, event by event through the
+// entities' event handlers. The TestKit can't be seeded with stored events,
+// so it is only used to check that the commands that produced each journal
+// lead to the replayed state; its timings are logged, not budgeted.
+public class RecoveryBenchmarkTest {
+
+  private static final Logger log = LoggerFactory.getLogger(RecoveryBenchmarkTest.class);
+
+  private static final Config settings =
+      ConfigFactory.systemProperties()
+          .withFallback(ConfigFactory.parseResources("recovery-benchmark.conf"))
+          .resolve()
+          .getConfig("recovery-benchmark");
+
+  static final String BENCHMARK = "benchmark";
+
+  private static final String SLOT_ID = "2025-06-01-10";
+
+  private final int rounds = settings.getInt("rounds");
+  private final Config budget = settings.getConfig("budget");
+
+  @Test
+  @Tag(BENCHMARK)
+  void testBookingSlotRecoveryWithinBudget() throws IOException {
+    for (Journal<BookingEvent> journal : slotJournals()) {
+      Replay replay = replay(journal, () -> replaySlot(journal.events()));
+      assertWithinBudget(replay);
+    }
+  }
+
+  @Test
+  @Tag(BENCHMARK)
+  void testParticipantSlotRecoveryWithinBudget() {
+    for (Journal<ParticipantSlotEntity.Event> journal : participantJournals()) {
+      Replay replay = replay(journal, () -> replayParticipantSlot(journal.events()));
+      assertWithinBudget(replay);
+    }
+  }
+
+  @Test
+  void testBookingSlotCommandsLeadToTheReplayedState() throws IOException {
+    for (Journal<BookingEvent> journal : slotJournals()) {
+      long start = System.nanoTime();
+      var testKit = EventSourcedTestKit.of(SLOT_ID, context -> new BookingSlotEntity(context));
+      for (BookingSlotCommand command : slotCommands(journal.events())) {
+        command.invoke(testKit);
+      }
+      Timeslot recovered = testKit.getState();
+      long nanosPerEvent = (System.nanoTime() - start) / journal.events().size();
+
+      log.info("{} commands through the TestKit: {} ns/event", journal.name(), nanosPerEvent);
+      assertThat(recovered).isEqualTo(replaySlot(journal.events()));
+    }
+  }
+
+  @Test
+  void testParticipantSlotCommandsLeadToTheReplayedState() {
+    for (Journal<ParticipantSlotEntity.Event> journal : participantJournals()) {
+      long start = System.nanoTime();
+      var testKit = EventSourcedTestKit.of(ParticipantSlotEntity::new);
+      for (ParticipantSlotEntity.Event event : journal.events()) {
+        switch (event) {
+          case ParticipantSlotEntity.Event.MarkedAvailable e ->
+              testKit
+                  .method(ParticipantSlotEntity::markAvailable)
+                  .invoke(
+                      new Commands.MarkAvailable(
+                          e.slotId(), e.participantId(), e.participantType()));
+          case ParticipantSlotEntity.Event.UnmarkedAvailable e ->
+              testKit
+                  .method(ParticipantSlotEntity::unmarkAvailable)
+                  .invoke(
+                      new Commands.UnmarkAvailable(
+                          e.slotId(), e.participantId(), e.participantType()));
+          case ParticipantSlotEntity.Event.Booked e ->
+              testKit
+                  .method(ParticipantSlotEntity::book)
+                  .invoke(
+                      new Commands.Book(
+                          e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+          case ParticipantSlotEntity.Event.Canceled e ->
+              testKit
+                  .method(ParticipantSlotEntity::cancel)
+                  .invoke(
+                      new Commands.Cancel(
+                          e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+          case ParticipantSlotEntity.Event.Removed e -> {}
+        }
+      }
+      ParticipantSlotEntity.State recovered = testKit.getState();
+      long nanosPerEvent = (System.nanoTime() - start) / journal.events().size();
+
+      log.info("{} commands through the TestKit: {} ns/event", journal.name(), nanosPerEvent);
+      assertThat(recovered).isEqualTo(replayParticipantSlot(journal.events()));
+    }
+  }
+
+  // The state BookingSlotEntity recovers to, as its applyEvent folds over
+  // the journal
+  private static Timeslot replaySlot(List<BookingEvent> events) {
+    Timeslot state = Timeslot.empty();
+    for (BookingEvent event : events) {
+      state = state.apply(event);
+    }
+    return state;
+  }
+
+  private static ParticipantSlotEntity.State replayParticipantSlot(
+      List<ParticipantSlotEntity.Event> events) {
+    var entity = new ParticipantSlotEntity();
+    ParticipantSlotEntity.State state = null;
+    for (ParticipantSlotEntity.Event event : events) {
+      state = entity.applyEvent(event);
+    }
+    return state;
+  }
+
+  private <E> Replay replay(Journal<E> journal, Supplier<Object> recover) {
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().threadId();
+
+    // warm up
+    for (int i = 0; i < rounds; i++) recover.get();
+
+    long[] nanos = new long[rounds];
+    long allocated = Long.MAX_VALUE;
+    for (int i = 0; i < rounds; i++) {
+      long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      recover.get();
+      nanos[i] = System.nanoTime() - start;
+      allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - allocatedBefore);
+    }
+    Arrays.sort(nanos);
+
+    long heapBefore = usedHeapAfterGc();
+    Object state = recover.get();
+    long retained = Math.max(0, usedHeapAfterGc() - heapBefore);
+
+    int events = journal.events().size();
+    var replay =
+        new Replay(journal.name(), events, nanos[rounds / 2], allocated, retained, state != null);
+    log.info(
+        "{}: {} events in {} us ({} ns/event), {} bytes allocated ({} per event), ~{} bytes retained",
+        replay.name(),
+        events,
+        replay.nanos() / 1000,
+        replay.nanos() / events,
+        replay.allocatedBytes(),
+        replay.allocatedBytes() / events,
+        replay.retainedBytes());
+    return replay;
+  }
+
+  private void assertWithinBudget(Replay replay) {
+    assertThat(replay.recovered()).isTrue();
+    assertThat(replay.nanos() / replay.events())
+        .as("%s replay time per event (ns)", replay.name())
+        .isLessThan(budget.getLong("replay-nanos-per-event"));
+    assertThat(replay.allocatedBytes() / replay.events())
+        .as("%s bytes allocated per event", replay.name())
+        .isLessThan(budget.getLong("allocated-bytes-per-event"));
+  }
+
+  private static long usedHeapAfterGc() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  // Generated slot journals, plus the one in `journal-file` if given
+  private List<Journal<BookingEvent>> slotJournals() throws IOException {
+    List<Journal<BookingEvent>> journals = new ArrayList<>();
+    for (int length : settings.getIntList("journal-lengths")) {
+      for (double churn : settings.getDoubleList("churn")) {
+        journals.add(
+            new Journal<>(
+                "booking-slot n=" + length + " churn=" + churn,
+                generateSlotJournal(length, churn, new Random(settings.getLong("seed")))));
+      }
+    }
+    String file = settings.getString("journal-file");
+    if (!file.isEmpty()) {
+      journals.add(new Journal<>("booking-slot " + file, loadSlotJournal(Path.of(file))));
+    }
+    return journals;
+  }
+
+  private List<Journal<ParticipantSlotEntity.Event>> participantJournals() {
+    List<Journal<ParticipantSlotEntity.Event>> journals = new ArrayList<>();
+    for (int length : settings.getIntList("journal-lengths")) {
+      for (double churn : settings.getDoubleList("churn")) {
+        journals.add(
+            new Journal<>(
+                "participant-slot n=" + length + " churn=" + churn,
+                generateParticipantJournal(length, churn, new Random(settings.getLong("seed")))));
+      }
+    }
+    return journals;
+  }
+
+  // A slot's journal as the entity would write it: participants from a pool
+  // of a few dozen per type are marked and unmarked (churn), or marked and
+  // booked, with bookings canceled again at random and whenever the pool has
+  // no free participant left. A slot's state stays as small as a real one's
+  // however long its journal gets.
+  public static List<BookingEvent> generateSlotJournal(int length, double churn, Random random) {
+    List<BookingEvent> events = new ArrayList<>(length + 6);
+    Timeslot state = Timeslot.empty();
+    int bookings = 0;
+    while (events.size() < length) {
+      List<BookingEvent> next = new ArrayList<>();
+      Set<Participant> booked = new HashSet<>();
+      state.bookings().forEach(booking -> booked.add(booking.participant()));
+      List<Participant> free =
+          Arrays.stream(ParticipantType.values())
+              .map(type -> randomParticipant(random, type))
+              .filter(participant -> !booked.contains(participant))
+              .toList();
+
+      if (random.nextDouble() < churn) {
+        Participant participant = randomParticipant(random);
+        next.add(
+            state.isWaiting(participant.id(), participant.participantType())
+                ? new BookingEvent.ParticipantUnmarkedAvailable(
+                    SLOT_ID, participant.id(), participant.participantType())
+                : new BookingEvent.ParticipantMarkedAvailable(
+                    SLOT_ID, participant.id(), participant.participantType()));
+      } else if (!state.bookings().isEmpty()
+          && (free.size() < ParticipantType.values().length || random.nextDouble() < 0.3)) {
+        String bookingId = state.bookings().iterator().next().bookingId();
+        for (Timeslot.Booking booking : state.findBooking(bookingId)) {
+          Participant participant = booking.participant();
+          next.add(
+              new BookingEvent.ParticipantCanceled(
+                  SLOT_ID, participant.id(), participant.participantType(), bookingId));
+        }
+      } else if (free.size() == ParticipantType.values().length) {
+        String bookingId = "booking-" + bookings++;
+        for (Participant participant : free) {
+          if (!state.isWaiting(participant.id(), participant.participantType())) {
+            next.add(
+                new BookingEvent.ParticipantMarkedAvailable(
+                    SLOT_ID, participant.id(), participant.participantType()));
+          }
+          next.add(
+              new BookingEvent.ParticipantBooked(
+                  SLOT_ID, participant.id(), participant.participantType(), bookingId));
+        }
+      }
+      for (BookingEvent event : next) {
+        state = state.apply(event);
+        events.add(event);
+      }
+    }
+    return events;
+  }
+
+  // A participant's journal for one slot, cycling between available and
+  // either unmarked (churn) or booked and canceled
+  public static List<ParticipantSlotEntity.Event> generateParticipantJournal(
+      int length, double churn, Random random) {
+    List<ParticipantSlotEntity.Event> events = new ArrayList<>(length + 2);
+    String participantId = "student-1";
+    ParticipantType type = ParticipantType.STUDENT;
+    int bookings = 0;
+    while (events.size() < length) {
+      events.add(new ParticipantSlotEntity.Event.MarkedAvailable(SLOT_ID, participantId, type));
+      if (random.nextDouble() < churn) {
+        events.add(new ParticipantSlotEntity.Event.UnmarkedAvailable(SLOT_ID, participantId, type));
+      } else {
+        String bookingId = "booking-" + bookings++;
+        events.add(new ParticipantSlotEntity.Event.Booked(SLOT_ID, participantId, type, bookingId));
+        events.add(
+            new ParticipantSlotEntity.Event.Canceled(SLOT_ID, participantId, type, bookingId));
+      }
+    }
+    return events;
+  }
+
+  private static Participant randomParticipant(Random random) {
+    ParticipantType[] types = ParticipantType.values();
+    return randomParticipant(random, types[random.nextInt(types.length)]);
+  }
+
+  private static Participant randomParticipant(Random random, ParticipantType type) {
+    return new Participant(type.name().toLowerCase() + "-" + random.nextInt(40), type);
+  }
+
+  // Reads a journal of one event per line, its type given by its type name,
+  // in either booking event format
+  static List<BookingEvent> loadSlotJournal(Path file) throws IOException {
+    Map<String, Class<?>> types = new HashMap<>();
+    for (Class<?> type : BookingEvent.class.getPermittedSubclasses()) {
+      types.put(type.getAnnotation(TypeName.class).value(), type);
+    }
+
+    var mapper = JsonSupport.getObjectMapper();
+    List<BookingEvent> events = new ArrayList<>();
+    for (String line : Files.readAllLines(file)) {
+      if (line.isBlank()) continue;
+      ObjectNode node = (ObjectNode) mapper.readTree(line);
+      Class<?> type = types.get(node.remove("type").asText());
+      events.add(((BookingEvent) mapper.treeToValue(node, type)).withSlotId(SLOT_ID));
+    }
+    return events;
+  }
+
+  // The commands that write a slot journal: the three booked (or canceled)
+  // events of a booking come from a single command
+  private static List<BookingSlotCommand> slotCommands(List<BookingEvent> events) {
+    List<BookingSlotCommand> commands = new ArrayList<>();
+    Map<String, Map<ParticipantType, String>> booking = new HashMap<>();
+    Set<String> canceled = new HashSet<>();
+    for (BookingEvent event : events) {
+      switch (event) {
+        case BookingEvent.ParticipantMarkedAvailable e ->
+            commands.add(
+                testKit ->
+                    testKit
+                        .method(BookingSlotEntity::markSlotAvailable)
+                        .invoke(
+                            new MarkSlotAvailable(
+                                new Participant(e.participantId(), e.participantType()))));
+        case BookingEvent.ParticipantUnmarkedAvailable e ->
+            commands.add(
+                testKit ->
+                    testKit
+                        .method(BookingSlotEntity::unmarkSlotAvailable)
+                        .invoke(
+                            new UnmarkSlotAvailable(
+                                new Participant(e.participantId(), e.participantType()))));
+        case BookingEvent.ParticipantBooked e -> {
+          var participants = booking.computeIfAbsent(e.bookingId(), id -> new HashMap<>());
+          participants.put(e.participantType(), e.participantId());
+          if (participants.size() == ParticipantType.values().length) {
+            var reservation =
+                new BookReservation(
+                    participants.get(ParticipantType.STUDENT),
+                    participants.get(ParticipantType.AIRCRAFT),
+                    participants.get(ParticipantType.INSTRUCTOR),
+                    e.bookingId());
+            commands.add(
+                testKit -> testKit.method(BookingSlotEntity::bookSlot).invoke(reservation));
+          }
+        }
+        case BookingEvent.ParticipantCanceled e -> {
+          if (canceled.add(e.bookingId())) {
+            commands.add(
+                testKit -> testKit.method(BookingSlotEntity::cancelBooking).invoke(e.bookingId()));
+          }
+        }
+        case BookingEvent.SlotArchived e ->
+            commands.add(testKit -> testKit.method(BookingSlotEntity::archive).invoke());
+      }
+    }
+    return commands;
+  }
+
+  private interface BookingSlotCommand {
+    void invoke(EventSourcedTestKit<Timeslot, BookingEvent, BookingSlotEntity> testKit);
+  }
+
+  record Journal<E>(String name, List<E> events) {}
+
+  record Replay(
+      String name,
+      int events,
+      long nanos,
+      long allocatedBytes,
+      long retainedBytes,
+      boolean recovered) {}
+}
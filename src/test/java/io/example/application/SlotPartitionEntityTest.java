@@ -0,0 +1,85 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+import akka.javasdk.testkit.EventSourcedTestKit;
+import com.typesafe.config.ConfigFactory;
+import io.example.application.SlotPartitionEntity.Claim;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class SlotPartitionEntityTest {
+
+  Participant anna = new Participant("Anna", ParticipantType.STUDENT);
+
+  @Test
+  void testClaimTakesParticipantOutOfAvailabilityOnce() {
+    var testKit = EventSourcedTestKit.of("2025-06-14-09#STUDENT", SlotPartitionEntity::new);
+    testKit.method(SlotPartitionEntity::markAvailable).invoke(anna);
+
+    var claimed = testKit.method(SlotPartitionEntity::claim).invoke(new Claim(anna, "b1"));
+    assertEquals(1, claimed.getAllEvents().size());
+    assertTrue(testKit.getState().available().isEmpty());
+
+    // claiming again for the same booking changes nothing, another booking fails
+    var again = testKit.method(SlotPartitionEntity::claim).invoke(new Claim(anna, "b1"));
+    assertTrue(again.getAllEvents().isEmpty());
+    var other = testKit.method(SlotPartitionEntity::claim).invoke(new Claim(anna, "b2"));
+    assertTrue(other.isError());
+  }
+
+  @Test
+  void testReleaseMakesParticipantAvailableAgain() {
+    var testKit = EventSourcedTestKit.of("2025-06-14-09#STUDENT", SlotPartitionEntity::new);
+    testKit.method(SlotPartitionEntity::markAvailable).invoke(anna);
+    testKit.method(SlotPartitionEntity::claim).invoke(new Claim(anna, "b1"));
+
+    var released = testKit.method(SlotPartitionEntity::release).invoke(new Claim(anna, "b1"));
+
+    var event = released.getNextEventOfType(SlotPartitionEntity.Event.Released.class);
+    assertEquals("2025-06-14-09", event.slotId());
+    assertEquals(Set.of(anna), testKit.getState().available());
+  }
+
+  @Test
+  void testReleasingABookingReleasesOnlyItsClaims() {
+    var bob = new Participant("Bob", ParticipantType.STUDENT);
+    var testKit = EventSourcedTestKit.of("2025-06-14-09#STUDENT", SlotPartitionEntity::new);
+    testKit.method(SlotPartitionEntity::markAvailable).invoke(anna);
+    testKit.method(SlotPartitionEntity::markAvailable).invoke(bob);
+    testKit.method(SlotPartitionEntity::claim).invoke(new Claim(anna, "b1"));
+    testKit.method(SlotPartitionEntity::claim).invoke(new Claim(bob, "b2"));
+
+    var released = testKit.method(SlotPartitionEntity::releaseBooking).invoke("b1");
+
+    assertEquals(1, released.getAllEvents().size());
+    assertEquals(Set.of(anna), testKit.getState().available());
+    // releasing it again changes nothing
+    assertTrue(
+        testKit.method(SlotPartitionEntity::releaseBooking).invoke("b1").getAllEvents().isEmpty());
+  }
+
+  @Test
+  void testPartitionsBySlotPrefixAndParticipant() {
+    var byType =
+        new SlotPartitioning(
+            ConfigFactory.parseString(
+                "flight.partitioning { slots = [\"2025-06-14\"], by = participant-type, partitions = 4 }"));
+    assertTrue(byType.isPartitioned("2025-06-14-09"));
+    assertFalse(byType.isPartitioned("2025-06-15-09"));
+    assertEquals("2025-06-14-09#STUDENT", byType.partitionOf("2025-06-14-09", anna));
+    assertThat(byType.partitionsOf("2025-06-14-09")).hasSize(3);
+
+    var byHash =
+        new SlotPartitioning(
+            ConfigFactory.parseString(
+                "flight.partitioning { slots = [\"2025-06-14\"], by = hash, partitions = 4 }"));
+    assertThat(byHash.partitionsOf("2025-06-14-09"))
+        .hasSize(4)
+        .contains(byHash.partitionOf("2025-06-14-09", anna));
+    assertEquals("2025-06-14-09", SlotPartitioning.slotIdOf("2025-06-14-09#h2"));
+  }
+}
@@ -0,0 +1,235 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.typesafe.config.ConfigFactory;
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.application.SlotPartitionEntity.Claim;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.junit.jupiter.api.Test;
+
+public class SlotPartitioningTest {
+
+  String slotId = "2025-06-14-09";
+
+  Participant anna = new Participant("Anna", ParticipantType.STUDENT);
+  Participant fiona = new Participant("Fiona", ParticipantType.INSTRUCTOR);
+  Participant gb = new Participant("GB", ParticipantType.AIRCRAFT);
+
+  BookReservation reservation = new BookReservation("Anna", "GB", "Fiona", "b1");
+
+  SlotPartitioning partitioning =
+      new SlotPartitioning(
+          ConfigFactory.parseString(
+              "flight.partitioning { slots = [\"2025-06-14\"], by = participant-type, partitions = 4 }"));
+
+  FakeCalls calls = new FakeCalls();
+
+  @Test
+  void testBookingClaimsTheParticipantsAndRecordsTheBooking() {
+    calls.markAvailable(anna, fiona, gb);
+
+    partitioning.book(calls, slotId, reservation);
+
+    assertThat(calls.bookings).containsKey("b1");
+    assertThat(calls.available()).isEmpty();
+    assertThat(calls.claims.values()).extracting(Claim::bookingId).containsOnly("b1");
+  }
+
+  @Test
+  void testAFailedClaimReleasesTheOthers() {
+    // the instructor isn't available
+    calls.markAvailable(anna, gb);
+
+    assertThrows(RuntimeException.class, () -> partitioning.book(calls, slotId, reservation));
+
+    assertThat(calls.bookings).isEmpty();
+    assertThat(calls.claims).isEmpty();
+    assertThat(calls.available()).containsExactlyInAnyOrder(anna, gb);
+  }
+
+  @Test
+  void testARecordingThatFailedButWasPersistedKeepsItsClaims() {
+    calls.markAvailable(anna, fiona, gb);
+    // the booking is recorded, but the call times out
+    calls.recordFailure = new RuntimeException("timeout");
+    calls.recordDespiteFailure = true;
+
+    partitioning.book(calls, slotId, reservation);
+
+    assertThat(calls.bookings).containsKey("b1");
+    assertThat(calls.claims).hasSize(3);
+  }
+
+  @Test
+  void testClaimsAreKeptWhenItIsUnknownWhetherTheBookingWasRecorded() {
+    calls.markAvailable(anna, fiona, gb);
+    calls.recordFailure = new RuntimeException("timeout");
+    calls.slotFailure = new RuntimeException("unavailable");
+
+    assertThrows(RuntimeException.class, () -> partitioning.book(calls, slotId, reservation));
+    assertThat(calls.claims).hasSize(3);
+
+    // retrying the booking once the slot is reachable again completes it
+    calls.recordFailure = null;
+    calls.slotFailure = null;
+    partitioning.book(calls, slotId, reservation);
+    assertThat(calls.bookings).containsKey("b1");
+  }
+
+  @Test
+  void testEveryClaimIsReleasedEvenIfOneReleaseFails() {
+    calls.markAvailable(anna, fiona, gb);
+    calls.recordFailure = new IllegalArgumentException("Participant is already booked");
+    calls.failingPartition = slotId + "#STUDENT";
+
+    var failure =
+        assertThrows(
+            IllegalArgumentException.class, () -> partitioning.book(calls, slotId, reservation));
+
+    assertThat(failure.getSuppressed()).hasSize(1);
+    assertThat(calls.claims).containsOnlyKeys("Anna");
+    assertThat(calls.available()).containsExactlyInAnyOrder(fiona, gb);
+  }
+
+  @Test
+  void testCancelingGivesTheParticipantsBackToTheirPartitions() {
+    calls.markAvailable(anna, fiona, gb);
+    partitioning.book(calls, slotId, reservation);
+
+    partitioning.cancel(calls, slotId, "b1");
+
+    assertThat(calls.bookings).isEmpty();
+    assertThat(calls.claims).isEmpty();
+    assertThat(calls.available()).containsExactlyInAnyOrder(anna, fiona, gb);
+  }
+
+  @Test
+  void testCancelingReleasesClaimsOfABookingThatWasNeverRecorded() {
+    calls.markAvailable(anna, fiona, gb);
+    calls.claims.put("Anna", new Claim(anna, "b1"));
+    calls.partitionAvailable.get(slotId + "#STUDENT").remove(anna);
+
+    partitioning.cancel(calls, slotId, "b1");
+
+    assertThat(calls.claims).isEmpty();
+    assertThat(calls.available()).contains(anna);
+  }
+
+  @Test
+  void testReadMergesThePartitionsWithTheBookings() {
+    calls.markAvailable(anna, fiona, gb);
+    partitioning.book(calls, slotId, reservation);
+    Participant bob = new Participant("Bob", ParticipantType.STUDENT);
+    calls.markAvailable(bob);
+
+    Timeslot slot = partitioning.readAsync(calls, slotId).toCompletableFuture().join();
+
+    assertThat(slot.available()).containsExactly(bob);
+    assertThat(slot.findBooking("b1")).hasSize(3);
+  }
+
+  // The slot and its partitions, as the entities keep them
+  class FakeCalls implements SlotPartitioning.Calls {
+    Map<String, Set<Participant>> partitionAvailable = new HashMap<>();
+    Map<String, Claim> claims = new HashMap<>();
+    Map<String, BookReservation> bookings = new HashMap<>();
+
+    RuntimeException recordFailure;
+    boolean recordDespiteFailure;
+    RuntimeException slotFailure;
+    String failingPartition;
+
+    void markAvailable(Participant... participants) {
+      for (Participant participant : participants) {
+        partition(partitioning.partitionOf(slotId, participant)).add(participant);
+      }
+    }
+
+    Set<Participant> available() {
+      Set<Participant> available = new HashSet<>();
+      partitionAvailable.values().forEach(available::addAll);
+      return available;
+    }
+
+    private Set<Participant> partition(String partitionId) {
+      return partitionAvailable.computeIfAbsent(partitionId, id -> new HashSet<>());
+    }
+
+    @Override
+    public void claim(String partitionId, Claim claim) {
+      if (claim.equals(claims.get(claim.participant().id()))) return;
+      if (!partition(partitionId).remove(claim.participant())) {
+        throw new IllegalArgumentException("Participant is not available");
+      }
+      claims.put(claim.participant().id(), claim);
+    }
+
+    @Override
+    public void release(String partitionId, Claim claim) {
+      if (partitionId.equals(failingPartition)) throw new RuntimeException("unavailable");
+      if (claims.remove(claim.participant().id(), claim)) {
+        partition(partitionId).add(claim.participant());
+      }
+    }
+
+    @Override
+    public void releaseBooking(String partitionId, String bookingId) {
+      for (Claim claim : List.copyOf(claims.values())) {
+        if (claim.bookingId().equals(bookingId)
+            && partitioning.partitionOf(slotId, claim.participant()).equals(partitionId)) {
+          release(partitionId, claim);
+        }
+      }
+    }
+
+    @Override
+    public void recordBooking(String slotId, BookReservation reservation) {
+      if (recordFailure != null && !recordDespiteFailure) throw recordFailure;
+      bookings.put(reservation.bookingId(), reservation);
+      if (recordFailure != null) throw recordFailure;
+    }
+
+    @Override
+    public void cancelBooking(String slotId, String bookingId) {
+      bookings.remove(bookingId);
+    }
+
+    @Override
+    public CompletionStage<Timeslot> slot(String slotId) {
+      if (slotFailure != null) return CompletableFuture.failedFuture(slotFailure);
+      Timeslot timeslot = Timeslot.empty();
+      for (BookReservation booking : bookings.values()) {
+        timeslot.bookings().addAll(bookingOf(booking));
+      }
+      return CompletableFuture.completedFuture(timeslot);
+    }
+
+    @Override
+    public CompletionStage<List<Participant>> available(String partitionId) {
+      return CompletableFuture.completedFuture(new ArrayList<>(partition(partitionId)));
+    }
+
+    private List<Timeslot.Booking> bookingOf(BookReservation booking) {
+      return List.of(
+          new Timeslot.Booking(
+              new Participant(booking.studentId(), ParticipantType.STUDENT), booking.bookingId()),
+          new Timeslot.Booking(
+              new Participant(booking.aircraftId(), ParticipantType.AIRCRAFT), booking.bookingId()),
+          new Timeslot.Booking(
+              new Participant(booking.instructorId(), ParticipantType.INSTRUCTOR),
+              booking.bookingId()));
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SlotRetentionActionTest {
+
+  List<String> page = List.of("2025-01-01-09", "2025-01-01-10", "2025-01-01-11");
+
+  @Test
+  void testCursorStopsBeforeTheFirstFailedSlot() {
+    List<String> archived = new ArrayList<>();
+    var progress =
+        SlotRetentionAction.archiveInOrder(
+            "",
+            page,
+            slotId -> {
+              if (slotId.equals("2025-01-01-10")) throw new IllegalStateException("timeout");
+              archived.add(slotId);
+            });
+
+    assertThat(progress.cursor()).isEqualTo("2025-01-01-09");
+    assertThat(progress.archived()).isEqualTo(1);
+    assertThat(progress.failed()).isTrue();
+    // the slot after the failed one waits for the next run as well
+    assertThat(archived).containsExactly("2025-01-01-09");
+  }
+
+  @Test
+  void testNextRunRetriesTheFailedSlot() {
+    List<String> archived = new ArrayList<>();
+    var progress =
+        SlotRetentionAction.archiveInOrder("2025-01-01-09", page.subList(1, 3), archived::add);
+
+    assertThat(progress.cursor()).isEqualTo("2025-01-01-11");
+    assertThat(progress.failed()).isFalse();
+    assertThat(archived).containsExactly("2025-01-01-10", "2025-01-01-11");
+  }
+
+  @Test
+  void testOpaqueSlotIdsArePassedOver() {
+    List<String> archived = new ArrayList<>();
+    var progress =
+        SlotRetentionAction.archiveInOrder("", List.of("2025-01-01-09", "bestslot"), archived::add);
+
+    assertThat(progress.cursor()).isEqualTo("bestslot");
+    assertThat(archived).containsExactly("2025-01-01-09");
+  }
+
+  @Test
+  void testFailureOfTheFirstSlotKeepsTheCursor() {
+    var progress =
+        SlotRetentionAction.archiveInOrder(
+            "2024-12-31-23",
+            page,
+            slotId -> {
+              throw new IllegalStateException("unavailable");
+            });
+
+    assertThat(progress.cursor()).isEqualTo("2024-12-31-23");
+    assertThat(progress.archived()).isZero();
+  }
+}
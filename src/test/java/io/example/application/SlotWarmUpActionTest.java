@@ -0,0 +1,78 @@
+package io.example.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.example.domain.SlotIds;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SlotWarmUpActionTest {
+
+  List<LocalTime> peaks = List.of(LocalTime.of(6, 0), LocalTime.of(18, 0));
+  Duration lead = Duration.ofMinutes(2);
+
+  ZonedDateTime at(int day, int hour, int minute) {
+    return ZonedDateTime.of(2025, 6, day, hour, minute, 0, 0, ZoneOffset.UTC);
+  }
+
+  @Test
+  void testNextRunIsLeadBeforeEarliestUpcomingPeak() {
+    assertThat(SlotWarmUpAction.nextRun(at(1, 3, 0), peaks, lead)).isEqualTo(at(1, 5, 58));
+    assertThat(SlotWarmUpAction.nextRun(at(1, 12, 0), peaks, lead)).isEqualTo(at(1, 17, 58));
+    // a run that has just fired schedules the one after it
+    assertThat(SlotWarmUpAction.nextRun(at(1, 17, 58), peaks, lead)).isEqualTo(at(2, 5, 58));
+  }
+
+  @Test
+  void testRunsAreForTheNearestPeakWhenTheTimerFiresEarly() {
+    // a second before the run's time, so now + lead is still in the 05 hour
+    ZonedDateTime early = at(1, 5, 57).plusSeconds(59);
+
+    assertThat(SlotWarmUpAction.peakFor(early, peaks, lead)).isEqualTo(at(1, 6, 0));
+  }
+
+  @Test
+  void testRunsAreForTheNearestPeakWhenTheTimerFiresLate() {
+    assertThat(SlotWarmUpAction.peakFor(at(1, 6, 20), peaks, lead)).isEqualTo(at(1, 6, 0));
+    assertThat(SlotWarmUpAction.peakFor(at(1, 17, 40), peaks, lead)).isEqualTo(at(1, 18, 0));
+  }
+
+  @Test
+  void testPeaksOffTheHourAreFound() {
+    List<LocalTime> halfPast = List.of(LocalTime.of(6, 30));
+
+    assertThat(SlotWarmUpAction.peakFor(at(1, 6, 28), halfPast, lead)).isEqualTo(at(1, 6, 30));
+  }
+
+  @Test
+  void testMidnightPeaksAreOnTheNextDay() {
+    List<LocalTime> midnight = List.of(LocalTime.MIDNIGHT);
+
+    assertThat(SlotWarmUpAction.nextRun(at(1, 12, 0), midnight, lead)).isEqualTo(at(1, 23, 58));
+    assertThat(SlotWarmUpAction.peakFor(at(1, 23, 58), midnight, lead)).isEqualTo(at(2, 0, 0));
+  }
+
+  @Test
+  void testAnEarlyRunSchedulesTheRunAfterItsOwn() {
+    ZonedDateTime early = at(1, 5, 57).plusSeconds(59);
+    ZonedDateTime thisRun = SlotWarmUpAction.peakFor(early, peaks, lead).minus(lead);
+
+    assertThat(thisRun).isEqualTo(at(1, 5, 58));
+    assertThat(SlotWarmUpAction.nextRun(thisRun, peaks, lead)).isEqualTo(at(1, 17, 58));
+  }
+
+  @Test
+  void testSlotIdsCoverEveryHourOfTheHorizon() {
+    LocalDateTime peak = LocalDateTime.of(2025, 6, 1, 6, 0);
+    List<String> slotIds = SlotIds.hourly(peak, peak.plusDays(2));
+
+    assertThat(slotIds).hasSize(48);
+    assertThat(slotIds.getFirst()).isEqualTo("2025-06-01-06");
+    assertThat(slotIds.getLast()).isEqualTo("2025-06-03-05");
+  }
+}
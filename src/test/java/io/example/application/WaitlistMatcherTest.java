@@ -0,0 +1,165 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.example.application.BookingSlotEntity.Command.BookReservation;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import io.example.domain.WaitlistEntry;
+import io.example.domain.WaitlistEntry.Status;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class WaitlistMatcherTest {
+
+  Participant anna = new Participant("Anna", ParticipantType.STUDENT);
+  Participant fiona = new Participant("Fiona", ParticipantType.INSTRUCTOR);
+  Participant gb = new Participant("GB", ParticipantType.AIRCRAFT);
+
+  WaitlistEntry entry =
+      new WaitlistEntry(
+          "wait-1",
+          "2025-08-08-09",
+          "Anna",
+          WaitlistEntry.ANY,
+          WaitlistEntry.ANY,
+          Instant.EPOCH,
+          WaitlistEntry.Status.WAITING);
+
+  FakeCalls calls = new FakeCalls();
+  WaitlistMatcher matcher = new WaitlistMatcher(calls);
+
+  @Test
+  void testBooksAndMarksAMatchingEntry() {
+    calls.slot = slotWith(anna, fiona, gb);
+
+    assertTrue(matcher.tryBook(entry, calls.slot));
+    assertEquals(List.of(new BookReservation("Anna", "GB", "Fiona", "wait-1")), calls.booked);
+    assertEquals(List.of("wait-1"), calls.marked);
+  }
+
+  @Test
+  void testLosingTheParticipantsToAnotherBookingLeavesTheEntryWaiting() {
+    Timeslot seen = slotWith(anna, fiona, gb);
+    // by the time the booking is made, the aircraft has been booked
+    calls.slot = slotWith(anna, fiona);
+    calls.failure = new IllegalArgumentException("Timeslot is not bookable");
+
+    assertFalse(matcher.tryBook(entry, seen));
+    assertTrue(calls.marked.isEmpty());
+  }
+
+  @Test
+  void testOtherFailuresArePassedOn() {
+    calls.slot = slotWith(anna, fiona, gb);
+    calls.failure = new RuntimeException("entity unavailable");
+
+    assertThrows(RuntimeException.class, () -> matcher.tryBook(entry, calls.slot));
+    assertTrue(calls.marked.isEmpty());
+  }
+
+  @Test
+  void testAnEntryWithdrawnSinceTheViewShowedItIsNotBooked() {
+    calls.slot = slotWith(anna, fiona, gb);
+    // the view still lists the entry as waiting
+    calls.status = Status.WITHDRAWN;
+
+    assertFalse(matcher.tryBook(entry, calls.slot));
+    assertTrue(calls.booked.isEmpty());
+    assertTrue(calls.marked.isEmpty());
+  }
+
+  @Test
+  void testAnEntryWithdrawnWhileItIsBookedHasItsBookingCanceled() {
+    calls.slot = slotWith(anna, fiona, gb);
+    calls.withdrawWhileBooking = true;
+
+    assertFalse(matcher.tryBook(entry, calls.slot));
+    var reservation = new BookReservation("Anna", "GB", "Fiona", "wait-1");
+    assertEquals(List.of(reservation), calls.booked);
+    assertEquals(List.of(reservation), calls.canceled);
+    assertEquals(Status.WITHDRAWN, calls.status);
+  }
+
+  @Test
+  void testAWithdrawnEntryKeepsNoBooking() {
+    calls.slot = slotWith(fiona);
+    calls.slot.bookings().add(new Timeslot.Booking(anna, "wait-1"));
+    calls.slot.bookings().add(new Timeslot.Booking(gb, "wait-1"));
+    calls
+        .slot
+        .bookings()
+        .add(new Timeslot.Booking(new Participant("Ian", ParticipantType.INSTRUCTOR), "wait-1"));
+
+    matcher.cancelIfBooked(entry.withStatus(Status.WITHDRAWN));
+
+    assertEquals(List.of(new BookReservation("Anna", "GB", "Ian", "wait-1")), calls.canceled);
+  }
+
+  @Test
+  void testLosingTheParticipantsGivesTheClaimBack() {
+    Timeslot seen = slotWith(anna, fiona, gb);
+    calls.slot = slotWith(anna, fiona);
+    calls.failure = new IllegalArgumentException("Timeslot is not bookable");
+
+    assertFalse(matcher.tryBook(entry, seen));
+    assertEquals(Status.WAITING, calls.status);
+  }
+
+  private static Timeslot slotWith(Participant... participants) {
+    Timeslot timeslot = Timeslot.empty();
+    for (Participant participant : participants) timeslot.available().add(participant);
+    return timeslot;
+  }
+
+  // The slot and the entry, as the entities keep them
+  private static class FakeCalls implements WaitlistMatcher.Calls {
+    Timeslot slot;
+    RuntimeException failure;
+    Status status = Status.WAITING;
+    // the student withdraws the entry while the booking is being made
+    boolean withdrawWhileBooking;
+    final List<BookReservation> booked = new ArrayList<>();
+    final List<BookReservation> canceled = new ArrayList<>();
+    final List<String> marked = new ArrayList<>();
+
+    @Override
+    public Timeslot slot(String slotId) {
+      return slot;
+    }
+
+    @Override
+    public void book(String slotId, BookReservation reservation) {
+      if (failure != null) throw failure;
+      booked.add(reservation);
+      if (withdrawWhileBooking) status = Status.WITHDRAWN;
+    }
+
+    @Override
+    public void cancel(String slotId, BookReservation reservation) {
+      canceled.add(reservation);
+    }
+
+    @Override
+    public Status claim(String waitId) {
+      if (status == Status.WAITING) status = Status.MATCHING;
+      return status;
+    }
+
+    @Override
+    public void release(String waitId) {
+      if (status == Status.MATCHING) status = Status.WAITING;
+    }
+
+    @Override
+    public Status markBooked(String waitId) {
+      if (status == Status.WITHDRAWN) return status;
+      marked.add(waitId);
+      status = Status.BOOKED;
+      return status;
+    }
+  }
+}
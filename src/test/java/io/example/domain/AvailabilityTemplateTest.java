@@ -0,0 +1,63 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class AvailabilityTemplateTest {
+
+  Set<DayOfWeek> weekdays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+  @Test
+  void testExpandsToSlotIdsOnMatchingDaysAndHours() {
+    // 2025-08-08 is a Friday, 2025-08-11 the following Monday
+    var template =
+        new AvailabilityTemplate(
+            LocalDate.of(2025, 8, 8), LocalDate.of(2025, 8, 11), weekdays, 8, 10);
+
+    assertThat(template.slotIds())
+        .containsExactly("2025-08-08-08", "2025-08-08-09", "2025-08-11-08", "2025-08-11-09");
+    assertEquals(4, template.slotCount());
+  }
+
+  @Test
+  void testSlotCountMatchesExpansionForLongTemplates() {
+    var template =
+        new AvailabilityTemplate(
+            LocalDate.of(2025, 9, 1), LocalDate.of(2025, 11, 30), weekdays, 8, 12);
+
+    assertEquals(template.slotIds().count(), template.slotCount());
+    assertEquals(65 * 4, template.slotCount());
+  }
+
+  @Test
+  void testRejectsEmptyRanges() {
+    var day = LocalDate.of(2025, 8, 8);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new AvailabilityTemplate(day, day.minusDays(1), weekdays, 8, 12));
+    assertThrows(
+        IllegalArgumentException.class, () -> new AvailabilityTemplate(day, day, weekdays, 12, 12));
+    assertThrows(
+        IllegalArgumentException.class, () -> new AvailabilityTemplate(day, day, Set.of(), 8, 12));
+    assertThrows(
+        IllegalArgumentException.class, () -> new AvailabilityTemplate(day, day, weekdays, 8, 25));
+  }
+
+  @Test
+  void testSlotIdsRoundTrip() {
+    var start = LocalDateTime.of(2025, 8, 8, 9, 0);
+
+    assertEquals("2025-08-08-09", SlotIds.of(start));
+    assertEquals(Optional.of(start), SlotIds.parse("2025-08-08-09"));
+    assertEquals(Optional.empty(), SlotIds.parse("bestslot"));
+  }
+}
@@ -0,0 +1,263 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.javasdk.JsonSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.application.ParticipantSlotEntity;
+import io.example.application.ParticipantSlotEventMigration;
+import io.example.application.RecoveryBenchmarkTest;
+import io.example.domain.Participant.ParticipantType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Compares the journal size and serialization time per event of the compact
+// event format with those of the full one, for booking events and for
+// participant-slot events, checks that the full format is still what code
+// from before the compact one wrote (and reads), and that both formats are
+// read. Times are only logged, the sizes are asserted. The tests that write
+// the compact format set the process-wide flag back afterwards.
+public class BookingEventEncodingBenchmarkTest {
+
+  private static final Logger log =
+      LoggerFactory.getLogger(BookingEventEncodingBenchmarkTest.class);
+
+  private static final String SLOT_ID = "2025-06-01-10";
+  private static final int ROUNDS = 20;
+
+  private final ObjectMapper json = JsonSupport.getObjectMapper();
+
+  private final List<BookingEvent> journal =
+      RecoveryBenchmarkTest.generateSlotJournal(10000, 0.5, new Random(42)).stream()
+          .map(event -> event.withSlotId(SLOT_ID))
+          .toList();
+
+  @AfterEach
+  void writeTheFullFormatAgain() {
+    EventFormat.setCompact(false);
+  }
+
+  // a participant-slot's journal as the entity writes it in each format:
+  // only its first event keeps the slot ID in the compact one
+  private final List<ParticipantSlotEntity.Event> participantJournal =
+      RecoveryBenchmarkTest.generateParticipantJournal(10000, 0.5, new Random(42));
+  private final List<ParticipantSlotEntity.Event> compactParticipantJournal =
+      participantJournal.stream()
+          .map(event -> event == participantJournal.getFirst() ? event : event.withSlotId(null))
+          .toList();
+
+  @Test
+  void testCompactEventsAreSmaller() throws Exception {
+    assertThat(compare("booking", journal, journal)).isLessThan(0.7);
+  }
+
+  @Test
+  void testCompactParticipantSlotEventsAreSmaller() throws Exception {
+    assertThat(compare("participant-slot", participantJournal, compactParticipantJournal))
+        .isLessThan(0.7);
+  }
+
+  @Test
+  void testTheFullFormatIsWhatVersionZeroWrote() {
+    for (BookingEvent event : journal.subList(0, 1000)) {
+      assertThat(json.valueToTree(event).toString())
+          .isEqualTo(json.valueToTree(versionZero(event)).toString());
+    }
+  }
+
+  @Test
+  void testVersionZeroEventsAreUpcast() throws Exception {
+    var migration = new BookingEventMigration();
+    for (BookingEvent event : journal.subList(0, 1000)) {
+      JsonNode stored = json.valueToTree(versionZero(event));
+      JsonNode upcast = migration.transform(0, stored);
+      BookingEvent read = json.treeToValue(upcast, event.getClass());
+
+      assertThat(read.withSlotId(SLOT_ID)).isEqualTo(event);
+    }
+  }
+
+  @Test
+  void testTheVersionFollowsTheFormatWrittenAndVersionOneIsAlwaysRead() {
+    var migration = new BookingEventMigration();
+    assertThat(migration.currentVersion()).isZero();
+    assertThat(migration.supportedForwardVersion()).isEqualTo(1);
+
+    EventFormat.setCompact(true);
+    assertThat(migration.currentVersion()).isEqualTo(1);
+  }
+
+  @Test
+  void testTheFullParticipantSlotFormatIsWhatVersionZeroWrote() {
+    for (ParticipantSlotEntity.Event event : participantJournal.subList(0, 1000)) {
+      Object versionZero =
+          switch (event) {
+            case ParticipantSlotEntity.Event.Booked e ->
+                new VersionZeroBooked(
+                    e.slotId(), e.participantId(), e.participantType(), e.bookingId());
+            case ParticipantSlotEntity.Event.Canceled e ->
+                new VersionZeroBooked(
+                    e.slotId(), e.participantId(), e.participantType(), e.bookingId());
+            case ParticipantSlotEntity.Event.MarkedAvailable e ->
+                new VersionZeroMarked(e.slotId(), e.participantId(), e.participantType());
+            case ParticipantSlotEntity.Event.UnmarkedAvailable e ->
+                new VersionZeroMarked(e.slotId(), e.participantId(), e.participantType());
+            case ParticipantSlotEntity.Event.Removed e ->
+                new VersionZeroMarked(e.slotId(), e.participantId(), e.participantType());
+          };
+      assertThat(json.valueToTree(event).toString())
+          .isEqualTo(json.valueToTree(versionZero).toString());
+    }
+  }
+
+  @Test
+  void testCompactParticipantSlotEventsRoundTripWithTheSlotIdFromTheSubject() throws Exception {
+    EventFormat.setCompact(true);
+    var event =
+        new ParticipantSlotEntity.Event.Booked(
+            SLOT_ID, "gb-2025", ParticipantType.AIRCRAFT, "booking-1");
+
+    JsonNode stored = json.valueToTree(event.withSlotId(null));
+    ParticipantSlotEntity.Event read =
+        json.treeToValue(stored, ParticipantSlotEntity.Event.Booked.class);
+
+    assertThat(stored.has("slotId")).isFalse();
+    assertThat(stored.get("participantType").asText()).isEqualTo("A");
+    // slot and participant IDs may both contain the separator
+    assertThat(read.withSlotIdFrom(SLOT_ID + "-gb-2025")).isEqualTo(event);
+    // full events keep theirs
+    assertThat(event.withSlotIdFrom("elsewhere-gb-2025")).isEqualTo(event);
+  }
+
+  @Test
+  void testParticipantSlotEventsAreVersionedLikeBookingEvents() {
+    var migration = new ParticipantSlotEventMigration();
+    assertThat(migration.currentVersion()).isZero();
+    assertThat(migration.supportedForwardVersion()).isEqualTo(1);
+
+    EventFormat.setCompact(true);
+    assertThat(migration.currentVersion()).isEqualTo(1);
+  }
+
+  @Test
+  void testCompactEventsRoundTripWithoutSlotId() throws Exception {
+    EventFormat.setCompact(true);
+    var event =
+        new BookingEvent.ParticipantBooked(SLOT_ID, "alice", ParticipantType.STUDENT, "booking-1");
+
+    JsonNode stored = json.valueToTree(event);
+    BookingEvent.ParticipantBooked read =
+        json.treeToValue(stored, BookingEvent.ParticipantBooked.class);
+
+    assertThat(stored.has("slotId")).isFalse();
+    assertThat(stored.get("participantType").asText()).isEqualTo("S");
+    assertThat(read.slotId()).isNull();
+    assertThat(read.withSlotId(SLOT_ID)).isEqualTo(event);
+  }
+
+  @Test
+  void testEitherFormatIsReadWhicheverIsWritten() throws Exception {
+    var event =
+        new BookingEvent.ParticipantCanceled(SLOT_ID, "gb", ParticipantType.AIRCRAFT, "booking-1");
+    JsonNode full = json.valueToTree(event);
+    EventFormat.setCompact(true);
+    JsonNode compact = json.valueToTree(event);
+
+    for (boolean compactWritten : List.of(false, true)) {
+      EventFormat.setCompact(compactWritten);
+      for (JsonNode stored : List.of(full, compact)) {
+        assertThat(
+                json.treeToValue(stored, BookingEvent.ParticipantCanceled.class)
+                    .withSlotId(SLOT_ID))
+            .isEqualTo(event);
+      }
+    }
+  }
+
+  @Test
+  void testArchivedSlotsKeepFullParticipantTypes() throws Exception {
+    EventFormat.setCompact(true);
+    var event =
+        new BookingEvent.SlotArchived(
+            SLOT_ID, List.of(new Participant("alice", ParticipantType.STUDENT)));
+
+    JsonNode stored = json.valueToTree(event);
+
+    assertThat(stored.has("slotId")).isFalse();
+    assertThat(stored.at("/participants/0/participantType").asText()).isEqualTo("STUDENT");
+    assertThat(json.treeToValue(stored, BookingEvent.SlotArchived.class).withSlotId(SLOT_ID))
+        .isEqualTo(event);
+  }
+
+  // The event as code from before the compact format serialized it (version 0)
+  private Object versionZero(BookingEvent event) {
+    return switch (event) {
+      case BookingEvent.ParticipantMarkedAvailable e ->
+          new VersionZeroMarked(e.slotId(), e.participantId(), e.participantType());
+      case BookingEvent.ParticipantUnmarkedAvailable e ->
+          new VersionZeroMarked(e.slotId(), e.participantId(), e.participantType());
+      case BookingEvent.ParticipantBooked e ->
+          new VersionZeroBooked(e.slotId(), e.participantId(), e.participantType(), e.bookingId());
+      case BookingEvent.ParticipantCanceled e ->
+          new VersionZeroBooked(e.slotId(), e.participantId(), e.participantType(), e.bookingId());
+      case BookingEvent.SlotArchived e -> new VersionZeroArchived(e.slotId(), e.participants());
+    };
+  }
+
+  // Logs the size and serialization time per event of a journal in both
+  // formats, and returns the size of the compact one relative to the full
+  private double compare(String name, List<?> full, List<?> compact) throws Exception {
+    // both share the mapper, so both are warmed up before either is timed
+    long fullBytes = bytes(full, false);
+    long compactBytes = bytes(compact, true);
+    time(full, false);
+    time(compact, true);
+    long fullNanos = time(full, false);
+    long compactNanos = time(compact, true);
+
+    log.info(
+        "{} {} events: full {} bytes/event in {} ns/event, compact {} bytes/event in {} ns/event",
+        full.size(),
+        name,
+        fullBytes / full.size(),
+        fullNanos / full.size(),
+        compactBytes / compact.size(),
+        compactNanos / compact.size());
+    return (double) compactBytes / fullBytes;
+  }
+
+  // Events are journaled one at a time
+  private long bytes(List<?> events, boolean compact) throws Exception {
+    EventFormat.setCompact(compact);
+    long bytes = 0;
+    for (Object event : events) bytes += json.writeValueAsBytes(event).length;
+    return bytes;
+  }
+
+  // Median time to serialize the whole journal, after as many warm-up rounds
+  private long time(List<?> events, boolean compact) throws Exception {
+    EventFormat.setCompact(compact);
+    long[] nanos = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS * 2; i++) {
+      long start = System.nanoTime();
+      for (Object event : events) json.writeValueAsBytes(event);
+      if (i >= ROUNDS) nanos[i - ROUNDS] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return nanos[ROUNDS / 2];
+  }
+
+  private record VersionZeroMarked(
+      String slotId, String participantId, ParticipantType participantType) {}
+
+  private record VersionZeroBooked(
+      String slotId, String participantId, ParticipantType participantType, String bookingId) {}
+
+  private record VersionZeroArchived(String slotId, List<Participant> participants) {}
+}
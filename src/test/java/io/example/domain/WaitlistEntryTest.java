@@ -0,0 +1,55 @@
+package io.example.domain;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.example.domain.Participant.ParticipantType;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class WaitlistEntryTest {
+
+  Timeslot slotWith(Participant... participants) {
+    Timeslot timeslot = Timeslot.empty();
+    for (Participant participant : participants) {
+      timeslot.available().add(participant);
+    }
+    return timeslot;
+  }
+
+  WaitlistEntry entry(String aircraftId, String instructorId) {
+    return new WaitlistEntry(
+        "wait-1",
+        "2025-08-08-09",
+        "Anna",
+        aircraftId,
+        instructorId,
+        Instant.EPOCH,
+        WaitlistEntry.Status.WAITING);
+  }
+
+  Participant anna = new Participant("Anna", ParticipantType.STUDENT);
+  Participant fiona = new Participant("Fiona", ParticipantType.INSTRUCTOR);
+  Participant gb = new Participant("GB", ParticipantType.AIRCRAFT);
+  Participant ga = new Participant("GA", ParticipantType.AIRCRAFT);
+
+  @Test
+  void testMatchesSpecificParticipantsOnlyWhenAvailable() {
+    assertEquals(
+        Optional.of(new WaitlistEntry.Match("GB", "Fiona")),
+        entry("GB", "Fiona").match(slotWith(anna, fiona, gb, ga)));
+    assertTrue(entry("GB", "Fiona").match(slotWith(anna, fiona, ga)).isEmpty());
+  }
+
+  @Test
+  void testMatchesAnyAircraftWithSmallestId() {
+    assertEquals(
+        Optional.of(new WaitlistEntry.Match("GA", "Fiona")),
+        entry(WaitlistEntry.ANY, "Fiona").match(slotWith(anna, fiona, gb, ga)));
+  }
+
+  @Test
+  void testNeverMatchesWithoutTheStudent() {
+    assertTrue(entry(WaitlistEntry.ANY, WaitlistEntry.ANY).match(slotWith(fiona, gb)).isEmpty());
+  }
+}